@@ -13,7 +13,7 @@ import rpc.turbo.benchmark.bean.User;
 import rpc.turbo.benchmark.service.UserService;
 import rpc.turbo.boot.EnableTurboClient;
 
-@SpringBootApplication(scanBasePackages = { "rpc.zhushimmer.benchmark.service", "rpc.zhushimmer.benchmark.client" })
+@SpringBootApplication(scanBasePackages = { "rpc.turbo.benchmark.service", "rpc.turbo.benchmark.client" })
 @EnableTurboClient
 public class TruboClientBootTest {
 
@@ -17,9 +17,11 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import rpc.turbo.loadbalance.AliasRandomLoadBalance;
 import rpc.turbo.loadbalance.LoadBalance;
 import rpc.turbo.loadbalance.RandomLoadBalance;
 import rpc.turbo.loadbalance.RoundRobinLoadBalance;
+import rpc.turbo.loadbalance.SmoothRoundRobinLoadBalance;
 import rpc.turbo.loadbalance.Weightable;
 
 @State(Scope.Benchmark)
@@ -35,6 +37,12 @@ public class LoadBalanceBenchmark {
 	private final LoadBalance<Weightable> randomLoadBalance100 = new RandomLoadBalance<>();
 	private final LoadBalance<Weightable> roundRobinLoadBalance100 = new RoundRobinLoadBalance<>();
 
+	// 500个服务，权重不相等
+	private final LoadBalance<Weightable> randomLoadBalance500 = new RandomLoadBalance<>();
+	private final LoadBalance<Weightable> roundRobinLoadBalance500 = new RoundRobinLoadBalance<>();
+	private final LoadBalance<Weightable> aliasRandomLoadBalance500 = new AliasRandomLoadBalance<>();
+	private final LoadBalance<Weightable> smoothRoundRobinLoadBalance500 = new SmoothRoundRobinLoadBalance<>();
+
 	public LoadBalanceBenchmark() {
 		List<Weightable> weightables = new ArrayList<>();
 		for (int i = 0; i < 1; i++) {
@@ -59,6 +67,16 @@ public class LoadBalanceBenchmark {
 
 		randomLoadBalance100.setWeightables(weightables);
 		roundRobinLoadBalance100.setWeightables(weightables);
+
+		weightables = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			weightables.add(new WeightBean(i, 50 + i % 100));
+		}
+
+		randomLoadBalance500.setWeightables(weightables);
+		roundRobinLoadBalance500.setWeightables(weightables);
+		aliasRandomLoadBalance500.setWeightables(weightables);
+		smoothRoundRobinLoadBalance500.setWeightables(weightables);
 	}
 
 	@Benchmark
@@ -109,9 +127,39 @@ public class LoadBalanceBenchmark {
 		return roundRobinLoadBalance100.select();
 	}
 
+	@Benchmark
+	@BenchmarkMode({ Mode.Throughput })
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Weightable randomLoadBalance500() {
+		return randomLoadBalance500.select();
+	}
+
+	@Benchmark
+	@BenchmarkMode({ Mode.Throughput })
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Weightable roundRobinLoadBalance500() {
+		return roundRobinLoadBalance500.select();
+	}
+
+	@Benchmark
+	@BenchmarkMode({ Mode.Throughput })
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Weightable aliasRandomLoadBalance500() {
+		return aliasRandomLoadBalance500.select();
+	}
+
+	@Benchmark
+	@BenchmarkMode({ Mode.Throughput })
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Weightable smoothRoundRobinLoadBalance500() {
+		return smoothRoundRobinLoadBalance500.select();
+	}
+
 	public static void main(String[] args) throws RunnerException {
 		LoadBalance<Weightable> randomLoadBalance100 = new RandomLoadBalance<>();
 		LoadBalance<Weightable> roundRobinLoadBalance100 = new RoundRobinLoadBalance<>();
+		LoadBalance<Weightable> aliasRandomLoadBalance100 = new AliasRandomLoadBalance<>();
+		LoadBalance<Weightable> smoothRoundRobinLoadBalance100 = new SmoothRoundRobinLoadBalance<>();
 
 		List<Weightable> weightables = new ArrayList<>();
 		for (int i = 0; i < 20; i++) {
@@ -120,6 +168,8 @@ public class LoadBalanceBenchmark {
 
 		randomLoadBalance100.setWeightables(weightables);
 		roundRobinLoadBalance100.setWeightables(weightables);
+		aliasRandomLoadBalance100.setWeightables(weightables);
+		smoothRoundRobinLoadBalance100.setWeightables(weightables);
 
 		Map<Integer, Integer> map = new TreeMap<>();
 		for (int i = 0; i < 1000000; i++) {
@@ -144,6 +194,28 @@ public class LoadBalanceBenchmark {
 		map.replaceAll((k, v) -> (int) Math.round(v / 5000D));
 		System.out.println("roundRobinLoadBalance100: " + map);
 
+		map = new TreeMap<>();
+		for (int i = 0; i < 1000000; i++) {
+			WeightBean weightBean = (WeightBean) aliasRandomLoadBalance100.select();
+
+			int count = map.getOrDefault(weightBean.index, 0) + 1;
+			map.put(weightBean.index, count);
+		}
+
+		map.replaceAll((k, v) -> (int) Math.round(v / 5000D));
+		System.out.println("aliasRandomLoadBalance100: " + map);
+
+		map = new TreeMap<>();
+		for (int i = 0; i < 1000000; i++) {
+			WeightBean weightBean = (WeightBean) smoothRoundRobinLoadBalance100.select();
+
+			int count = map.getOrDefault(weightBean.index, 0) + 1;
+			map.put(weightBean.index, count);
+		}
+
+		map.replaceAll((k, v) -> (int) Math.round(v / 5000D));
+		System.out.println("smoothRoundRobinLoadBalance100: " + map);
+
 		Options opt = new OptionsBuilder()//
 				.include(LoadBalanceBenchmark.class.getSimpleName())//
 				.warmupIterations(5)//
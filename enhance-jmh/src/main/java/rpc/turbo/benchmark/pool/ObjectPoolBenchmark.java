@@ -9,7 +9,6 @@ import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Scope;
-import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.runner.Runner;
@@ -17,9 +16,6 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
-import cn.nextop.lite.pool.Pool;
-import cn.nextop.lite.pool.PoolBuilder;
-
 @State(Scope.Benchmark)
 public class ObjectPoolBenchmark {
 	public static final int NCPU = Runtime.getRuntime().availableProcessors();
@@ -31,18 +27,6 @@ public class ObjectPoolBenchmark {
 	private final ConcurrentObjectPool<Object> concurrentObjectPool = new ConcurrentObjectPool<>(NCPU, producer);
 	private final ConcurrentObjectPool2<Object> concurrentObjectPool2 = new ConcurrentObjectPool2<>(NCPU, producer);
 
-	Pool<Object> litePool = new PoolBuilder<Object>()//
-			.local(true) // using thread local
-			.supplier(producer) //
-			.minimum(NCPU) //
-			.maximum(NCPU) //
-			.build("object pool");
-
-	@Setup
-	public void init() {
-		litePool.start();
-	}
-
 	@TearDown
 	public void close() {
 
@@ -70,12 +54,6 @@ public class ObjectPoolBenchmark {
 			e.printStackTrace();
 		}
 
-		try {
-			litePool.stop();
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-
 	}
 
 	@Benchmark
@@ -125,14 +103,6 @@ public class ObjectPoolBenchmark {
 		concurrentObjectPool2.release(obj);
 	}
 
-	@Benchmark
-	@BenchmarkMode({ Mode.Throughput })
-	@OutputTimeUnit(TimeUnit.MICROSECONDS)
-	public void litePool() {
-		Object obj = litePool.acquire();
-		litePool.release(obj);
-	}
-
 	public static void main(String[] args) throws RunnerException {
 		Options opt = new OptionsBuilder()//
 				.include(ObjectPoolBenchmark.class.getSimpleName())//
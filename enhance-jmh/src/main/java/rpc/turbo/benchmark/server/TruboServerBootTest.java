@@ -7,7 +7,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import rpc.turbo.benchmark.service.UserService;
 import rpc.turbo.boot.EnableTurboServer;
 
-@SpringBootApplication(scanBasePackages = { "rpc.zhushimmer.benchmark.service", "rpc.zhushimmer.benchmark.server" })
+@SpringBootApplication(scanBasePackages = { "rpc.turbo.benchmark.service", "rpc.turbo.benchmark.server" })
 @EnableTurboServer
 public class TruboServerBootTest {
 
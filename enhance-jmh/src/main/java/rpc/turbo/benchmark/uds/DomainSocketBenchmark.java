@@ -0,0 +1,118 @@
+package rpc.turbo.benchmark.uds;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakDetector.Level;
+import rpc.turbo.benchmark.service.UserService;
+import rpc.turbo.benchmark.service.UserServiceServerImpl;
+import rpc.turbo.client.TurboClient;
+import rpc.turbo.config.HostPort;
+import rpc.turbo.server.TurboServer;
+
+/**
+ * 同机部署时 loopback tcp 与 unix domain socket 的对比，需要在linux(epoll)下运行
+ * 
+ * @author zhushimmer
+ *
+ */
+@State(Scope.Benchmark)
+public class DomainSocketBenchmark {
+	public static final int CONCURRENCY = 32;
+
+	private static final String GROUP = "shop";
+	private static final String APP = "auth";
+	private static final HostPort SERVER_ADDRESS = new HostPort("127.0.0.1", 8090, "/tmp/turbo-benchmark.sock");
+
+	private final AtomicInteger counter = new AtomicInteger(0);
+
+	private TurboServer server;
+	private TurboClient tcpClient;
+	private TurboClient domainSocketClient;
+	private UserService tcpUserService;
+	private UserService domainSocketUserService;
+
+	@Setup
+	public void setup() throws Exception {
+		server = new TurboServer(GROUP, APP);
+		server.registerService(Map.of(UserService.class, new UserServiceServerImpl()));
+		server.startRpcServer(SERVER_ADDRESS);
+
+		tcpClient = new TurboClient();
+		tcpClient.addConnect(GROUP, APP, new HostPort(SERVER_ADDRESS.host, SERVER_ADDRESS.port));
+		tcpClient.register(UserService.class);
+		tcpUserService = tcpClient.getService(UserService.class);
+
+		domainSocketClient = new TurboClient();
+		domainSocketClient.addConnect(GROUP, APP, SERVER_ADDRESS);
+		domainSocketClient.register(UserService.class);
+		domainSocketUserService = domainSocketClient.getService(UserService.class);
+	}
+
+	@TearDown
+	public void close() throws IOException {
+		tcpClient.close();
+		domainSocketClient.close();
+		server.close();
+	}
+
+	@Benchmark
+	@BenchmarkMode({ Mode.Throughput })
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Object tcpGetUser() throws Exception {
+		return tcpUserService.getUser(counter.getAndIncrement()).join();
+	}
+
+	@Benchmark
+	@BenchmarkMode({ Mode.Throughput })
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Object domainSocketGetUser() throws Exception {
+		return domainSocketUserService.getUser(counter.getAndIncrement()).join();
+	}
+
+	@Benchmark
+	@BenchmarkMode({ Mode.SampleTime })
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Object tcpGetUserLatency() throws Exception {
+		return tcpUserService.getUser(counter.getAndIncrement()).join();
+	}
+
+	@Benchmark
+	@BenchmarkMode({ Mode.SampleTime })
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Object domainSocketGetUserLatency() throws Exception {
+		return domainSocketUserService.getUser(counter.getAndIncrement()).join();
+	}
+
+	public static void main(String[] args) throws Exception {
+		ResourceLeakDetector.setLevel(Level.DISABLED);
+
+		Options opt = new OptionsBuilder()//
+				.include(DomainSocketBenchmark.class.getSimpleName())//
+				.warmupIterations(3)//
+				.warmupTime(TimeValue.seconds(10))//
+				.measurementIterations(3)//
+				.measurementTime(TimeValue.seconds(10))//
+				.threads(CONCURRENCY)//
+				.forks(1)//
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -59,12 +59,7 @@ public class KryoSerializer extends Serializer {
 		ByteBufUtils.writeVarInt(byteBuf, request.getServiceId());
 		tracerSerializer.write(byteBuf, request.getTracer());
 
-		if (request.getMethodParam() == null) {
-			byteBuf.writeBoolean(false);
-		} else {
-			byteBuf.writeBoolean(true);
-			kryoContext().writeObject(byteBuf, request.getMethodParam());
-		}
+		writeMethodParam(byteBuf, request.getMethodParam());
 
 		int finishWriterIndex = byteBuf.writerIndex();
 		int length = finishWriterIndex - beginWriterIndex - TurboConstants.HEADER_FIELD_LENGTH;
@@ -82,18 +77,59 @@ public class KryoSerializer extends Serializer {
 		int requestId = byteBuf.readInt();
 		int serviceId = ByteBufUtils.readVarInt(byteBuf);
 		Tracer tracer = tracerSerializer.read(byteBuf);
-
-		MethodParam methodParam = null;
-		if (byteBuf.readBoolean()) {
-			Class<?> clazz = getMethodParamClass(serviceId);
-			methodParam = (MethodParam) kryoContext().readObject(byteBuf, clazz);
-		}
+		MethodParam methodParam = readMethodParam(byteBuf, serviceId);
 
 		Request request = RecycleRequest.newInstance(requestId, serviceId, tracer, methodParam);
 
 		return request;
 	}
 
+	@Override
+	public boolean isSupportedBatchFrame() {
+		return true;
+	}
+
+	@Override
+	public void writeBatchRequest(ByteBuf byteBuf, Request request) throws IOException {
+		final int beginWriterIndex = byteBuf.writerIndex();
+
+		byteBuf.writeInt(0);
+		byteBuf.writeInt(request.getRequestId());
+
+		writeMethodParam(byteBuf, request.getMethodParam());
+
+		int length = byteBuf.writerIndex() - beginWriterIndex - TurboConstants.HEADER_FIELD_LENGTH;
+		byteBuf.setInt(beginWriterIndex, length);
+
+		RecycleUtils.release(request);
+	}
+
+	@Override
+	public Request readBatchRequest(ByteBuf byteBuf, int serviceId, Tracer tracer) throws IOException {
+		int requestId = byteBuf.readInt();
+		MethodParam methodParam = readMethodParam(byteBuf, serviceId);
+
+		return RecycleRequest.newInstance(requestId, serviceId, tracer, methodParam);
+	}
+
+	private void writeMethodParam(ByteBuf byteBuf, MethodParam methodParam) throws IOException {
+		if (methodParam == null) {
+			byteBuf.writeBoolean(false);
+		} else {
+			byteBuf.writeBoolean(true);
+			kryoContext().writeObject(byteBuf, methodParam);
+		}
+	}
+
+	private MethodParam readMethodParam(ByteBuf byteBuf, int serviceId) throws IOException {
+		if (!byteBuf.readBoolean()) {
+			return null;
+		}
+
+		Class<?> clazz = getMethodParamClass(serviceId);
+		return (MethodParam) kryoContext().readObject(byteBuf, clazz);
+	}
+
 	public void writeResponse(ByteBuf byteBuf, Response response) throws IOException {
 		final int beginWriterIndex = byteBuf.writerIndex();
 
@@ -107,6 +143,7 @@ public class KryoSerializer extends Serializer {
 			byteBuf.writeByte(response.getStatusCode());
 			tracerSerializer.write(byteBuf, response.getTracer());
 			kryoContext().writeClassAndObject(byteBuf, response.getResult());
+			byteBuf.writeLong(response.getServerLoad());
 		} catch (Exception e) {
 			if (logger.isWarnEnabled()) {
 				logger.warn("kryo writeResponse error", e);
@@ -116,6 +153,7 @@ public class KryoSerializer extends Serializer {
 			byteBuf.writeByte(ResponseStatus.BAD_RESPONSE);
 			tracerSerializer.write(byteBuf, response.getTracer());
 			kryoContext().writeClassAndObject(byteBuf, e.getMessage());
+			byteBuf.writeLong(response.getServerLoad());
 		}
 
 		int finishWriterIndex = byteBuf.writerIndex();
@@ -140,6 +178,11 @@ public class KryoSerializer extends Serializer {
 
 		Response response = RecycleResponse.newInstance(requestId, statusCode, tracer, result);
 
+		// 老版本服务端没有serverLoad
+		if (byteBuf.isReadable(Long.BYTES)) {
+			response.setServerLoad(byteBuf.readLong());
+		}
+
 		return response;
 	}
 
@@ -89,19 +89,7 @@ public class ProtostuffSerializer extends Serializer {
 		ByteBufUtils.writeVarInt(byteBuf, request.getServiceId());
 		TRACER_SERIALIZER.write(byteBuf, request.getTracer());
 
-		ByteBufOutput output = getOrUpdate(OUTPUT_ATTACHMENT_INDEX, OUTPUT_SUPPLIER);
-		output.setByteBuf(byteBuf);
-
-		if (request.getMethodParam() == null) {
-			emptyMethodParamSchema.writeTo(output, null);
-		} else {
-			// serviceId 为服务端概念，相同的方法在不同的服务端 serviceId 会不相同，所以没法直接使用 serviceId 获取 schema
-			// 如果能够证明这里比较慢，可以考虑在 request 中加入 methodId，这个在客户端是唯一的
-			Class<? extends MethodParam> clazz = request.getMethodParam().getClass();
-			Schema<MethodParam> schema = schema(clazz);
-
-			schema.writeTo(output, request.getMethodParam());
-		}
+		writeMethodParam(byteBuf, request.getMethodParam());
 
 		int finishWriterIndex = byteBuf.writerIndex();
 		int length = finishWriterIndex - beginWriterIndex - TurboConstants.HEADER_FIELD_LENGTH;
@@ -119,23 +107,71 @@ public class ProtostuffSerializer extends Serializer {
 		int requestId = byteBuf.readInt();
 		int serviceId = ByteBufUtils.readVarInt(byteBuf);
 		Tracer tracer = TRACER_SERIALIZER.read(byteBuf);
+		MethodParam methodParam = readMethodParam(byteBuf, serviceId);
 
-		Schema<MethodParam> schema = schema(serviceId);
-		MethodParam methodParam = null;
+		Request request = RecycleRequest.newInstance(requestId, serviceId, tracer, methodParam);
 
-		if (EmptyMethodParam.class.equals(schema.typeClass())) {
-			methodParam = EmptyMethodParam.empty();
+		return request;
+	}
+
+	@Override
+	public boolean isSupportedBatchFrame() {
+		return true;
+	}
+
+	@Override
+	public void writeBatchRequest(ByteBuf byteBuf, Request request) throws IOException {
+		final int beginWriterIndex = byteBuf.writerIndex();
+
+		byteBuf.writeInt(0);
+		byteBuf.writeInt(request.getRequestId());
+
+		writeMethodParam(byteBuf, request.getMethodParam());
+
+		int length = byteBuf.writerIndex() - beginWriterIndex - TurboConstants.HEADER_FIELD_LENGTH;
+		byteBuf.setInt(beginWriterIndex, length);
+
+		RecycleUtils.release(request);
+	}
+
+	@Override
+	public Request readBatchRequest(ByteBuf byteBuf, int serviceId, Tracer tracer) throws IOException {
+		int requestId = byteBuf.readInt();
+		MethodParam methodParam = readMethodParam(byteBuf, serviceId);
+
+		return RecycleRequest.newInstance(requestId, serviceId, tracer, methodParam);
+	}
+
+	private void writeMethodParam(ByteBuf byteBuf, MethodParam methodParam) throws IOException {
+		ByteBufOutput output = getOrUpdate(OUTPUT_ATTACHMENT_INDEX, OUTPUT_SUPPLIER);
+		output.setByteBuf(byteBuf);
+
+		if (methodParam == null) {
+			emptyMethodParamSchema.writeTo(output, null);
 		} else {
-			ByteBufInput input = getOrUpdate(INPUT_ATTACHMENT_INDEX, INPUT_SUPPLIER);
-			input.setByteBuf(byteBuf, true);
+			// serviceId 为服务端概念，相同的方法在不同的服务端 serviceId 会不相同，所以没法直接使用 serviceId 获取 schema
+			// 如果能够证明这里比较慢，可以考虑在 request 中加入 methodId，这个在客户端是唯一的
+			Class<? extends MethodParam> clazz = methodParam.getClass();
+			Schema<MethodParam> schema = schema(clazz);
 
-			methodParam = schema.newMessage();
-			schema.mergeFrom(input, methodParam);
+			schema.writeTo(output, methodParam);
 		}
+	}
 
-		Request request = RecycleRequest.newInstance(requestId, serviceId, tracer, methodParam);
+	private MethodParam readMethodParam(ByteBuf byteBuf, int serviceId) throws IOException {
+		Schema<MethodParam> schema = schema(serviceId);
 
-		return request;
+		if (EmptyMethodParam.class.equals(schema.typeClass())) {
+			return EmptyMethodParam.empty();
+		}
+
+		ByteBufInput input = getOrUpdate(INPUT_ATTACHMENT_INDEX, INPUT_SUPPLIER);
+		input.setByteBuf(byteBuf, true);
+
+		MethodParam methodParam = schema.newMessage();
+		schema.mergeFrom(input, methodParam);
+
+		return methodParam;
 	}
 
 	public void writeResponse(ByteBuf byteBuf, Response response) throws IOException {
@@ -0,0 +1,157 @@
+package rpc.turbo.serialization.protostuff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import rpc.turbo.invoke.ServerInvokerFactory;
+import rpc.turbo.param.EmptyMethodParam;
+import rpc.turbo.param.MethodParam;
+import rpc.turbo.param.MethodParamClassResolver;
+import rpc.turbo.protocol.BatchRequest;
+import rpc.turbo.protocol.Request;
+import rpc.turbo.serialization.Serializer;
+import rpc.turbo.transport.client.codec.RequestListEncoder;
+import rpc.turbo.transport.client.future.FutureContainer;
+import rpc.turbo.transport.client.future.RequestWithFuture;
+import rpc.turbo.transport.server.rpc.codec.RequestDecoder;
+
+public class BatchFrameTest {
+
+	@Test
+	public void groupByServiceId() throws Exception {
+		List<RequestWithFuture> requestList = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			// 0,3,6,9: 7号方法批量；1,4,7: 7号方法非批量；2,5,8: 9号方法批量
+			requestList.add(request(i, i % 3 == 2 ? 9 : 7, i % 3 != 1, i == 4 || i == 6));
+		}
+
+		FutureContainer futureContainer = new FutureContainer();
+		List<Object> decoded = roundTrip(requestList, futureContainer);
+
+		assertEquals(5, decoded.size());
+		assertBatch(decoded.get(0), 7, 0, 3, 6, 9);
+		assertRequest(decoded.get(1), 7, 1);
+		assertBatch(decoded.get(2), 9, 2, 5, 8);
+		assertRequest(decoded.get(3), 7, 4);
+		assertRequest(decoded.get(4), 7, 7);
+
+		// 批量帧中的单向请求保留标记
+		assertTrue(((BatchRequest) decoded.get(0)).get(2).isOneWay());
+		assertFalse(((BatchRequest) decoded.get(0)).get(1).isOneWay());
+		assertTrue(((Request) decoded.get(3)).isOneWay());
+
+		// 单向请求写入后即完成，不等待响应
+		assertEquals(8, futureContainer.size());
+		assertTrue(requestList.get(4).getFuture().isDone());
+		assertTrue(requestList.get(6).getFuture().isDone());
+		assertFalse(requestList.get(0).getFuture().isDone());
+	}
+
+	@Test
+	public void singleBatchRequestAsPlainFrame() throws Exception {
+		List<RequestWithFuture> requestList = List.of(request(0, 7, true, false), request(1, 9, false, false));
+
+		List<Object> decoded = roundTrip(requestList, new FutureContainer());
+
+		assertEquals(2, decoded.size());
+		assertRequest(decoded.get(0), 7, 0);
+		assertRequest(decoded.get(1), 9, 1);
+	}
+
+	@Test
+	public void splitLargeBatch() throws Exception {
+		int count = 20_000;
+		List<RequestWithFuture> requestList = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			requestList.add(request(i, 7, true, false));
+		}
+
+		List<Object> decoded = roundTrip(requestList, new FutureContainer());
+
+		assertTrue(decoded.size() > 1, "batch body should be split");
+
+		int expectedId = 0;
+		for (Object message : decoded) {
+			BatchRequest batchRequest = (BatchRequest) message;
+			assertEquals(7, batchRequest.getServiceId());
+
+			for (int i = 0; i < batchRequest.size(); i++) {
+				assertEquals(expectedId++, batchRequest.get(i).getRequestId());
+			}
+		}
+
+		assertEquals(count, expectedId);
+	}
+
+	private static List<Object> roundTrip(List<RequestWithFuture> requestList, FutureContainer futureContainer) {
+		Serializer serializer = serializer();
+
+		EmbeddedChannel client = new EmbeddedChannel(new RequestListEncoder(serializer, futureContainer));
+		client.writeOutbound(requestList);
+		ByteBuf byteBuf = client.readOutbound();
+		assertNull(client.readOutbound());
+
+		EmbeddedChannel server = new EmbeddedChannel(new RequestDecoder(1024 * 1024, serializer));
+		server.writeInbound(byteBuf);
+
+		List<Object> decoded = new ArrayList<>();
+		for (Object message; (message = server.readInbound()) != null;) {
+			decoded.add(message);
+		}
+
+		return decoded;
+	}
+
+	private static RequestWithFuture request(int requestId, int serviceId, boolean batchFrame, boolean oneWay) {
+		Request request = new Request();
+		request.setRequestId(requestId);
+		request.setServiceId(serviceId);
+		request.setBatchFrame(batchFrame);
+		request.setOneWay(oneWay);
+
+		return new RequestWithFuture(request, new CompletableFuture<>(), Long.MAX_VALUE);
+	}
+
+	private static void assertBatch(Object message, int serviceId, int... requestIds) {
+		BatchRequest batchRequest = (BatchRequest) message;
+
+		assertEquals(serviceId, batchRequest.getServiceId());
+		assertEquals(requestIds.length, batchRequest.size());
+
+		for (int i = 0; i < requestIds.length; i++) {
+			assertEquals(requestIds[i], batchRequest.get(i).getRequestId());
+			assertEquals(serviceId, batchRequest.get(i).getServiceId());
+		}
+	}
+
+	private static void assertRequest(Object message, int serviceId, int requestId) {
+		Request request = (Request) message;
+
+		assertEquals(serviceId, request.getServiceId());
+		assertEquals(requestId, request.getRequestId());
+	}
+
+	private static Serializer serializer() {
+		Serializer serializer = new ProtostuffSerializer();
+
+		serializer.setClassResolver(new MethodParamClassResolver(new ServerInvokerFactory("test", "test")) {
+			@Override
+			public Class<? extends MethodParam> getMethodParamClass(int serviceId) {
+				return EmptyMethodParam.class;
+			}
+		});
+
+		return serializer;
+	}
+
+}
@@ -0,0 +1,156 @@
+package rpc.turbo.transport.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import rpc.turbo.config.HostPort;
+import rpc.turbo.invoke.ServerInvokerFactory;
+import rpc.turbo.param.EmptyMethodParam;
+import rpc.turbo.param.MethodParam;
+import rpc.turbo.param.MethodParamClassResolver;
+import rpc.turbo.protocol.Request;
+import rpc.turbo.protocol.Response;
+import rpc.turbo.protocol.ResponseStatus;
+import rpc.turbo.serialization.Serializer;
+import rpc.turbo.serialization.protostuff.ProtostuffSerializer;
+import rpc.turbo.transport.client.exception.ConnectionException;
+import rpc.turbo.transport.client.future.RequestWithFuture;
+import rpc.turbo.transport.server.rpc.codec.RequestDecoder;
+import rpc.turbo.transport.server.rpc.codec.ResponseEncoder;
+
+public class NettyClientConnectorTest {
+
+	private EventLoopGroup serverGroup;
+	private EventLoopGroup clientGroup;
+	private Channel serverChannel;
+	private NettyClientConnector connector;
+
+	private int requestId = 0;
+
+	@BeforeEach
+	public void start() throws Exception {
+		Serializer serializer = new ProtostuffSerializer();
+		serializer.setClassResolver(new MethodParamClassResolver(new ServerInvokerFactory("test", "test")) {
+			@Override
+			public Class<? extends MethodParam> getMethodParamClass(int serviceId) {
+				return EmptyMethodParam.class;
+			}
+		});
+
+		serverGroup = new NioEventLoopGroup(1);
+		serverChannel = new ServerBootstrap()//
+				.group(serverGroup)//
+				.channel(NioServerSocketChannel.class)//
+				.childHandler(new ChannelInitializer<Channel>() {
+					@Override
+					protected void initChannel(Channel ch) throws Exception {
+						ch.pipeline()//
+								.addLast(new RequestDecoder(1024 * 1024, serializer))//
+								.addLast(new ResponseEncoder(serializer))//
+								.addLast(new DelayedResponseHandler());
+					}
+				})//
+				.bind("127.0.0.1", 0).sync().channel();
+
+		int port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+
+		clientGroup = new NioEventLoopGroup(1);
+		// 1到2个连接，在途请求数达到1时扩容，空闲时立即缩容
+		connector = new NettyClientConnector(clientGroup, new ProtostuffSerializer(), new HostPort("127.0.0.1", port),
+				1, 2, 1, 0, false);
+		connector.connect();
+	}
+
+	@AfterEach
+	public void stop() throws Exception {
+		connector.close();
+		serverChannel.close().sync();
+		clientGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+		serverGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+	}
+
+	@Test
+	public void shrinkWithRequestsInFlight() throws Exception {
+		// 持续的慢请求使连接数增加到2
+		CompletableFuture<Response> slow = send(0, 3000);
+		waitConnectCount(2);
+
+		// 模拟已经选中了最后一个连接、还没来得及提交请求的调用方
+		final int lastIndex = connector.connectCount() - 1;
+		CompletableFuture<Response> inFlight = send(lastIndex, 300);
+
+		assertEquals(ResponseStatus.OK, slow.get(5, TimeUnit.SECONDS).getStatusCode());
+		waitConnectCount(1);
+
+		// 缩容后才提交到被移除的连接上，仍然要正常完成
+		CompletableFuture<Response> late = send(lastIndex, 0);
+
+		assertEquals(ResponseStatus.OK, inFlight.get(5, TimeUnit.SECONDS).getStatusCode());
+		assertEquals(ResponseStatus.OK, late.get(5, TimeUnit.SECONDS).getStatusCode());
+		assertEquals(ResponseStatus.OK, send(0, 0).get(5, TimeUnit.SECONDS).getStatusCode());
+
+		// 等待关闭后再提交到该连接，直接失败而不是一直等待
+		Thread.sleep(NettyClientConnector.SCALE_PERIOD_MILLIS * 2);
+
+		try {
+			send(lastIndex, 0).get(5, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof ConnectionException, e.getCause().toString());
+			return;
+		}
+
+		throw new AssertionError("request on a closed connection should fail");
+	}
+
+	private CompletableFuture<Response> send(int channelIndex, int delayMillis) {
+		Request request = new Request();
+		request.setRequestId(++requestId);
+		// 服务端按serviceId延迟返回
+		request.setServiceId(delayMillis);
+
+		CompletableFuture<Response> future = new CompletableFuture<>();
+		connector.send(channelIndex, new RequestWithFuture(request, future, Long.MAX_VALUE));
+
+		return future;
+	}
+
+	private void waitConnectCount(int connectCount) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10 * NettyClientConnector.SCALE_PERIOD_MILLIS;
+
+		while (connector.connectCount() != connectCount) {
+			assertTrue(System.currentTimeMillis() < deadline, "connectCount: " + connector.connectCount());
+			Thread.sleep(10);
+		}
+	}
+
+	private static class DelayedResponseHandler extends SimpleChannelInboundHandler<Request> {
+		@Override
+		protected void channelRead0(ChannelHandlerContext ctx, Request request) throws Exception {
+			Response response = new Response();
+			response.setRequestId(request.getRequestId());
+			response.setStatusCode(ResponseStatus.OK);
+			response.setResult("ok");
+
+			ctx.executor().schedule(() -> ctx.writeAndFlush(response), //
+					request.getServiceId(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+}
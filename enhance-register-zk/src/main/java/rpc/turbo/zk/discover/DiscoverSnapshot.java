@@ -0,0 +1,182 @@
+package rpc.turbo.zk.discover;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import rpc.turbo.config.HostPort;
+import rpc.turbo.config.server.Protocol;
+
+/**
+ * 服务列表的本地快照，zk不可用或者较慢时，客户端先使用快照中的服务启动
+ * 
+ * <pre>
+ * 格式: magic(int) version(byte) count(int) [host(utf) port(int) weight(int) domainSocket(utf) zone(utf)]*
+ * domainSocket、zone为空字符串表示无，version 1没有zone字段，仍然可以读取
+ * 目录默认为 ~/.turbo/discover，可以通过系统属性turbo.discover.snapshot.dir修改
+ * </pre>
+ * 
+ * @author zhushimmer
+ *
+ */
+final class DiscoverSnapshot {
+	private static final Log logger = LogFactory.getLog(DiscoverSnapshot.class);
+
+	private static final int MAGIC = 0x54445330;// TDS0
+	private static final byte VERSION = 2;
+	/** 没有zone字段的旧格式 */
+	private static final byte VERSION_1 = 1;
+
+	/** 合并保存的窗口，滚动发布时窗口内的多次变化只写一次文件 */
+	private static final long SAVE_DELAY_MILLIS = 1000;
+
+	/** 所有快照共享一个后台线程写文件，不占用zk的事件线程 */
+	private static final ScheduledExecutorService saveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "turbo-discover-snapshot");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Path path;
+	/** 等待保存的服务列表，只保留最新的一次 */
+	private final AtomicReference<Map<HostPort, Integer>> pending = new AtomicReference<>();
+
+	DiscoverSnapshot(String group, String app, Protocol protocol) {
+		String dir = System.getProperty("turbo.discover.snapshot.dir");
+
+		if (dir == null) {
+			dir = Paths.get(System.getProperty("user.home"), ".turbo", "discover").toString();
+		}
+
+		String fileName = (group + "_" + app + "_" + protocol).replaceAll("[^\\w.-]", "_") + ".snapshot";
+		this.path = Paths.get(dir, fileName);
+	}
+
+	/**
+	 * 读取快照，不存在或者损坏时返回空
+	 * 
+	 * @return
+	 */
+	Map<HostPort, Integer> load() {
+		if (!Files.exists(path)) {
+			return Collections.emptyMap();
+		}
+
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if (input.readInt() != MAGIC) {
+				throw new IOException("unknown snapshot format");
+			}
+
+			byte version = input.readByte();
+			if (version != VERSION && version != VERSION_1) {
+				throw new IOException("unknown snapshot version: " + version);
+			}
+
+			int count = input.readInt();
+			Map<HostPort, Integer> serverWithWeight = new HashMap<>(count * 2);
+
+			for (int i = 0; i < count; i++) {
+				String host = input.readUTF();
+				int port = input.readInt();
+				int weight = input.readInt();
+				String domainSocket = input.readUTF();
+				String zone = version == VERSION_1 ? null : input.readUTF();
+
+				// 空字符串在HostPort中视为无
+				HostPort hostPort = new HostPort(host, port, domainSocket, zone);
+
+				serverWithWeight.put(hostPort, weight);
+			}
+
+			return serverWithWeight;
+		} catch (Exception e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("读取服务快照失败: " + path, e);
+			}
+
+			return Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * 在后台线程中延迟保存，窗口内的多次调用只保存最后一次
+	 * 
+	 * @param serverWithWeight
+	 *            会被复制，调用方可以继续修改
+	 */
+	void saveLater(Map<HostPort, Integer> serverWithWeight) {
+		if (pending.getAndSet(new HashMap<>(serverWithWeight)) != null) {
+			return;// 已经在等待中
+		}
+
+		saveExecutor.schedule(this::flush, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 立即保存等待中的服务列表
+	 */
+	void flush() {
+		Map<HostPort, Integer> latest = pending.getAndSet(null);
+
+		if (latest != null) {
+			save(latest);
+		}
+	}
+
+	/**
+	 * 先写临时文件再原子替换，进程中途退出不会留下损坏的快照
+	 * 
+	 * @param serverWithWeight
+	 */
+	void save(Map<HostPort, Integer> serverWithWeight) {
+		Path tmp = path.resolveSibling(path.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+
+		try {
+			Files.createDirectories(path.getParent());
+
+			try (DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				output.writeInt(MAGIC);
+				output.writeByte(VERSION);
+				output.writeInt(serverWithWeight.size());
+
+				for (Map.Entry<HostPort, Integer> kv : serverWithWeight.entrySet()) {
+					HostPort hostPort = kv.getKey();
+
+					output.writeUTF(hostPort.host);
+					output.writeInt(hostPort.port);
+					output.writeInt(kv.getValue());
+					output.writeUTF(hostPort.domainSocket == null ? "" : hostPort.domainSocket);
+					output.writeUTF(hostPort.zone == null ? "" : hostPort.zone);
+				}
+			}
+
+			Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (Exception e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("保存服务快照失败: " + path, e);
+			}
+
+			try {
+				Files.deleteIfExists(tmp);
+			} catch (IOException ignore) {
+			}
+		}
+	}
+}
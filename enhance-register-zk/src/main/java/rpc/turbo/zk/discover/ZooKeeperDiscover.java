@@ -2,6 +2,7 @@ package rpc.turbo.zk.discover;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
@@ -30,10 +31,12 @@ public class ZooKeeperDiscover implements Discover {
 
 	private CuratorFramework client;
 	private ConcurrentArrayList<PathChildrenCache> watchers;
+	private ConcurrentArrayList<DiscoverSnapshot> snapshots;
 
 	@Override
 	public void init(List<HostPort> hostPorts) {
 		watchers = new ConcurrentArrayList<>();
+		snapshots = new ConcurrentArrayList<>();
 		String connectString = hostPorts.stream().map(i -> i.toString()).collect(Collectors.joining(","));
 		RetryPolicy retryPolicy = new ForeverRetryPolicy(1000, 60 * 1000);
 		client = CuratorFrameworkFactory.newClient(connectString, 1000 * 10, 1000 * 3, retryPolicy);
@@ -48,6 +51,24 @@ public class ZooKeeperDiscover implements Discover {
 		final String path = "/turbo/" + group + "/" + app + "/" + protocol;
 
 		final PathChildrenCache watcher = new PathChildrenCache(client, path, true);
+		final DiscoverSnapshot snapshot = new DiscoverSnapshot(group, app, protocol);
+		snapshots.add(snapshot);
+
+		// 先使用本地快照启动，zk完成初始化后再以zk为准
+		Map<HostPort, Integer> snapshotServerWithWeight = snapshot.load();
+		if (!snapshotServerWithWeight.isEmpty()) {
+			if (logger.isInfoEnabled()) {
+				logger.info("使用本地服务快照: " + path + ", " + snapshotServerWithWeight);
+			}
+
+			try {
+				listener.onChange(snapshotServerWithWeight);
+			} catch (Throwable t) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("Discover监听处理失败", t);
+				}
+			}
+		}
 
 		PathChildrenCacheListener pathChildrenCacheListener = new PathChildrenCacheListener() {
 			private final ConcurrentMap<HostPort, Integer> serverWithWeight = new ConcurrentHashMap<>();
@@ -74,6 +95,8 @@ public class ZooKeeperDiscover implements Discover {
 
 				case CHILD_ADDED: {
 					AddressWithWeight kv = new AddressWithWeight(event.getData().getData());
+					// HostPort的equals不包含domainSocket，先删除才能替换成最新的key
+					serverWithWeight.remove(kv.address);
 					serverWithWeight.put(kv.address, kv.weight);
 
 					if (logger.isInfoEnabled()) {
@@ -96,6 +119,7 @@ public class ZooKeeperDiscover implements Discover {
 
 				case CHILD_UPDATED: {
 					AddressWithWeight kv = new AddressWithWeight(event.getData().getData());
+					serverWithWeight.remove(kv.address);
 					serverWithWeight.put(kv.address, kv.weight);
 
 					if (logger.isInfoEnabled()) {
@@ -121,6 +145,8 @@ public class ZooKeeperDiscover implements Discover {
 							logger.warn("Discover监听处理失败", t);
 						}
 					}
+
+					snapshot.saveLater(serverWithWeight);
 				}
 			}
 		};
@@ -153,6 +179,12 @@ public class ZooKeeperDiscover implements Discover {
 
 		watchers = null;
 
+		for (int i = 0; i < snapshots.size(); i++) {
+			snapshots.get(i).flush();
+		}
+
+		snapshots = null;
+
 		client.close();
 		client = null;
 	}
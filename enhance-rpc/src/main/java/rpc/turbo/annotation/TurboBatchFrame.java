@@ -0,0 +1,23 @@
+package rpc.turbo.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * 批量帧，同一轮发送中该方法的多个请求打包为一个帧，共享serviceId和tracer，<br>
+ * 服务端对整个帧只查找一次invoker，各个请求完成后立即单独返回响应，不会互相等待，<br>
+ * 适合大量并发的小请求，服务端不支持时按普通请求发送
+ *
+ * @author zhushimmer
+ *
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({ METHOD })
+public @interface TurboBatchFrame {
+
+}
@@ -0,0 +1,50 @@
+package rpc.turbo.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * 服务端批量实现，短时间内到达的单参数请求合并为一次批量方法调用，再把结果分发回各个请求，<br>
+ * 可以声明在服务接口或者实现类的方法上，例如 getUser(long) 由 getUsers(long[]) 实现:
+ * 
+ * <pre>
+ * &#64;TurboBatched(method = "getUsers")
+ * CompletableFuture&lt;User&gt; getUser(long id);
+ * 
+ * // 参数为数组或者List，返回与参数顺序一致的List/数组，或者以参数为key的Map
+ * public CompletableFuture&lt;Map&lt;Long, User&gt;&gt; getUsers(long[] ids);
+ * </pre>
+ * 
+ * @author zhushimmer
+ *
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({ METHOD })
+public @interface TurboBatched {
+
+	/**
+	 * 实现类中批量方法的名称，只能有一个参数
+	 * 
+	 * @return
+	 */
+	String method();
+
+	/**
+	 * 收集请求的时间窗口，microseconds
+	 * 
+	 * @return
+	 */
+	long windowMicros() default 500;
+
+	/**
+	 * 单次批量调用的最大参数个数，达到后立即调用
+	 * 
+	 * @return
+	 */
+	int maxBatch() default 128;
+}
@@ -0,0 +1,49 @@
+package rpc.turbo.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * 客户端结果缓存，命中时不发起远程调用，<br>
+ * 仅用于幂等且返回值不会被修改的方法，缓存的是解码后的原始对象，不做复制
+ *
+ * @author zhushimmer
+ *
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({ METHOD })
+public @interface TurboClientCache {
+
+	/**
+	 * 写入后的有效时间，millseconds
+	 *
+	 * @return
+	 */
+	long ttl();
+
+	/**
+	 * 最大权重，默认每个结果的权重为1，即最大缓存数量
+	 *
+	 * @return
+	 */
+	long maxWeight() default 1024;
+
+	/**
+	 * 写入后超过该时间的命中会触发一次异步刷新，提前更新即将过期的结果，小于1时不启用
+	 *
+	 * @return
+	 */
+	long refreshAhead() default 0;
+
+	/**
+	 * 过期后仍然可以返回旧结果的时间，同时触发一次异步刷新，小于1时不启用
+	 *
+	 * @return
+	 */
+	long staleWhileRevalidate() default 0;
+}
@@ -0,0 +1,23 @@
+package rpc.turbo.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * 单向调用，服务端不返回响应，请求写出后返回的future即以null完成，<br>
+ * 适用于日志、埋点等不关心结果的方法，返回值类型建议为CompletableFuture&lt;Void&gt;，<br>
+ * 不经过超时、失败回退和过载重试，发送失败时future异常完成
+ * 
+ * @author zhushimmer
+ *
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({ METHOD })
+public @interface TurboOneWay {
+
+}
@@ -0,0 +1,24 @@
+package rpc.turbo.annotation;
+
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * 路由参数，方法使用一致性哈希选择服务器，相同key的调用总是发送到同一台服务器，<br>
+ * 服务器增减时只有少量key会迁移，适用于按用户分片、提高服务端本地缓存命中率的场景<br>
+ * key使用hashCode计算哈希，必须在不同进程中保持一致，如String、Long、Integer，为null时按普通方式选择<br>
+ * 该方法不使用配置的LoadBalance，而是使用LoadBalanceFactory#newKeyedLoadBalance，配置了zone时先选区域再在区域内哈希
+ * 
+ * @author zhushimmer
+ *
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({ PARAMETER })
+public @interface TurboRoutingKey {
+
+}
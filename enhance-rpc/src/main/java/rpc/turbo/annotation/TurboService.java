@@ -78,4 +78,36 @@ public @interface TurboService {
 	 */
 	String rest() default "";
 
+	/**
+	 * for METHOD and TYPE, 服务端最大并发数，小于1时不限制<br>
+	 * method上设置时该方法独占一个隔离舱，只在class上设置时该接口的所有方法共享一个隔离舱<br>
+	 * 用于防止慢方法耗尽服务端资源，拖垮其他方法
+	 * 
+	 * @return
+	 */
+	int maxConcurrency() default -1;
+
+	/**
+	 * for METHOD and TYPE, 达到maxConcurrency后允许排队等待的请求数，超过时立即拒绝<br>
+	 * 与maxConcurrency取自同一处声明
+	 * 
+	 * @return
+	 */
+	int maxQueue() default 0;
+
+	/**
+	 * for METHOD, 服务端结果缓存的过期时间，millseconds，小于1时不缓存<br>
+	 * 以方法参数为key，仅用于幂等且返回值不会被修改的方法
+	 * 
+	 * @return
+	 */
+	long cacheMillis() default 0;
+
+	/**
+	 * for METHOD, 服务端结果缓存的最大数量
+	 * 
+	 * @return
+	 */
+	int cacheSize() default 1024;
+
 }
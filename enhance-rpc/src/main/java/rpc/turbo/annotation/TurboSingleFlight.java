@@ -0,0 +1,22 @@
+package rpc.turbo.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * 客户端请求合并，相同参数的调用在前一次返回之前不再发送新的请求，而是共享同一个结果，<br>
+ * 仅用于幂等的读方法
+ * 
+ * @author zhushimmer
+ *
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({ METHOD })
+public @interface TurboSingleFlight {
+
+}
@@ -2,10 +2,14 @@ package rpc.turbo.client;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -18,10 +22,16 @@ import rpc.turbo.config.client.ClientConfig;
 import rpc.turbo.filter.RpcClientFilter;
 import rpc.turbo.invoke.FailoverInvokerFactory;
 import rpc.turbo.invoke.InvokerUtils;
+import rpc.turbo.param.EmptyMethodParam;
+import rpc.turbo.param.MethodParam;
+import rpc.turbo.param.MethodParamClassFactory;
 import rpc.turbo.remote.RemoteException;
 import rpc.turbo.remote.RemoteInterface;
 import rpc.turbo.remote.RemoteServiceFactory;
 import rpc.turbo.transport.client.App;
+import rpc.turbo.transport.client.BroadcastPolicy;
+import rpc.turbo.transport.client.BroadcastResult;
+import rpc.turbo.transport.client.SingleFlight;
 
 /**
  * 
@@ -46,7 +56,7 @@ public final class TurboClient implements Closeable {
 	}
 
 	public TurboClient(ClientConfig clientConfig) {
-		eventLoopGroup = EventLoopGroupHolder.get();
+		eventLoopGroup = EventLoopGroupHolder.get(clientConfig != null ? clientConfig.getEventLoop() : null);
 
 		if (clientConfig != null && clientConfig.getAppConfigList() != null) {
 			clientConfig.getAppConfigList().forEach(appConfig -> addConnect(appConfig));
@@ -196,6 +206,57 @@ public final class TurboClient implements Closeable {
 		return remoteServiceFactory.getService(clazz);
 	}
 
+	/**
+	 * 广播调用，并行调用所有提供该方法的服务器并按策略聚合结果，<br>
+	 * 适用于通知所有服务器失效缓存、分片查询等场景，服务必须先注册
+	 * 
+	 * @param method
+	 *            服务接口方法
+	 * @param policy
+	 *            聚合策略
+	 * @param args
+	 *            调用参数，与方法参数一一对应
+	 * @return
+	 */
+	public <T> CompletableFuture<BroadcastResult<T>> broadcast(Method method, BroadcastPolicy policy,
+			Object... args) {
+		Objects.requireNonNull(method, "method");
+
+		Object service = remoteServiceFactory.getService(method.getDeclaringClass());
+
+		if (service == null) {
+			throw new RemoteException("not register this service, " + method.getDeclaringClass().getName());
+		}
+
+		MethodParam methodParam;
+		if (method.getParameterCount() == 0) {
+			methodParam = EmptyMethodParam.empty();
+		} else {
+			try {
+				methodParam = MethodParamClassFactory.createClass(method)//
+						.getConstructor(method.getParameterTypes())//
+						.newInstance(args);
+			} catch (Exception e) {
+				throw new RemoteException(e);
+			}
+		}
+
+		App app = ((RemoteInterface) service).getApp();
+		return app.broadcast(method, methodParam, policy);
+	}
+
+	/**
+	 * 所有开启了请求合并的方法的统计
+	 * 
+	 * @return
+	 */
+	public List<SingleFlight> getSingleFlights() {
+		return appMap.keySet()//
+				.stream()//
+				.flatMap(app -> app.getSingleFlights().stream())//
+				.collect(Collectors.toList());
+	}
+
 	/**
 	 * 添加过滤器到最前面，最前面的会被最先执行
 	 * 
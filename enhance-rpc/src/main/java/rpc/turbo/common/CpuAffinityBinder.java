@@ -0,0 +1,62 @@
+package rpc.turbo.common;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * 将当前线程绑定到指定cpu，jdk本身不支持，需要借助第三方实现
+ * 
+ * @author zhushimmer
+ *
+ */
+@FunctionalInterface
+public interface CpuAffinityBinder {
+
+	/**
+	 * 将当前线程绑定到指定cpu
+	 * 
+	 * @param cpu
+	 * @return 是否绑定成功
+	 */
+	boolean bind(int cpu);
+
+	/**
+	 * 默认实现，classpath中存在net.openhft:affinity时使用其绑定，否则什么都不做
+	 * 
+	 * @return
+	 */
+	static CpuAffinityBinder openhftOrNoop() {
+		Log logger = LogFactory.getLog(CpuAffinityBinder.class);
+
+		try {
+			Class<?> affinityClass = Class.forName("net.openhft.affinity.Affinity");
+			MethodHandle setAffinity = MethodHandles.publicLookup()//
+					.findStatic(affinityClass, "setAffinity", MethodType.methodType(void.class, int.class));
+
+			return cpu -> {
+				try {
+					setAffinity.invokeExact(cpu);
+					return true;
+				} catch (Throwable t) {
+					if (logger.isWarnEnabled()) {
+						logger.warn("cpu affinity bind error, cpu: " + cpu, t);
+					}
+
+					return false;
+				}
+			};
+		} catch (Throwable t) {
+			return cpu -> {
+				if (logger.isDebugEnabled()) {
+					logger.debug("net.openhft:affinity not found, ignore cpu affinity: " + cpu);
+				}
+
+				return false;
+			};
+		}
+	}
+}
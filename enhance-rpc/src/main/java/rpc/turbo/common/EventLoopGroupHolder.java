@@ -1,5 +1,13 @@
 package rpc.turbo.common;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -8,9 +16,12 @@ import io.netty.channel.epoll.Epoll;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.NettyRuntime;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import rpc.turbo.config.EventLoopConfig;
 
 /**
- * jvm实例共享EventLoopGroup
+ * jvm实例共享EventLoopGroup，另外支持按名称创建独立的EventLoopGroup
  * 
  * @author zhushimmer
  *
@@ -23,16 +34,13 @@ public class EventLoopGroupHolder {
 	private static int reference = 0;
 	private static EventLoopGroup eventLoopGroup;
 
+	private static final Map<String, NamedEventLoopGroup> namedGroupMap = new HashMap<>();
+	private static volatile CpuAffinityBinder cpuAffinityBinder = CpuAffinityBinder.openhftOrNoop();
+
 	static {
-		if (Epoll.isAvailable()) {
-			eventLoopGroup = new EpollEventLoopGroup(NIO_THREAD_COUNT);
-			((EpollEventLoopGroup) eventLoopGroup).setIoRatio(99);
-		} else {
-			eventLoopGroup = new NioEventLoopGroup(NIO_THREAD_COUNT);
-			((NioEventLoopGroup) eventLoopGroup).setIoRatio(99);
-		}
+		eventLoopGroup = newEventLoopGroup(NIO_THREAD_COUNT, 99, null);
 
-		Runtime.getRuntime().addShutdownHook(new Thread(() -> close(), "eventLoopGroup-close-thread"));
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> closeAll(), "eventLoopGroup-close-thread"));
 	}
 
 	/**
@@ -50,33 +58,183 @@ public class EventLoopGroupHolder {
 	}
 
 	/**
-	 * 释放eventLoopGroup，内部使用引用计数，当计数为0时实际关闭
+	 * 获取独立的EventLoopGroup，相同name共享同一个实例，config为null时返回共享的EventLoopGroup，
+	 * 使用完毕必须执行{@link #release(EventLoopGroup)}
+	 * 
+	 * @param config
+	 * @return
+	 */
+	public synchronized static EventLoopGroup get(EventLoopConfig config) {
+		if (config == null) {
+			return get();
+		}
+
+		Objects.requireNonNull(config.getName(), "name");
+
+		NamedEventLoopGroup named = namedGroupMap.get(config.getName());
+
+		if (named == null) {
+			int threads = config.getThreads() > 0 ? config.getThreads() : NIO_THREAD_COUNT;
+			ThreadFactory threadFactory = new AffinityThreadFactory(config.getName(), config.getAffinity());
+			EventLoopGroup group = newEventLoopGroup(threads, config.getIoRatio(), threadFactory);
+
+			named = new NamedEventLoopGroup(config, group);
+			namedGroupMap.put(config.getName(), named);
+
+			if (logger.isInfoEnabled()) {
+				logger.info("创建独立 eventLoopGroup: " + config);
+			}
+		} else if (named.config.getThreads() != config.getThreads()
+				|| named.config.getIoRatio() != config.getIoRatio()) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("eventLoopGroup已存在，忽略新配置: " + config + ", 使用: " + named.config);
+			}
+		}
+
+		++named.reference;
+		return named.group;
+	}
+
+	/**
+	 * 释放eventLoopGroup，内部使用引用计数，当计数为0时实际关闭，只关闭被释放的那个EventLoopGroup
 	 * 
 	 * @param eventLoopGroup
 	 */
 	public synchronized static void release(EventLoopGroup eventLoopGroup) {
+		if (eventLoopGroup != null && eventLoopGroup != EventLoopGroupHolder.eventLoopGroup) {
+			for (Iterator<NamedEventLoopGroup> it = namedGroupMap.values().iterator(); it.hasNext();) {
+				NamedEventLoopGroup named = it.next();
+
+				if (named.group == eventLoopGroup) {
+					if (--named.reference == 0) {
+						it.remove();
+						shutdown(named.group, named.config.getName());
+					}
+
+					return;
+				}
+			}
+
+			return;
+		}
+
 		if (--reference == 0) {
 			close();
 		}
 	}
 
-	private synchronized static void close() {
-		if (eventLoopGroup == null) {
-			return;
+	/**
+	 * 设置cpu亲和性绑定实现，只对之后创建的独立EventLoopGroup生效
+	 * 
+	 * @param binder
+	 */
+	public static void setCpuAffinityBinder(CpuAffinityBinder binder) {
+		cpuAffinityBinder = Objects.requireNonNull(binder, "binder");
+	}
+
+	/**
+	 * eventLoop的数量
+	 * 
+	 * @param eventLoopGroup
+	 * @return
+	 */
+	public static int eventLoopCount(EventLoopGroup eventLoopGroup) {
+		int count = 0;
+
+		for (EventExecutor executor : eventLoopGroup) {
+			if (executor != null) {
+				count++;
+			}
+		}
+
+		return Math.max(count, 1);
+	}
+
+	private static EventLoopGroup newEventLoopGroup(int threads, int ioRatio, ThreadFactory threadFactory) {
+		if (Epoll.isAvailable()) {
+			EpollEventLoopGroup group = new EpollEventLoopGroup(threads, threadFactory);
+			group.setIoRatio(ioRatio);
+			return group;
+		} else {
+			NioEventLoopGroup group = new NioEventLoopGroup(threads, threadFactory);
+			group.setIoRatio(ioRatio);
+			return group;
 		}
+	}
 
+	private static void shutdown(EventLoopGroup group, String name) {
 		try {
-			eventLoopGroup.shutdownGracefully().syncUninterruptibly();
+			group.shutdownGracefully().syncUninterruptibly();
 
 			if (logger.isInfoEnabled()) {
-				logger.info("成功关闭 eventLoopGroup");
+				logger.info("成功关闭 eventLoopGroup: " + name);
 			}
 		} catch (Throwable t) {
 			if (logger.isWarnEnabled()) {
-				logger.warn("eventLoopGroup shutdown error", t);
+				logger.warn("eventLoopGroup shutdown error: " + name, t);
 			}
 		}
+	}
+
+	/**
+	 * jvm退出时关闭所有的EventLoopGroup
+	 */
+	private synchronized static void closeAll() {
+		namedGroupMap.forEach((name, named) -> shutdown(named.group, name));
+		namedGroupMap.clear();
+
+		close();
+	}
+
+	/**
+	 * 关闭共享的EventLoopGroup，独立的EventLoopGroup由各自的引用计数管理
+	 */
+	private synchronized static void close() {
+		if (eventLoopGroup == null) {
+			return;
+		}
+
+		shutdown(eventLoopGroup, "default");
 
 		eventLoopGroup = null;
 	}
+
+	private static final class NamedEventLoopGroup {
+		private final EventLoopConfig config;
+		private final EventLoopGroup group;
+		private int reference = 0;
+
+		private NamedEventLoopGroup(EventLoopConfig config, EventLoopGroup group) {
+			this.config = config;
+			this.group = group;
+		}
+	}
+
+	/**
+	 * 线程启动时按顺序绑定到affinity中的cpu上
+	 */
+	private static final class AffinityThreadFactory extends DefaultThreadFactory {
+		private final List<Integer> affinity;
+		private final AtomicInteger index = new AtomicInteger();
+
+		private AffinityThreadFactory(String name, List<Integer> affinity) {
+			super(name);
+			this.affinity = affinity;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			if (affinity == null || affinity.isEmpty()) {
+				return super.newThread(runnable);
+			}
+
+			int cpu = affinity.get(index.getAndIncrement() % affinity.size());
+			CpuAffinityBinder binder = cpuAffinityBinder;
+
+			return super.newThread(() -> {
+				binder.bind(cpu);
+				runnable.run();
+			});
+		}
+	}
 }
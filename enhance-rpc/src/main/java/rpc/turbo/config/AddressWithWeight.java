@@ -5,7 +5,14 @@ import java.nio.charset.StandardCharsets;
 import rpc.turbo.config.HostPort;
 import rpc.turbo.util.UnsafeStringUtils;
 
+/**
+ * 格式为 host:port@weight，存在domainSocket时为 host:port@weight@unix=/path，<br>
+ * 存在zone时追加 @zone=hz-a，老版本只读取前两段
+ */
 public class AddressWithWeight {
+	private static final String DOMAIN_SOCKET_PREFIX = "unix=";
+	private static final String ZONE_PREFIX = "zone=";
+
 	public final HostPort address;
 	public final int weight;
 
@@ -18,7 +25,16 @@ public class AddressWithWeight {
 		String str = new String(bytes, StandardCharsets.UTF_8);
 		String[] array = str.split("@");
 
-		this.address = new HostPort(array[0]);
+		HostPort hostPort = new HostPort(array[0]);
+		for (int i = 2; i < array.length; i++) {
+			if (array[i].startsWith(DOMAIN_SOCKET_PREFIX)) {
+				hostPort = hostPort.withDomainSocket(array[i].substring(DOMAIN_SOCKET_PREFIX.length()));
+			} else if (array[i].startsWith(ZONE_PREFIX)) {
+				hostPort = hostPort.withZone(array[i].substring(ZONE_PREFIX.length()));
+			}
+		}
+
+		this.address = hostPort;
 		this.weight = Integer.parseInt(array[1]);
 	}
 
@@ -28,7 +44,17 @@ public class AddressWithWeight {
 
 	@Override
 	public String toString() {
-		return address + "@" + weight;
+		String str = address + "@" + weight;
+
+		if (address.domainSocket != null) {
+			str += "@" + DOMAIN_SOCKET_PREFIX + address.domainSocket;
+		}
+
+		if (address.zone != null) {
+			str += "@" + ZONE_PREFIX + address.zone;
+		}
+
+		return str;
 	}
 
 }
@@ -0,0 +1,110 @@
+package rpc.turbo.config;
+
+import static rpc.turbo.config.ConfigUtils.getIntOrElse;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.typesafe.config.Config;
+
+/**
+ * 独立EventLoopGroup配置，相同name的配置共享同一个EventLoopGroup
+ *
+ * @author zhushimmer
+ *
+ */
+public class EventLoopConfig {
+
+	/** 名称，相同名称共享同一个EventLoopGroup，同时作为线程名前缀 */
+	private String name;
+	/** 线程数量，小于1时为cpu核数的2倍 */
+	private int threads = 0;
+	/** io任务所占时间比例，1~100 */
+	private int ioRatio = 99;
+	/** cpu亲和性提示，线程按顺序轮流绑定到这些cpu上，为空时不绑定 */
+	private List<Integer> affinity = Collections.emptyList();
+
+	public EventLoopConfig() {
+	}
+
+	public EventLoopConfig(String name, int threads) {
+		this.name = name;
+		this.threads = threads;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getIoRatio() {
+		return ioRatio;
+	}
+
+	public void setIoRatio(int ioRatio) {
+		if (ioRatio <= 0 || ioRatio > 100) {
+			throw new ConfigException("ioRatio: " + ioRatio + " (expected: 0 < ioRatio <= 100)");
+		}
+
+		this.ioRatio = ioRatio;
+	}
+
+	public List<Integer> getAffinity() {
+		return affinity;
+	}
+
+	public void setAffinity(List<Integer> affinity) {
+		this.affinity = affinity == null ? Collections.emptyList() : affinity;
+	}
+
+	@Override
+	public String toString() {
+		return "EventLoopConfig{" + //
+				"name='" + name + '\'' + //
+				", threads=" + threads + //
+				", ioRatio=" + ioRatio + //
+				", affinity=" + affinity + //
+				'}';
+	}
+
+	/**
+	 *
+	 * @param config
+	 * @param defaultName
+	 *            未配置name时使用的名称
+	 * @return
+	 */
+	public static EventLoopConfig parse(Config config, String defaultName) {
+		Objects.requireNonNull(config, "config");
+
+		String name = config.hasPath("name") ? config.getString("name") : defaultName;
+
+		if (name == null || name.isEmpty()) {
+			throw new ConfigException("eventLoop name must not be empty");
+		}
+
+		EventLoopConfig eventLoopConfig = new EventLoopConfig();
+		eventLoopConfig.setName(name);
+		eventLoopConfig.setThreads(getIntOrElse(config, "threads", 0));
+		eventLoopConfig.setIoRatio(getIntOrElse(config, "ioRatio", 99));
+
+		if (config.hasPath("affinity")) {
+			eventLoopConfig.setAffinity(config.getIntList("affinity"));
+		}
+
+		return eventLoopConfig;
+	}
+
+}
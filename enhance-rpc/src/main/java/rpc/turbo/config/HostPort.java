@@ -3,8 +3,17 @@ package rpc.turbo.config;
 import java.util.ArrayList;
 
 public final class HostPort {
+	/** 文本格式中unix domain socket路径的前缀，如 127.0.0.1:8080;unix=/tmp/turbo.sock */
+	public static final String DOMAIN_SOCKET_PREFIX = ";unix=";
+	/** 文本格式中所在区域的前缀，如 127.0.0.1:8080;zone=hz-a */
+	public static final String ZONE_PREFIX = ";zone=";
+
 	public final String host;
 	public final int port;
+	/** 同机部署时可用的unix domain socket路径，可空，不参与equals和hashCode */
+	public final String domainSocket;
+	/** 所在区域(机房、可用区)，可空，不参与equals和hashCode */
+	public final String zone;
 
 	private int hash;
 
@@ -22,16 +31,73 @@ public final class HostPort {
 	}
 
 	public HostPort(String host, int port) {
+		this(host, port, null);
+	}
+
+	public HostPort(String host, int port, String domainSocket) {
+		this(host, port, domainSocket, null);
+	}
+
+	public HostPort(String host, int port, String domainSocket, String zone) {
 		this.host = host;
 		this.port = port;
+		this.domainSocket = domainSocket == null || domainSocket.isEmpty() ? null : domainSocket;
+		this.zone = zone == null || zone.isEmpty() ? null : zone;
 	}
 
+	/**
+	 * 
+	 * @param hostAndPort
+	 *            host:port 或者 host:port;unix=/path/to/socket;zone=hz-a，附加段的顺序不限
+	 */
 	public HostPort(String hostAndPort) {
+		String domainSocket = null;
+		String zone = null;
+
+		int attributeIndex = hostAndPort.indexOf(';');
+
+		if (attributeIndex > 0) {
+			String[] attributes = hostAndPort.substring(attributeIndex).split("(?=;)");
+
+			for (String attribute : attributes) {
+				if (attribute.startsWith(DOMAIN_SOCKET_PREFIX)) {
+					domainSocket = attribute.substring(DOMAIN_SOCKET_PREFIX.length()).trim();
+				} else if (attribute.startsWith(ZONE_PREFIX)) {
+					zone = attribute.substring(ZONE_PREFIX.length()).trim();
+				}
+			}
+
+			hostAndPort = hostAndPort.substring(0, attributeIndex);
+		}
+
+		this.domainSocket = domainSocket == null || domainSocket.isEmpty() ? null : domainSocket;
+		this.zone = zone == null || zone.isEmpty() ? null : zone;
+
 		String[] array = hostAndPort.split(":");
 		this.host = array[0].trim();
 		this.port = Integer.parseInt(array[1].trim());
 	}
 
+	/**
+	 * 
+	 * @param domainSocket
+	 *            unix domain socket路径
+	 * @return 相同host、port，带有domainSocket的HostPort
+	 */
+	public HostPort withDomainSocket(String domainSocket) {
+		return new HostPort(host, port, domainSocket, zone);
+	}
+
+	/**
+	 * 
+	 * @param zone
+	 *            所在区域
+	 * @return 相同host、port，带有zone的HostPort
+	 */
+	public HostPort withZone(String zone) {
+		return new HostPort(host, port, domainSocket, zone);
+	}
+
 	@Override
 	public int hashCode() {
 		if (hash != 0) {
@@ -72,4 +138,26 @@ public final class HostPort {
 		return host + ":" + port;
 	}
 
+	/**
+	 * 
+	 * @return 包含domainSocket、zone的文本格式，可以被{@link #HostPort(String)}解析
+	 */
+	public String toFullString() {
+		if (domainSocket == null && zone == null) {
+			return toString();
+		}
+
+		StringBuilder builder = new StringBuilder(64).append(host).append(':').append(port);
+
+		if (domainSocket != null) {
+			builder.append(DOMAIN_SOCKET_PREFIX).append(domainSocket);
+		}
+
+		if (zone != null) {
+			builder.append(ZONE_PREFIX).append(zone);
+		}
+
+		return builder.toString();
+	}
+
 }
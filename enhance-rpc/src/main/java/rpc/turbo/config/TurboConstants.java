@@ -11,6 +11,39 @@ public class TurboConstants {
 	 */
 	public static final int MAX_FRAME_LENGTH = 1024 * 1024 * 2;
 
+	/**
+	 * 批量请求帧标记，放在长度字段的高位，帧体为共享的serviceId、tracer和多个子请求帧<br>
+	 * 客户端只对声明了{@link #CAPABILITY_BATCH_FRAME}的服务端使用
+	 */
+	public static final int BATCH_FRAME_FLAG = 1 << 30;
+
+	/**
+	 * 单向请求标记，放在请求帧长度字段的高位，服务端不返回响应<br>
+	 * 旧版本服务端不识别，会当作超长帧断开连接，客户端只对声明了{@link #CAPABILITY_ONE_WAY_FRAME}的服务端使用
+	 */
+	public static final int ONE_WAY_FRAME_FLAG = 1 << 29;
+
+	/**
+	 * 服务端支持{@link #ONE_WAY_FRAME_FLAG}的能力标记，放在getMethodRegisterMap的结果中，不对应任何方法，<br>
+	 * 旧版本客户端按方法名查找serviceId，会忽略该项
+	 */
+	public static final String CAPABILITY_ONE_WAY_FRAME = "$capability#oneWayFrame";
+
+	/**
+	 * 服务端支持{@link #BATCH_FRAME_FLAG}的能力标记，同{@link #CAPABILITY_ONE_WAY_FRAME}
+	 */
+	public static final String CAPABILITY_BATCH_FRAME = "$capability#batchFrame";
+
+	/**
+	 * 去掉标记后的长度
+	 */
+	public static final int FRAME_LENGTH_MASK = ONE_WAY_FRAME_FLAG - 1;
+
+	/**
+	 * 批量帧超过该大小后不再追加，新开一个批量帧
+	 */
+	public static final int MAX_BATCH_BODY_LENGTH = 1024 * 64;
+
 	/**
 	 * 请求过期扫描间隔，毫秒
 	 */
@@ -1,5 +1,6 @@
 package rpc.turbo.config.client;
 
+import static rpc.turbo.config.ConfigUtils.getBooleanOrElse;
 import static rpc.turbo.config.ConfigUtils.getIntOrElse;
 import static rpc.turbo.config.ConfigUtils.getStringOrElse;
 
@@ -17,6 +18,7 @@ import rpc.turbo.discover.Discover;
 import rpc.turbo.loadbalance.LoadBalanceFactory;
 import rpc.turbo.loadbalance.RoundRobinLoadBalanceFactory;
 import rpc.turbo.loadbalance.Weightable;
+import rpc.turbo.transport.shm.ShmConnectionFile;
 
 public class AppConfig {
 
@@ -30,6 +32,32 @@ public class AppConfig {
 	private int connectErrorThreshold = 2 * serverErrorThreshold / connectPerServer;
 	private LoadBalanceFactory<Weightable> loadBalanceFactory = new RoundRobinLoadBalanceFactory<>();
 	private Discover discover;
+	/** 当前线程为某个连接所属的eventLoop时优先使用该连接，发送和完成都在同一线程上 */
+	private boolean eventLoopAffinity = false;
+	/** 服务器在同一jvm中时直接调用，不经过序列化和网络 */
+	private boolean inJvm = false;
+	/** inJvm调用时通过序列化复制请求和响应，保持与远程调用一致的隔离语义 */
+	private boolean inJvmCopyOnCall = false;
+	/** 同机服务器开启共享内存时通过共享内存通信 */
+	private boolean sharedMemory = false;
+	/** 共享内存每个方向的缓冲区大小，必须为2的幂 */
+	private int sharedMemoryCapacity = ShmConnectionFile.DEFAULT_CAPACITY;
+	/** 服务发现变化的合并窗口，窗口内的多次变化只处理最后一次，小于1时不合并 */
+	private int discoverDebounceMillis = 50;
+	/** 新加入或者被抢救回来的服务，权重在该时间内从10%线性增加到100%，小于1时不启用 */
+	private int slowStartMillis = 0;
+	/** 根据服务端随响应返回的负载动态调整权重，不需要写注册中心 */
+	private boolean loadAwareWeight = false;
+	/** 客户端所在区域，设置后优先调用同区域的服务器，同区域不健康时按比例溢出到其他区域 */
+	private String zone = null;
+	/** 每个服务器最多的连接数，大于connectPerServer时连接数随负载在两者之间伸缩 */
+	private int maxConnectPerServer = 0;
+	/** 平均每个连接的在途请求数持续超过该值时增加连接 */
+	private int connectGrowInflight = 512;
+	/** 负载持续低于扩容阈值一半超过该时间后减少一个连接 */
+	private int connectIdleMillis = 60000;
+	/** 建立连接时只等待第一个服务可用，其余服务连接完成后陆续加入 */
+	private boolean connectWaitFirst = false;
 
 	public String getGroup() {
 		return group;
@@ -111,6 +139,118 @@ public class AppConfig {
 		this.discover = discover;
 	}
 
+	public boolean isEventLoopAffinity() {
+		return eventLoopAffinity;
+	}
+
+	public void setEventLoopAffinity(boolean eventLoopAffinity) {
+		this.eventLoopAffinity = eventLoopAffinity;
+	}
+
+	public boolean isInJvm() {
+		return inJvm;
+	}
+
+	public void setInJvm(boolean inJvm) {
+		this.inJvm = inJvm;
+	}
+
+	public boolean isInJvmCopyOnCall() {
+		return inJvmCopyOnCall;
+	}
+
+	public void setInJvmCopyOnCall(boolean inJvmCopyOnCall) {
+		this.inJvmCopyOnCall = inJvmCopyOnCall;
+	}
+
+	public boolean isSharedMemory() {
+		return sharedMemory;
+	}
+
+	public void setSharedMemory(boolean sharedMemory) {
+		this.sharedMemory = sharedMemory;
+	}
+
+	public int getSharedMemoryCapacity() {
+		return sharedMemoryCapacity;
+	}
+
+	public void setSharedMemoryCapacity(int sharedMemoryCapacity) {
+		if (Integer.bitCount(sharedMemoryCapacity) != 1) {
+			throw new ConfigException("sharedMemoryCapacity must be power of 2: " + sharedMemoryCapacity);
+		}
+
+		this.sharedMemoryCapacity = sharedMemoryCapacity;
+	}
+
+	public int getDiscoverDebounceMillis() {
+		return discoverDebounceMillis;
+	}
+
+	public void setDiscoverDebounceMillis(int discoverDebounceMillis) {
+		this.discoverDebounceMillis = discoverDebounceMillis;
+	}
+
+	public int getSlowStartMillis() {
+		return slowStartMillis;
+	}
+
+	public void setSlowStartMillis(int slowStartMillis) {
+		this.slowStartMillis = slowStartMillis;
+	}
+
+	public boolean isLoadAwareWeight() {
+		return loadAwareWeight;
+	}
+
+	public void setLoadAwareWeight(boolean loadAwareWeight) {
+		this.loadAwareWeight = loadAwareWeight;
+	}
+
+	/**
+	 * 
+	 * @return 不小于connectPerServer
+	 */
+	public int getMaxConnectPerServer() {
+		return Math.max(maxConnectPerServer, connectPerServer);
+	}
+
+	public void setMaxConnectPerServer(int maxConnectPerServer) {
+		this.maxConnectPerServer = maxConnectPerServer;
+	}
+
+	public int getConnectGrowInflight() {
+		return connectGrowInflight;
+	}
+
+	public void setConnectGrowInflight(int connectGrowInflight) {
+		this.connectGrowInflight = connectGrowInflight;
+	}
+
+	public int getConnectIdleMillis() {
+		return connectIdleMillis;
+	}
+
+	public void setConnectIdleMillis(int connectIdleMillis) {
+		this.connectIdleMillis = connectIdleMillis;
+	}
+
+	public boolean isConnectWaitFirst() {
+		return connectWaitFirst;
+	}
+
+	public void setConnectWaitFirst(boolean connectWaitFirst) {
+		this.connectWaitFirst = connectWaitFirst;
+	}
+
+	public String getZone() {
+		return zone;
+	}
+
+	public void setZone(String zone) {
+		this.zone = zone;
+	}
+
 	@Override
 	public String toString() {
 		return "AppConfig{" + //
@@ -119,10 +259,23 @@ public class AppConfig {
 				", globalTimeout=" + globalTimeout + //
 				", maxRequestWait=" + maxRequestWait + //
 				", connectPerServer=" + connectPerServer + //
+				", maxConnectPerServer=" + getMaxConnectPerServer() + //
+				", connectGrowInflight=" + connectGrowInflight + //
+				", connectIdleMillis=" + connectIdleMillis + //
+				", connectWaitFirst=" + connectWaitFirst + //
 				", serverErrorThreshold=" + serverErrorThreshold + //
 				", connectErrorThreshold=" + connectErrorThreshold + //
 				", loadBalanceFactory=" + loadBalanceFactory.getClass().getName() + //
 				", discover=" + discover.getClass().getName() + //
+				", eventLoopAffinity=" + eventLoopAffinity + //
+				", inJvm=" + inJvm + //
+				", inJvmCopyOnCall=" + inJvmCopyOnCall + //
+				", sharedMemory=" + sharedMemory + //
+				", sharedMemoryCapacity=" + sharedMemoryCapacity + //
+				", discoverDebounceMillis=" + discoverDebounceMillis + //
+				", slowStartMillis=" + slowStartMillis + //
+				", loadAwareWeight=" + loadAwareWeight + //
+				", zone=" + zone + //
 				'}';
 	}
 
@@ -156,9 +309,22 @@ public class AppConfig {
 		int globalTimeout = getIntOrElse(config, "globalTimeout", 0);
 		int maxRequestWait = getIntOrElse(config, "maxRequestWait", 10000);
 		int connectPerServer = getIntOrElse(config, "connectPerServer", 1);
+		int maxConnectPerServer = getIntOrElse(config, "maxConnectPerServer", connectPerServer);
+		int connectGrowInflight = getIntOrElse(config, "connectGrowInflight", 512);
+		int connectIdleMillis = getIntOrElse(config, "connectIdleMillis", 60000);
+		boolean connectWaitFirst = getBooleanOrElse(config, "connectWaitFirst", false);
 		int serverErrorThreshold = getIntOrElse(config, "serverErrorThreshold", 16);
 		int connectErrorThreshold = getIntOrElse(config, "connectErrorThreshold",
 				2 * serverErrorThreshold / connectPerServer);
+		boolean eventLoopAffinity = getBooleanOrElse(config, "eventLoopAffinity", false);
+		boolean inJvm = getBooleanOrElse(config, "inJvm", false);
+		boolean inJvmCopyOnCall = getBooleanOrElse(config, "inJvmCopyOnCall", false);
+		boolean sharedMemory = getBooleanOrElse(config, "sharedMemory", false);
+		int sharedMemoryCapacity = getIntOrElse(config, "sharedMemoryCapacity", ShmConnectionFile.DEFAULT_CAPACITY);
+		int discoverDebounceMillis = getIntOrElse(config, "discoverDebounceMillis", 50);
+		int slowStartMillis = getIntOrElse(config, "slowStartMillis", 0);
+		boolean loadAwareWeight = getBooleanOrElse(config, "loadAwareWeight", false);
+		String zone = getStringOrElse(config, "zone", null);
 
 		String serializerClass = config.getString("serializer.class");
 
@@ -192,10 +358,23 @@ public class AppConfig {
 		appConfig.setGlobalTimeout(globalTimeout);
 		appConfig.setMaxRequestWait(maxRequestWait);
 		appConfig.setConnectPerServer(connectPerServer);
+		appConfig.setMaxConnectPerServer(maxConnectPerServer);
+		appConfig.setConnectGrowInflight(connectGrowInflight);
+		appConfig.setConnectIdleMillis(connectIdleMillis);
+		appConfig.setConnectWaitFirst(connectWaitFirst);
 		appConfig.setServerErrorThreshold(serverErrorThreshold);
 		appConfig.setConnectErrorThreshold(connectErrorThreshold);
 		appConfig.setLoadBalanceFactory(loadBalanceFactory);
 		appConfig.setDiscover(discover);
+		appConfig.setEventLoopAffinity(eventLoopAffinity);
+		appConfig.setInJvm(inJvm);
+		appConfig.setInJvmCopyOnCall(inJvmCopyOnCall);
+		appConfig.setSharedMemory(sharedMemory);
+		appConfig.setSharedMemoryCapacity(sharedMemoryCapacity);
+		appConfig.setDiscoverDebounceMillis(discoverDebounceMillis);
+		appConfig.setSlowStartMillis(slowStartMillis);
+		appConfig.setLoadAwareWeight(loadAwareWeight);
+		appConfig.setZone(zone);
 
 		return appConfig;
 	}
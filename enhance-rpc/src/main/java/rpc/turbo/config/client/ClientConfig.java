@@ -5,8 +5,12 @@ import java.util.List;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
+import rpc.turbo.config.EventLoopConfig;
+
 public class ClientConfig {
 	private List<AppConfig> appConfigList;
+	/** 客户端独立的EventLoopGroup，为null时使用jvm共享的EventLoopGroup */
+	private EventLoopConfig eventLoop;
 
 	public List<AppConfig> getAppConfigList() {
 		return appConfigList;
@@ -16,9 +20,17 @@ public class ClientConfig {
 		this.appConfigList = appConfigList;
 	}
 
+	public EventLoopConfig getEventLoop() {
+		return eventLoop;
+	}
+
+	public void setEventLoop(EventLoopConfig eventLoop) {
+		this.eventLoop = eventLoop;
+	}
+
 	@Override
 	public String toString() {
-		return "ClientConfig{" + "appConfigList=" + appConfigList + '}';
+		return "ClientConfig{" + "appConfigList=" + appConfigList + ", eventLoop=" + eventLoop + '}';
 	}
 
 	public static ClientConfig parse(String resourceName) {
@@ -31,6 +43,10 @@ public class ClientConfig {
 
 		clientConfig.setAppConfigList(appConfigList);
 
+		if (config.hasPath("eventLoop")) {
+			clientConfig.setEventLoop(EventLoopConfig.parse(config.getConfig("eventLoop"), "turbo-client"));
+		}
+
 		return clientConfig;
 	}
 }
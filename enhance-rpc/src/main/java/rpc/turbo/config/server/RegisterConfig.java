@@ -55,7 +55,7 @@ public class RegisterConfig {
 		return "RegisterConfig{" + //
 				"register=" + register.getClass().getName() + //
 				", protocol=" + protocol + //
-				", serverAddress=" + serverAddress + //
+				", serverAddress=" + serverAddress.toFullString() + //
 				", serverWeight=" + serverWeight + //
 				'}';
 	}
@@ -66,6 +66,14 @@ public class RegisterConfig {
 
 		String serverAddressStr = config.getString("server.address");
 		HostPort serverAddress = new HostPort(serverAddressStr);
+		// 同机部署时客户端优先使用的unix domain socket路径，仅rpc协议、epoll下生效
+		if (config.hasPath("server.domainSocket")) {
+			serverAddress = serverAddress.withDomainSocket(config.getString("server.domainSocket"));
+		}
+		// 所在区域，随注册信息发布，客户端优先调用同区域的服务器
+		if (config.hasPath("server.zone")) {
+			serverAddress = serverAddress.withZone(config.getString("server.zone"));
+		}
 		int serverWeight = config.getInt("server.weight");
 
 		String protocolStr = getStringOrElse(config, "server.protocol", Protocol.RPC.name());
@@ -1,5 +1,7 @@
 package rpc.turbo.config.server;
 
+import static rpc.turbo.config.ConfigUtils.getBooleanOrElse;
+import static rpc.turbo.config.ConfigUtils.getIntOrElse;
 import static rpc.turbo.config.ConfigUtils.getStringOrElse;
 
 import java.util.HashMap;
@@ -12,6 +14,7 @@ import com.typesafe.config.ConfigFactory;
 
 import rpc.turbo.annotation.TurboService;
 import rpc.turbo.config.ConfigException;
+import rpc.turbo.config.EventLoopConfig;
 import rpc.turbo.config.HostPort;
 import rpc.turbo.serialization.JsonMapper;
 import rpc.turbo.serialization.jackson.JacksonMapper;
@@ -22,9 +25,25 @@ public class ServerConfig {
 	private String app;
 	private String ownerName;
 	private String ownerPhone;
-	private String serializer = "rpc.zhushimmer.serialization.protostuff.ProtostuffSerializer";
+	private String serializer = "rpc.turbo.serialization.protostuff.ProtostuffSerializer";
 	private JsonMapper jsonMapper = new JacksonMapper();
 	private List<RegisterConfig> registers;
+	/** 每个端口的监听socket数量，依赖SO_REUSEPORT，仅epoll下生效，小于1时为eventLoop的数量 */
+	private int acceptorCount = 1;
+	/** rpc服务器独立的EventLoopGroup，为null时使用jvm共享的EventLoopGroup */
+	private EventLoopConfig rpcEventLoop;
+	/** rest服务器独立的EventLoopGroup，为null时使用jvm共享的EventLoopGroup */
+	private EventLoopConfig restEventLoop;
+	/** rpc服务器同时在共享内存上监听，供同机客户端使用 */
+	private boolean sharedMemory = false;
+	/** 根据处理耗时自适应地限制并发，超过上限的请求立即拒绝，进程内所有服务器共享 */
+	private boolean adaptiveLimit = false;
+	/** 自适应并发限制的初始上限 */
+	private int adaptiveLimitInitial = 100;
+	/** 自适应并发限制的最小上限 */
+	private int adaptiveLimitMin = 20;
+	/** 自适应并发限制的最大上限 */
+	private int adaptiveLimitMax = 2000;
 
 	public ServerConfig() {
 	}
@@ -90,6 +109,74 @@ public class ServerConfig {
 		this.registers = registers;
 	}
 
+	public int getAcceptorCount() {
+		return acceptorCount;
+	}
+
+	public void setAcceptorCount(int acceptorCount) {
+		this.acceptorCount = acceptorCount;
+	}
+
+	public EventLoopConfig getRpcEventLoop() {
+		return rpcEventLoop;
+	}
+
+	public void setRpcEventLoop(EventLoopConfig rpcEventLoop) {
+		this.rpcEventLoop = rpcEventLoop;
+	}
+
+	public EventLoopConfig getRestEventLoop() {
+		return restEventLoop;
+	}
+
+	public void setRestEventLoop(EventLoopConfig restEventLoop) {
+		this.restEventLoop = restEventLoop;
+	}
+
+	public boolean isSharedMemory() {
+		return sharedMemory;
+	}
+
+	public void setSharedMemory(boolean sharedMemory) {
+		this.sharedMemory = sharedMemory;
+	}
+
+	public boolean isAdaptiveLimit() {
+		return adaptiveLimit;
+	}
+
+	public void setAdaptiveLimit(boolean adaptiveLimit) {
+		this.adaptiveLimit = adaptiveLimit;
+	}
+
+	public int getAdaptiveLimitInitial() {
+		return adaptiveLimitInitial;
+	}
+
+	public void setAdaptiveLimitInitial(int adaptiveLimitInitial) {
+		this.adaptiveLimitInitial = adaptiveLimitInitial;
+	}
+
+	public int getAdaptiveLimitMin() {
+		return adaptiveLimitMin;
+	}
+
+	public void setAdaptiveLimitMin(int adaptiveLimitMin) {
+		if (adaptiveLimitMin < 1) {
+			throw new ConfigException("adaptiveLimitMin: " + adaptiveLimitMin + " (expected: > 0)");
+		}
+
+		this.adaptiveLimitMin = adaptiveLimitMin;
+	}
+
+	public int getAdaptiveLimitMax() {
+		return adaptiveLimitMax;
+	}
+
+	public void setAdaptiveLimitMax(int adaptiveLimitMax) {
+		this.adaptiveLimitMax = adaptiveLimitMax;
+	}
+
 	@Override
 	public String toString() {
 		return "ServerConfig{" + //
@@ -100,6 +187,14 @@ public class ServerConfig {
 				", serializer='" + serializer.getClass().getName() + '\'' + //
 				", jsonMapper='" + jsonMapper.getClass().getName() + '\'' + //
 				", registers=" + registers + //
+				", acceptorCount=" + acceptorCount + //
+				", rpcEventLoop=" + rpcEventLoop + //
+				", restEventLoop=" + restEventLoop + //
+				", sharedMemory=" + sharedMemory + //
+				", adaptiveLimit=" + adaptiveLimit + //
+				", adaptiveLimitInitial=" + adaptiveLimitInitial + //
+				", adaptiveLimitMin=" + adaptiveLimitMin + //
+				", adaptiveLimitMax=" + adaptiveLimitMax + //
 				'}';
 	}
 
@@ -116,6 +211,27 @@ public class ServerConfig {
 		String ownerPhone = getStringOrElse(config, "owner.phone", "");
 
 		String serializerClass = config.getString("serializer.class");
+		int acceptorCount = getIntOrElse(config, "acceptorCount", 1);
+		boolean sharedMemory = getBooleanOrElse(config, "sharedMemory", false);
+		boolean adaptiveLimit = getBooleanOrElse(config, "adaptiveLimit", false);
+		int adaptiveLimitInitial = getIntOrElse(config, "adaptiveLimitInitial", 100);
+		int adaptiveLimitMin = getIntOrElse(config, "adaptiveLimitMin", 20);
+		int adaptiveLimitMax = getIntOrElse(config, "adaptiveLimitMax", 2000);
+
+		if (adaptiveLimitMax < adaptiveLimitMin) {
+			throw new ConfigException(
+					"adaptiveLimitMax: " + adaptiveLimitMax + " (expected: >= adaptiveLimitMin " + adaptiveLimitMin + ")");
+		}
+
+		EventLoopConfig rpcEventLoop = null;
+		if (config.hasPath("eventLoop.rpc")) {
+			rpcEventLoop = EventLoopConfig.parse(config.getConfig("eventLoop.rpc"), "turbo-rpc-server");
+		}
+
+		EventLoopConfig restEventLoop = null;
+		if (config.hasPath("eventLoop.rest")) {
+			restEventLoop = EventLoopConfig.parse(config.getConfig("eventLoop.rest"), "turbo-rest-server");
+		}
 
 		String jsonMapperClass = getStringOrElse(config, "jsonMapper.class", JacksonMapper.class.getName());
 
@@ -168,6 +284,14 @@ public class ServerConfig {
 		serverConfig.setSerializer(serializerClass);
 		serverConfig.setJsonMapper(jsonMapper);
 		serverConfig.setRegisters(registers);
+		serverConfig.setAcceptorCount(acceptorCount);
+		serverConfig.setRpcEventLoop(rpcEventLoop);
+		serverConfig.setRestEventLoop(restEventLoop);
+		serverConfig.setSharedMemory(sharedMemory);
+		serverConfig.setAdaptiveLimit(adaptiveLimit);
+		serverConfig.setAdaptiveLimitInitial(adaptiveLimitInitial);
+		serverConfig.setAdaptiveLimitMin(adaptiveLimitMin);
+		serverConfig.setAdaptiveLimitMax(adaptiveLimitMax);
 
 		return serverConfig;
 	}
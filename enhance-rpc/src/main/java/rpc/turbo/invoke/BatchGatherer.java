@@ -0,0 +1,356 @@
+package rpc.turbo.invoke;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import rpc.turbo.annotation.TurboBatched;
+import rpc.turbo.param.MethodParam;
+
+/**
+ * 服务端请求收集器，把时间窗口内的单参数请求合并为一次批量方法调用，再按位置或者key把结果分发回各个请求
+ * 
+ * @author zhushimmer
+ * 
+ * @see TurboBatched
+ *
+ */
+public final class BatchGatherer {
+	private static final Log logger = LogFactory.getLog(BatchGatherer.class);
+
+	private static final ScheduledExecutorService scheduler;
+	/** 服务类#批量方法名(key类型) -> 批量方法，同一个实现类注册多次时不重复反射查找 */
+	private static final ConcurrentHashMap<String, Method> batchMethodCache = new ConcurrentHashMap<>();
+
+	static {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "turbo-batch-gatherer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+
+		scheduler = executor;
+	}
+
+	private final String name;
+	private final Object service;
+	private final Method batchMethod;
+	/** 绑定了服务实现的批量方法，(Object)CompletableFuture */
+	private final MethodHandle batchInvoker;
+	private final Class<?> batchParamType;
+	private final MethodHandle keyGetter;
+	private final long windowMicros;
+	private final int maxBatch;
+
+	private final Object lock = new Object();
+	/** 收集中的批次，只在lock内访问 */
+	private Batch current;
+
+	private final LongAdder requestCount = new LongAdder();
+	private final LongAdder batchCount = new LongAdder();
+
+	/**
+	 * 
+	 * @param name
+	 *            方法名
+	 * @param service
+	 *            服务实现
+	 * @param method
+	 *            单参数的服务方法
+	 * @param methodParamClass
+	 *            服务方法的参数类
+	 * @param config
+	 */
+	public BatchGatherer(String name, Object service, Method method, Class<? extends MethodParam> methodParamClass,
+			TurboBatched config) {
+		if (method.getParameterCount() != 1) {
+			throw new InvokeException("batched method must have only one parameter, " + name);
+		}
+
+		if (config.windowMicros() < 1 || config.maxBatch() < 2) {
+			throw new InvokeException("windowMicros: " + config.windowMicros() + ", maxBatch: " + config.maxBatch()
+					+ " (expected: windowMicros > 0, maxBatch > 1), " + name);
+		}
+
+		this.name = name;
+		this.service = service;
+		this.batchMethod = findBatchMethod(service.getClass(), method, config.method());
+		this.batchParamType = batchMethod.getParameterTypes()[0];
+		this.windowMicros = config.windowMicros();
+		this.maxBatch = config.maxBatch();
+
+		try {
+			this.batchMethod.setAccessible(true);
+			this.batchInvoker = MethodHandles.lookup()//
+					.unreflect(batchMethod)//
+					.bindTo(service)//
+					.asType(MethodType.methodType(CompletableFuture.class, Object.class));
+
+			Class<?> keyType = method.getParameterTypes()[0];
+			this.keyGetter = MethodHandles.publicLookup()//
+					.findVirtual(methodParamClass, "$param0", MethodType.methodType(keyType))//
+					.asType(MethodType.methodType(Object.class, MethodParam.class));
+		} catch (Exception e) {
+			throw new InvokeException(e);
+		}
+	}
+
+	private static Method findBatchMethod(Class<?> serviceClass, Method method, String batchMethodName) {
+		Class<?> keyType = method.getParameterTypes()[0];
+		String cacheKey = serviceClass.getName() + "#" + batchMethodName + "(" + keyType.getName() + ")";
+
+		Method cached = batchMethodCache.get(cacheKey);
+		if (cached != null && cached.getDeclaringClass().isAssignableFrom(serviceClass)) {
+			return cached;
+		}
+
+		for (Method candidate : serviceClass.getMethods()) {
+			if (!candidate.getName().equals(batchMethodName) || candidate.getParameterCount() != 1) {
+				continue;
+			}
+
+			if (!CompletableFuture.class.equals(candidate.getReturnType())) {
+				continue;
+			}
+
+			Class<?> paramType = candidate.getParameterTypes()[0];
+
+			// 只接受key类型的数组或者List/Collection，Object等过宽的类型容易匹配到无关的重载方法
+			if ((paramType.isArray() && paramType.getComponentType().equals(keyType)) //
+					|| paramType == List.class || paramType == Collection.class) {
+				batchMethodCache.put(cacheKey, candidate);
+				return candidate;
+			}
+		}
+
+		throw new InvokeException("cannot find the batch method: CompletableFuture " + batchMethodName + "("
+				+ keyType.getName() + "[] or List or Collection), " + serviceClass.getName());
+	}
+
+	/**
+	 * 
+	 * @param methodParam
+	 * @return
+	 */
+	public CompletableFuture<?> submit(MethodParam methodParam) {
+		Object key;
+		try {
+			key = (Object) keyGetter.invokeExact(methodParam);
+		} catch (Throwable t) {
+			return CompletableFuture.failedFuture(t);
+		}
+
+		return submit(key);
+	}
+
+	/**
+	 * 加入当前批次，批次满时在当前线程调用批量方法，否则在时间窗口结束后调用
+	 * 
+	 * @param key
+	 * @return
+	 */
+	public CompletableFuture<?> submit(Object key) {
+		requestCount.increment();
+
+		CompletableFuture<Object> future = new CompletableFuture<>();
+
+		Batch created = null;
+		Batch full = null;
+
+		synchronized (lock) {
+			if (current == null) {
+				current = new Batch(maxBatch);
+				created = current;
+			}
+
+			current.add(key, future);
+
+			if (current.size == maxBatch) {
+				full = current;
+				current = null;
+			}
+		}
+
+		if (full != null) {
+			flush(full);
+		} else if (created != null) {
+			final Batch batch = created;
+			scheduler.schedule(() -> onWindowEnd(batch), windowMicros, TimeUnit.MICROSECONDS);
+		}
+
+		return future;
+	}
+
+	private void onWindowEnd(Batch batch) {
+		synchronized (lock) {
+			if (current != batch) {// 已经因为满了被调用
+				return;
+			}
+
+			current = null;
+		}
+
+		// 批量方法可能阻塞，不占用定时线程
+		ForkJoinPool.commonPool().execute(() -> flush(batch));
+	}
+
+	private void flush(Batch batch) {
+		batchCount.increment();
+
+		CompletableFuture<?> result;
+		try {
+			result = (CompletableFuture<?>) batchInvoker.invokeExact(batch.toArgument(batchParamType));
+		} catch (Throwable t) {
+			batch.fail(t);
+			return;
+		}
+
+		if (result == null) {
+			batch.fail(new InvokeException(name + " batch method return null", false));
+			return;
+		}
+
+		result.whenComplete((values, throwable) -> {
+			if (throwable != null) {
+				batch.fail(throwable);
+				return;
+			}
+
+			try {
+				batch.scatter(values);
+			} catch (Throwable t) {
+				if (logger.isWarnEnabled()) {
+					logger.warn(name + " batch result scatter error", t);
+				}
+
+				batch.fail(t);
+			}
+		});
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getWindowMicros() {
+		return windowMicros;
+	}
+
+	public int getMaxBatch() {
+		return maxBatch;
+	}
+
+	public long getRequestCount() {
+		return requestCount.sum();
+	}
+
+	public long getBatchCount() {
+		return batchCount.sum();
+	}
+
+	/**
+	 * 平均每次批量调用合并的请求数
+	 * 
+	 * @return
+	 */
+	public double getAverageBatchSize() {
+		long batches = batchCount.sum();
+		return batches == 0 ? 0.0 : (double) requestCount.sum() / batches;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchGatherer{" + //
+				"name='" + name + '\'' + //
+				", batchMethod=" + batchMethod.getName() + //
+				", windowMicros=" + windowMicros + //
+				", maxBatch=" + maxBatch + //
+				", requestCount=" + getRequestCount() + //
+				", batchCount=" + getBatchCount() + //
+				", averageBatchSize=" + getAverageBatchSize() + //
+				'}';
+	}
+
+	private static final class Batch {
+		private final Object[] keys;
+		private final CompletableFuture<Object>[] futures;
+		private int size;
+
+		@SuppressWarnings("unchecked")
+		private Batch(int maxBatch) {
+			this.keys = new Object[maxBatch];
+			this.futures = new CompletableFuture[maxBatch];
+		}
+
+		private void add(Object key, CompletableFuture<Object> future) {
+			keys[size] = key;
+			futures[size] = future;
+			size++;
+		}
+
+		private Object toArgument(Class<?> paramType) {
+			if (paramType.isArray()) {
+				Object array = Array.newInstance(paramType.getComponentType(), size);
+
+				for (int i = 0; i < size; i++) {
+					Array.set(array, i, keys[i]);
+				}
+
+				return array;
+			}
+
+			return new ArrayList<>(Arrays.asList(keys).subList(0, size));
+		}
+
+		/**
+		 * 结果为Map时按key分发，为List或者数组时按位置分发
+		 */
+		private void scatter(Object values) {
+			if (values instanceof Map) {
+				Map<?, ?> map = (Map<?, ?>) values;
+
+				for (int i = 0; i < size; i++) {
+					futures[i].complete(map.get(keys[i]));
+				}
+			} else if (values instanceof List) {
+				List<?> list = (List<?>) values;
+
+				for (int i = 0; i < size; i++) {
+					futures[i].complete(i < list.size() ? list.get(i) : null);
+				}
+			} else if (values != null && values.getClass().isArray()) {
+				int length = Array.getLength(values);
+
+				for (int i = 0; i < size; i++) {
+					futures[i].complete(i < length ? Array.get(values, i) : null);
+				}
+			} else {
+				throw new InvokeException("batch result must be Map, List or array: " + values, false);
+			}
+		}
+
+		private void fail(Throwable throwable) {
+			for (int i = 0; i < size; i++) {
+				futures[i].completeExceptionally(throwable);
+			}
+		}
+	}
+}
@@ -8,6 +8,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.Arrays;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -48,6 +49,12 @@ public class JavassistInvoker<T> implements Invoker<T> {
 
 	private final boolean supportHttpForm;
 
+	/** 结果缓存，为null时不缓存 */
+	private volatile ResultCache resultCache;
+	private final Function<MethodParam, T> uncachedInvoker = this::invokeUncached;
+	/** 批量实现，为null时直接调用 */
+	private volatile BatchGatherer batchGatherer;
+
 	/**
 	 * 
 	 * @param serviceId
@@ -123,6 +130,7 @@ public class JavassistInvoker<T> implements Invoker<T> {
 	 * @throws InvokeException
 	 */
 	@Override
+	@SuppressWarnings("unchecked")
 	public T invoke(Object... params) {
 		if (params == null) {
 			if (parameterCount != 0) {
@@ -132,15 +140,35 @@ public class JavassistInvoker<T> implements Invoker<T> {
 			throw new InvokeException(method.getName() + " params count error, " + Arrays.toString(params));
 		}
 
+		BatchGatherer batchGatherer = this.batchGatherer;
+		if (batchGatherer != null) {
+			return (T) batchGatherer.submit(params[0]);
+		}
+
 		return realInvoker.invoke(params);
 	}
 
 	@Override
 	public T invoke() {
+		ResultCache resultCache = this.resultCache;
+		if (resultCache != null) {
+			return resultCache.get(null, uncachedInvoker);
+		}
+
 		return realInvoker.invoke();
 	}
 
 	public T invoke(MethodParam methodParam) {
+		ResultCache resultCache = this.resultCache;
+		if (resultCache != null) {
+			return resultCache.get(methodParam, uncachedInvoker);
+		}
+
+		return invokeUncached(methodParam);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T invokeUncached(MethodParam methodParam) {
 		if (methodParam == null || methodParam instanceof EmptyMethodParam) {
 			return realInvoker.invoke();
 		}
@@ -149,11 +177,22 @@ public class JavassistInvoker<T> implements Invoker<T> {
 			throw new IllegalArgumentException("methodParam not instanceof " + methodParamClass.getName());
 		}
 
+		BatchGatherer batchGatherer = this.batchGatherer;
+		if (batchGatherer != null) {
+			return (T) batchGatherer.submit(methodParam);
+		}
+
 		return realInvoker.invoke(methodParam);
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public T invoke(Object params0) {
+		BatchGatherer batchGatherer = this.batchGatherer;
+		if (batchGatherer != null) {
+			return (T) batchGatherer.submit(params0);
+		}
+
 		return realInvoker.invoke(params0);
 	}
 
@@ -212,6 +251,32 @@ public class JavassistInvoker<T> implements Invoker<T> {
 		return supportHttpForm;
 	}
 
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * 
+	 * @param resultCache
+	 *            为null时不缓存
+	 */
+	public void setResultCache(ResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+
+	public BatchGatherer getBatchGatherer() {
+		return batchGatherer;
+	}
+
+	/**
+	 * 
+	 * @param batchGatherer
+	 *            为null时不合并请求
+	 */
+	public void setBatchGatherer(BatchGatherer batchGatherer) {
+		this.batchGatherer = batchGatherer;
+	}
+
 	private Invoker<T> generateRealInvoker() throws Exception {
 		final String invokerClassName = "rpc.turbo.invoke.generate.Invoker_"//
 				+ serviceId + "_" //
@@ -259,7 +324,7 @@ public class JavassistInvoker<T> implements Invoker<T> {
 				resultBuilder.append("()");
 
 				if (i != parameterTypes.length - 1) {
-					methodBuilder.append(", ");
+					resultBuilder.append(", ");
 				}
 			}
 
@@ -297,6 +362,10 @@ public class JavassistInvoker<T> implements Invoker<T> {
 				resultBuilder.append("])");
 
 				resultBuilder.append(unbox(paramType));
+
+				if (i != parameterTypes.length - 1) {
+					resultBuilder.append(", ");
+				}
 			}
 
 			resultBuilder.append(")");
@@ -0,0 +1,223 @@
+package rpc.turbo.invoke;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import rpc.turbo.param.EmptyMethodParam;
+import rpc.turbo.param.MethodParam;
+
+/**
+ * 服务端结果缓存，仅用于幂等且返回值不会被修改的方法，以解码后的MethodParam为key<br>
+ * 缓存的是CompletableFuture，并发的相同请求共享同一次执行，失败或者返回null时不缓存
+ *
+ * @author zhushimmer
+ *
+ */
+public final class ResultCache {
+	private static final Log logger = LogFactory.getLog(ResultCache.class);
+
+	private final String name;
+	private final long expireMillis;
+	private final int maxSize;
+	private final Cache<MethodParam, Entry> cache;
+	private final LongAdder estimatedBytes = new LongAdder();
+
+	// 估算结果大小，为null时不统计内存
+	private volatile ToIntFunction<Object> weigher;
+
+	/**
+	 *
+	 * @param name
+	 *            方法名
+	 * @param expireMillis
+	 *            写入后的过期时间
+	 * @param maxSize
+	 *            最大缓存数量
+	 */
+	public ResultCache(String name, long expireMillis, int maxSize) {
+		if (expireMillis < 1 || maxSize < 1) {
+			throw new IllegalArgumentException("expireMillis: " + expireMillis + ", maxSize: " + maxSize
+					+ " (expected: expireMillis > 0, maxSize > 0)");
+		}
+
+		this.name = name;
+		this.expireMillis = expireMillis;
+		this.maxSize = maxSize;
+		this.cache = CacheBuilder.newBuilder()//
+				.concurrencyLevel(Runtime.getRuntime().availableProcessors())//
+				.expireAfterWrite(expireMillis, TimeUnit.MILLISECONDS)//
+				.maximumSize(maxSize)//
+				.recordStats()//
+				.<MethodParam, Entry>removalListener(notification -> {
+					Entry entry = notification.getValue();
+					int bytes = entry.getAndSet(-1);
+
+					if (bytes > 0) {
+						estimatedBytes.add(-bytes);
+					}
+				})//
+				.build();
+	}
+
+	/**
+	 *
+	 * @param weigher
+	 *            估算结果占用的字节数，通常为序列化后的大小
+	 */
+	public void setWeigher(ToIntFunction<Object> weigher) {
+		this.weigher = weigher;
+	}
+
+	/**
+	 * 命中时直接返回缓存的结果，否则执行loader并缓存
+	 *
+	 * @param methodParam
+	 * @param loader
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(MethodParam methodParam, Function<MethodParam, T> loader) {
+		final MethodParam key = methodParam == null ? EmptyMethodParam.empty() : methodParam;
+		final boolean[] loaded = { false };
+
+		Entry entry;
+		try {
+			// 相同key并发加载时只执行一次，loader返回的是future，阻塞时间很短
+			entry = cache.get(key, () -> {
+				loaded[0] = true;
+				return new Entry((CompletableFuture<?>) loader.apply(methodParam));
+			});
+		} catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+			Throwables.throwIfUnchecked(e.getCause());
+			throw new InvokeException(e.getCause());
+		}
+
+		if (loaded[0]) {
+			onLoaded(key, entry);
+		}
+
+		return (T) entry.future;
+	}
+
+	private void onLoaded(MethodParam key, Entry entry) {
+		if (entry.future == null) {
+			cache.asMap().remove(key, entry);
+			return;
+		}
+
+		entry.future.whenComplete((value, throwable) -> {
+			if (value == null || throwable != null) {
+				cache.asMap().remove(key, entry);
+				return;
+			}
+
+			ToIntFunction<Object> weigher = this.weigher;
+			if (weigher == null) {
+				return;
+			}
+
+			int bytes;
+			try {
+				bytes = weigher.applyAsInt(value);
+			} catch (Throwable t) {
+				if (logger.isDebugEnabled()) {
+					logger.debug(name + " weigh error", t);
+				}
+
+				return;
+			}
+
+			if (bytes > 0 && entry.compareAndSet(0, bytes)) {
+				estimatedBytes.add(bytes);
+			}
+		});
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getExpireMillis() {
+		return expireMillis;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getSize() {
+		return cache.size();
+	}
+
+	/**
+	 * 命中率
+	 *
+	 * @return
+	 */
+	public double getHitRate() {
+		return cache.stats().hitRate();
+	}
+
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	/**
+	 * 估算的内存占用，未设置weigher时为0
+	 *
+	 * @return
+	 */
+	public long getEstimatedBytes() {
+		return estimatedBytes.sum();
+	}
+
+	@Override
+	public String toString() {
+		CacheStats stats = cache.stats();
+
+		return "ResultCache{" + //
+				"name='" + name + '\'' + //
+				", expireMillis=" + expireMillis + //
+				", maxSize=" + maxSize + //
+				", size=" + cache.size() + //
+				", hitRate=" + stats.hitRate() + //
+				", evictionCount=" + stats.evictionCount() + //
+				", estimatedBytes=" + estimatedBytes.sum() + //
+				'}';
+	}
+
+	/**
+	 * 值为估算的字节数，-1表示已移除
+	 */
+	private static final class Entry extends AtomicInteger {
+		private static final long serialVersionUID = -3557384532227493271L;
+
+		private final CompletableFuture<?> future;
+
+		private Entry(CompletableFuture<?> future) {
+			this.future = future;
+		}
+	}
+}
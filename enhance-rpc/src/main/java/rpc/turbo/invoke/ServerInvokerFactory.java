@@ -15,6 +15,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -24,9 +25,12 @@ import org.apache.commons.logging.LogFactory;
 import com.google.common.base.Strings;
 import com.google.common.collect.Streams;
 
+import rpc.turbo.annotation.TurboBatched;
 import rpc.turbo.annotation.TurboService;
 import rpc.turbo.common.TurboConnectService;
+import rpc.turbo.config.TurboConstants;
 import rpc.turbo.server.TurboConnectServiceServerImpl;
+import rpc.turbo.transport.server.Bulkhead;
 import rpc.turbo.util.FastMap;
 import rpc.turbo.util.concurrent.ConcurrentArrayList;
 import rpc.turbo.util.concurrent.ConcurrentIntToObjectArrayMap;
@@ -53,6 +57,14 @@ public class ServerInvokerFactory {
 	private volatile FastMap<String, JavassistInvoker<?>> restInvokerMap = new FastMap<>(32, 0.5F);
 	// 高频使用
 	private final ConcurrentIntToObjectArrayMap<String> serviceMethodNameMap = new ConcurrentIntToObjectArrayMap<>();
+	// 高频使用, 未配置隔离舱的serviceId没有值
+	private final ConcurrentIntToObjectArrayMap<Bulkhead> bulkheadMap = new ConcurrentIntToObjectArrayMap<>();
+	// 低频使用, 用于监控
+	private final ConcurrentMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+	// 低频使用, 用于监控
+	private final ConcurrentMap<String, ResultCache> resultCaches = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, BatchGatherer> batchGatherers = new ConcurrentHashMap<>();
+	private volatile ToIntFunction<Object> resultWeigher;
 
 	private final AtomicInteger classIdGenerator = new AtomicInteger();
 	private final ConcurrentMap<String, Integer> classIdMap = new ConcurrentHashMap<>();
@@ -94,6 +106,54 @@ public class ServerInvokerFactory {
 		return (Invoker<T>) restInvokerMap.get(restPath);
 	}
 
+	/**
+	 * 通过服务id获取隔离舱
+	 * 
+	 * @param serviceId
+	 * 
+	 * @return 未配置时为null
+	 */
+	public Bulkhead getBulkhead(int serviceId) {
+		return bulkheadMap.get(serviceId);
+	}
+
+	/**
+	 * 所有的隔离舱，key为方法名或者接口名，用于监控饱和度和拒绝数
+	 * 
+	 * @return
+	 */
+	public Map<String, Bulkhead> getBulkheads() {
+		return Map.copyOf(bulkheads);
+	}
+
+	/**
+	 * 所有的结果缓存，key为方法名，用于监控命中率和内存占用
+	 * 
+	 * @return
+	 */
+	public Map<String, ResultCache> getResultCaches() {
+		return Map.copyOf(resultCaches);
+	}
+
+	/**
+	 * 所有的批量实现，key为方法名，用于监控平均合并数
+	 * 
+	 * @return
+	 */
+	public Map<String, BatchGatherer> getBatchGatherers() {
+		return Map.copyOf(batchGatherers);
+	}
+
+	/**
+	 * 
+	 * @param resultWeigher
+	 *            估算缓存结果占用的字节数
+	 */
+	public void setResultWeigher(ToIntFunction<Object> resultWeigher) {
+		this.resultWeigher = resultWeigher;
+		resultCaches.values().forEach(resultCache -> resultCache.setWeigher(resultWeigher));
+	}
+
 	/**
 	 * 通过服务id获取服务名称
 	 * 
@@ -262,6 +322,16 @@ public class ServerInvokerFactory {
 			registerClassId(method);
 		}
 
+		// 只在接口上声明时，所有方法共享一个隔离舱
+		final Bulkhead classBulkhead;
+		if (classConfig != null && classConfig.maxConcurrency() > 0) {
+			String serviceClassName = InvokerUtils.getServiceClassName(group, app, clazz);
+			classBulkhead = new Bulkhead(serviceClassName, classConfig.maxConcurrency(), classConfig.maxQueue());
+			bulkheads.put(serviceClassName, classBulkhead);
+		} else {
+			classBulkhead = null;
+		}
+
 		Stream<JavassistInvoker<T>> invokerStream = methodStream//
 				.map(m -> {
 					int serviceId = serviceIdCounter.getAndIncrement();
@@ -270,12 +340,89 @@ public class ServerInvokerFactory {
 						logger.info(InvokerUtils.getServiceMethodName(group, app, m) + " serviceId:" + serviceId);
 					}
 
-					return new JavassistInvoker<>(serviceId, service, m.getDeclaringClass(), m);
+					registerBulkhead(serviceId, m, classBulkhead);
+
+					JavassistInvoker<T> invoker = new JavassistInvoker<>(serviceId, service, m.getDeclaringClass(), m);
+					registerResultCache(invoker);
+					registerBatchGatherer(invoker, service);
+
+					return invoker;
 				});
 
 		return invokerStream;
 	}
 
+	private void registerBulkhead(int serviceId, Method method, Bulkhead classBulkhead) {
+		TurboService methodConfig = method.getAnnotation(TurboService.class);
+
+		Bulkhead bulkhead = classBulkhead;
+		if (methodConfig != null && methodConfig.maxConcurrency() > 0) {
+			String serviceMethodName = InvokerUtils.getServiceMethodName(group, app, method);
+			bulkhead = new Bulkhead(serviceMethodName, methodConfig.maxConcurrency(), methodConfig.maxQueue());
+			bulkheads.put(serviceMethodName, bulkhead);
+		}
+
+		if (bulkhead == null) {
+			return;
+		}
+
+		bulkheadMap.put(serviceId, bulkhead);
+
+		if (logger.isInfoEnabled()) {
+			logger.info(InvokerUtils.getServiceMethodName(group, app, method) + " " + bulkhead);
+		}
+	}
+
+	private void registerResultCache(JavassistInvoker<?> invoker) {
+		TurboService methodConfig = invoker.method.getAnnotation(TurboService.class);
+
+		if (methodConfig == null || methodConfig.cacheMillis() < 1) {
+			return;
+		}
+
+		String serviceMethodName = InvokerUtils.getServiceMethodName(group, app, invoker.method);
+		ResultCache resultCache = new ResultCache(serviceMethodName, methodConfig.cacheMillis(),
+				methodConfig.cacheSize());
+		resultCache.setWeigher(resultWeigher);
+
+		invoker.setResultCache(resultCache);
+		resultCaches.put(serviceMethodName, resultCache);
+
+		if (logger.isInfoEnabled()) {
+			logger.info(serviceMethodName + " " + resultCache);
+		}
+	}
+
+	private void registerBatchGatherer(JavassistInvoker<?> invoker, Object service) {
+		TurboBatched batchConfig = invoker.method.getAnnotation(TurboBatched.class);
+
+		if (batchConfig == null) {
+			try {
+				// 批量实现通常只出现在实现类中
+				batchConfig = service.getClass()//
+						.getMethod(invoker.method.getName(), invoker.method.getParameterTypes())//
+						.getAnnotation(TurboBatched.class);
+			} catch (NoSuchMethodException e) {
+				batchConfig = null;
+			}
+		}
+
+		if (batchConfig == null) {
+			return;
+		}
+
+		String serviceMethodName = InvokerUtils.getServiceMethodName(group, app, invoker.method);
+		BatchGatherer batchGatherer = new BatchGatherer(serviceMethodName, service, invoker.method,
+				invoker.methodParamClass, batchConfig);
+
+		invoker.setBatchGatherer(batchGatherer);
+		batchGatherers.put(serviceMethodName, batchGatherer);
+
+		if (logger.isInfoEnabled()) {
+			logger.info(serviceMethodName + " " + batchGatherer);
+		}
+	}
+
 	/**
 	 * 获取已注册的class
 	 * 
@@ -300,6 +447,10 @@ public class ServerInvokerFactory {
 			registerMap.put(InvokerUtils.getServiceMethodName(group, app, method), i);
 		}
 
+		// 握手时告知客户端支持的帧格式
+		registerMap.put(TurboConstants.CAPABILITY_ONE_WAY_FRAME, -1);
+		registerMap.put(TurboConstants.CAPABILITY_BATCH_FRAME, -1);
+
 		return registerMap;
 	}
 
@@ -0,0 +1,50 @@
+package rpc.turbo.loadbalance;
+
+import java.util.List;
+
+/**
+ * 基于alias method的加权随机，选择为O(1)，与服务数量及权重分布无关
+ * 
+ * @author zhushimmer
+ *
+ * @param <T>
+ *            必须为Weightable子类
+ */
+public class AliasRandomLoadBalance<T extends Weightable> implements LoadBalance<T> {
+
+	protected volatile WeightableGroup<T> weightableGroup = null;
+
+	@Override
+	public void setWeightables(List<T> weightables) {
+		setWeightableGroup(new WeightableGroup<>(weightables));
+	}
+
+	@Override
+	public void setWeightableGroup(WeightableGroup<T> weightableGroup) {
+		weightableGroup.aliasTable();// 提前构建，不影响请求延迟
+		this.weightableGroup = weightableGroup;
+	}
+
+	@Override
+	public T select() {
+		final WeightableGroup<T> weightableGroup = this.weightableGroup;
+
+		if (weightableGroup == null) {
+			return null;
+		}
+
+		AliasTable<T> aliasTable = weightableGroup.aliasTable();
+		T weightable = aliasTable.select();
+
+		for (int i = 1; i < WeightableGroup.MAX_SELECT_TIMES; i++) {
+			if (WeightableGroup.isAccepted(weightable)) {
+				break;
+			}
+
+			weightable = aliasTable.select();
+		}
+
+		return weightable;
+	}
+
+}
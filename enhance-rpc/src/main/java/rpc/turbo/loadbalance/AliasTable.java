@@ -0,0 +1,120 @@
+package rpc.turbo.loadbalance;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Vose alias method，O(1)的加权随机选择，不可变，线程安全
+ * 
+ * <pre>
+ * 每个槽位保存自身被选中的概率和一个别名，先均匀选出槽位，再用一次抛硬币决定取自身还是别名
+ * </pre>
+ * 
+ * @author zhushimmer
+ *
+ * @param <T>
+ *            必须为Weightable子类
+ */
+public final class AliasTable<T extends Weightable> {
+	private static final int PROBABILITY_SCALE = 1 << 30;
+
+	private final List<T> weightables;
+	private final int size;
+	/** 取自身的概率，放大了PROBABILITY_SCALE倍 */
+	private final int[] probability;
+	private final int[] alias;
+
+	/**
+	 * 
+	 * @param weightables
+	 * @param weights
+	 *            与weightables一一对应，必须大于0
+	 */
+	AliasTable(List<T> weightables, int[] weights) {
+		this.weightables = weightables;
+		this.size = weights.length;
+		this.probability = new int[size];
+		this.alias = new int[size];
+
+		if (size == 0) {
+			return;
+		}
+
+		long sum = 0;
+		for (int weight : weights) {
+			sum += weight;
+		}
+
+		// scaled[i] = weight * size / sum，平均值为1(放大后为PROBABILITY_SCALE)
+		long[] scaled = new long[size];
+		int[] small = new int[size];
+		int[] large = new int[size];
+		int smallCount = 0;
+		int largeCount = 0;
+
+		for (int i = 0; i < size; i++) {
+			scaled[i] = (long) ((double) weights[i] * size / sum * PROBABILITY_SCALE);
+
+			if (scaled[i] < PROBABILITY_SCALE) {
+				small[smallCount++] = i;
+			} else {
+				large[largeCount++] = i;
+			}
+		}
+
+		while (smallCount > 0 && largeCount > 0) {
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+
+			probability[less] = (int) scaled[less];
+			alias[less] = more;
+
+			scaled[more] = scaled[more] + scaled[less] - PROBABILITY_SCALE;
+
+			if (scaled[more] < PROBABILITY_SCALE) {
+				small[smallCount++] = more;
+			} else {
+				large[largeCount++] = more;
+			}
+		}
+
+		// 剩下的都是精度误差，概率为1
+		while (largeCount > 0) {
+			int index = large[--largeCount];
+			probability[index] = PROBABILITY_SCALE;
+			alias[index] = index;
+		}
+
+		while (smallCount > 0) {
+			int index = small[--smallCount];
+			probability[index] = PROBABILITY_SCALE;
+			alias[index] = index;
+		}
+	}
+
+	/**
+	 * 加权随机选出一个
+	 * 
+	 * @return 为空时返回null
+	 */
+	public T select() {
+		if (size == 0) {
+			return null;
+		}
+
+		if (size == 1) {
+			return weightables.get(0);
+		}
+
+		// 一个随机数同时用于选槽位和抛硬币
+		long random = ThreadLocalRandom.current().nextLong();
+		int index = (int) (((random >>> 32) * size) >>> 32);
+		int coin = (int) random & (PROBABILITY_SCALE - 1);
+
+		if (coin < probability[index]) {
+			return weightables.get(index);
+		}
+
+		return weightables.get(alias[index]);
+	}
+}
@@ -0,0 +1,39 @@
+package rpc.turbo.loadbalance;
+
+import java.util.List;
+
+/**
+ * 一致性哈希，相同key总是选择同一个元素，没有key时退化为随机
+ * 
+ * @author zhushimmer
+ *
+ * @param <T>
+ *            必须为Weightable子类
+ */
+public class ConsistentHashLoadBalance<T extends Weightable> extends RandomLoadBalance<T> {
+
+	private volatile HashRing<T> hashRing = null;
+
+	@Override
+	public void setWeightables(List<T> weightables) {
+		setWeightableGroup(new WeightableGroup<>(weightables));
+	}
+
+	@Override
+	public synchronized void setWeightableGroup(WeightableGroup<T> weightableGroup) {
+		this.hashRing = weightableGroup.hashRing(hashRing);
+		this.weightableGroup = weightableGroup;
+	}
+
+	@Override
+	public T select(Object key) {
+		final HashRing<T> hashRing = this.hashRing;
+
+		if (key == null || hashRing == null) {
+			return select();
+		}
+
+		return hashRing.get(key);
+	}
+
+}
@@ -0,0 +1,180 @@
+package rpc.turbo.loadbalance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import rpc.turbo.annotation.TurboService;
+
+/**
+ * 一致性哈希环，不可变，线程安全<br>
+ * 每个元素按权重放置虚拟节点，默认权重时为{@link #VIRTUAL_NODES}个，<br>
+ * 重建时复用上一个环中未变化元素的虚拟节点，只计算新增元素的位置，然后线性合并
+ * 
+ * @author zhushimmer
+ *
+ * @param <T>
+ *            必须为Weightable子类
+ */
+public final class HashRing<T extends Weightable> {
+	/** 默认权重的虚拟节点数 */
+	public static final int VIRTUAL_NODES = 160;
+	/** 单个元素最多的虚拟节点数 */
+	private static final int MAX_VIRTUAL_NODES = VIRTUAL_NODES * 10;
+
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+	private final int[] points;
+	private final Object[] owners;
+	private final Map<T, Node> nodes;
+
+	private HashRing(int[] points, Object[] owners, Map<T, Node> nodes) {
+		this.points = points;
+		this.owners = owners;
+		this.nodes = nodes;
+	}
+
+	/**
+	 * 
+	 * @param weightables
+	 * @param previous
+	 *            上一个环，可空
+	 * @return
+	 */
+	public static <T extends Weightable> HashRing<T> build(List<T> weightables, HashRing<T> previous) {
+		Map<T, Node> nodes = new HashMap<>(weightables.size() * 2);
+		List<T> added = new ArrayList<>();
+		int addedLength = 0;
+
+		for (int i = 0; i < weightables.size(); i++) {
+			T weightable = weightables.get(i);
+			Node node = previous == null ? null : previous.nodes.get(weightable);
+
+			if (node == null || node.weight != weightable.weight()) {
+				node = new Node(weightable);
+				added.add(weightable);
+				addedLength += node.points.length;
+			}
+
+			nodes.put(weightable, node);
+		}
+
+		// 上一个环中仍然存在并且没有变化的虚拟节点，已经有序
+		int keptLength = 0;
+		int[] keptPoints = new int[0];
+		Object[] keptOwners = new Object[0];
+
+		if (previous != null) {
+			keptPoints = new int[previous.points.length];
+			keptOwners = new Object[previous.points.length];
+
+			for (int i = 0; i < previous.points.length; i++) {
+				@SuppressWarnings("unchecked")
+				T owner = (T) previous.owners[i];
+
+				if (nodes.get(owner) == previous.nodes.get(owner)) {
+					keptPoints[keptLength] = previous.points[i];
+					keptOwners[keptLength] = owner;
+					keptLength++;
+				}
+			}
+		}
+
+		// 新增的虚拟节点排序，高32位为位置，低32位为所属元素的下标
+		long[] addedPoints = new long[addedLength];
+		for (int i = 0, n = 0; i < added.size(); i++) {
+			int[] nodePoints = nodes.get(added.get(i)).points;
+
+			for (int j = 0; j < nodePoints.length; j++) {
+				addedPoints[n++] = ((long) nodePoints[j] << 32) | i;
+			}
+		}
+
+		Arrays.sort(addedPoints);
+
+		int length = keptLength + addedLength;
+		int[] points = new int[length];
+		Object[] owners = new Object[length];
+
+		for (int i = 0, k = 0, a = 0; i < length; i++) {
+			if (a == addedLength || (k < keptLength && keptPoints[k] <= (int) (addedPoints[a] >> 32))) {
+				points[i] = keptPoints[k];
+				owners[i] = keptOwners[k];
+				k++;
+			} else {
+				points[i] = (int) (addedPoints[a] >> 32);
+				owners[i] = added.get((int) addedPoints[a]);
+				a++;
+			}
+		}
+
+		return new HashRing<>(points, owners, nodes);
+	}
+
+	/**
+	 * 顺时针方向第一个虚拟节点所属的元素
+	 * 
+	 * @param key
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(Object key) {
+		if (points.length == 0) {
+			return null;
+		}
+
+		int hash = mix(key == null ? 0 : key.hashCode());
+		int index = Arrays.binarySearch(points, hash);
+
+		if (index < 0) {
+			index = -index - 1;
+		}
+
+		if (index == points.length) {
+			index = 0;
+		}
+
+		return (T) owners[index];
+	}
+
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * murmur3 fmix32，打散分布不均匀的hashCode
+	 */
+	private static int mix(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+
+		return hash;
+	}
+
+	private static final class Node {
+		private final int weight;
+		private final int[] points;
+
+		private Node(Weightable weightable) {
+			this.weight = weightable.weight();
+
+			long count = (long) weight * VIRTUAL_NODES / TurboService.DEFAULT_WEIGHT;
+			int virtualNodes = (int) Math.max(1, Math.min(count, MAX_VIRTUAL_NODES));
+			String identity = weightable.identity();
+
+			this.points = new int[virtualNodes];
+			for (int i = 0; i < virtualNodes; i++) {
+				points[i] = HASH_FUNCTION.hashString(identity + "#" + i, StandardCharsets.UTF_8).asInt();
+			}
+		}
+	}
+}
@@ -20,10 +20,30 @@ public interface LoadBalance<T extends Weightable> {
 	 */
 	void setWeightables(List<T> weightables);
 
+	/**
+	 * 设置一个已经构建好的不可变分组，多个LoadBalance可以共享同一个分组，默认退化为{@link #setWeightables(List)}
+	 * 
+	 * @param weightableGroup
+	 */
+	default void setWeightableGroup(WeightableGroup<T> weightableGroup) {
+		setWeightables(weightableGroup.weightables());
+	}
+
 	/**
 	 * 选出一个来
 	 * 
 	 * @return
 	 */
 	T select();
+
+	/**
+	 * 按key选出一个来，默认忽略key，需要按key路由的实现覆盖该方法
+	 * 
+	 * @param key
+	 *            路由参数，可空
+	 * @return
+	 */
+	default T select(Object key) {
+		return select();
+	}
 }
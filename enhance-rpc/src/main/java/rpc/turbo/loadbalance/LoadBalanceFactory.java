@@ -15,4 +15,14 @@ public interface LoadBalanceFactory<T extends Weightable> {
 	 * @return
 	 */
 	LoadBalance<T> newLoadBalance();
+
+	/**
+	 * 创建按key路由({@link LoadBalance#select(Object)})的LoadBalance，用于有路由参数的方法，默认使用一致性哈希<br>
+	 * 包装其他LoadBalance的实现(如区域感知)应覆盖该方法，在自己的选择逻辑内部使用一致性哈希
+	 * 
+	 * @return
+	 */
+	default LoadBalance<T> newKeyedLoadBalance() {
+		return new ConsistentHashLoadBalance<>();
+	}
 }
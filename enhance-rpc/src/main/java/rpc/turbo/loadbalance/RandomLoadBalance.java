@@ -20,6 +20,11 @@ public class RandomLoadBalance<T extends Weightable> implements LoadBalance<T> {
 		weightableGroup = new WeightableGroup<>(weightables);
 	}
 
+	@Override
+	public void setWeightableGroup(WeightableGroup<T> weightableGroup) {
+		this.weightableGroup = weightableGroup;
+	}
+
 	@Override
 	public T select() {
 		final WeightableGroup<T> weightableGroup = this.weightableGroup;
@@ -28,14 +33,23 @@ public class RandomLoadBalance<T extends Weightable> implements LoadBalance<T> {
 			return null;
 		}
 
+		// 只有一个元素时没有其他选择，不需要按比例采样
+		if (weightableGroup.size() < 2) {
+			return weightableGroup.get(0);
+		}
+
 		int sum = weightableGroup.sum();
+		T weightable = weightableGroup.get(ThreadLocalRandom.current().nextInt(sum + 1));
 
-		if (sum < 2) {
-			return weightableGroup.get(0);
+		for (int i = 1; i < WeightableGroup.MAX_SELECT_TIMES; i++) {
+			if (WeightableGroup.isAccepted(weightable)) {
+				break;
+			}
+
+			weightable = weightableGroup.get(ThreadLocalRandom.current().nextInt(sum + 1));
 		}
 
-		int seed = ThreadLocalRandom.current().nextInt(sum + 1);
-		return weightableGroup.get(seed);
+		return weightable;
 	}
 
 }
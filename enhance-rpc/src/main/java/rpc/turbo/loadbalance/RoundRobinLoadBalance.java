@@ -22,6 +22,11 @@ public class RoundRobinLoadBalance<T extends Weightable> implements LoadBalance<
 		weightableGroup = new WeightableGroup<>(weightables);
 	}
 
+	@Override
+	public void setWeightableGroup(WeightableGroup<T> weightableGroup) {
+		this.weightableGroup = weightableGroup;
+	}
+
 	@Override
 	public T select() {
 		final WeightableGroup<T> weightableGroup = this.weightableGroup;
@@ -30,14 +35,22 @@ public class RoundRobinLoadBalance<T extends Weightable> implements LoadBalance<
 			return null;
 		}
 
-		int sum = weightableGroup.sum();
-
-		if (sum < 2) {
+		// 只有一个元素时没有其他选择，不需要按比例采样
+		if (weightableGroup.size() < 2) {
 			return weightableGroup.get(0);
 		}
 
-		int seed = sequencer.next();
-		return weightableGroup.get(seed);
+		T weightable = weightableGroup.get(sequencer.next());
+
+		for (int i = 1; i < WeightableGroup.MAX_SELECT_TIMES; i++) {
+			if (WeightableGroup.isAccepted(weightable)) {
+				break;
+			}
+
+			weightable = weightableGroup.get(sequencer.next());
+		}
+
+		return weightable;
 	}
 
 }
@@ -0,0 +1,56 @@
+package rpc.turbo.loadbalance;
+
+import java.util.List;
+
+import rpc.turbo.util.concurrent.ConcurrentIntegerSequencer;
+
+/**
+ * 平滑加权轮询，与nginx的smooth weighted round-robin结果一致，高权重的服务均匀分散在整个周期中
+ * 
+ * <pre>
+ * 一个周期的选择顺序在设置时预先计算，并在共享同一个WeightableGroup的LoadBalance之间复用，选择时只需要一次取模，无锁
+ * </pre>
+ * 
+ * @author zhushimmer
+ *
+ * @param <T>
+ *            必须为Weightable子类
+ */
+public class SmoothRoundRobinLoadBalance<T extends Weightable> implements LoadBalance<T> {
+	private final ConcurrentIntegerSequencer sequencer = new ConcurrentIntegerSequencer(0, true);
+
+	protected volatile WeightableGroup<T> weightableGroup = null;
+
+	@Override
+	public void setWeightables(List<T> weightables) {
+		setWeightableGroup(new WeightableGroup<>(weightables));
+	}
+
+	@Override
+	public void setWeightableGroup(WeightableGroup<T> weightableGroup) {
+		weightableGroup.smoothSelect(0);// 提前构建选择顺序，不影响请求延迟
+		this.weightableGroup = weightableGroup;
+	}
+
+	@Override
+	public T select() {
+		final WeightableGroup<T> weightableGroup = this.weightableGroup;
+
+		if (weightableGroup == null) {
+			return null;
+		}
+
+		T weightable = weightableGroup.smoothSelect(sequencer.next());
+
+		for (int i = 1; i < WeightableGroup.MAX_SELECT_TIMES; i++) {
+			if (WeightableGroup.isAccepted(weightable)) {
+				break;
+			}
+
+			weightable = weightableGroup.smoothSelect(sequencer.next());
+		}
+
+		return weightable;
+	}
+
+}
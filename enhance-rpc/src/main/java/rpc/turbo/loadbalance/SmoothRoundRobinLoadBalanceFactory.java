@@ -0,0 +1,10 @@
+package rpc.turbo.loadbalance;
+
+public class SmoothRoundRobinLoadBalanceFactory<T extends Weightable> implements LoadBalanceFactory<T> {
+
+	@Override
+	public LoadBalance<T> newLoadBalance() {
+		return new SmoothRoundRobinLoadBalance<>();
+	}
+
+}
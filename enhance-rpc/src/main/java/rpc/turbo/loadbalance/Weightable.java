@@ -2,4 +2,40 @@ package rpc.turbo.loadbalance;
 
 public interface Weightable {
 	int weight();
+
+	/**
+	 * 当前生效的权重比例，用于慢启动等场景，变化时不需要重建WeightableGroup
+	 * 
+	 * @return (0, 1]，默认为1
+	 */
+	default float weightRatio() {
+		return 1F;
+	}
+
+	/**
+	 * 一致性哈希使用的标识，同一个元素在不同进程中、重建前后应该相同
+	 * 
+	 * @return
+	 */
+	default String identity() {
+		return toString();
+	}
+
+	/**
+	 * 所在区域，用于区域感知的负载均衡
+	 * 
+	 * @return 可空
+	 */
+	default String zone() {
+		return null;
+	}
+
+	/**
+	 * 客户端观察到的未完成请求数，用于区域感知时比较各区域的负载与容量
+	 * 
+	 * @return 未知时返回0
+	 */
+	default int inflight() {
+		return 0;
+	}
 }
@@ -1,7 +1,9 @@
 package rpc.turbo.loadbalance;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 import rpc.turbo.util.MathUtils;
 
@@ -14,11 +16,32 @@ import rpc.turbo.util.MathUtils;
  *            必须为Weightable子类
  */
 public final class WeightableGroup<T extends Weightable> {
+	/**
+	 * 按{@link Weightable#weightRatio()}拒绝采样的最大次数，都被拒绝时直接使用最后一次的结果，选择的耗时有上限<br>
+	 * 只有少数元素的比例小于1时，分布接近 weight * weightRatio；多数元素的比例都很小时，截断使比例小的元素得到更多流量，
+	 * 所有元素比例相同时退化为按weight分配，例如相同权重下：
+	 * 
+	 * <pre>
+	 * 2个元素，1个比例0.25：该元素理想占比20%，实际约21.6%
+	 * 10个元素，9个比例0.1：这9个合计理想占比47.4%，实际约70%
+	 * </pre>
+	 */
+	public static final int MAX_SELECT_TIMES = 4;
+
+	/** 平滑轮询一个周期的最大长度 */
+	private static final int MAX_SMOOTH_SEQUENCE_LENGTH = 1 << 14;
+
 	private final ArrayList<T> weightables;
 	private final int[] weightLadder;
 	private final int weightSum;
 	private final boolean fastMode;
 
+	// 按需构建，多个LoadBalance共享同一个分组时只构建一次，并发构建时结果相同
+	private volatile AliasTable<T> aliasTable;
+	private volatile int[] smoothSequence;
+	private volatile HashRing<T> hashRing;
+	private volatile ZonePartition<T> zonePartition;
+
 	public WeightableGroup(final List<T> weightables) {
 		ArrayList<T> weightableList = new ArrayList<>(weightables.size());
 
@@ -91,6 +114,24 @@ public final class WeightableGroup<T extends Weightable> {
 		this.weightSum = weights[weights.length - 1];
 	}
 
+	/**
+	 * 有效的元素，不包含权重小于1的
+	 * 
+	 * @return 不可修改
+	 */
+	public final List<T> weightables() {
+		return Collections.unmodifiableList(weightables);
+	}
+
+	/**
+	 * 有效元素的数量
+	 * 
+	 * @return
+	 */
+	public final int size() {
+		return weightables.size();
+	}
+
 	/**
 	 * 获取weight之和，配合{@link #get(int)}使用<br>
 	 * 
@@ -121,13 +162,12 @@ public final class WeightableGroup<T extends Weightable> {
 			return null;
 		}
 
-		if (weightSum == 1) {
+		// 两个相同权重的元素weightSum同样为1，不能只用weightSum判断
+		if (weightables.size() == 1) {
 			return weightables.get(0);
 		}
 
-		if (seed < 0) {
-			seed = -seed;
-		}
+		seed &= Integer.MAX_VALUE;
 
 		if (seed > weightSum) {
 			seed = seed % (weightSum + 1);
@@ -142,6 +182,206 @@ public final class WeightableGroup<T extends Weightable> {
 		return weightables.get(index);
 	}
 
+	/**
+	 * alias method选择表，用于O(1)的加权随机
+	 * 
+	 * @return
+	 */
+	public final AliasTable<T> aliasTable() {
+		AliasTable<T> table = this.aliasTable;
+
+		if (table == null) {
+			table = new AliasTable<>(weightables, weights());
+			this.aliasTable = table;
+		}
+
+		return table;
+	}
+
+	/**
+	 * 一致性哈希环
+	 * 
+	 * @param previous
+	 *            上一个分组的哈希环，用于增量构建，可空
+	 * @return
+	 */
+	public final HashRing<T> hashRing(HashRing<T> previous) {
+		HashRing<T> ring = this.hashRing;
+
+		if (ring == null) {
+			ring = HashRing.build(weightables, previous);
+			this.hashRing = ring;
+		}
+
+		return ring;
+	}
+
+	/**
+	 * 按区域拆分的两个子分组，共享该分组的多个LoadBalance得到相同的子分组，子分组上按需构建的选择表同样只构建一次
+	 * 
+	 * @param zone
+	 *            当前所在区域
+	 * @return
+	 */
+	public final ZonePartition<T> zonePartition(String zone) {
+		ZonePartition<T> partition = this.zonePartition;
+
+		if (partition != null && partition.zone.equals(zone)) {
+			return partition;
+		}
+
+		// 子分组的实例必须唯一，才能被共享
+		synchronized (this) {
+			partition = this.zonePartition;
+
+			if (partition == null || !partition.zone.equals(zone)) {
+				partition = new ZonePartition<>(zone, weightables);
+				this.zonePartition = partition;
+			}
+
+			return partition;
+		}
+	}
+
+	/**
+	 * 平滑加权轮询，与nginx的smooth weighted round-robin结果一致
+	 * 
+	 * @param sequence
+	 *            递增的序号
+	 * @return
+	 */
+	public final T smoothSelect(int sequence) {
+		if (weightSum == 0) {
+			return null;
+		}
+
+		if (weightables.size() == 1 || fastMode) {
+			return get(sequence);
+		}
+
+		int[] smoothSequence = this.smoothSequence;
+
+		if (smoothSequence == null) {
+			smoothSequence = buildSmoothSequence(weights());
+			this.smoothSequence = smoothSequence;
+		}
+
+		// -Integer.MIN_VALUE仍然是负数
+		sequence &= Integer.MAX_VALUE;
+
+		return weightables.get(smoothSequence[sequence % smoothSequence.length]);
+	}
+
+	/**
+	 * 约分后的权重
+	 * 
+	 * @return
+	 */
+	private int[] weights() {
+		int[] weights = new int[weightables.size()];
+
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = i == 0 ? weightLadder[0] + 1 : weightLadder[i] - weightLadder[i - 1];
+		}
+
+		return weights;
+	}
+
+	/**
+	 * 一个完整周期的nginx smooth weighted round-robin选择顺序，周期过长时按比例缩小权重
+	 * 
+	 * @param weights
+	 * @return
+	 */
+	private static int[] buildSmoothSequence(int[] weights) {
+		long total = 0;
+		for (int weight : weights) {
+			total += weight;
+		}
+
+		if (total > MAX_SMOOTH_SEQUENCE_LENGTH) {
+			double ratio = (double) MAX_SMOOTH_SEQUENCE_LENGTH / total;
+
+			total = 0;
+			weights = weights.clone();
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = Math.max(1, (int) (weights[i] * ratio));
+				total += weights[i];
+			}
+		}
+
+		int length = (int) total;
+		int[] sequence = new int[length];
+		long[] current = new long[weights.length];
+
+		for (int n = 0; n < length; n++) {
+			int best = 0;
+
+			for (int i = 0; i < weights.length; i++) {
+				current[i] += weights[i];
+
+				if (current[i] > current[best]) {
+					best = i;
+				}
+			}
+
+			current[best] -= total;
+			sequence[n] = best;
+		}
+
+		return sequence;
+	}
+
+	/**
+	 * 按照{@link Weightable#weightRatio()}拒绝采样，比例小于1的元素按比例接受，整体分布近似于 weight * weightRatio
+	 * 
+	 * @param weightable
+	 * @return 是否接受
+	 */
+	public static boolean isAccepted(Weightable weightable) {
+		if (weightable == null) {
+			return true;
+		}
+
+		float ratio = weightable.weightRatio();
+
+		if (ratio >= 1F) {
+			return true;
+		}
+
+		return ThreadLocalRandom.current().nextFloat() < ratio;
+	}
+
+	/**
+	 * 同区域和其他区域的元素，不可变
+	 * 
+	 * @param <T>
+	 */
+	public static final class ZonePartition<T extends Weightable> {
+		public final String zone;
+		public final WeightableGroup<T> local;
+		public final WeightableGroup<T> remote;
+
+		private ZonePartition(String zone, List<T> weightables) {
+			List<T> localList = new ArrayList<>(weightables.size());
+			List<T> remoteList = new ArrayList<>(weightables.size());
+
+			for (int i = 0; i < weightables.size(); i++) {
+				T weightable = weightables.get(i);
+
+				if (zone.equals(weightable.zone())) {
+					localList.add(weightable);
+				} else {
+					remoteList.add(weightable);
+				}
+			}
+
+			this.zone = zone;
+			this.local = new WeightableGroup<>(localList);
+			this.remote = new WeightableGroup<>(remoteList);
+		}
+	}
+
 	private static final int binarySearch(int[] values, int key) {
 		int low = 0;
 		int high = values.length - 1;
@@ -0,0 +1,165 @@
+package rpc.turbo.loadbalance;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+import rpc.turbo.util.SystemClock;
+
+/**
+ * 区域感知，优先选择同区域的元素，以下情况按比例溢出到其他区域<br>
+ * 1. 同区域整体不健康(慢启动、服务端高负载)，有效容量不足<br>
+ * 2. 同区域单位权重的在途请求数明显高于其他区域，即同区域的负载超出了其容量<br>
+ * 区域内部和其他区域分别使用各自的LoadBalance，子分组由{@link WeightableGroup#zonePartition(String)}共享
+ * 
+ * @author zhushimmer
+ *
+ * @param <T>
+ *            必须为Weightable子类
+ */
+public class ZoneAwareLoadBalance<T extends Weightable> implements LoadBalance<T> {
+	/** 同区域的有效权重比例不低于该值时不溢出 */
+	public static final float HEALTHY_RATIO = 0.8F;
+	/** 同区域单位权重的在途请求数超过其他区域的该倍数时溢出，跨区域调用有额外的延迟 */
+	public static final float OVERLOAD_FACTOR = 1.5F;
+	/** 因负载溢出的最大比例，防止全部流量在区域间来回摆动 */
+	public static final float MAX_LOAD_SPILL_RATIO = 0.5F;
+	/** 同区域平均每个元素的在途请求数低于该值时认为负载很轻，不因负载溢出 */
+	private static final int MIN_INFLIGHT_PER_WEIGHTABLE = 2;
+	/** 溢出比例的刷新间隔 */
+	private static final long REFRESH_MILLIS = 100;
+
+	private final String zone;
+	private final LoadBalance<T> local;
+	private final LoadBalance<T> remote;
+
+	private volatile List<T> localWeightables = List.of();
+	private volatile List<T> remoteWeightables = List.of();
+
+	private volatile float spillRatio = 0F;
+	private volatile long refreshTime = 0L;
+
+	/**
+	 * 
+	 * @param zone
+	 *            当前所在区域
+	 * @param local
+	 *            同区域使用的LoadBalance
+	 * @param remote
+	 *            其他区域使用的LoadBalance
+	 */
+	public ZoneAwareLoadBalance(String zone, LoadBalance<T> local, LoadBalance<T> remote) {
+		this.zone = Objects.requireNonNull(zone, "zone");
+		this.local = Objects.requireNonNull(local, "local");
+		this.remote = Objects.requireNonNull(remote, "remote");
+	}
+
+	@Override
+	public void setWeightables(List<T> weightables) {
+		setWeightableGroup(new WeightableGroup<>(weightables));
+	}
+
+	@Override
+	public synchronized void setWeightableGroup(WeightableGroup<T> weightableGroup) {
+		WeightableGroup.ZonePartition<T> partition = weightableGroup.zonePartition(zone);
+
+		local.setWeightableGroup(partition.local);
+		remote.setWeightableGroup(partition.remote);
+
+		this.localWeightables = partition.local.weightables();
+		this.remoteWeightables = partition.remote.weightables();
+		this.refreshTime = 0L;
+	}
+
+	@Override
+	public T select() {
+		return select(null);
+	}
+
+	@Override
+	public T select(Object key) {
+		if (localWeightables.isEmpty()) {
+			return remote.select(key);
+		}
+
+		if (!remoteWeightables.isEmpty()) {
+			float spillRatio = spillRatio();
+
+			if (spillRatio > 0F && ThreadLocalRandom.current().nextFloat() < spillRatio) {
+				T weightable = remote.select(key);
+
+				if (weightable != null) {
+					return weightable;
+				}
+			}
+		}
+
+		return local.select(key);
+	}
+
+	/**
+	 * 溢出到其他区域的比例，取健康度和负载两者中较大的<br>
+	 * 健康度: 同区域有效权重比例低于{@link #HEALTHY_RATIO}时线性增加<br>
+	 * 负载: 同区域单位有效权重的在途请求数超过其他区域的{@link #OVERLOAD_FACTOR}倍时，溢出超出的部分
+	 * 
+	 * @return [0, 1]
+	 */
+	public float spillRatio() {
+		long currentTime = SystemClock.fast().mills();
+
+		if (currentTime - refreshTime < REFRESH_MILLIS) {
+			return spillRatio;
+		}
+
+		List<T> weightables = this.localWeightables;
+		double weightSum = 0;
+		double localCapacity = 0;
+		long localInflight = 0;
+
+		for (int i = 0; i < weightables.size(); i++) {
+			T weightable = weightables.get(i);
+
+			weightSum += weightable.weight();
+			localCapacity += weightable.weight() * weightable.weightRatio();
+			localInflight += weightable.inflight();
+		}
+
+		float healthRatio = weightSum > 0 ? (float) (localCapacity / weightSum) : 0F;
+		float healthSpill = healthRatio >= HEALTHY_RATIO ? 0F : 1F - healthRatio / HEALTHY_RATIO;
+
+		float loadSpill = 0F;
+		if (localCapacity > 0 && localInflight >= (long) weightables.size() * MIN_INFLIGHT_PER_WEIGHTABLE) {
+			List<T> remoteList = this.remoteWeightables;
+			double remoteCapacity = 0;
+			long remoteInflight = 0;
+
+			for (int i = 0; i < remoteList.size(); i++) {
+				T weightable = remoteList.get(i);
+
+				remoteCapacity += weightable.weight() * weightable.weightRatio();
+				remoteInflight += weightable.inflight();
+			}
+
+			if (remoteCapacity > 0) {
+				double localLoad = localInflight / localCapacity;
+				double remoteLoad = Math.max(remoteInflight, 1) / remoteCapacity;
+
+				if (localLoad > remoteLoad * OVERLOAD_FACTOR) {
+					loadSpill = Math.min((float) (1 - remoteLoad * OVERLOAD_FACTOR / localLoad), MAX_LOAD_SPILL_RATIO);
+				}
+			}
+		}
+
+		float ratio = Math.max(healthSpill, loadSpill);
+
+		this.spillRatio = ratio;
+		this.refreshTime = currentTime;
+
+		return ratio;
+	}
+
+	public String getZone() {
+		return zone;
+	}
+
+}
@@ -0,0 +1,42 @@
+package rpc.turbo.loadbalance;
+
+import java.util.Objects;
+
+/**
+ * 区域感知，同区域和其他区域内部的选择使用delegate创建的LoadBalance
+ * 
+ * @author zhushimmer
+ *
+ * @param <T>
+ *            必须为Weightable子类
+ */
+public class ZoneAwareLoadBalanceFactory<T extends Weightable> implements LoadBalanceFactory<T> {
+
+	private final String zone;
+	private final LoadBalanceFactory<T> delegate;
+
+	/**
+	 * 
+	 * @param zone
+	 *            当前所在区域
+	 * @param delegate
+	 */
+	public ZoneAwareLoadBalanceFactory(String zone, LoadBalanceFactory<T> delegate) {
+		this.zone = Objects.requireNonNull(zone, "zone");
+		this.delegate = Objects.requireNonNull(delegate, "delegate");
+	}
+
+	@Override
+	public LoadBalance<T> newLoadBalance() {
+		return new ZoneAwareLoadBalance<>(zone, delegate.newLoadBalance(), delegate.newLoadBalance());
+	}
+
+	/**
+	 * 先按区域选择，再在选中的区域内按key一致性哈希
+	 */
+	@Override
+	public LoadBalance<T> newKeyedLoadBalance() {
+		return new ZoneAwareLoadBalance<>(zone, delegate.newKeyedLoadBalance(), delegate.newKeyedLoadBalance());
+	}
+
+}
@@ -57,6 +57,10 @@ public final class MethodParamClassFactory {
 	 * 	public UserService_getUser_1_6f7c1a8cf867a945306fb82a78c0a191265b9786(long id) {
 	 * 		this.id = id;
 	 * 	}
+	 * 
+	 * 	public boolean equals(Object obj) {...}
+	 * 
+	 * 	public int hashCode() {...}
 	 * }
 	 * </pre>
 	 * 
@@ -152,6 +156,11 @@ public final class MethodParamClassFactory {
 			methodParamCtClass.addMethod(CtNewMethod.setter(setter, ctField));
 		}
 
+		// 添加equals和hashCode，用于结果缓存等以参数为key的场景
+		methodParamCtClass
+				.addMethod(CtNewMethod.make(equalsSource(methodParamClassName, parameters), methodParamCtClass));
+		methodParamCtClass.addMethod(CtNewMethod.make(hashCodeSource(parameters), methodParamCtClass));
+
 		// 添加无参的构造函数
 		CtConstructor constructor0 = new CtConstructor(null, methodParamCtClass);
 		constructor0.setModifiers(Modifier.PUBLIC);
@@ -189,4 +198,83 @@ public final class MethodParamClassFactory {
 		return (Class<? extends MethodParam>) methodParamCtClass.toClass();
 	}
 
+	private static String equalsSource(String methodParamClassName, Parameter[] parameters) {
+		StringBuilder builder = ThreadLocalStringBuilder.current();
+
+		builder.append("public boolean equals(Object obj) {\r\n");
+		builder.append("  if ($0 == obj) { return true; }\r\n");
+		builder.append("  if (obj == null || $0.getClass() != obj.getClass()) { return false; }\r\n");
+		builder.append("  ").append(methodParamClassName).append(" other = (").append(methodParamClassName)
+				.append(") obj;\r\n");
+
+		for (Parameter parameter : parameters) {
+			Class<?> type = parameter.getType();
+			String self = "$0." + parameter.getName();
+			String other = "other." + parameter.getName();
+
+			builder.append("  if (");
+
+			if (type == float.class) {
+				builder.append("Float.compare(").append(self).append(", ").append(other).append(") != 0");
+			} else if (type == double.class) {
+				builder.append("Double.compare(").append(self).append(", ").append(other).append(") != 0");
+			} else if (type.isPrimitive()) {
+				builder.append(self).append(" != ").append(other);
+			} else if (type.isArray() && type.getComponentType().isPrimitive()) {
+				builder.append("!java.util.Arrays.equals(").append(self).append(", ").append(other).append(")");
+			} else if (type.isArray()) {
+				builder.append("!java.util.Arrays.deepEquals(").append(self).append(", ").append(other).append(")");
+			} else {
+				builder.append("!java.util.Objects.equals(").append(self).append(", ").append(other).append(")");
+			}
+
+			builder.append(") { return false; }\r\n");
+		}
+
+		builder.append("  return true;\r\n");
+		builder.append("}");
+
+		return builder.toString();
+	}
+
+	private static String hashCodeSource(Parameter[] parameters) {
+		StringBuilder builder = ThreadLocalStringBuilder.current();
+
+		builder.append("public int hashCode() {\r\n");
+		builder.append("  int h = 1;\r\n");
+
+		for (Parameter parameter : parameters) {
+			Class<?> type = parameter.getType();
+			String self = "$0." + parameter.getName();
+
+			builder.append("  h = 31 * h + ");
+
+			if (type == boolean.class) {
+				builder.append("(").append(self).append(" ? 1231 : 1237)");
+			} else if (type == long.class) {
+				builder.append("(int) (").append(self).append(" ^ (").append(self).append(" >>> 32))");
+			} else if (type == float.class) {
+				builder.append("Float.floatToIntBits(").append(self).append(")");
+			} else if (type == double.class) {
+				builder.append("(int) (Double.doubleToLongBits(").append(self).append(") ^ (Double.doubleToLongBits(")
+						.append(self).append(") >>> 32))");
+			} else if (type.isPrimitive()) {
+				builder.append("(int) ").append(self);
+			} else if (type.isArray() && type.getComponentType().isPrimitive()) {
+				builder.append("java.util.Arrays.hashCode(").append(self).append(")");
+			} else if (type.isArray()) {
+				builder.append("java.util.Arrays.deepHashCode(").append(self).append(")");
+			} else {
+				builder.append("java.util.Objects.hashCode(").append(self).append(")");
+			}
+
+			builder.append(";\r\n");
+		}
+
+		builder.append("  return h;\r\n");
+		builder.append("}");
+
+		return builder.toString();
+	}
+
 }
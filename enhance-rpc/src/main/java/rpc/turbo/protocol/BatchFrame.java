@@ -0,0 +1,153 @@
+package rpc.turbo.protocol;
+
+import static rpc.turbo.config.TurboConstants.BATCH_FRAME_FLAG;
+import static rpc.turbo.config.TurboConstants.FRAME_LENGTH_MASK;
+import static rpc.turbo.config.TurboConstants.HEADER_FIELD_LENGTH;
+import static rpc.turbo.config.TurboConstants.MAX_BATCH_BODY_LENGTH;
+import static rpc.turbo.config.TurboConstants.ONE_WAY_FRAME_FLAG;
+
+import io.netty.buffer.ByteBuf;
+import rpc.turbo.serialization.Serializer;
+import rpc.turbo.serialization.TracerSerializer;
+import rpc.turbo.trace.Tracer;
+import rpc.turbo.util.ByteBufUtils;
+
+/**
+ * 批量请求帧，同一个方法的多个请求共享serviceId和tracer，服务端只查找一次invoker，响应仍然逐个返回<br>
+ * 格式: [长度|BATCH_FRAME_FLAG][serviceId][tracer][子帧1][子帧2]...，子帧为[长度][requestId][参数]，
+ * 见{@link Serializer#writeBatchRequest(ByteBuf, Request)}<br>
+ * 请求帧(包括子帧)的长度字段还可能带有ONE_WAY_FRAME_FLAG，表示服务端不需要返回响应
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class BatchFrame {
+	private static final TracerSerializer TRACER_SERIALIZER = new TracerSerializer();
+
+	/**
+	 * 批量帧需要的最大帧长度，最后一个子帧可能超出MAX_BATCH_BODY_LENGTH
+	 * 
+	 * @param maxFrameLength
+	 * @return
+	 */
+	public static int maxFrameLength(int maxFrameLength) {
+		return maxFrameLength + MAX_BATCH_BODY_LENGTH + HEADER_FIELD_LENGTH;
+	}
+
+	/**
+	 * 写入批量帧头，长度在{@link #end(ByteBuf, int)}时回填
+	 * 
+	 * @param byteBuf
+	 * @param serviceId
+	 *            所有子请求共享
+	 * @param tracer
+	 *            所有子请求共享，可空
+	 * @return 帧开始的位置
+	 */
+	public static int begin(ByteBuf byteBuf, int serviceId, Tracer tracer) {
+		int beginWriterIndex = byteBuf.writerIndex();
+		byteBuf.writeInt(0);
+		ByteBufUtils.writeVarInt(byteBuf, serviceId);
+		TRACER_SERIALIZER.write(byteBuf, tracer);
+
+		return beginWriterIndex;
+	}
+
+	/**
+	 * 读取批量帧头中共享的serviceId，需要在{@link #readTracer(ByteBuf)}之前调用
+	 * 
+	 * @param body
+	 * @return
+	 */
+	public static int readServiceId(ByteBuf body) {
+		return ByteBufUtils.readVarInt(body);
+	}
+
+	/**
+	 * 读取批量帧头中共享的tracer
+	 * 
+	 * @param body
+	 * @return
+	 */
+	public static Tracer readTracer(ByteBuf body) {
+		return TRACER_SERIALIZER.read(body);
+	}
+
+	/**
+	 * 
+	 * @param byteBuf
+	 * @param beginWriterIndex
+	 * @return 是否应该结束当前批量帧
+	 */
+	public static boolean isFull(ByteBuf byteBuf, int beginWriterIndex) {
+		return byteBuf.writerIndex() - beginWriterIndex - HEADER_FIELD_LENGTH >= MAX_BATCH_BODY_LENGTH;
+	}
+
+	/**
+	 * 回填批量帧头
+	 * 
+	 * @param byteBuf
+	 * @param beginWriterIndex
+	 */
+	public static void end(ByteBuf byteBuf, int beginWriterIndex) {
+		int length = byteBuf.writerIndex() - beginWriterIndex - HEADER_FIELD_LENGTH;
+		byteBuf.setInt(beginWriterIndex, length | BATCH_FRAME_FLAG);
+	}
+
+	/**
+	 * 在解码前判断下一个帧是否为批量帧，不改变readerIndex
+	 * 
+	 * @param in
+	 * @return
+	 */
+	public static boolean isBatch(ByteBuf in) {
+		return in.readableBytes() >= HEADER_FIELD_LENGTH //
+				&& (in.getInt(in.readerIndex()) & BATCH_FRAME_FLAG) != 0;
+	}
+
+	/**
+	 * 为已写入的请求帧加上单向标记
+	 * 
+	 * @param byteBuf
+	 * @param beginWriterIndex
+	 *            请求帧开始的位置
+	 */
+	public static void markOneWay(ByteBuf byteBuf, int beginWriterIndex) {
+		byteBuf.setInt(beginWriterIndex, byteBuf.getInt(beginWriterIndex) | ONE_WAY_FRAME_FLAG);
+	}
+
+	/**
+	 * 在解码前判断下一个帧(或子帧)是否为单向请求，不改变readerIndex
+	 * 
+	 * @param in
+	 * @return
+	 */
+	public static boolean isOneWay(ByteBuf in) {
+		return in.readableBytes() >= HEADER_FIELD_LENGTH //
+				&& (in.getInt(in.readerIndex()) & ONE_WAY_FRAME_FLAG) != 0;
+	}
+
+	/**
+	 * 去掉标记后的帧长度
+	 * 
+	 * @param header
+	 * @return
+	 */
+	public static long frameLength(long header) {
+		return header & FRAME_LENGTH_MASK;
+	}
+
+	/**
+	 * 读取下一个子帧，返回的是共享内容的slice
+	 * 
+	 * @param body
+	 * @return
+	 */
+	public static ByteBuf nextFrame(ByteBuf body) {
+		int header = body.readInt();
+		return body.readSlice(header & FRAME_LENGTH_MASK);
+	}
+
+	private BatchFrame() {
+	}
+}
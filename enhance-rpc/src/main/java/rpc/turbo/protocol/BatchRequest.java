@@ -0,0 +1,46 @@
+package rpc.turbo.protocol;
+
+import java.util.Arrays;
+
+/**
+ * 服务端解码出的批量请求，见{@link BatchFrame}
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class BatchRequest {
+
+	private final int serviceId;
+	private final Request[] requests;
+
+	/**
+	 * 
+	 * @param serviceId
+	 *            所有子请求共享
+	 * @param requests
+	 */
+	public BatchRequest(int serviceId, Request[] requests) {
+		this.serviceId = serviceId;
+		this.requests = requests;
+	}
+
+	public int getServiceId() {
+		return serviceId;
+	}
+
+	public int size() {
+		return requests.length;
+	}
+
+	public Request get(int index) {
+		return requests[index];
+	}
+
+	@Override
+	public String toString() {
+		return "BatchRequest{" + //
+				"serviceId=" + serviceId + //
+				", requests=" + Arrays.toString(requests) + //
+				'}';
+	}
+}
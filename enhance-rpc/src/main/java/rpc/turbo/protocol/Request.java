@@ -21,6 +21,10 @@ public class Request implements Serializable {
 	private int serviceId;
 	private Tracer tracer;
 	private MethodParam methodParam;
+	/** 单向请求，不参与序列化，通过帧头标记传递 */
+	private transient boolean oneWay;
+	/** 可以与同一方法的其他请求打包为批量帧，不参与序列化 */
+	private transient boolean batchFrame;
 
 	public int getRequestId() {
 		return requestId;
@@ -54,12 +58,29 @@ public class Request implements Serializable {
 		this.methodParam = methodParam;
 	}
 
+	public boolean isOneWay() {
+		return oneWay;
+	}
+
+	public void setOneWay(boolean oneWay) {
+		this.oneWay = oneWay;
+	}
+
+	public boolean isBatchFrame() {
+		return batchFrame;
+	}
+
+	public void setBatchFrame(boolean batchFrame) {
+		this.batchFrame = batchFrame;
+	}
+
 	@Override
 	public String toString() {
 		return "Request{" + //
 				"requestId=" + requestId + //
 				", serviceId=" + serviceId + //
 				", tracer=" + tracer + //
+				", oneWay=" + oneWay + //
 				'}';
 	}
 }
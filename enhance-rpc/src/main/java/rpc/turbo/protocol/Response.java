@@ -20,6 +20,8 @@ public class Response implements Serializable {
 	private byte statusCode;
 	private Tracer tracer;
 	private Object result;
+	/** 服务端负载，见{@link ServerLoad}，放在最后保持与老版本的兼容 */
+	private long serverLoad;
 
 	public int getRequestId() {
 		return requestId;
@@ -53,6 +55,14 @@ public class Response implements Serializable {
 		this.result = result;
 	}
 
+	public long getServerLoad() {
+		return serverLoad;
+	}
+
+	public void setServerLoad(long serverLoad) {
+		this.serverLoad = serverLoad;
+	}
+
 	@Override
 	public String toString() {
 		return "Response{" + //
@@ -60,6 +70,7 @@ public class Response implements Serializable {
 				", statusCode=" + statusCode + //
 				", tracer=" + tracer + //
 				", result=" + result + //
+				", serverLoad=" + ServerLoad.toString(serverLoad) + //
 				'}';
 	}
 }
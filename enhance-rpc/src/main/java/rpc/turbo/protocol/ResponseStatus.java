@@ -15,4 +15,8 @@ public interface ResponseStatus {
 	public static final byte TIMEOUT = 6;
 	public static final byte CLIENT_FILTER_DENY = 7;
 	public static final byte SERVER_FILTER_DENY = 8;
+	/** 服务端超过并发上限，请求未被处理，可以安全地换一台服务器重试 */
+	public static final byte SERVER_OVERLOAD = 9;
+	/** 方法的隔离舱已满，请求未被处理，其他方法不受影响 */
+	public static final byte SERVER_BULKHEAD_FULL = 10;
 }
@@ -0,0 +1,63 @@
+package rpc.turbo.protocol;
+
+/**
+ * 服务端负载，压缩为一个long随响应返回，0表示未知
+ * 
+ * <pre>
+ * 高16位: 处理中的请求数
+ * 中16位: io线程排队的任务数
+ * 低32位: 处理耗时的指数加权移动平均，微秒
+ * </pre>
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class ServerLoad {
+	private static final int MAX_COUNT = 0xFFFF;
+	private static final long MAX_LATENCY = 0xFFFFFFFFL;
+
+	private ServerLoad() {
+	}
+
+	public static long pack(int inflight, int pendingTasks, long latencyMicros) {
+		long packed = ((long) clamp(inflight) << 48)//
+				| ((long) clamp(pendingTasks) << 32)//
+				| Math.min(Math.max(latencyMicros, 1L), MAX_LATENCY);// 至少为1，与未知区分
+
+		return packed;
+	}
+
+	public static int inflight(long serverLoad) {
+		return (int) (serverLoad >>> 48);
+	}
+
+	public static int pendingTasks(long serverLoad) {
+		return (int) (serverLoad >>> 32) & MAX_COUNT;
+	}
+
+	public static long latencyMicros(long serverLoad) {
+		return serverLoad & MAX_LATENCY;
+	}
+
+	/**
+	 * 负载评分，越大负载越高，排队越多、耗时越长评分越高
+	 * 
+	 * @param serverLoad
+	 * @return
+	 */
+	public static double score(long serverLoad) {
+		return (double) latencyMicros(serverLoad) * (1 + inflight(serverLoad) + pendingTasks(serverLoad));
+	}
+
+	private static int clamp(int count) {
+		return Math.min(Math.max(count, 0), MAX_COUNT);
+	}
+
+	public static String toString(long serverLoad) {
+		return "ServerLoad{" + //
+				"inflight=" + inflight(serverLoad) + //
+				", pendingTasks=" + pendingTasks(serverLoad) + //
+				", latencyMicros=" + latencyMicros(serverLoad) + //
+				'}';
+	}
+}
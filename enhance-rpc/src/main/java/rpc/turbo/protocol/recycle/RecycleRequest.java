@@ -28,6 +28,8 @@ public class RecycleRequest extends Request implements Recycleable {
 		recycleRequest.setServiceId(serviceId);
 		recycleRequest.setTracer(tracer);
 		recycleRequest.setMethodParam(methodParam);
+		recycleRequest.setOneWay(false);
+		recycleRequest.setBatchFrame(false);
 
 		return recycleRequest;
 	}
@@ -55,6 +55,7 @@ public class RecycleResponse extends Response implements Recycleable {
 		this.request = null;// 加快垃圾回收
 		setResult(null);// 加快垃圾回收
 		setTracer(null);// 加快垃圾回收
+		setServerLoad(0);// 老版本服务端不返回
 
 		handle.recycle(this);
 	}
@@ -27,7 +27,7 @@ public class DirectConnectRegister implements Register {
 	public void register(String group, String app, Protocol protocol, HostPort serverAddress, int servierWeight) {
 		if (logger.isInfoEnabled()) {
 			logger.info(name + " 注册服务器:" + group + "#" + app + ", protocol:" + protocol + ", serverAddress:"
-					+ serverAddress + ", weight:" + servierWeight);
+					+ serverAddress.toFullString() + ", weight:" + servierWeight);
 		}
 	}
 
@@ -51,6 +51,65 @@ public interface RemoteInterface {
 		}
 	}
 
+	/**
+	 * 带客户端结果缓存的远程调用，回退方法的结果不会被缓存
+	 *
+	 * @param methodId
+	 * @param timeout
+	 *            超时时间，millseconds
+	 * @param methodParam
+	 * @param failoverInvoker
+	 * @param resultCache
+	 *            为null时不使用缓存
+	 * @return
+	 */
+	default public CompletableFuture<?> $remote_execute(int methodId, long timeout, MethodParam methodParam,
+			Invoker<CompletableFuture<?>> failoverInvoker, RemoteResultCache resultCache) {
+		if (resultCache == null) {
+			return $remote_execute(methodId, timeout, methodParam, failoverInvoker);
+		}
+
+		// 远程失败以异常完成，正常返回的null照常缓存和返回，是否回退只看调用是否失败
+		CompletableFuture<?> future = resultCache.get(methodParam, //
+				param -> $remote_execute(methodId, timeout, param, App.FAIL_ON_ERROR));
+
+		if (failoverInvoker == null) {
+			// 与不使用缓存时一致，失败返回null
+			return future.exceptionally(t -> null);
+		}
+
+		if (future.isDone() && !future.isCompletedExceptionally()) {
+			return future;
+		}
+
+		CompletableFuture<Object> withFailover = new CompletableFuture<>();
+
+		future.whenComplete((result, throwable) -> {
+			if (throwable == null) {
+				withFailover.complete(result);
+				return;
+			}
+
+			if (logger.isInfoEnabled()) {
+				logger.info("远程调用发生错误，使用本地回退方法执行");
+			}
+
+			try {
+				failoverInvoker.invoke(methodParam).whenComplete((r, t) -> {
+					if (t != null) {
+						withFailover.completeExceptionally(t);
+					} else {
+						withFailover.complete(r);
+					}
+				});
+			} catch (Throwable t) {
+				withFailover.completeExceptionally(t);
+			}
+		});
+
+		return withFailover;
+	}
+
 	default public CompletableFuture<?> $remote_ignore() {
 		return CompletableFuture.failedFuture(IGNORED);
 	}
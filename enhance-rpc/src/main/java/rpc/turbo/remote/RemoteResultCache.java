@@ -0,0 +1,301 @@
+package rpc.turbo.remote;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import rpc.turbo.annotation.TurboClientCache;
+import rpc.turbo.param.EmptyMethodParam;
+import rpc.turbo.param.MethodParam;
+import rpc.turbo.util.SystemClock;
+
+/**
+ * 客户端结果缓存，以MethodParam为key，支持提前刷新和过期后返回旧值同时刷新，<br>
+ * 相同key并发未命中时只发起一次远程调用，失败或者返回null时不缓存
+ *
+ * @author zhushimmer
+ *
+ */
+public final class RemoteResultCache {
+	private static final ToIntFunction<Object> DEFAULT_WEIGHER = result -> 1;
+
+	private final String name;
+	private final long ttl;
+	private final long maxWeight;
+	private final long refreshAhead;
+	private final long staleWhileRevalidate;
+	private final ConcurrentMap<MethodParam, Entry> map;
+
+	private volatile ToIntFunction<Object> weigher = DEFAULT_WEIGHER;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder staleHitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder loadCount = new LongAdder();
+	private final LongAdder loadFailureCount = new LongAdder();
+
+	public RemoteResultCache(String name, TurboClientCache config) {
+		this(name, config.ttl(), config.maxWeight(), config.refreshAhead(), config.staleWhileRevalidate());
+	}
+
+	/**
+	 *
+	 * @param name
+	 *            方法名
+	 * @param ttl
+	 *            有效时间，millseconds
+	 * @param maxWeight
+	 *            最大权重
+	 * @param refreshAhead
+	 *            写入后超过该时间的命中触发异步刷新，小于1时不启用
+	 * @param staleWhileRevalidate
+	 *            过期后仍然可以返回旧值的时间，小于1时不启用
+	 */
+	public RemoteResultCache(String name, long ttl, long maxWeight, long refreshAhead, long staleWhileRevalidate) {
+		if (ttl < 1 || maxWeight < 1) {
+			throw new IllegalArgumentException(
+					"ttl: " + ttl + ", maxWeight: " + maxWeight + " (expected: ttl > 0, maxWeight > 0)");
+		}
+
+		this.name = name;
+		this.ttl = ttl;
+		this.maxWeight = maxWeight;
+		this.refreshAhead = refreshAhead > 0 && refreshAhead < ttl ? refreshAhead : 0;
+		this.staleWhileRevalidate = Math.max(staleWhileRevalidate, 0);
+
+		Cache<MethodParam, Entry> cache = CacheBuilder.newBuilder()//
+				.concurrencyLevel(Runtime.getRuntime().availableProcessors())//
+				.expireAfterWrite(ttl + this.staleWhileRevalidate, TimeUnit.MILLISECONDS)//
+				.maximumWeight(maxWeight)//
+				.<MethodParam, Entry>weigher((key, entry) -> entry.weight)//
+				.build();
+
+		this.map = cache.asMap();
+	}
+
+	/**
+	 *
+	 * @param weigher
+	 *            结果的权重，为null时每个结果的权重为1
+	 */
+	public void setWeigher(ToIntFunction<Object> weigher) {
+		this.weigher = weigher == null ? DEFAULT_WEIGHER : weigher;
+	}
+
+	/**
+	 * 获取结果，未命中时通过loader发起远程调用
+	 *
+	 * @param methodParam
+	 * @param loader
+	 *            远程调用
+	 * @return
+	 */
+	public CompletableFuture<?> get(MethodParam methodParam, Function<MethodParam, CompletableFuture<?>> loader) {
+		final MethodParam key = toKey(methodParam);
+
+		Entry entry = map.get(key);
+
+		if (entry == null) {
+			Entry created = new Entry();
+			entry = map.putIfAbsent(key, created);
+
+			if (entry == null) {
+				missCount.increment();
+				return load(key, methodParam, created, loader);
+			}
+		}
+
+		CompletableFuture<?> value = entry.value;
+		if (value != null) {
+			long age = SystemClock.fast().mills() - entry.writeTime;
+
+			if (age < ttl) {
+				hitCount.increment();
+
+				if (refreshAhead > 0 && age >= refreshAhead) {
+					load(key, methodParam, entry, loader);
+				}
+
+				return value;
+			}
+
+			if (age < ttl + staleWhileRevalidate) {
+				staleHitCount.increment();
+				load(key, methodParam, entry, loader);
+				return value;
+			}
+		}
+
+		missCount.increment();
+		return load(key, methodParam, entry, loader);
+	}
+
+	/**
+	 * 加载或刷新，同一个entry同时只有一次远程调用
+	 */
+	private CompletableFuture<?> load(MethodParam key, MethodParam methodParam, Entry entry,
+			Function<MethodParam, CompletableFuture<?>> loader) {
+
+		CompletableFuture<Object> loading = new CompletableFuture<>();
+
+		if (!Entry.LOADING_UPDATER.compareAndSet(entry, null, loading)) {
+			CompletableFuture<Object> current = entry.loading;
+
+			if (current != null) {
+				return current;
+			}
+
+			// 刚好加载完成
+			return entry.value != null ? entry.value : load(key, methodParam, entry, loader);
+		}
+
+		loadCount.increment();
+
+		CompletableFuture<?> remote;
+		try {
+			remote = loader.apply(methodParam);
+		} catch (Throwable t) {
+			remote = CompletableFuture.failedFuture(t);
+		}
+
+		remote.whenComplete((result, throwable) -> {
+			if (throwable == null && result != null) {
+				entry.value = CompletableFuture.completedFuture(result);
+				entry.writeTime = SystemClock.fast().mills();
+				entry.weight = Math.max(weigher.applyAsInt(result), 0);
+
+				// 重新放入，更新过期时间和权重
+				map.replace(key, entry, entry);
+			} else {
+				loadFailureCount.increment();
+
+				if (entry.value == null) {
+					map.remove(key, entry);
+				}
+			}
+
+			entry.loading = null;
+
+			if (throwable != null) {
+				loading.completeExceptionally(throwable);
+			} else {
+				loading.complete(result);
+			}
+		});
+
+		return loading;
+	}
+
+	/**
+	 * 使缓存失效
+	 *
+	 * @param methodParam
+	 */
+	public void invalidate(MethodParam methodParam) {
+		map.remove(toKey(methodParam));
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void invalidateAll() {
+		map.clear();
+	}
+
+	// 无参方法每次都会new一个EmptyMethodParam，统一为同一个key
+	private static MethodParam toKey(MethodParam methodParam) {
+		if (methodParam == null || methodParam instanceof EmptyMethodParam) {
+			return EmptyMethodParam.empty();
+		}
+
+		return methodParam;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getTtl() {
+		return ttl;
+	}
+
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	public long getRefreshAhead() {
+		return refreshAhead;
+	}
+
+	public long getStaleWhileRevalidate() {
+		return staleWhileRevalidate;
+	}
+
+	public long getSize() {
+		return map.size();
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getStaleHitCount() {
+		return staleHitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getLoadCount() {
+		return loadCount.sum();
+	}
+
+	public long getLoadFailureCount() {
+		return loadFailureCount.sum();
+	}
+
+	/**
+	 * 命中率，旧值命中也算作命中
+	 *
+	 * @return
+	 */
+	public double getHitRate() {
+		long hit = hitCount.sum() + staleHitCount.sum();
+		long total = hit + missCount.sum();
+
+		return total == 0 ? 1.0 : (double) hit / total;
+	}
+
+	@Override
+	public String toString() {
+		return "RemoteResultCache{" + //
+				"name='" + name + '\'' + //
+				", ttl=" + ttl + //
+				", maxWeight=" + maxWeight + //
+				", refreshAhead=" + refreshAhead + //
+				", staleWhileRevalidate=" + staleWhileRevalidate + //
+				", size=" + map.size() + //
+				", hitRate=" + getHitRate() + //
+				'}';
+	}
+
+	private static final class Entry {
+		private static final AtomicReferenceFieldUpdater<Entry, CompletableFuture> LOADING_UPDATER = AtomicReferenceFieldUpdater
+				.newUpdater(Entry.class, CompletableFuture.class, "loading");
+
+		/** 已完成的结果，为null表示还没有加载成功过 */
+		private volatile CompletableFuture<?> value;
+		private volatile long writeTime;
+		private volatile int weight = 1;
+		/** 进行中的远程调用 */
+		private volatile CompletableFuture<Object> loading;
+	}
+}
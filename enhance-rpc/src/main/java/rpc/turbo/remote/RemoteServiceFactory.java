@@ -6,7 +6,9 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -22,11 +24,13 @@ import javassist.CtConstructor;
 import javassist.CtField;
 import javassist.CtMethod;
 import javassist.CtNewMethod;
+import rpc.turbo.annotation.TurboClientCache;
 import rpc.turbo.annotation.TurboService;
 import rpc.turbo.config.MethodConfig;
 import rpc.turbo.invoke.FailoverInvokerFactory;
 import rpc.turbo.invoke.Invoker;
 import rpc.turbo.invoke.InvokerUtils;
+import rpc.turbo.param.EmptyMethodParam;
 import rpc.turbo.param.MethodParam;
 import rpc.turbo.param.MethodParamClassFactory;
 import rpc.turbo.transport.client.App;
@@ -43,6 +47,8 @@ public class RemoteServiceFactory implements Closeable {
 	private final FailoverInvokerFactory failoverInvokerFactory;
 	// 低频使用
 	private final ConcurrentHashMap<Class<?>, Object> remoteServiceMap = new ConcurrentHashMap<>();
+	// 低频使用
+	private final ConcurrentHashMap<Method, RemoteResultCache> resultCacheMap = new ConcurrentHashMap<>();
 
 	public RemoteServiceFactory() {
 		this(null);
@@ -196,6 +202,72 @@ public class RemoteServiceFactory implements Closeable {
 		}
 	}
 
+	/**
+	 * 获取方法的客户端结果缓存
+	 * 
+	 * @param method
+	 *            服务接口方法
+	 * @return 未开启{@link TurboClientCache}时为null
+	 */
+	public RemoteResultCache getResultCache(Method method) {
+		return resultCacheMap.get(method);
+	}
+
+	/**
+	 * 所有的客户端结果缓存
+	 * 
+	 * @return
+	 */
+	public Map<Method, RemoteResultCache> getResultCaches() {
+		return Map.copyOf(resultCacheMap);
+	}
+
+	/**
+	 * 使指定参数的缓存结果失效，通常在调用了修改数据的方法后使用
+	 * 
+	 * @param method
+	 *            服务接口方法
+	 * @param args
+	 *            调用参数，与方法参数一一对应
+	 */
+	public void invalidate(Method method, Object... args) {
+		RemoteResultCache resultCache = resultCacheMap.get(method);
+
+		if (resultCache == null) {
+			return;
+		}
+
+		if (method.getParameterCount() == 0) {
+			resultCache.invalidate(EmptyMethodParam.empty());
+			return;
+		}
+
+		try {
+			Class<? extends MethodParam> methodParamClass = MethodParamClassFactory.createClass(method);
+			MethodParam methodParam = methodParamClass//
+					.getConstructor(method.getParameterTypes())//
+					.newInstance(args);
+
+			resultCache.invalidate(methodParam);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 清空方法的所有缓存结果
+	 * 
+	 * @param method
+	 *            服务接口方法
+	 */
+	public void invalidateAll(Method method) {
+		RemoteResultCache resultCache = resultCacheMap.get(method);
+
+		if (resultCache != null) {
+			resultCache.invalidateAll();
+		}
+	}
+
 	// 私有方法开始，下面的方法都不用关注
 
 	private String getFailoverInvokerFieldName(App app, Method method) {
@@ -209,6 +281,10 @@ public class RemoteServiceFactory implements Closeable {
 		return "$failoverInvoker_" + methodId;
 	}
 
+	private String getResultCacheFieldName(App app, Method method) {
+		return "$resultCache_" + app.getMethodId(method);
+	}
+
 	/**
 	 * 低频使用，不需要考虑性能问题
 	 * 
@@ -311,6 +387,8 @@ public class RemoteServiceFactory implements Closeable {
 		constructor1.setBody("{$0.app = $1;}");
 		remoteCtClass.addConstructor(constructor1);
 
+		Map<Method, RemoteResultCache> resultCaches = new HashMap<>();
+
 		for (MethodConfig config : configs) {
 			Method method = config.method;
 			Class<? extends MethodParam> methodParamClass = MethodParamClassFactory.createClass(method);
@@ -322,6 +400,20 @@ public class RemoteServiceFactory implements Closeable {
 			appField.setModifiers(Modifier.PRIVATE);
 			remoteCtClass.addField(failoverField);
 
+			// 添加私有成员resultCache
+			TurboClientCache cacheConfig = method.getAnnotation(TurboClientCache.class);
+			String resultCacheFieldName = null;
+			if (cacheConfig != null && !config.ignore) {
+				resultCacheFieldName = getResultCacheFieldName(app, method);
+				CtField resultCacheField = new CtField(pool.get(RemoteResultCache.class.getName()),
+						resultCacheFieldName, remoteCtClass);
+				resultCacheField.setModifiers(Modifier.PRIVATE);
+				remoteCtClass.addField(resultCacheField);
+
+				resultCaches.put(method, new RemoteResultCache(
+						InvokerUtils.getServiceMethodName(app.group, app.app, method), cacheConfig));
+			}
+
 			StringBuilder methodBuilder = new StringBuilder();
 
 			methodBuilder.append("public ");
@@ -381,6 +473,12 @@ public class RemoteServiceFactory implements Closeable {
 				methodBuilder.append("), ");
 
 				methodBuilder.append(failoverFieldName);
+
+				if (resultCacheFieldName != null) {
+					methodBuilder.append(", ");
+					methodBuilder.append(resultCacheFieldName);
+				}
+
 				methodBuilder.append(")");
 			}
 
@@ -392,7 +490,17 @@ public class RemoteServiceFactory implements Closeable {
 
 		Class<?> invokerClass = remoteCtClass.toClass();
 
-		return invokerClass.getConstructor(App.class).newInstance(app);
+		Object service = invokerClass.getConstructor(App.class).newInstance(app);
+
+		for (Map.Entry<Method, RemoteResultCache> kv : resultCaches.entrySet()) {
+			Field resultCacheField = invokerClass.getDeclaredField(getResultCacheFieldName(app, kv.getKey()));
+			resultCacheField.setAccessible(true);
+			resultCacheField.set(service, kv.getValue());
+		}
+
+		resultCacheMap.putAll(resultCaches);
+
+		return service;
 	}
 
 }
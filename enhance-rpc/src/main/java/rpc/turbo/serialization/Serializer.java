@@ -6,8 +6,10 @@ import java.util.Map;
 import io.netty.buffer.ByteBuf;
 import rpc.turbo.param.MethodParam;
 import rpc.turbo.param.MethodParamClassResolver;
+import rpc.turbo.protocol.BatchFrame;
 import rpc.turbo.protocol.Request;
 import rpc.turbo.protocol.Response;
+import rpc.turbo.trace.Tracer;
 
 /**
  * 序列化，非通用，仅适用于Request、Response
@@ -76,6 +78,41 @@ public abstract class Serializer {
 	 */
 	public abstract Response readResponse(ByteBuf byteBuf) throws IOException;
 
+	/**
+	 * 是否支持批量帧中的子请求，见{@link BatchFrame}
+	 * 
+	 * @return
+	 */
+	public boolean isSupportedBatchFrame() {
+		return false;
+	}
+
+	/**
+	 * 序列化批量帧中的子请求，只包含长度、requestId和参数，serviceId和tracer由批量帧头共享
+	 * 
+	 * @param byteBuf
+	 * @param request
+	 * @throws IOException
+	 */
+	public void writeBatchRequest(ByteBuf byteBuf, Request request) throws IOException {
+		throw new UnsupportedOperationException(getClass().getName() + " not support batch frame");
+	}
+
+	/**
+	 * 反序列化批量帧中的子请求
+	 * 
+	 * @param byteBuf
+	 * @param serviceId
+	 *            批量帧头中共享的serviceId
+	 * @param tracer
+	 *            批量帧头中共享的tracer
+	 * @return
+	 * @throws IOException
+	 */
+	public Request readBatchRequest(ByteBuf byteBuf, int serviceId, Tracer tracer) throws IOException {
+		throw new UnsupportedOperationException(getClass().getName() + " not support batch frame");
+	}
+
 	/**
 	 * 是否支持classID
 	 * 
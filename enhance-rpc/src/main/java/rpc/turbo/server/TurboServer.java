@@ -4,6 +4,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -14,6 +15,8 @@ import java.util.concurrent.ForkJoinPool;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.EventLoopGroup;
 import rpc.turbo.common.EventLoopGroupHolder;
 import rpc.turbo.config.HostPort;
@@ -21,12 +24,20 @@ import rpc.turbo.config.server.Protocol;
 import rpc.turbo.config.server.ServerConfig;
 import rpc.turbo.filter.RestServerFilter;
 import rpc.turbo.filter.RpcServerFilter;
+import rpc.turbo.invoke.BatchGatherer;
+import rpc.turbo.invoke.ResultCache;
 import rpc.turbo.invoke.ServerInvokerFactory;
 import rpc.turbo.param.MethodParamClassResolver;
+import rpc.turbo.protocol.Response;
+import rpc.turbo.protocol.ResponseStatus;
 import rpc.turbo.serialization.Serializer;
 import rpc.turbo.serialization.SerializerFactory;
+import rpc.turbo.transport.server.Bulkhead;
+import rpc.turbo.transport.server.GradientConcurrencyLimiter;
+import rpc.turbo.transport.server.ServerLoadMonitor;
 import rpc.turbo.transport.server.rest.NettyRestServer;
 import rpc.turbo.transport.server.rpc.NettyRpcServer;
+import rpc.turbo.transport.server.shm.ShmRpcServer;
 
 public final class TurboServer implements Closeable {
 	private static final Log logger = LogFactory.getLog(TurboServer.class);
@@ -36,15 +47,19 @@ public final class TurboServer implements Closeable {
 
 	private Map<HostPort, Closeable> serverMap = new HashMap<>();
 	private Set<Integer> portSet = new HashSet<>();
+	private List<ShmRpcServer> shmServers = new CopyOnWriteArrayList<>();
 
 	private boolean classIdRegistered = false;
 
 	private final Serializer serializer;
 	private final ServerInvokerFactory invokerFactory;
-	private final EventLoopGroup eventLoopGroup;
+	private final EventLoopGroup rpcEventLoopGroup;
+	private final EventLoopGroup restEventLoopGroup;
 	private final ServerConfig serverConfig;
 	private final CopyOnWriteArrayList<RpcServerFilter> rpcFilters = new CopyOnWriteArrayList<>();
 	private final CopyOnWriteArrayList<RestServerFilter> restFilters = new CopyOnWriteArrayList<>();
+	/** 同一个TurboServer下的所有服务器共用，不影响同一进程中的其他TurboServer */
+	private final ServerLoadMonitor loadMonitor;
 
 	private volatile boolean isClosed = false;
 
@@ -64,12 +79,25 @@ public final class TurboServer implements Closeable {
 		Objects.requireNonNull(invokerFactory, "invokerFactory");
 		this.serverConfig = serverConfig;
 		this.invokerFactory = invokerFactory;
-		this.eventLoopGroup = EventLoopGroupHolder.get();
+		this.rpcEventLoopGroup = EventLoopGroupHolder.get(serverConfig.getRpcEventLoop());
+		this.restEventLoopGroup = EventLoopGroupHolder.get(serverConfig.getRestEventLoop());
 
 		this.serializer = SerializerFactory.createSerializer(serverConfig.getSerializer());
 
 		MethodParamClassResolver classResolver = new MethodParamClassResolver(invokerFactory);
 		this.serializer.setClassResolver(classResolver);
+
+		// 以序列化后的大小估算结果缓存的内存占用
+		invokerFactory.setResultWeigher(this::serializedSize);
+
+		if (serverConfig.isAdaptiveLimit()) {
+			this.loadMonitor = new ServerLoadMonitor(new GradientConcurrencyLimiter(//
+					serverConfig.getAdaptiveLimitInitial(), //
+					serverConfig.getAdaptiveLimitMin(), //
+					serverConfig.getAdaptiveLimitMax()));
+		} else {
+			this.loadMonitor = new ServerLoadMonitor();
+		}
 	}
 
 	/**
@@ -172,22 +200,43 @@ public final class TurboServer implements Closeable {
 			logger.info("register Serializer.classIds: " + classIdMap);
 		}
 
-		NettyRpcServer nettyRpcServer = new NettyRpcServer(eventLoopGroup, invokerFactory, serializer, rpcFilters,
-				hostPort);
+		NettyRpcServer nettyRpcServer = new NettyRpcServer(rpcEventLoopGroup, invokerFactory, serializer, rpcFilters,
+				hostPort, serverConfig.getAcceptorCount(), loadMonitor);
 		nettyRpcServer.start();
 
+		if (serverConfig.isSharedMemory()) {
+			startShmRpcServer(hostPort);
+		}
+
 		return nettyRpcServer;
 	}
 
+	private void startShmRpcServer(HostPort hostPort) {
+		ShmRpcServer shmRpcServer = new ShmRpcServer(invokerFactory, serializer, rpcFilters, hostPort, loadMonitor);
+
+		try {
+			shmRpcServer.start();
+			shmServers.add(shmRpcServer);
+		} catch (IOException e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("共享内存服务器启动失败，仅使用tcp: " + hostPort, e);
+			}
+		}
+	}
+
 	public NettyRestServer startRestServer(HostPort hostPort) throws InterruptedException {
-		NettyRestServer nettyRestServer = new NettyRestServer(eventLoopGroup, invokerFactory,
-				serverConfig.getJsonMapper(), restFilters, hostPort);
+		if (hostPort.domainSocket != null && logger.isWarnEnabled()) {
+			logger.warn("rest服务器不支持unix domain socket, 忽略: " + hostPort.toFullString());
+		}
+
+		NettyRestServer nettyRestServer = new NettyRestServer(restEventLoopGroup, invokerFactory,
+				serverConfig.getJsonMapper(), restFilters, hostPort, serverConfig.getAcceptorCount(), loadMonitor);
 		nettyRestServer.start();
 		return nettyRestServer;
 	}
 
 	public void waitUntilShutdown() {
-		while (!eventLoopGroup.isShutdown() && !eventLoopGroup.isShuttingDown()) {
+		while (!rpcEventLoopGroup.isShutdown() && !rpcEventLoopGroup.isShuttingDown()) {
 			try {
 				Thread.sleep(1000);
 			} catch (InterruptedException e) {
@@ -210,6 +259,51 @@ public final class TurboServer implements Closeable {
 		invokerFactory.register(map);
 	}
 
+	/**
+	 * 所有的结果缓存，key为方法名，用于监控命中率和内存占用
+	 * 
+	 * @return
+	 */
+	public Map<String, ResultCache> getResultCaches() {
+		return invokerFactory.getResultCaches();
+	}
+
+	private int serializedSize(Object result) {
+		ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer();
+
+		try {
+			Response response = new Response();
+			response.setStatusCode(ResponseStatus.OK);
+			response.setResult(result);
+
+			serializer.writeResponse(buffer, response);
+
+			return buffer.readableBytes();
+		} catch (Exception e) {
+			return 0;
+		} finally {
+			buffer.release();
+		}
+	}
+
+	/**
+	 * 所有的隔离舱，key为方法名或者接口名，用于监控饱和度和拒绝数
+	 * 
+	 * @return
+	 */
+	public Map<String, Bulkhead> getBulkheads() {
+		return invokerFactory.getBulkheads();
+	}
+
+	/**
+	 * 所有的批量实现，key为方法名，用于监控平均合并数
+	 * 
+	 * @return
+	 */
+	public Map<String, BatchGatherer> getBatchGatherers() {
+		return invokerFactory.getBatchGatherers();
+	}
+
 	private void unRegisterServer() throws InterruptedException, ExecutionException {
 		if (serverConfig.getRegisters() == null || serverConfig.getRegisters().isEmpty()) {
 			return;
@@ -276,6 +370,17 @@ public final class TurboServer implements Closeable {
 			}
 		});
 
-		EventLoopGroupHolder.release(eventLoopGroup);
+		shmServers.forEach(server -> {
+			try {
+				server.close();
+			} catch (Exception e) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("关闭共享内存服务器出错", e);
+				}
+			}
+		});
+
+		EventLoopGroupHolder.release(rpcEventLoopGroup);
+		EventLoopGroupHolder.release(restEventLoopGroup);
 	}
 }
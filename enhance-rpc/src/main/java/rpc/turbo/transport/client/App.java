@@ -3,9 +3,15 @@ package rpc.turbo.transport.client;
 import java.io.Closeable;
 import java.io.IOException;
 import java.lang.reflect.Method;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -13,7 +19,9 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -33,6 +41,7 @@ import rpc.turbo.invoke.Invoker;
 import rpc.turbo.invoke.InvokerUtils;
 import rpc.turbo.loadbalance.LoadBalanceFactory;
 import rpc.turbo.loadbalance.Weightable;
+import rpc.turbo.loadbalance.ZoneAwareLoadBalanceFactory;
 import rpc.turbo.param.MethodParam;
 import rpc.turbo.remote.RemoteException;
 import rpc.turbo.util.concurrent.ConcurrentArrayList;
@@ -42,13 +51,34 @@ public class App implements Closeable {
 	private static final Log logger = LogFactory.getLog(App.class);
 
 	public static final int MAX_CONNECTOR_SELECT_TIMES = 10;
+	/** 服务端过载拒绝时，换服务器重试的最大次数 */
+	public static final int MAX_OVERLOAD_RETRY_TIMES = 2;
 
 	private static final long HEARTBEAT_PERIOD = TimeUnit.SECONDS.toMillis(5);
 	private static final long RESCUE_PERIOD = TimeUnit.SECONDS.toMillis(5);
+	/** 等待连接建立的最长时间，连接超时加上握手的三次远程调用(服务列表、服务id、序列化classId) */
+	private static final long CONNECT_WAIT_TIMEOUT = NettyClientConnector.CONNECT_TIMEOUT_MILLIS
+			+ 3 * TurboService.DEFAULT_TIME_OUT;
 
 	// 并发的做一些建立连接、心跳等后台工作，线程数量用配置的方式更合理一些，但需要用户深入理解这个逻辑，暂时先这样
 	private static final ForkJoinPool appForkJoinPool = new ForkJoinPool(64);
 
+	/**
+	 * 作为failoverInvoker传入时不执行回退，远程调用失败(异常、超时、非OK状态)以异常完成，<br>
+	 * 用于需要区分失败与正常返回null的场景
+	 */
+	public static final Invoker<CompletableFuture<?>> FAIL_ON_ERROR = new Invoker<CompletableFuture<?>>() {
+		@Override
+		public CompletableFuture<?> invoke(Object... params) {
+			return CompletableFuture.failedFuture(new RemoteException("remote invoke error", false));
+		}
+
+		@Override
+		public CompletableFuture<?> invoke(MethodParam methodParam) {
+			return CompletableFuture.failedFuture(new RemoteException("remote invoke error", false));
+		}
+	};
+
 	public final String group;
 	public final String app;
 	private final AppConfig appConfig;
@@ -60,6 +90,8 @@ public class App implements Closeable {
 	private final ConcurrentHashMap<HostPort, ConnectorContext> activeMap = new ConcurrentHashMap<>();
 	/** 僵尸状态的连接, 低频使用 */
 	private final ConcurrentHashMap<HostPort, ConnectorContext> zombieMap = new ConcurrentHashMap<>();
+	/** 正在建立连接和握手的连接, 低频使用 */
+	private final ConcurrentHashMap<HostPort, ConnectorContext> connectingMap = new ConcurrentHashMap<>();
 	/** methodId -> MethodRouter, 高频使用 */
 	private final ConcurrentArrayList<MethodRouter> methodRouterMap = new ConcurrentArrayList<>();
 	/** methodString -> methodId, 低频使用 */
@@ -69,6 +101,16 @@ public class App implements Closeable {
 	/** class, 低频使用 */
 	private final ConcurrentHashMap<String, Boolean> supportClassMap = new ConcurrentHashMap<>();
 
+	/** 串行化连接列表的变更 */
+	private final Object connectLock = new Object();
+	/** 所有服务的平均负载，用于根据服务端负载调整权重 */
+	private final ServerLoadReference loadReference = new ServerLoadReference();
+	/** 连接集合相同的MethodRouter共享快照，只在App的锁内使用 */
+	private final ConnectorSnapshotInterner snapshotInterner = new ConnectorSnapshotInterner();
+	/** 等待合并的服务变化，只保留最新的一次 */
+	private final AtomicReference<Map<HostPort, Integer>> pendingServerWithWeight = new AtomicReference<>();
+	private volatile boolean discoverInitialized = false;
+
 	/** 抢救线程 */
 	private volatile Thread rescueAndHeartbeatJobThread;
 
@@ -88,7 +130,14 @@ public class App implements Closeable {
 		this.appConfig = appConfig;
 		this.group = appConfig.getGroup();
 		this.app = appConfig.getApp();
-		this.loadBalanceFactory = appConfig.getLoadBalanceFactory();
+
+		if (appConfig.getZone() == null) {
+			this.loadBalanceFactory = appConfig.getLoadBalanceFactory();
+		} else {
+			this.loadBalanceFactory = new ZoneAwareLoadBalanceFactory<>(appConfig.getZone(),
+					appConfig.getLoadBalanceFactory());
+		}
+
 		this.filters = filters;
 
 		if (appConfig.getDiscover() != null) {
@@ -98,17 +147,7 @@ public class App implements Closeable {
 							return;
 						}
 
-						if (logger.isInfoEnabled()) {
-							logger.info("Discover检测到服务变化: " + serverWithWeight);
-						}
-
-						try {
-							setConnect(serverWithWeight);
-						} catch (Exception e) {
-							if (logger.isErrorEnabled()) {
-								logger.error("Discover连接出错: " + serverWithWeight, e);
-							}
-						}
+						onDiscoverChange(serverWithWeight);
 					});
 		}
 	}
@@ -136,7 +175,8 @@ public class App implements Closeable {
 	}
 
 	/**
-	 * 建立连接，推荐使用
+	 * 建立连接，推荐使用<br>
+	 * 所有服务的连接和握手并发进行，默认等待全部完成，connectWaitFirst时只等待第一个服务可用
 	 * 
 	 * @param serverWithWeight
 	 *            服务提供方地址和权重
@@ -153,136 +193,393 @@ public class App implements Closeable {
 
 		tryStartDemoJob();
 
-		AtomicBoolean changed = new AtomicBoolean(false);
+		List<CompletableFuture<ConnectorContext>> connecting;
 
-		// 未建立连接的建立连接
-		appForkJoinPool.submit(() -> {
-			serverWithWeight//
+		synchronized (connectLock) {
+			// 未建立连接的建立连接
+			connecting = serverWithWeight//
 					.entrySet()//
 					.stream()//
-					.parallel()// 并发的建立连接
 					.filter(kv -> !activeMap.containsKey(kv.getKey()))// 过滤掉已连接上的
-					.forEach(kv -> {
-						if (isCloseing) {
-							return;
-						}
+					.filter(kv -> !connectingMap.containsKey(kv.getKey()))// 过滤掉正在连接的
+					.map(kv -> connectAsync(kv.getKey(), kv.getValue()))// 并发的建立连接
+					.collect(Collectors.toList());
 
-						changed.set(true);
-						setConnect(kv.getKey(), kv.getValue());
-					});
-		}).get();
+			// 权重发生变化的
+			Set<HostPort> reweighted = new HashSet<>();
+			serverWithWeight.forEach((serverAddress, weight) -> {
+				ConnectorContext context = activeMap.get(serverAddress);
 
-		// 删除多余的连接
-		appForkJoinPool.submit(() -> {
-			activeMap//
-					.entrySet()//
-					.stream()//
-					.parallel()//
-					.forEach(kv -> {
-						if (isCloseing) {
-							return;
-						}
+				if (context == null) {
+					context = zombieMap.get(serverAddress);
+				}
 
-						HostPort serverAddress = kv.getKey();
+				if (context == null) {
+					context = connectingMap.get(serverAddress);
 
-						if (!serverWithWeight.containsKey(serverAddress)) {
-							changed.set(true);
-							ConnectorContext context = activeMap.remove(serverAddress);
+					if (context != null) {
+						context.setWeight(weight);// 还没有加入路由
+					}
 
-							try {
-								context.close();
-							} catch (IOException e) {
-								if (logger.isWarnEnabled()) {
-									logger.warn(serverAddress + "关闭失败", e);
-								}
-							}
-						}
-					});
-		}).get();
+					return;
+				}
 
-		// 删除多余的连接
-		appForkJoinPool.submit(() -> {
-			zombieMap//
-					.entrySet()//
-					.stream()//
-					.parallel()//
-					.forEach(kv -> {
-						if (isCloseing) {
-							return;
-						}
+				if (context.weight() != weight) {
+					context.setWeight(weight);
+					reweighted.add(serverAddress);
+				}
+			});
 
-						changed.set(true);
-						HostPort serverAddress = kv.getKey();
+			// 删除多余的连接
+			Set<HostPort> removed = new HashSet<>();
+			removeConnect(activeMap, serverWithWeight, removed);
+			removeConnect(zombieMap, serverWithWeight, removed);
+			removeConnect(connectingMap, serverWithWeight, new HashSet<>());
 
-						if (!serverWithWeight.containsKey(serverAddress)) {
-							ConnectorContext context = zombieMap.remove(serverAddress);
+			updateRouters(Collections.emptyList(), removed, reweighted);
+		}
 
-							try {
-								context.close();
-							} catch (IOException e) {
-								if (logger.isWarnEnabled()) {
-									logger.warn(serverAddress + "关闭失败", e);
-								}
-							}
-						}
-					});
-		}).get();
+		// 不持有connectLock等待，避免阻塞其他的连接变更
+		if (appConfig.isConnectWaitFirst()) {
+			waitFirst(connecting);
+		} else {
+			waitAll(connecting);
+		}
+	}
+
+	/**
+	 * 等待所有服务握手完成后一次性加入路由，最多等待{@link #CONNECT_WAIT_TIMEOUT}，超时未完成的在完成后单独加入
+	 * 
+	 * @param connecting
+	 * @throws Exception
+	 */
+	private void waitAll(List<CompletableFuture<ConnectorContext>> connecting) throws Exception {
+		if (connecting.isEmpty()) {
+			return;
+		}
+
+		try {
+			CompletableFuture//
+					.allOf(connecting.toArray(new CompletableFuture<?>[connecting.size()]))//
+					.get(CONNECT_WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn(group + "#" + app + " 等待建立连接超时, " + CONNECT_WAIT_TIMEOUT + "ms");
+			}
+		}
+
+		synchronized (connectLock) {
+			List<ConnectorContext> added = new ArrayList<>(connecting.size());
 
-		if (changed.get()) {
-			Collection<ConnectorContext> connectors = activeMap.values();
+			for (int i = 0; i < connecting.size(); i++) {
+				CompletableFuture<ConnectorContext> future = connecting.get(i);
 
-			int length = methodRouterMap.size();
-			for (int i = 0; i < length; i++) {// 重置方法路由
-				MethodRouter router = methodRouterMap.get(i);
-				router.setConnectors(connectors);
+				if (!future.isDone()) {
+					future.thenAcceptAsync(this::addLater, appForkJoinPool);
+					continue;
+				}
+
+				ConnectorContext context = future.join();
+				if (tryAddConnecting(context)) {
+					added.add(context);
+				}
 			}
+
+			updateRouters(added, Collections.emptySet(), Collections.emptySet());
 		}
 	}
 
 	/**
-	 * 建立连接
+	 * 每个服务握手完成后立即加入路由，第一个服务可用或者全部失败时返回，最多等待{@link #CONNECT_WAIT_TIMEOUT}
 	 * 
-	 * @param serverAddress
-	 * @param weight
-	 *            权重
+	 * @param connecting
 	 * @throws Exception
 	 */
-	private synchronized void setConnect(HostPort serverAddress, int weight) {
-		if (isCloseing) {
+	private void waitFirst(List<CompletableFuture<ConnectorContext>> connecting) throws Exception {
+		if (connecting.isEmpty()) {
 			return;
 		}
 
-		ConnectorContext context = new ConnectorContext(eventLoopGroup, appConfig, filters, serverAddress);
+		CompletableFuture<Void> first = new CompletableFuture<>();
+		CompletableFuture<?>[] added = new CompletableFuture<?>[connecting.size()];
+
+		for (int i = 0; i < connecting.size(); i++) {
+			added[i] = connecting.get(i).thenAcceptAsync(context -> {
+				if (addLater(context)) {
+					first.complete(null);
+				}
+			}, appForkJoinPool);
+		}
+
+		CompletableFuture.allOf(added).whenComplete((v, t) -> first.complete(null));
 
 		try {
-			context.connect();
-			context.setWeight(weight);
+			first.get(CONNECT_WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn(group + "#" + app + " 等待建立连接超时, " + CONNECT_WAIT_TIMEOUT + "ms");
+			}
+		}
+	}
 
-			List<String> list = loadClass(context);
-			for (String clazz : list) {
-				supportClassMap.put(clazz, Boolean.TRUE);
+	/**
+	 * 单个连接握手完成后加入路由
+	 * 
+	 * @param context
+	 * @return 是否成功加入
+	 */
+	private boolean addLater(ConnectorContext context) {
+		synchronized (connectLock) {
+			if (!tryAddConnecting(context)) {
+				return false;
 			}
 
-			if (logger.isInfoEnabled()) {
-				logger.info(group + "#" + app + " " + serverAddress + " support services: " + list);
+			updateRouters(List.of(context), Collections.emptySet(), Collections.emptySet());
+			return true;
+		}
+	}
+
+	/**
+	 * 加入失败时关闭该连接，不影响其他连接，需要持有connectLock
+	 * 
+	 * @param context
+	 * @return 是否成功加入
+	 */
+	private boolean tryAddConnecting(ConnectorContext context) {
+		try {
+			return addConnecting(context);
+		} catch (Exception e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn(context.serverAddress + "连接失败", e);
 			}
 
-			Map<String, Integer> methodStringToServiceIdMap = loadServiceId(context);
-			context.setServiceMethodNameToServiceIdMap(methodStringToServiceIdMap);
+			if (context != null) {
+				connectingMap.remove(context.serverAddress, context);
+				activeMap.remove(context.serverAddress, context);
 
-			context.initSerializer();
+				try {
+					context.close();
+				} catch (Exception e2) {
+				}
+			}
 
-			addConnect(context);
+			return false;
+		}
+	}
+
+	/**
+	 * 把握手完成的连接放入activeMap，需要持有connectLock
+	 * 
+	 * @param context
+	 * @return 连接失败或者在握手期间被删除时返回false
+	 */
+	private boolean addConnecting(ConnectorContext context) throws Exception {
+		if (context == null) {
+			return false;
+		}
+
+		if (!connectingMap.remove(context.serverAddress, context) || isCloseing) {
+			context.close();
+			return false;
+		}
+
+		addConnect(context);
+		return true;
+	}
+
+	/**
+	 * 服务发现回调，短时间内的多次变化合并为一次，第一次变化立即生效
+	 * 
+	 * @param serverWithWeight
+	 */
+	private void onDiscoverChange(Map<HostPort, Integer> serverWithWeight) {
+		// Discover可能传入的是其内部持续变化的map
+		Map<HostPort, Integer> snapshot = new HashMap<>(serverWithWeight);
+		long debounceMillis = appConfig.getDiscoverDebounceMillis();
+
+		if (!discoverInitialized || debounceMillis <= 0) {
+			discoverInitialized = true;
+			applyDiscoverChange(snapshot);
+			return;
+		}
+
+		if (pendingServerWithWeight.getAndSet(snapshot) != null) {
+			return;// 已经在等待中，只保留最新的一次
+		}
+
+		CompletableFuture//
+				.delayedExecutor(debounceMillis, TimeUnit.MILLISECONDS, appForkJoinPool)//
+				.execute(() -> {
+					Map<HostPort, Integer> latest = pendingServerWithWeight.getAndSet(null);
+
+					if (latest != null) {
+						applyDiscoverChange(latest);
+					}
+				});
+	}
+
+	private void applyDiscoverChange(Map<HostPort, Integer> serverWithWeight) {
+		if (isCloseing) {
+			return;
+		}
+
+		if (logger.isInfoEnabled()) {
+			logger.info("Discover检测到服务变化: " + serverWithWeight);
+		}
+
+		try {
+			setConnect(serverWithWeight);
 		} catch (Exception e) {
+			if (logger.isErrorEnabled()) {
+				logger.error("Discover连接出错: " + serverWithWeight, e);
+			}
+		}
+	}
+
+	private void removeConnect(ConcurrentHashMap<HostPort, ConnectorContext> map,
+			Map<HostPort, Integer> serverWithWeight, Set<HostPort> removed) {
+		for (HostPort serverAddress : map.keySet()) {
+			if (isCloseing) {
+				return;
+			}
+
+			if (serverWithWeight.containsKey(serverAddress)) {
+				continue;
+			}
+
+			ConnectorContext context = map.remove(serverAddress);
+			if (context == null) {
+				continue;
+			}
+
+			removed.add(serverAddress);
+
+			try {
+				context.close();
+			} catch (IOException e) {
+				if (logger.isWarnEnabled()) {
+					logger.warn(serverAddress + "关闭失败", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 增量更新受影响的方法路由，连接集合相同的路由共享同一个快照
+	 * 
+	 * @param added
+	 *            新建立的连接
+	 * @param removed
+	 *            删除的连接
+	 * @param reweighted
+	 *            权重发生变化的连接
+	 */
+	private synchronized void updateRouters(List<ConnectorContext> added, Set<HostPort> removed,
+			Set<HostPort> reweighted) {
+		if (added.isEmpty() && removed.isEmpty() && reweighted.isEmpty()) {
+			return;
+		}
+
+		// 缓存的快照中的权重已经过期
+		snapshotInterner.evict(reweighted);
+
+		// 相同的旧快照遇到相同的新增连接时，结果必然相同
+		Map<ConnectorSnapshot, Map<Set<HostPort>, ConnectorSnapshot>> transitions = new IdentityHashMap<>();
+		Set<ConnectorSnapshot> alive = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		int length = methodRouterMap.size();
+		for (int i = 0; i < length; i++) {
+			MethodRouter router = methodRouterMap.get(i);
+			ConnectorSnapshot snapshot = router.getSnapshot();
+
+			List<ConnectorContext> supportedAdded = new ArrayList<>(added.size());
+			Set<HostPort> supportedAddedAddresses = new HashSet<>();
+			for (int j = 0; j < added.size(); j++) {
+				ConnectorContext context = added.get(j);
+
+				if (router.isSupport(context)) {
+					supportedAdded.add(context);
+					supportedAddedAddresses.add(context.serverAddress);
+				}
+			}
+
+			if (snapshot.isAffected(supportedAdded, removed, reweighted)) {
+				snapshot = transitions//
+						.computeIfAbsent(snapshot, k -> new HashMap<>())//
+						.computeIfAbsent(supportedAddedAddresses,
+								k -> snapshotInterner.intern(router.getSnapshot().apply(supportedAdded, removed)));
+
+				router.setSnapshot(snapshot);
+			}
+
+			alive.add(snapshot);
+		}
+
+		snapshotInterner.retain(alive);
+	}
+
+	/**
+	 * 异步建立连接和握手，不阻塞调用线程
+	 * 
+	 * @param serverAddress
+	 * @param weight
+	 *            权重
+	 * @return 连接失败时返回null
+	 */
+	private CompletableFuture<ConnectorContext> connectAsync(HostPort serverAddress, int weight) {
+		ConnectorContext context = new ConnectorContext(eventLoopGroup, appConfig, filters, serverAddress,
+				loadReference);
+
+		context.setWeight(weight);
+		connectingMap.put(serverAddress, context);
+
+		return handshake(context).handle((v, t) -> {
+			if (t == null) {
+				return context;
+			}
+
 			if (logger.isWarnEnabled()) {
-				logger.warn(serverAddress + "连接失败", e);
+				logger.warn(serverAddress + "连接失败", t);
 			}
 
+			connectingMap.remove(serverAddress, context);
+
 			try {
 				context.close();
 			} catch (Exception e2) {
 			}
-		}
+
+			return null;
+		});
+	}
+
+	/**
+	 * 建立连接并加载服务列表、服务id和序列化classId，各步骤通过future串联<br>
+	 * 远程调用可能阻塞在requestWaitSemaphore上，后续步骤在appForkJoinPool中执行而不是eventLoop中
+	 * 
+	 * @param context
+	 * @return
+	 */
+	private CompletableFuture<Void> handshake(ConnectorContext context) {
+		return context.connectAsync()//
+				.thenComposeAsync(v -> loadClass(context), appForkJoinPool)//
+				.thenComposeAsync(list -> {
+					for (String clazz : list) {
+						supportClassMap.put(clazz, Boolean.TRUE);
+					}
+
+					if (logger.isInfoEnabled()) {
+						logger.info(group + "#" + app + " " + context.serverAddress + " support services: " + list);
+					}
+
+					return loadServiceId(context);
+				}, appForkJoinPool)//
+				.thenComposeAsync(methodStringToServiceIdMap -> {
+					context.clear();
+					context.setServiceMethodNameToServiceIdMap(methodStringToServiceIdMap);
+
+					return context.initSerializerAsync();
+				}, appForkJoinPool);
 	}
 
 	private synchronized void addConnect(ConnectorContext context) throws Exception {
@@ -297,7 +594,11 @@ public class App implements Closeable {
 		HostPort serverAddress = context.serverAddress;
 
 		activeMap.put(serverAddress, context);
-		zombieMap.remove(serverAddress);
+		ConnectorContext zombie = zombieMap.remove(serverAddress);
+
+		if (zombie != null && zombie != context) {
+			zombie.close();
+		}
 	}
 
 	private synchronized void tryStartDemoJob() {
@@ -386,8 +687,14 @@ public class App implements Closeable {
 				return methodId;
 			}
 
-			MethodRouter router = new MethodRouter(methodString, loadBalanceFactory.newLoadBalance());
-			router.setConnectors(activeMap.values());
+			MethodRouter router = new MethodRouter(methodString, loadBalanceFactory);
+
+			List<Weightable> supported = activeMap.values()//
+					.stream()//
+					.filter(router::isSupport)//
+					.collect(Collectors.toList());
+
+			router.setSnapshot(snapshotInterner.intern(supported));
 
 			methodRouterMap.add(router);
 
@@ -436,6 +743,154 @@ public class App implements Closeable {
 	 */
 	public CompletableFuture<?> execute(int methodId, long timeout, MethodParam methodParam,
 			Invoker<CompletableFuture<?>> failoverInvoker) {
+		if (methodId >= 0 && methodId < methodRouterMap.size()) {
+			MethodRouter router = methodRouterMap.get(methodId);
+			SingleFlight singleFlight = router == null ? null : router.getSingleFlight();
+
+			if (singleFlight != null) {
+				return singleFlight.execute(methodParam,
+						param -> execute(methodId, timeout, param, failoverInvoker, null, 0));
+			}
+		}
+
+		return execute(methodId, timeout, methodParam, failoverInvoker, null, 0);
+	}
+
+	/**
+	 * 广播调用，并行发送到所有支持该方法的服务器，按聚合策略收集结果<br>
+	 * 请求经由各连接的Sender发送，开启了批量发送时会与其他请求一起写出
+	 * 
+	 * @param method
+	 * @param methodParam
+	 * @param policy
+	 *            聚合策略
+	 * @return 不会异常完成，失败的服务器在{@link BroadcastResult#getErrors()}中
+	 */
+	public <T> CompletableFuture<BroadcastResult<T>> broadcast(Method method, MethodParam methodParam,
+			BroadcastPolicy policy) {
+		final Integer methodId = getMethodId(method);
+
+		if (methodId == null) {
+			throw new InvokeException(group + "#" + app + " " + "找不到对应的服务, " + method);
+		}
+
+		return broadcast(methodId, methodParam, policy);
+	}
+
+	/**
+	 * 广播调用，并行发送到所有支持该方法的服务器，按聚合策略收集结果
+	 * 
+	 * @param methodId
+	 * @param methodParam
+	 * @param policy
+	 *            聚合策略
+	 * @return 不会异常完成，失败的服务器在{@link BroadcastResult#getErrors()}中
+	 */
+	public <T> CompletableFuture<BroadcastResult<T>> broadcast(int methodId, MethodParam methodParam,
+			BroadcastPolicy policy) {
+		Objects.requireNonNull(policy, "policy");
+
+		MethodRouter router;
+		if (methodId < 0 || methodId >= methodRouterMap.size() //
+				|| (router = methodRouterMap.get(methodId)) == null) {
+			String msg = group + "#" + app + " " + "不支持的方法id, " + methodId;
+			logger.error(msg);
+			return CompletableFuture.failedFuture(new RemoteException(msg));
+		}
+
+		if (filters.size() > 0) {
+			RemoteContext.setRemoteMethod(router.getMethod());
+			RemoteContext.setServiceMethodName(router.getServiceMethodName());
+		}
+
+		List<Weightable> connectors = router.getSnapshot().connectors;
+		List<ConnectorContext> targets = new ArrayList<>(connectors.size());
+
+		for (int i = 0; i < connectors.size(); i++) {
+			ConnectorContext context = (ConnectorContext) connectors.get(i);
+
+			if (!context.isClosed()) {
+				targets.add(context);
+			}
+		}
+
+		if (targets.isEmpty()) {
+			String msg = group + "#" + app + " " + "broadcast error, 无可用连接 ";
+
+			if (logger.isWarnEnabled()) {
+				logger.warn(msg);
+			}
+
+			return CompletableFuture.failedFuture(new RemoteException(msg, false));
+		}
+
+		BroadcastCollector<T> collector = new BroadcastCollector<>(targets.size(), policy);
+
+		for (int i = 0; i < targets.size(); i++) {
+			ConnectorContext context = targets.get(i);
+			HostPort serverAddress = context.serverAddress;
+			int serviceId = getServiceId(context, methodId);
+
+			if (serviceId < 0) {
+				collector.onError(serverAddress,
+						new RemoteException("找不到对应的服务, methodId: " + methodId, false));
+				continue;
+			}
+
+			CompletableFuture<T> future;
+			try {
+				// 异常、超时和非OK状态都以异常完成，计入errors，不会被当作成功满足聚合策略
+				future = context.execute(serviceId, policy.getTimeout(), methodParam, FAIL_ON_ERROR);
+			} catch (Throwable t) {
+				collector.onError(serverAddress, t);
+				continue;
+			}
+
+			future.whenComplete((result, throwable) -> {
+				if (throwable == null) {
+					collector.onSuccess(serverAddress, result);
+				} else {
+					collector.onError(serverAddress, throwable);
+				}
+			});
+		}
+
+		return collector.future();
+	}
+
+	/**
+	 * 开启了{@link rpc.turbo.annotation.TurboSingleFlight}的方法的请求合并统计
+	 * 
+	 * @return
+	 */
+	public List<SingleFlight> getSingleFlights() {
+		List<SingleFlight> singleFlights = new ArrayList<>();
+
+		for (int i = 0; i < methodRouterMap.size(); i++) {
+			MethodRouter router = methodRouterMap.get(i);
+
+			if (router != null && router.getSingleFlight() != null) {
+				singleFlights.add(router.getSingleFlight());
+			}
+		}
+
+		return singleFlights;
+	}
+
+	/**
+	 * 
+	 * @param methodId
+	 * @param timeout
+	 * @param methodParam
+	 * @param failoverInvoker
+	 * @param overloaded
+	 *            上次拒绝了该请求的过载服务器，选择时尽量避开，可空
+	 * @param overloadRetryTimes
+	 *            已经因过载重试的次数
+	 * @return
+	 */
+	private CompletableFuture<?> execute(int methodId, long timeout, MethodParam methodParam,
+			Invoker<CompletableFuture<?>> failoverInvoker, ConnectorContext overloaded, int overloadRetryTimes) {
 
 		MethodRouter router;
 		if (methodId < 0 || methodId >= methodRouterMap.size() //
@@ -450,7 +905,8 @@ public class App implements Closeable {
 			RemoteContext.setServiceMethodName(router.getServiceMethodName());
 		}
 
-		ConnectorContext connectorContext = router.selectConnector();
+		// 路由参数只用于第一次选择，选中的服务器不可用时按普通方式重新选择
+		ConnectorContext connectorContext = router.selectConnector(methodParam);
 		for (int i = 0; i < MAX_CONNECTOR_SELECT_TIMES; i++) {// 设定有限次数的尝试，防止发生死循环
 			if (connectorContext == null) {
 				break;
@@ -468,11 +924,24 @@ public class App implements Closeable {
 					&& connectorContext.isZombie()) {
 				kill(connectorContext);
 				connectorContext = router.selectConnector();
+			} else if (connectorContext == overloaded) {
+				connectorContext = router.selectConnector();
 			} else {
 				break;
 			}
 		}
 
+		if (connectorContext != null && connectorContext == overloaded) {
+			// 没有其他可用的服务器，不再重试过载的服务器
+			String msg = group + "#" + app + " " + "request error, 服务器过载 " + overloaded.serverAddress;
+
+			if (failoverInvoker == null) {
+				return CompletableFuture.failedFuture(new RemoteException(msg, false));
+			} else {
+				return failoverInvoker.invoke(methodParam);
+			}
+		}
+
 		if (connectorContext == null) {
 			String msg = group + "#" + app + " " + "request error, 无可用连接 ";
 
@@ -499,7 +968,18 @@ public class App implements Closeable {
 			return CompletableFuture.failedFuture(new RemoteException(msg, false));
 		}
 
-		return connectorContext.execute(serviceId, timeout, methodParam, failoverInvoker);
+		if (router.isOneWay()) {
+			return connectorContext.executeOneWay(serviceId, methodParam);
+		}
+
+		Supplier<CompletableFuture<?>> overloadRetry = null;
+		if (overloadRetryTimes < MAX_OVERLOAD_RETRY_TIMES) {
+			final ConnectorContext current = connectorContext;
+			overloadRetry = () -> execute(methodId, timeout, methodParam, failoverInvoker, current,
+					overloadRetryTimes + 1);
+		}
+
+		return connectorContext.execute(serviceId, timeout, methodParam, failoverInvoker, overloadRetry);
 	}
 
 	/**
@@ -521,18 +1001,7 @@ public class App implements Closeable {
 		activeMap.remove(serverAddress);
 		zombieMap.put(serverAddress, connectorContext);
 
-		Collection<ConnectorContext> connectors = activeMap.values();
-
-		int length = methodRouterMap.size();
-		for (int i = 0; i < length; i++) {
-			MethodRouter router = methodRouterMap.get(i);
-
-			if (!connectorContext.isSupport(router.getServiceMethodName())) {
-				continue;
-			}
-
-			router.setConnectors(connectors);
-		}
+		updateRouters(Collections.emptyList(), Set.of(serverAddress), Collections.emptySet());
 
 		if (logger.isWarnEnabled()) {
 			logger.warn(group + "#" + app + " " + serverAddress + " is zombie, and have been killed!");
@@ -605,28 +1074,13 @@ public class App implements Closeable {
 					ConnectorContext context = kv.getValue();
 
 					try {
-						context.connect();
-
-						List<String> list = loadClass(context);
-						for (String clazz : list) {
-							supportClassMap.put(clazz, Boolean.TRUE);
-						}
-
-						if (logger.isInfoEnabled()) {
-							logger.info("rescue: " + group + "#" + app + " " + context.serverAddress
-									+ " support services: " + list);
-						}
-
-						Map<String, Integer> methodStringToServiceIdMap = loadServiceId(context);
-
-						context.clear();
-						context.setServiceMethodNameToServiceIdMap(methodStringToServiceIdMap);
-
-						context.initSerializer();
+						handshake(context).get();
 
 						zombieMap.remove(serverAddress);
 						activeMap.put(serverAddress, context);
 
+						updateRouters(List.of(context), Collections.emptySet(), Collections.emptySet());
+
 						if (logger.isInfoEnabled()) {
 							logger.info(group + "#" + app + " " + context.serverAddress + " zombie is rescued");
 						}
@@ -683,27 +1137,25 @@ public class App implements Closeable {
 	/**
 	 * 添加时调用一次就行了
 	 * 
-	 * @throws Exception
+	 * @return
 	 */
-	private List<String> loadClass(ConnectorContext context) throws Exception {
+	private CompletableFuture<List<String>> loadClass(ConnectorContext context) {
 		int serviceId = TurboConnectService.SERVICE_CLASS_REGISTER;
 		long timeout = TurboService.DEFAULT_TIME_OUT;
-		CompletableFuture<List<String>> future = context.execute(serviceId, timeout);
 
-		return future.get();
+		return context.execute(serviceId, timeout);
 	}
 
 	/**
 	 * 添加时调用一次就行了
 	 * 
-	 * @throws Exception
+	 * @return
 	 */
-	private Map<String, Integer> loadServiceId(ConnectorContext context) throws Exception {
+	private CompletableFuture<Map<String, Integer>> loadServiceId(ConnectorContext context) {
 		int serviceId = TurboConnectService.SERVICE_METHOD_REGISTER;
 		long timeout = TurboService.DEFAULT_TIME_OUT;
-		CompletableFuture<Map<String, Integer>> future = context.execute(serviceId, timeout);
 
-		return future.get();
+		return context.execute(serviceId, timeout);
 	}
 
 	@Override
@@ -725,8 +1177,19 @@ public class App implements Closeable {
 			}
 		});
 
+		connectingMap.forEach((key, connectorContext) -> {
+			try {
+				connectorContext.close();
+			} catch (Exception e) {
+				if (logger.isWarnEnabled()) {
+					logger.warn(group + "#" + app + " " + "关闭过程中发生错误", e);
+				}
+			}
+		});
+
 		activeMap.clear();
 		zombieMap.clear();
+		connectingMap.clear();
 		methodStringToIdMap.clear();
 		methodIdToServiceMethodNameMap.clear();
 		supportClassMap.clear();
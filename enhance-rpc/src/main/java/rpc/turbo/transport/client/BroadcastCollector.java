@@ -0,0 +1,100 @@
+package rpc.turbo.transport.client;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import rpc.turbo.config.HostPort;
+
+/**
+ * 收集广播调用各服务器的结果，满足聚合策略、不可能再满足或者到达截止时间时完成
+ * 
+ * @author zhushimmer
+ *
+ */
+final class BroadcastCollector<T> {
+
+	private static final ScheduledExecutorService scheduler;
+
+	static {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "turbo-broadcast-deadline");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// 提前完成的广播取消截止任务，不在队列中堆积
+		executor.setRemoveOnCancelPolicy(true);
+
+		scheduler = executor;
+	}
+
+	private final int targetCount;
+	private final int required;
+	private final boolean waitAll;
+	private final Map<HostPort, T> results;
+	private final Map<HostPort, Throwable> errors;
+	private final CompletableFuture<BroadcastResult<T>> future = new CompletableFuture<>();
+	private final ScheduledFuture<?> deadline;
+
+	BroadcastCollector(int targetCount, BroadcastPolicy policy) {
+		this.targetCount = targetCount;
+		this.required = policy.required(targetCount);
+		this.waitAll = policy.getMode() == BroadcastPolicy.Mode.ALL;
+		this.results = new HashMap<>(targetCount * 2);
+		this.errors = new HashMap<>();
+
+		// 共享的截止时间，到期返回部分结果
+		this.deadline = scheduler.schedule(() -> finish(true), policy.getTimeout(), TimeUnit.MILLISECONDS);
+	}
+
+	CompletableFuture<BroadcastResult<T>> future() {
+		return future;
+	}
+
+	synchronized void onSuccess(HostPort serverAddress, T result) {
+		if (future.isDone()) {
+			return;
+		}
+
+		results.put(serverAddress, result);
+		check();
+	}
+
+	synchronized void onError(HostPort serverAddress, Throwable throwable) {
+		if (future.isDone()) {
+			return;
+		}
+
+		errors.put(serverAddress, throwable);
+		check();
+	}
+
+	private void check() {
+		int success = results.size();
+		int pending = targetCount - success - errors.size();
+
+		if (pending == 0) {
+			finish(false);
+		} else if (!waitAll && (success >= required || success + pending < required)) {
+			// 已经满足或者不可能再满足，不再等待剩余的服务器
+			finish(false);
+		}
+	}
+
+	private synchronized void finish(boolean timeout) {
+		if (future.isDone()) {
+			return;
+		}
+
+		if (!timeout) {
+			deadline.cancel(false);
+		}
+
+		future.complete(new BroadcastResult<>(targetCount, required, //
+				new HashMap<>(results), new HashMap<>(errors), timeout));
+	}
+}
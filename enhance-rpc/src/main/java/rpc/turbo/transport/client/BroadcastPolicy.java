@@ -0,0 +1,103 @@
+package rpc.turbo.transport.client;
+
+/**
+ * 广播调用的聚合策略，所有服务器共享同一个截止时间，到期时返回已经收到的部分结果
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class BroadcastPolicy {
+
+	public static enum Mode {
+		/** 等待所有服务器返回 */
+		ALL,
+		/** 收到N个成功结果即返回 */
+		FIRST_N,
+		/** 收到过半数成功结果即返回 */
+		QUORUM
+	}
+
+	private final Mode mode;
+	private final int count;
+	private final long timeout;
+
+	private BroadcastPolicy(Mode mode, int count, long timeout) {
+		if (timeout < 1) {
+			throw new IllegalArgumentException("timeout: " + timeout + " (expected: > 0)");
+		}
+
+		this.mode = mode;
+		this.count = count;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * 
+	 * @param timeout
+	 *            共享的超时时间，millseconds
+	 * @return
+	 */
+	public static BroadcastPolicy all(long timeout) {
+		return new BroadcastPolicy(Mode.ALL, 0, timeout);
+	}
+
+	/**
+	 * 
+	 * @param count
+	 *            需要的成功结果数
+	 * @param timeout
+	 *            共享的超时时间，millseconds
+	 * @return
+	 */
+	public static BroadcastPolicy firstN(int count, long timeout) {
+		if (count < 1) {
+			throw new IllegalArgumentException("count: " + count + " (expected: > 0)");
+		}
+
+		return new BroadcastPolicy(Mode.FIRST_N, count, timeout);
+	}
+
+	/**
+	 * 
+	 * @param timeout
+	 *            共享的超时时间，millseconds
+	 * @return
+	 */
+	public static BroadcastPolicy quorum(long timeout) {
+		return new BroadcastPolicy(Mode.QUORUM, 0, timeout);
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * 
+	 * @param targetCount
+	 *            实际发送的服务器数
+	 * @return 需要的成功结果数
+	 */
+	int required(int targetCount) {
+		switch (mode) {
+		case FIRST_N:
+			return Math.min(count, targetCount);
+		case QUORUM:
+			return targetCount / 2 + 1;
+		default:
+			return targetCount;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "BroadcastPolicy{" + //
+				"mode=" + mode + //
+				", count=" + count + //
+				", timeout=" + timeout + //
+				'}';
+	}
+}
@@ -0,0 +1,95 @@
+package rpc.turbo.transport.client;
+
+import java.util.Collections;
+import java.util.Map;
+
+import rpc.turbo.config.HostPort;
+
+/**
+ * 广播调用的聚合结果
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class BroadcastResult<T> {
+
+	private final int targetCount;
+	private final int required;
+	private final Map<HostPort, T> results;
+	private final Map<HostPort, Throwable> errors;
+	private final boolean timeout;
+
+	BroadcastResult(int targetCount, int required, Map<HostPort, T> results, Map<HostPort, Throwable> errors,
+			boolean timeout) {
+		this.targetCount = targetCount;
+		this.required = required;
+		this.results = Collections.unmodifiableMap(results);
+		this.errors = Collections.unmodifiableMap(errors);
+		this.timeout = timeout;
+	}
+
+	/**
+	 * 实际发送的服务器数
+	 * 
+	 * @return
+	 */
+	public int getTargetCount() {
+		return targetCount;
+	}
+
+	/**
+	 * 成功的结果，key为服务器地址
+	 * 
+	 * @return
+	 */
+	public Map<HostPort, T> getResults() {
+		return results;
+	}
+
+	/**
+	 * 失败的服务器及其异常，不包含截止时还未返回的服务器
+	 * 
+	 * @return
+	 */
+	public Map<HostPort, Throwable> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * 是否达到了聚合策略要求的成功数
+	 * 
+	 * @return
+	 */
+	public boolean isSatisfied() {
+		return results.size() >= required;
+	}
+
+	/**
+	 * 是否因为到达截止时间而返回，此时为部分结果
+	 * 
+	 * @return
+	 */
+	public boolean isTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * 截止时还未返回的服务器数
+	 * 
+	 * @return
+	 */
+	public int getPendingCount() {
+		return targetCount - results.size() - errors.size();
+	}
+
+	@Override
+	public String toString() {
+		return "BroadcastResult{" + //
+				"targetCount=" + targetCount + //
+				", required=" + required + //
+				", success=" + results.size() + //
+				", error=" + errors.size() + //
+				", timeout=" + timeout + //
+				'}';
+	}
+}
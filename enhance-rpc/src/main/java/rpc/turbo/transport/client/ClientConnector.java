@@ -0,0 +1,87 @@
+package rpc.turbo.transport.client;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+
+import rpc.turbo.config.HostPort;
+import rpc.turbo.transport.client.future.RequestWithFuture;
+
+/**
+ * 连接到一个服务器的传输层
+ * 
+ * @author zhushimmer
+ *
+ */
+interface ClientConnector extends Closeable {
+
+	HostPort serverAddress();
+
+	HostPort clientAddress();
+
+	/**
+	 * 当前的连接数，可能在运行中伸缩
+	 * 
+	 * @return
+	 */
+	int connectCount();
+
+	/**
+	 * 最大连接数，channelIndex总是小于该值
+	 * 
+	 * @return
+	 */
+	default int maxConnectCount() {
+		return connectCount();
+	}
+
+	/**
+	 * 已发送、还没有收到响应的请求数，用于估算服务器的负载，不需要精确
+	 * 
+	 * @return 不支持统计时返回0
+	 */
+	default int inflight() {
+		return 0;
+	}
+
+	/**
+	 * 连接数伸缩时，被移除或者新加入的channelIndex回调，用于清除该位置的统计，连接数固定时不需要实现
+	 * 
+	 * @param listener
+	 */
+	default void setChannelResetListener(IntConsumer listener) {
+	}
+
+	/**
+	 * 
+	 * @param channelIndex
+	 *            发送数据的channel
+	 * 
+	 * @param requestWithFuture
+	 *            请求数据
+	 */
+	void send(int channelIndex, RequestWithFuture requestWithFuture);
+
+	/**
+	 * 所属eventLoop为当前线程的channel
+	 * 
+	 * @return channelIndex，不存在时返回-1
+	 */
+	int channelIndexInEventLoop();
+
+	void connect() throws InterruptedException;
+
+	/**
+	 * 异步建立连接，默认在当前线程同步建立
+	 * 
+	 * @return 所有连接都建立完成时完成
+	 */
+	default CompletableFuture<Void> connectAsync() {
+		try {
+			connect();
+			return CompletableFuture.completedFuture(null);
+		} catch (Throwable t) {
+			return CompletableFuture.failedFuture(t);
+		}
+	}
+}
@@ -8,16 +8,19 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import io.netty.channel.EventLoopGroup;
+import rpc.turbo.annotation.TurboBatchFrame;
 import rpc.turbo.annotation.TurboService;
 import rpc.turbo.common.RemoteContext;
 import rpc.turbo.common.TurboConnectService;
 import rpc.turbo.config.HostPort;
+import rpc.turbo.config.TurboConstants;
 import rpc.turbo.config.client.AppConfig;
 import rpc.turbo.filter.RpcClientFilter;
 import rpc.turbo.invoke.Invoker;
@@ -28,11 +31,14 @@ import rpc.turbo.param.MethodParam;
 import rpc.turbo.protocol.Request;
 import rpc.turbo.protocol.Response;
 import rpc.turbo.protocol.ResponseStatus;
+import rpc.turbo.protocol.ServerLoad;
 import rpc.turbo.recycle.RecycleUtils;
 import rpc.turbo.remote.RemoteException;
 import rpc.turbo.serialization.Serializer;
 import rpc.turbo.serialization.SerializerFactory;
 import rpc.turbo.transport.client.future.RequestWithFuture;
+import rpc.turbo.transport.server.injvm.InJvmRpcServer;
+import rpc.turbo.transport.server.injvm.InJvmServerRegistry;
 import rpc.turbo.util.SystemClock;
 import rpc.turbo.util.concurrent.AtomicMuiltInteger;
 import rpc.turbo.util.concurrent.ConcurrentIntToIntArrayMap;
@@ -41,41 +47,79 @@ import rpc.turbo.util.concurrent.ConcurrentIntegerSequencer;
 final class ConnectorContext implements Weightable, Closeable {
 	private static final Log logger = LogFactory.getLog(ConnectorContext.class);
 
+	/** 慢启动开始时的权重比例 */
+	private static final float MIN_SLOW_START_RATIO = 0.1F;
+	/** 每多少个响应更新一次全局的平均负载，减少共享变量的写竞争 */
+	private static final int LOAD_REFERENCE_SAMPLE_MASK = 7;
+
 	private final AppConfig appConfig;
 	public final HostPort serverAddress;
 
-	private final int connectCount;
-	private final NettyClientConnector connector;
+	private final ClientConnector connector;
 	private final ConcurrentIntegerSequencer sequencer = new ConcurrentIntegerSequencer(0, true);
 	private final Semaphore requestWaitSemaphore;
 	private final AtomicMuiltInteger errorCounter;
 	private final int globalTimeout;
 	private final CopyOnWriteArrayList<RpcClientFilter> filters;
 	private final Serializer serializer;
+	private final boolean eventLoopAffinity;
 
 	private final Method heartbeatMethod;
 	private final String heartbeatServiceMethodName;
 
 	private final ConcurrentIntToIntArrayMap methodIdToServiceIdMap = new ConcurrentIntToIntArrayMap();
+	/** 声明了TurboBatchFrame并且服务端支持批量帧的serviceId */
+	private final ConcurrentIntToIntArrayMap batchFrameServiceIdMap = new ConcurrentIntToIntArrayMap();
 	private volatile Map<String, Integer> serviceMethodNameToServiceIdMap;
 	private volatile int weight;
 	private volatile boolean isClosed = false;
 
+	/** 慢启动时长，小于1时不启用 */
+	private final int slowStartMillis;
+	/** 慢启动开始时间，0表示已结束 */
+	private volatile long slowStartTime = 0;
+
+	/** 根据服务端返回的负载调整权重，为null时不启用 */
+	private final ServerLoadReference loadReference;
+	/** 最近一次的负载评分，0表示未知 */
+	private volatile double loadScore = 0;
+
 	ConnectorContext(EventLoopGroup eventLoopGroup, AppConfig appConfig, CopyOnWriteArrayList<RpcClientFilter> filters,
-			HostPort serverAddress) {
+			HostPort serverAddress, ServerLoadReference loadReference) {
 		this.appConfig = appConfig;
-		this.connectCount = appConfig.getConnectPerServer();
 		this.serializer = SerializerFactory.createSerializer(appConfig.getSerializer());
 
-		this.connector = new NettyClientConnector(//
-				eventLoopGroup, //
-				serializer, //
-				serverAddress, //
-				connectCount);
+		InJvmRpcServer inJvmServer = appConfig.isInJvm() ? InJvmServerRegistry.find(serverAddress) : null;
+
+		if (inJvmServer != null) {
+			this.connector = new InJvmClientConnector(//
+					inJvmServer, //
+					serializer, //
+					serverAddress, //
+					appConfig.isInJvmCopyOnCall());
+		} else if (appConfig.isSharedMemory() && ShmClientConnector.isAvailable(serverAddress)) {
+			this.connector = new ShmClientConnector(//
+					serializer, //
+					serverAddress, //
+					appConfig.getSharedMemoryCapacity());
+		} else {
+			this.connector = new NettyClientConnector(//
+					eventLoopGroup, //
+					serializer, //
+					serverAddress, //
+					appConfig.getConnectPerServer(), //
+					appConfig.getMaxConnectPerServer(), //
+					appConfig.getConnectGrowInflight(), //
+					appConfig.getConnectIdleMillis(), //
+					appConfig.isEventLoopAffinity());
+		}
 
 		this.serverAddress = serverAddress;
 
-		this.errorCounter = new AtomicMuiltInteger(connectCount);
+		// 连接数可能在运行中伸缩，按最大连接数分配
+		this.errorCounter = new AtomicMuiltInteger(connector.maxConnectCount());
+		// 缩容后重新使用的位置不应该带着旧连接的错误计数
+		connector.setChannelResetListener(errorCounter::reset);
 
 		if (appConfig.getMaxRequestWait() < 1) {
 			this.requestWaitSemaphore = null;
@@ -84,6 +128,9 @@ final class ConnectorContext implements Weightable, Closeable {
 		}
 
 		this.globalTimeout = appConfig.getGlobalTimeout();
+		this.eventLoopAffinity = appConfig.isEventLoopAffinity();
+		this.slowStartMillis = appConfig.getSlowStartMillis();
+		this.loadReference = appConfig.isLoadAwareWeight() ? loadReference : null;
 
 		this.filters = filters;
 
@@ -104,17 +151,24 @@ final class ConnectorContext implements Weightable, Closeable {
 		return serviceMethodNameToServiceIdMap.containsKey(serviceMethodName);
 	}
 
-	void initSerializer() throws Exception {
+	/**
+	 * 异步获取服务端的classId，不支持classId的序列化方式直接完成
+	 * 
+	 * @return
+	 */
+	CompletableFuture<Void> initSerializerAsync() {
 		if (!serializer.isSupportedClassId()) {
-			return;
+			return CompletableFuture.completedFuture(null);
 		}
 
 		int serviceId = TurboConnectService.SERVICE_CLASS_ID_REGISTER;
 		long timeout = TurboService.DEFAULT_TIME_OUT;
 
 		CompletableFuture<Map<String, Integer>> future = execute(serviceId, timeout);
-		Map<String, Integer> classIds = future.get();
+		return future.thenAccept(this::setClassIds);
+	}
 
+	private void setClassIds(Map<String, Integer> classIds) {
 		Map<Class<?>, Integer> classIdMap = new HashMap<>();
 		classIds.forEach((className, id) -> {
 			try {
@@ -159,7 +213,7 @@ final class ConnectorContext implements Weightable, Closeable {
 						future.completeExceptionally(e);
 					}
 
-					CompletableFuture<Boolean> result = handleResult(request, future);
+					CompletableFuture<Boolean> result = handleResult(request, index, future);
 
 					return result;
 				})//
@@ -204,25 +258,38 @@ final class ConnectorContext implements Weightable, Closeable {
 	 */
 	<T> CompletableFuture<T> execute(int serviceId, long timeout, MethodParam methodParam,
 			Invoker<CompletableFuture<?>> failoverInvoker) {
+		return execute(serviceId, timeout, methodParam, failoverInvoker, null);
+	}
+
+	/**
+	 * 远程调用
+	 * 
+	 * @param serviceId
+	 *            远程serviceId
+	 * @param timeout
+	 *            millseconds
+	 * @param methodParam
+	 *            方法参数对象，无参类型为null
+	 * @param failoverInvoker
+	 *            失败回退
+	 * @param overloadRetry
+	 *            服务端过载拒绝时的重试，通常为换一台服务器执行，可空
+	 * @return
+	 */
+	<T> CompletableFuture<T> execute(int serviceId, long timeout, MethodParam methodParam,
+			Invoker<CompletableFuture<?>> failoverInvoker, Supplier<CompletableFuture<?>> overloadRetry) {
 
 		if (isClosed) {
 			throw new RemoteException("已关闭的连接!");
 		}
 
 		int requestId = sequencer.next();
-
-		for (int i = 0; i < connectCount; i++) {// 最多循环一遍
-			if (isZombie(channelIndex(requestId))) {
-				requestId = sequencer.next();
-				continue;
-			}
-
-			break;
-		}
+		int channelIndex = selectChannelIndex(requestId);
 
 		Request request = new Request();
 		request.setServiceId(serviceId);
 		request.setRequestId(requestId);
+		request.setBatchFrame(batchFrameServiceIdMap.contains(serviceId));
 
 		if (methodParam instanceof EmptyMethodParam) {
 			request.setMethodParam(null);
@@ -246,7 +313,7 @@ final class ConnectorContext implements Weightable, Closeable {
 				long expireTime = SystemClock.fast().mills() + timeout;
 
 				connector.send(//
-						channelIndex(request), //
+						channelIndex, //
 						new RequestWithFuture(request, future, expireTime));
 			} else {
 				future.completeExceptionally(new RemoteException(RpcClientFilter.CLIENT_FILTER_DENY, false));
@@ -255,30 +322,118 @@ final class ConnectorContext implements Weightable, Closeable {
 			future.completeExceptionally(e);
 		}
 
-		if (failoverInvoker == null) {
-			return handleResult(request, future);
+		if (failoverInvoker == null && overloadRetry == null) {
+			return handleResult(request, channelIndex, future);
 		} else {
-			return handleResult(request, future, failoverInvoker, methodParam);
+			return handleResult(request, channelIndex, future, failoverInvoker, overloadRetry, methodParam);
 		}
 	}
 
-	private int channelIndex(int requestId) {
-		return requestId % connectCount;
+	/**
+	 * 单向调用，不注册future、不占用requestWaitSemaphore，请求帧写出后以null完成
+	 * 
+	 * @param serviceId
+	 *            远程serviceId
+	 * @param methodParam
+	 *            方法参数对象，无参类型为null
+	 * @return
+	 */
+	<T> CompletableFuture<T> executeOneWay(int serviceId, MethodParam methodParam) {
+		if (isClosed) {
+			throw new RemoteException("已关闭的连接!");
+		}
+
+		if (!isSupportOneWayFrame()) {
+			// 旧版本服务端不识别单向标记，退化为普通请求，收到响应后以null完成
+			return this.<Object>execute(serviceId, TurboService.DEFAULT_TIME_OUT, methodParam, null)
+					.thenApply(result -> null);
+		}
+
+		final int requestId = sequencer.next();
+		final int channelIndex = selectChannelIndex(requestId);
+
+		Request request = new Request();
+		request.setServiceId(serviceId);
+		request.setRequestId(requestId);
+		request.setOneWay(true);
+		request.setBatchFrame(batchFrameServiceIdMap.contains(serviceId));
+
+		if (methodParam instanceof EmptyMethodParam) {
+			request.setMethodParam(null);
+		} else {
+			request.setMethodParam(methodParam);
+		}
+
+		CompletableFuture<Response> future = new CompletableFuture<>();
+
+		try {
+			boolean allowSend = doRequestFilter(request);
+			if (allowSend) {
+				long expireTime = SystemClock.fast().mills() + TurboService.DEFAULT_TIME_OUT;
+				connector.send(channelIndex, new RequestWithFuture(request, future, expireTime));
+			} else {
+				future.completeExceptionally(new RemoteException(RpcClientFilter.CLIENT_FILTER_DENY, false));
+			}
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+
+		return future.handle((response, throwable) -> {
+			if (throwable == null) {
+				return null;
+			}
+
+			if (logger.isWarnEnabled()) {
+				logger.warn("one-way request error, requestId: " + requestId, throwable);
+			}
+
+			errorCounter.incrementAndGet(channelIndex);
+
+			if (throwable instanceof RuntimeException) {
+				throw (RuntimeException) throwable;
+			}
+
+			throw new RemoteException(throwable);
+		});
 	}
 
-	private int channelIndex(Request request) {
-		return channelIndex(request.getRequestId());
+	/**
+	 * 选择连接，优先当前eventLoop所属的连接，跳过僵死的连接
+	 * 
+	 * @param requestId
+	 * @return
+	 */
+	private int selectChannelIndex(int requestId) {
+		final int connectCount = connector.connectCount();
+		int channelIndex = eventLoopAffinity ? connector.channelIndexInEventLoop() : -1;
+
+		if (channelIndex < 0 || isZombie(channelIndex)) {
+			channelIndex = requestId % connectCount;
+
+			for (int i = 0; i < connectCount; i++) {// 最多循环一遍
+				if (isZombie(channelIndex)) {
+					channelIndex = sequencer.next() % connectCount;
+					continue;
+				}
+
+				break;
+			}
+		}
+
+		return channelIndex;
 	}
 
 	/**
 	 * 处理返回值，无失败回退
 	 * 
 	 * @param request
+	 * @param channelIndex
 	 * @param future
 	 * @return
 	 */
 	@SuppressWarnings("unchecked")
-	private <T> CompletableFuture<T> handleResult(final Request request, final CompletableFuture<Response> future) {
+	private <T> CompletableFuture<T> handleResult(final Request request, final int channelIndex,
+			final CompletableFuture<Response> future) {
 
 		final Method method;
 		final String serviceMethodName;
@@ -313,6 +468,7 @@ final class ConnectorContext implements Weightable, Closeable {
 				error = true;
 			}
 
+			boolean overload = false;
 			if (!error && response.getStatusCode() != ResponseStatus.OK) {
 				String msg = " status code is" + response.getStatusCode() + " reason is " + response.getResult();
 
@@ -321,13 +477,19 @@ final class ConnectorContext implements Weightable, Closeable {
 				}
 
 				error = true;
+				overload = isRejected(response.getStatusCode());
 			}
 
 			doResponseFilter(request, response, method, serviceMethodName, throwable);
 
-			int channelIndex = channelIndex(request);
+			if (response != null) {
+				onServerLoad(request.getRequestId(), response.getServerLoad());
+			}
+
 			if (error) {
-				errorCounter.incrementAndGet(channelIndex);
+				if (!overload) {// 过载拒绝说明连接正常，不计入错误
+					errorCounter.incrementAndGet(channelIndex);
+				}
 
 				return null;
 			} else {
@@ -346,16 +508,22 @@ final class ConnectorContext implements Weightable, Closeable {
 	 * 处理返回值，带失败回退
 	 * 
 	 * @param request
+	 * @param channelIndex
 	 * @param future
 	 * @param failoverInvoker
+	 *            可空
+	 * @param overloadRetry
+	 *            可空
 	 * @param methodParam
 	 * @return
 	 */
 	@SuppressWarnings("unchecked")
 	private <T> CompletableFuture<T> handleResult(//
 			final Request request, //
+			final int channelIndex, //
 			final CompletableFuture<Response> future, //
 			final Invoker<CompletableFuture<?>> failoverInvoker, //
+			final Supplier<CompletableFuture<?>> overloadRetry, //
 			final MethodParam methodParam) {
 
 		final Method method;
@@ -392,27 +560,61 @@ final class ConnectorContext implements Weightable, Closeable {
 				error = true;
 			}
 
+			boolean overload = false;
+			String statusMsg = null;
 			if (!error && response.getStatusCode() != ResponseStatus.OK) {
 				String msg = " status code is" + response.getStatusCode() + " reason is " + response.getResult();
+				statusMsg = "request error, requestId: " + request.getRequestId() + msg;
 
 				if (logger.isWarnEnabled()) {
-					logger.warn("request error, requestId: " + request.getRequestId() + msg);
+					logger.warn(statusMsg);
 				}
 
 				error = true;
+				overload = isRejected(response.getStatusCode());
 			}
 
 			doResponseFilter(request, response, method, serviceMethodName, throwable);
 
-			int channelIndex = channelIndex(request);
+			if (response != null) {
+				onServerLoad(request.getRequestId(), response.getServerLoad());
+			}
+
 			if (error) {
-				if (logger.isInfoEnabled()) {
-					logger.info("远程调用发生错误，使用本地回退方法执行");
-				}
+				CompletableFuture<?> fallback;
+
+				if (overload && overloadRetry != null) {
+					fallback = overloadRetry.get();
+				} else {
+					if (!overload) {// 过载拒绝说明连接正常，不计入错误
+						errorCounter.incrementAndGet(channelIndex);
+					}
+
+					if (failoverInvoker == null) {
+						futureWithFailover.complete(null);
+						return;
+					}
+
+					if (failoverInvoker == App.FAIL_ON_ERROR) {
+						// 按响应状态判定失败，保留原因，正常返回的null不受影响
+						if (throwable != null) {
+							futureWithFailover.completeExceptionally(throwable);
+						} else {
+							futureWithFailover.completeExceptionally(new RemoteException(statusMsg != null ? statusMsg
+									: "request error, requestId: " + request.getRequestId(), false));
+						}
+
+						return;
+					}
+
+					if (logger.isInfoEnabled()) {
+						logger.info("远程调用发生错误，使用本地回退方法执行");
+					}
 
-				errorCounter.incrementAndGet(channelIndex);
+					fallback = failoverInvoker.invoke(methodParam);
+				}
 
-				failoverInvoker.invoke(methodParam).whenComplete((r, t) -> {
+				fallback.whenComplete((r, t) -> {
 					if (t != null) {
 						futureWithFailover.completeExceptionally(t);
 					} else {
@@ -432,14 +634,24 @@ final class ConnectorContext implements Weightable, Closeable {
 		return futureWithFailover;
 	}
 
+	/**
+	 * 服务端过载或者隔离舱已满，请求未被处理，可以换一台服务器重试
+	 * 
+	 * @param statusCode
+	 * @return
+	 */
+	private static boolean isRejected(byte statusCode) {
+		return statusCode == ResponseStatus.SERVER_OVERLOAD || statusCode == ResponseStatus.SERVER_BULKHEAD_FULL;
+	}
+
 	private boolean doRequestFilter(Request request) {
 		final int filterLength = filters.size();
 		if (filterLength == 0) {
 			return true;
 		}
 
-		RemoteContext.setServerAddress(connector.serverAddress);
-		RemoteContext.setClientAddress(connector.clientAddress);
+		RemoteContext.setServerAddress(connector.serverAddress());
+		RemoteContext.setClientAddress(connector.clientAddress());
 		// App中赋值 RemoteContext.setRemoteMethod(method);
 		// RemoteContext.setServiceMethodName(serviceMethodName);
 
@@ -459,8 +671,8 @@ final class ConnectorContext implements Weightable, Closeable {
 			return true;
 		}
 
-		RemoteContext.setServerAddress(connector.serverAddress);
-		RemoteContext.setClientAddress(connector.clientAddress);
+		RemoteContext.setServerAddress(connector.serverAddress());
+		RemoteContext.setClientAddress(connector.clientAddress());
 		RemoteContext.setRemoteMethod(method);
 		RemoteContext.setServiceMethodName(serviceMethodName);
 
@@ -481,8 +693,8 @@ final class ConnectorContext implements Weightable, Closeable {
 			return;
 		}
 
-		RemoteContext.setServerAddress(connector.serverAddress);
-		RemoteContext.setClientAddress(connector.clientAddress);
+		RemoteContext.setServerAddress(connector.serverAddress());
+		RemoteContext.setClientAddress(connector.clientAddress());
 		RemoteContext.setRemoteMethod(method);
 		RemoteContext.setServiceMethodName(serviceMethodName);
 
@@ -510,10 +722,40 @@ final class ConnectorContext implements Weightable, Closeable {
 		}
 
 		methodIdToServiceIdMap.put(methodId, serviceId);
+
+		if (isSupportBatchFrame()) {
+			Method method = InvokerUtils.toMethod(serviceMethodName);
+
+			if (method != null && method.isAnnotationPresent(TurboBatchFrame.class)) {
+				batchFrameServiceIdMap.put(serviceId, 1);
+			}
+		}
 	}
 
 	void clear() {
 		methodIdToServiceIdMap.clear();
+		batchFrameServiceIdMap.clear();
+	}
+
+	/**
+	 * 服务端是否支持单向请求帧，握手完成前为false
+	 * 
+	 * @return
+	 */
+	boolean isSupportOneWayFrame() {
+		Map<String, Integer> map = serviceMethodNameToServiceIdMap;
+		return map != null && map.containsKey(TurboConstants.CAPABILITY_ONE_WAY_FRAME);
+	}
+
+	/**
+	 * 服务端是否支持批量帧，并且客户端的序列化支持批量帧中的子请求，握手完成前为false
+	 * 
+	 * @return
+	 */
+	boolean isSupportBatchFrame() {
+		Map<String, Integer> map = serviceMethodNameToServiceIdMap;
+		return map != null && map.containsKey(TurboConstants.CAPABILITY_BATCH_FRAME)
+				&& serializer.isSupportedBatchFrame();
 	}
 
 	public void setServiceMethodNameToServiceIdMap(Map<String, Integer> serviceMethodNameToServiceIdMap) {
@@ -529,6 +771,8 @@ final class ConnectorContext implements Weightable, Closeable {
 		int sum = 0;
 		boolean allZombie = true;
 
+		final int connectCount = connector.connectCount();
+
 		for (int i = 0; i < connectCount; i++) {
 			int error = errorCounter.get(i);
 			sum += error;
@@ -550,9 +794,22 @@ final class ConnectorContext implements Weightable, Closeable {
 		return errorCounter.get(index) >= appConfig.getConnectErrorThreshold();
 	}
 
-	void connect() throws InterruptedException {
-		connector.connect();
+	/**
+	 * 异步建立连接，不阻塞调用线程
+	 * 
+	 * @return
+	 */
+	CompletableFuture<Void> connectAsync() {
+		return connector.connectAsync().thenRun(this::onConnected);
+	}
+
+	private void onConnected() {
 		errorCounter.resetAll();
+
+		// 新加入或者被抢救回来的服务预热期间逐步增加流量
+		if (slowStartMillis > 0) {
+			slowStartTime = SystemClock.fast().mills();
+		}
 	}
 
 	@Override
@@ -560,6 +817,64 @@ final class ConnectorContext implements Weightable, Closeable {
 		return weight;
 	}
 
+	@Override
+	public String identity() {
+		return serverAddress.toString();
+	}
+
+	@Override
+	public String zone() {
+		return serverAddress.zone;
+	}
+
+	@Override
+	public int inflight() {
+		return connector.inflight();
+	}
+
+	@Override
+	public float weightRatio() {
+		return slowStartRatio() * loadRatio();
+	}
+
+	private float slowStartRatio() {
+		final long startTime = slowStartTime;
+
+		if (startTime == 0) {
+			return 1F;
+		}
+
+		long elapsed = SystemClock.fast().mills() - startTime;
+
+		if (elapsed >= slowStartMillis) {
+			slowStartTime = 0;
+			return 1F;
+		}
+
+		return Math.max(MIN_SLOW_START_RATIO, (float) elapsed / slowStartMillis);
+	}
+
+	private float loadRatio() {
+		if (loadReference == null) {
+			return 1F;
+		}
+
+		return loadReference.loadRatio(loadScore);
+	}
+
+	private void onServerLoad(int requestId, long serverLoad) {
+		if (loadReference == null || serverLoad == 0) {
+			return;
+		}
+
+		double score = ServerLoad.score(serverLoad);
+		loadScore = score;
+
+		if ((requestId & LOAD_REFERENCE_SAMPLE_MASK) == 0) {
+			loadReference.update(score);
+		}
+	}
+
 	public boolean isClosed() {
 		return isClosed;
 	}
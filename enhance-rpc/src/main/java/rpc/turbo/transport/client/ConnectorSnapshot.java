@@ -0,0 +1,98 @@
+package rpc.turbo.transport.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import rpc.turbo.config.HostPort;
+import rpc.turbo.loadbalance.Weightable;
+import rpc.turbo.loadbalance.WeightableGroup;
+
+/**
+ * 一个MethodRouter使用的连接集合，不可变，连接集合相同的MethodRouter共享同一个实例
+ * 
+ * @author zhushimmer
+ *
+ */
+final class ConnectorSnapshot {
+	static final ConnectorSnapshot EMPTY = new ConnectorSnapshot(Collections.emptyList());
+
+	final List<Weightable> connectors;
+	final Set<Weightable> members;
+	final Set<HostPort> addresses;
+	final WeightableGroup<Weightable> group;
+
+	ConnectorSnapshot(List<Weightable> connectors) {
+		this.connectors = Collections.unmodifiableList(connectors);
+		this.members = new HashSet<>(connectors);
+		this.addresses = new HashSet<>(connectors.size() * 2);
+		this.group = new WeightableGroup<>(connectors);
+
+		for (int i = 0; i < connectors.size(); i++) {
+			addresses.add(((ConnectorContext) connectors.get(i)).serverAddress);
+		}
+	}
+
+	/**
+	 * 
+	 * @param supportedAdded
+	 *            新建立的并且支持该方法的连接
+	 * @param removed
+	 *            删除的连接
+	 * @param reweighted
+	 *            权重发生变化的连接
+	 * @return 是否受本次变化影响
+	 */
+	boolean isAffected(List<ConnectorContext> supportedAdded, Set<HostPort> removed, Set<HostPort> reweighted) {
+		if (!supportedAdded.isEmpty()) {
+			return true;
+		}
+
+		return containsAny(removed) || containsAny(reweighted);
+	}
+
+	/**
+	 * 应用变化后的连接列表
+	 * 
+	 * @param supportedAdded
+	 * @param removed
+	 * @return
+	 */
+	List<Weightable> apply(List<ConnectorContext> supportedAdded, Set<HostPort> removed) {
+		Set<HostPort> addedAddresses = new HashSet<>();
+		List<Weightable> list = new ArrayList<>(connectors.size() + supportedAdded.size());
+
+		for (int i = 0; i < supportedAdded.size(); i++) {
+			ConnectorContext context = supportedAdded.get(i);
+
+			addedAddresses.add(context.serverAddress);
+			list.add(context);
+		}
+
+		for (int i = 0; i < connectors.size(); i++) {
+			HostPort serverAddress = ((ConnectorContext) connectors.get(i)).serverAddress;
+
+			if (!removed.contains(serverAddress) && !addedAddresses.contains(serverAddress)) {
+				list.add(connectors.get(i));
+			}
+		}
+
+		return list;
+	}
+
+	private boolean containsAny(Set<HostPort> set) {
+		if (set.isEmpty() || addresses.isEmpty()) {
+			return false;
+		}
+
+		for (HostPort serverAddress : set) {
+			if (addresses.contains(serverAddress)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,78 @@
+package rpc.turbo.transport.client;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import rpc.turbo.config.HostPort;
+import rpc.turbo.loadbalance.Weightable;
+
+/**
+ * 按连接集合复用ConnectorSnapshot，每个不同的集合在一次拓扑变化中只构建一次，非线程安全，只在App的锁内使用<br>
+ * key只包含连接集合，WeightableGroup在构建时固定了权重，权重变化时必须先{@link #evict(Set)}
+ * 
+ * @author zhushimmer
+ *
+ */
+final class ConnectorSnapshotInterner {
+	private Map<Set<Weightable>, ConnectorSnapshot> snapshots = new HashMap<>();
+
+	ConnectorSnapshot intern(List<Weightable> connectors) {
+		if (connectors.isEmpty()) {
+			return ConnectorSnapshot.EMPTY;
+		}
+
+		Set<Weightable> key = new HashSet<>(connectors);
+		ConnectorSnapshot snapshot = snapshots.get(key);
+
+		if (snapshot == null) {
+			snapshot = new ConnectorSnapshot(connectors);
+			snapshots.put(snapshot.members, snapshot);
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * 删除包含这些连接的快照，之后intern时按最新的权重重新构建
+	 * 
+	 * @param reweighted
+	 *            权重发生变化的连接
+	 */
+	void evict(Set<HostPort> reweighted) {
+		if (reweighted.isEmpty()) {
+			return;
+		}
+
+		for (Iterator<ConnectorSnapshot> iterator = snapshots.values().iterator(); iterator.hasNext();) {
+			ConnectorSnapshot snapshot = iterator.next();
+
+			for (HostPort serverAddress : reweighted) {
+				if (snapshot.addresses.contains(serverAddress)) {
+					iterator.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 拓扑变化后只保留仍在使用的，权重可能已经变化，不再使用的不能复用
+	 * 
+	 * @param alive
+	 */
+	void retain(Iterable<ConnectorSnapshot> alive) {
+		Map<Set<Weightable>, ConnectorSnapshot> retained = new HashMap<>();
+
+		for (ConnectorSnapshot snapshot : alive) {
+			if (snapshot != ConnectorSnapshot.EMPTY) {
+				retained.put(snapshot.members, snapshot);
+			}
+		}
+
+		snapshots = retained;
+	}
+}
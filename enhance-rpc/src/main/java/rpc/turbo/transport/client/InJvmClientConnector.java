@@ -0,0 +1,202 @@
+package rpc.turbo.transport.client;
+
+import static rpc.turbo.config.TurboConstants.HEADER_FIELD_LENGTH;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import rpc.turbo.config.HostPort;
+import rpc.turbo.protocol.Request;
+import rpc.turbo.protocol.Response;
+import rpc.turbo.serialization.Serializer;
+import rpc.turbo.transport.client.exception.ConnectionException;
+import rpc.turbo.transport.client.exception.ResponseTimeoutException;
+import rpc.turbo.transport.client.future.RequestWithFuture;
+import rpc.turbo.transport.server.injvm.InJvmRpcServer;
+import rpc.turbo.transport.server.injvm.InJvmServerRegistry;
+import rpc.turbo.util.SystemClock;
+
+/**
+ * 服务器在同一jvm中时直接调用，不经过网络
+ * 
+ * @author zhushimmer
+ *
+ */
+final class InJvmClientConnector implements ClientConnector {
+	private static final Log logger = LogFactory.getLog(InJvmClientConnector.class);
+
+	private static final ScheduledExecutorService scheduler;
+
+	static {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "turbo-injvm-timeout");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// 按时完成的调用取消超时任务，不在队列中堆积
+		executor.setRemoveOnCancelPolicy(true);
+
+		scheduler = executor;
+	}
+
+	private final InJvmRpcServer server;
+	private final Serializer serializer;
+	private final HostPort serverAddress;
+	private final HostPort clientAddress;
+	private final boolean copyOnCall;
+
+	private volatile boolean isClosed = false;
+
+	/**
+	 * 
+	 * @param server
+	 * @param serializer
+	 *            客户端序列化器
+	 * @param serverAddress
+	 * @param copyOnCall
+	 *            是否通过序列化复制请求和响应，保持与远程调用一致的隔离语义
+	 */
+	InJvmClientConnector(InJvmRpcServer server, Serializer serializer, HostPort serverAddress, boolean copyOnCall) {
+		this.server = server;
+		this.serializer = serializer;
+		this.serverAddress = serverAddress;
+		this.clientAddress = new HostPort(serverAddress.host, 0);
+		this.copyOnCall = copyOnCall;
+	}
+
+	@Override
+	public HostPort serverAddress() {
+		return serverAddress;
+	}
+
+	@Override
+	public HostPort clientAddress() {
+		return clientAddress;
+	}
+
+	@Override
+	public int connectCount() {
+		return 1;
+	}
+
+	@Override
+	public void send(int channelIndex, RequestWithFuture requestWithFuture) {
+		final CompletableFuture<Response> future = requestWithFuture.getFuture();
+
+		if (isClosed || !InJvmServerRegistry.isAlive(server)) {
+			future.completeExceptionally(new ConnectionException("in-jvm server is closed: " + serverAddress));
+			return;
+		}
+
+		final boolean oneWay = requestWithFuture.getRequest().isOneWay();
+
+		CompletableFuture<Response> responseFuture;
+		try {
+			Request request = requestWithFuture.getRequest();
+
+			if (copyOnCall) {
+				request = copyRequest(request);
+				request.setOneWay(oneWay);
+			}
+
+			responseFuture = server.handle(request, clientAddress);
+		} catch (Throwable t) {
+			future.completeExceptionally(t);
+			return;
+		}
+
+		requestWithFuture.setRequest(null);// help to gc
+
+		if (oneWay) {// 不等待执行结果
+			future.complete(null);
+			return;
+		}
+
+		if (!responseFuture.isDone()) {
+			long delay = requestWithFuture.getExpireTime() - SystemClock.fast().mills();
+
+			ScheduledFuture<?> timeout = scheduler.schedule(
+					() -> future.completeExceptionally(ResponseTimeoutException.NONE_STACK_TRACE), //
+					Math.max(delay, 0), TimeUnit.MILLISECONDS);
+
+			future.whenComplete((response, throwable) -> timeout.cancel(false));
+		}
+
+		responseFuture.whenComplete((response, throwable) -> {
+			if (throwable != null) {
+				future.completeExceptionally(throwable);
+				return;
+			}
+
+			if (!copyOnCall) {
+				future.complete(response);
+				return;
+			}
+
+			try {
+				future.complete(copyResponse(response));
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			}
+		});
+	}
+
+	private Request copyRequest(Request request) throws IOException {
+		ByteBuf buffer = ByteBufAllocator.DEFAULT.heapBuffer();
+
+		try {
+			serializer.writeRequest(buffer, request);
+			buffer.skipBytes(HEADER_FIELD_LENGTH);
+
+			return server.getSerializer().readRequest(buffer);
+		} finally {
+			buffer.release();
+		}
+	}
+
+	private Response copyResponse(Response response) throws IOException {
+		ByteBuf buffer = ByteBufAllocator.DEFAULT.heapBuffer();
+
+		try {
+			server.getSerializer().writeResponse(buffer, response);
+			buffer.skipBytes(HEADER_FIELD_LENGTH);
+
+			return serializer.readResponse(buffer);
+		} finally {
+			buffer.release();
+		}
+	}
+
+	@Override
+	public int channelIndexInEventLoop() {
+		return -1;
+	}
+
+	@Override
+	public void connect() throws InterruptedException {
+		if (!InJvmServerRegistry.isAlive(server)) {
+			throw new ConnectionException("in-jvm server is closed: " + serverAddress);
+		}
+
+		isClosed = false;
+
+		if (logger.isInfoEnabled()) {
+			logger.info(serverAddress + " connect in-jvm" + (copyOnCall ? ", copy-on-call" : ""));
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		isClosed = true;
+	}
+
+}
@@ -1,14 +1,24 @@
 package rpc.turbo.transport.client;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.lang.reflect.Parameter;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import rpc.turbo.annotation.TurboOneWay;
+import rpc.turbo.annotation.TurboRoutingKey;
+import rpc.turbo.annotation.TurboSingleFlight;
+import rpc.turbo.invoke.InvokeException;
 import rpc.turbo.invoke.InvokerUtils;
 import rpc.turbo.loadbalance.LoadBalance;
+import rpc.turbo.loadbalance.LoadBalanceFactory;
 import rpc.turbo.loadbalance.Weightable;
+import rpc.turbo.param.MethodParam;
+import rpc.turbo.param.MethodParamClassFactory;
 
 /**
  * 
@@ -16,38 +26,129 @@ import rpc.turbo.loadbalance.Weightable;
  *
  */
 final class MethodRouter {
+	private static final Log logger = LogFactory.getLog(MethodRouter.class);
+
 	private final Method method;
 	private final String serviceMethodName;
 	private final LoadBalance<Weightable> loadBalance;
+	/** 请求合并，未开启时为null */
+	private final SingleFlight singleFlight;
+	/** 单向调用，不等待响应 */
+	private final boolean oneWay;
+	/** 路由参数的getter，没有{@link TurboRoutingKey}时为null */
+	private final MethodHandle routingKeyGetter;
+	/** 当前使用的连接快照，只在App的锁内修改 */
+	private volatile ConnectorSnapshot snapshot = ConnectorSnapshot.EMPTY;
 
-	MethodRouter(String serviceMethodName, LoadBalance<Weightable> loadBalance) {
+	/**
+	 * 
+	 * @param serviceMethodName
+	 * @param loadBalanceFactory
+	 *            有{@link TurboRoutingKey}的方法使用{@link LoadBalanceFactory#newKeyedLoadBalance()}，
+	 *            普通的LoadBalance会被一致性哈希替代，区域感知时在选中的区域内哈希
+	 */
+	MethodRouter(String serviceMethodName, LoadBalanceFactory<Weightable> loadBalanceFactory) {
 		this.method = InvokerUtils.toMethod(serviceMethodName);
 		this.serviceMethodName = serviceMethodName;
-		this.loadBalance = loadBalance;
-	}
+		this.routingKeyGetter = routingKeyGetter(method);
+
+		if (routingKeyGetter == null) {
+			this.loadBalance = loadBalanceFactory.newLoadBalance();
+		} else {
+			this.loadBalance = loadBalanceFactory.newKeyedLoadBalance();
 
-	void setConnectors(Collection<ConnectorContext> connectors) {
-		if (connectors == null || connectors.size() == 0) {
-			loadBalance.setWeightables(Collections.emptyList());
-			return;
+			if (logger.isInfoEnabled()) {
+				logger.info(serviceMethodName + " 有路由参数，使用按key路由的LoadBalance: "
+						+ loadBalance.getClass().getName());
+			}
 		}
 
-		List<Weightable> supported = connectors.stream()//
-				.filter(t -> t.isSupport(serviceMethodName))//
-				.collect(Collectors.toList());
+		if (method != null && method.isAnnotationPresent(TurboSingleFlight.class)) {
+			this.singleFlight = new SingleFlight(serviceMethodName);
+		} else {
+			this.singleFlight = null;
+		}
+
+		this.oneWay = method != null && method.isAnnotationPresent(TurboOneWay.class);
+	}
 
-		loadBalance.setWeightables(supported);
+	ConnectorSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	void setSnapshot(ConnectorSnapshot snapshot) {
+		loadBalance.setWeightableGroup(snapshot.group);
+		this.snapshot = snapshot;
+	}
+
+	boolean isSupport(ConnectorContext context) {
+		return context.isSupport(serviceMethodName);
 	}
 
 	ConnectorContext selectConnector() {
 		return (ConnectorContext) loadBalance.select();
 	}
 
+	/**
+	 * 有路由参数时按key选择
+	 * 
+	 * @param methodParam
+	 * @return
+	 */
+	ConnectorContext selectConnector(MethodParam methodParam) {
+		if (routingKeyGetter == null || methodParam == null) {
+			return selectConnector();
+		}
+
+		Object key;
+		try {
+			key = (Object) routingKeyGetter.invokeExact(methodParam);
+		} catch (Throwable t) {
+			throw new InvokeException(t);
+		}
+
+		return (ConnectorContext) loadBalance.select(key);
+	}
+
 	Method getMethod() {
 		return method;
 	}
 
+	SingleFlight getSingleFlight() {
+		return singleFlight;
+	}
+
+	boolean isOneWay() {
+		return oneWay;
+	}
+
 	String getServiceMethodName() {
 		return serviceMethodName;
 	}
+
+	private static MethodHandle routingKeyGetter(Method method) {
+		if (method == null) {
+			return null;
+		}
+
+		Parameter[] parameters = method.getParameters();
+
+		for (int i = 0; i < parameters.length; i++) {
+			if (!parameters[i].isAnnotationPresent(TurboRoutingKey.class)) {
+				continue;
+			}
+
+			try {
+				Class<? extends MethodParam> methodParamClass = MethodParamClassFactory.createClass(method);
+
+				return MethodHandles.publicLookup()//
+						.findVirtual(methodParamClass, "$param" + i, MethodType.methodType(parameters[i].getType()))//
+						.asType(MethodType.methodType(Object.class, MethodParam.class));
+			} catch (Exception e) {
+				throw new InvokeException(e);
+			}
+		}
+
+		return null;
+	}
 }
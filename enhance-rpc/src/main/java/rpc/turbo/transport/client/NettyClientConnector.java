@@ -1,43 +1,86 @@
 package rpc.turbo.transport.client;
 
-import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import rpc.turbo.annotation.TurboService;
 import rpc.turbo.config.HostPort;
 import rpc.turbo.serialization.Serializer;
+import rpc.turbo.transport.client.exception.ConnectionException;
+import rpc.turbo.transport.client.future.FutureContainer;
 import rpc.turbo.transport.client.future.RequestWithFuture;
 import rpc.turbo.transport.client.handler.TurboChannelInitializer;
 import rpc.turbo.transport.client.sender.BatchSender;
 import rpc.turbo.transport.client.sender.Sender;
+import rpc.turbo.util.IPUtils;
+import rpc.turbo.util.SystemClock;
 
-final class NettyClientConnector implements Closeable {
+final class NettyClientConnector implements ClientConnector {
 	private static final Log logger = LogFactory.getLog(NettyClientConnector.class);
 
 	public static final int MAX_SEND_BUFFER_SIZE = 1024;
+	/** 建立连接的超时时间，与netty默认值一致 */
+	public static final int CONNECT_TIMEOUT_MILLIS = 30 * 1000;
+	/** 连接数伸缩的采样间隔 */
+	public static final long SCALE_PERIOD_MILLIS = 1000;
+	/** 连续多少次采样繁忙后增加连接 */
+	private static final int GROW_SAMPLE_TIMES = 2;
 
 	public final HostPort serverAddress;
 
 	private final Serializer serializer;
 	private final EventLoopGroup eventLoopGroup;
-	private final int connectCount;
+	private final int minConnectCount;
+	private final int maxConnectCount;
+	private final int growInflight;
+	private final long idleMillis;
+	private final boolean eventLoopAffinity;
 
 	public volatile HostPort clientAddress;
+	/** 长度为maxConnectCount，只有前connectCount个在使用中 */
 	private volatile Sender[] senders;
+	private volatile Channel[] channels;
+	private volatile int connectCount;
+
+	private volatile Bootstrap bootstrap;
+	private volatile boolean useDomainSocket;
+	private volatile ScheduledFuture<?> scaleFuture;
+
+	/** 串行化重连(替换senders、channels)与连接数伸缩，只在其中做不阻塞的操作 */
+	private final Object stateLock = new Object();
+	/** channelIndex被移除或者重新使用时回调，用于清除该位置的统计，可空 */
+	private volatile IntConsumer channelResetListener;
+
+	// 扩容连接的回调可能在其他eventLoop中执行
+	private volatile boolean growing = false;
+	// 只在伸缩任务中访问
+	private int busyTimes = 0;
+	private long lastActiveTime = 0;
 
 	/**
 	 * 
@@ -49,69 +92,236 @@ final class NettyClientConnector implements Closeable {
 	NettyClientConnector(EventLoopGroup eventLoopGroup, //
 			Serializer serializer, //
 			HostPort serverAddress, int connectCount) {
+		this(eventLoopGroup, serializer, serverAddress, connectCount, connectCount, 0, 0, false);
+	}
+
+	/**
+	 * 
+	 * @param eventLoopGroup
+	 * @param serializer
+	 * @param serverAddress
+	 * @param minConnectCount
+	 *            最少的连接数
+	 * @param maxConnectCount
+	 *            最多的连接数，大于minConnectCount时连接数随负载伸缩
+	 * @param growInflight
+	 *            平均每个连接的在途请求数持续超过该值时增加连接
+	 * @param idleMillis
+	 *            负载持续低于扩容阈值一半超过该时间后减少一个连接
+	 * @param eventLoopAffinity
+	 *            在连接所属的eventLoop中发送时直接写出
+	 */
+	NettyClientConnector(EventLoopGroup eventLoopGroup, //
+			Serializer serializer, //
+			HostPort serverAddress, int minConnectCount, int maxConnectCount, //
+			int growInflight, long idleMillis, boolean eventLoopAffinity) {
 		this.eventLoopGroup = eventLoopGroup;
-		this.connectCount = connectCount;
+		this.minConnectCount = Math.max(minConnectCount, 1);
+		this.maxConnectCount = Math.max(minConnectCount, maxConnectCount);
+		this.growInflight = Math.max(growInflight, 1);
+		this.idleMillis = idleMillis;
+		this.eventLoopAffinity = eventLoopAffinity;
 		this.serverAddress = serverAddress;
 		this.serializer = serializer;
+		this.connectCount = this.minConnectCount;
 	}
 
-	int connectCount() {
+	@Override
+	public HostPort serverAddress() {
+		return serverAddress;
+	}
+
+	@Override
+	public HostPort clientAddress() {
+		return clientAddress;
+	}
+
+	@Override
+	public int connectCount() {
 		return connectCount;
 	}
 
+	@Override
+	public int maxConnectCount() {
+		return maxConnectCount;
+	}
+
+	@Override
+	public void send(int channelIndex, RequestWithFuture requestWithFuture) {
+		Objects.requireNonNull(requestWithFuture, "request is null");
+		senders[channelIndex].send(requestWithFuture);
+	}
+
+	@Override
+	public int channelIndexInEventLoop() {
+		final int connectCount = this.connectCount;
+		final Sender[] senders = this.senders;
+
+		if (senders == null) {
+			return -1;
+		}
+
+		for (int i = 0; i < connectCount; i++) {
+			if (senders[i].inEventLoop()) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
 	/**
+	 * 服务器与客户端同机部署且提供了unix domain socket时优先使用，省掉tcp协议栈的开销
 	 * 
-	 * @param channelIndex
-	 *            发送数据的channel
-	 * 
-	 * @param requestWithFuture
-	 *            请求数据
+	 * @return
 	 */
-	void send(int channelIndex, RequestWithFuture requestWithFuture) {
-		Objects.requireNonNull(requestWithFuture, "request is null");
-		senders[channelIndex].send(requestWithFuture);
+	private boolean useDomainSocket() {
+		return serverAddress.domainSocket != null //
+				&& eventLoopGroup instanceof EpollEventLoopGroup //
+				&& IPUtils.isLocalAddress(serverAddress.host) //
+				&& new File(serverAddress.domainSocket).exists();
 	}
 
-	void connect() throws InterruptedException {
+	@Override
+	public void connect() throws InterruptedException {
+		try {
+			connectAsync().get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+
+			throw new ConnectionException(serverAddress.toFullString() + " connect error", cause);
+		}
+	}
+
+	/**
+	 * 并发的建立所有连接，不阻塞调用线程，任何一个连接失败时关闭其余连接
+	 */
+	@Override
+	public CompletableFuture<Void> connectAsync() {
+		final boolean useDomainSocket = useDomainSocket();
 
 		Bootstrap bootstrap = new Bootstrap();
 		bootstrap.group(eventLoopGroup);
 
-		bootstrap.option(ChannelOption.SO_REUSEADDR, true);
-		bootstrap.option(ChannelOption.SO_RCVBUF, 256 * 1024);
-		bootstrap.option(ChannelOption.SO_SNDBUF, 256 * 1024);
+		bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MILLIS);
 		bootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK, //
 				new WriteBufferWaterMark(1024 * 1024, 2048 * 1024));
 
-		if (eventLoopGroup instanceof EpollEventLoopGroup) {
+		if (!useDomainSocket) {
+			bootstrap.option(ChannelOption.SO_RCVBUF, 256 * 1024);
+			bootstrap.option(ChannelOption.SO_SNDBUF, 256 * 1024);
+		}
+
+		if (useDomainSocket) {
+			bootstrap.channel(EpollDomainSocketChannel.class);
+		} else if (eventLoopGroup instanceof EpollEventLoopGroup) {
+			bootstrap.option(ChannelOption.SO_REUSEADDR, true);
 			bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
 			bootstrap.channel(EpollSocketChannel.class);
 		} else if (eventLoopGroup instanceof NioEventLoopGroup) {
+			bootstrap.option(ChannelOption.SO_REUSEADDR, true);
 			bootstrap.channel(NioSocketChannel.class);
 		}
 
 		bootstrap.handler(new TurboChannelInitializer(serializer));
 
-		Sender[] newSenders = new Sender[connectCount];
-		for (int i = 0; i < connectCount; i++) {
-			Channel channel = bootstrap.connect(serverAddress.host, serverAddress.port).sync().channel();
-			newSenders[i] = new BatchSender(channel);
+		this.bootstrap = bootstrap;
+		this.useDomainSocket = useDomainSocket;
+
+		final CompletableFuture<Void> result = new CompletableFuture<>();
+		final ChannelFuture[] channelFutures = new ChannelFuture[minConnectCount];
+		final AtomicInteger remaining = new AtomicInteger(minConnectCount);
+
+		for (int i = 0; i < minConnectCount; i++) {
+			try {
+				channelFutures[i] = doConnect();
+			} catch (Throwable t) {
+				for (int j = 0; j < i; j++) {
+					channelFutures[j].addListener(ChannelFutureListener.CLOSE);
+				}
+
+				return CompletableFuture.failedFuture(t);
+			}
+
+			channelFutures[i].addListener(future -> {
+				if (remaining.decrementAndGet() == 0) {
+					onConnected(channelFutures, result);
+				}
+			});
+		}
+
+		return result;
+	}
+
+	/**
+	 * 所有连接都已完成(成功或失败)时调用
+	 */
+	private void onConnected(ChannelFuture[] channelFutures, CompletableFuture<Void> result) {
+		Throwable cause = null;
+		for (int i = 0; i < channelFutures.length; i++) {
+			if (!channelFutures[i].isSuccess()) {
+				cause = channelFutures[i].cause();
+				break;
+			}
+		}
+
+		if (cause != null) {
+			for (int i = 0; i < channelFutures.length; i++) {
+				if (channelFutures[i].isSuccess()) {
+					channelFutures[i].channel().close();
+				}
+			}
+
+			result.completeExceptionally(cause);
+			return;
+		}
+
+		Sender[] newSenders = new Sender[maxConnectCount];
+		Channel[] newChannels = new Channel[maxConnectCount];
+		for (int i = 0; i < channelFutures.length; i++) {
+			Channel channel = channelFutures[i].channel();
+
+			newSenders[i] = new BatchSender(channel, eventLoopAffinity);
+			newChannels[i] = channel;
 
 			if (logger.isInfoEnabled()) {
-				logger.info(serverAddress + " connect " + i + "/" + connectCount);
+				logger.info(serverAddress.toFullString() + " connect " + i + "/" + minConnectCount
+						+ (useDomainSocket ? " by unix domain socket" : ""));
 			}
 
 			if (i == 0) {
-				InetSocketAddress insocket = (InetSocketAddress) channel.localAddress();
-				clientAddress = new HostPort(insocket.getAddress().getHostAddress(), 0);
+				if (useDomainSocket) {
+					clientAddress = new HostPort(serverAddress.host, 0);
+				} else {
+					InetSocketAddress insocket = (InetSocketAddress) channel.localAddress();
+					clientAddress = new HostPort(insocket.getAddress().getHostAddress(), 0);
+				}
 			}
 		}
 
-		Sender[] old = senders;
-		senders = newSenders;
+		Sender[] old;
+		synchronized (stateLock) {
+			old = senders;
+			senders = newSenders;
+			channels = newChannels;
+			connectCount = minConnectCount;
+		}
+
+		// 重连后所有位置都是新连接
+		for (int i = 0; i < maxConnectCount; i++) {
+			resetChannel(i);
+		}
 
 		if (old != null) {
 			for (int i = 0; i < old.length; i++) {
+				if (old[i] == null) {
+					continue;
+				}
+
 				try {
 					old[i].close();
 				} catch (Exception e) {
@@ -121,18 +331,246 @@ final class NettyClientConnector implements Closeable {
 				}
 			}
 		}
+
+		synchronized (this) {
+			if (maxConnectCount > minConnectCount && scaleFuture == null) {
+				lastActiveTime = SystemClock.fast().mills();
+				scaleFuture = eventLoopGroup.next().scheduleWithFixedDelay(//
+						this::scale, SCALE_PERIOD_MILLIS, SCALE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		result.complete(null);
+	}
+
+	private ChannelFuture doConnect() {
+		if (useDomainSocket) {
+			return bootstrap.connect(new DomainSocketAddress(serverAddress.domainSocket));
+		} else {
+			return bootstrap.connect(serverAddress.host, serverAddress.port);
+		}
+	}
+
+	@Override
+	public int inflight() {
+		final Channel[] channels = this.channels;
+
+		if (channels == null) {
+			return 0;
+		}
+
+		final int count = Math.min(this.connectCount, channels.length);
+		int inflight = 0;
+
+		for (int i = 0; i < count; i++) {
+			Channel channel = channels[i];
+
+			if (channel == null) {
+				continue;
+			}
+
+			FutureContainer container = channel.attr(FutureContainer.CHANNEL_ATTRIBUTE).get();
+
+			if (container != null) {
+				inflight += container.size();
+			}
+		}
+
+		return inflight;
+	}
+
+	/**
+	 * 根据在途请求数和写缓冲伸缩连接数，在eventLoop中定期执行，不能阻塞
+	 */
+	private void scale() {
+		synchronized (stateLock) {
+			doScale();
+		}
+	}
+
+	private void doScale() {
+		final Sender[] senders = this.senders;
+		final Channel[] channels = this.channels;
+
+		if (senders == null || growing) {
+			return;
+		}
+
+		final int count = this.connectCount;
+		long inflight = 0;
+		boolean unwritable = false;
+
+		for (int i = 0; i < count; i++) {
+			Channel channel = channels[i];
+			FutureContainer container = channel.attr(FutureContainer.CHANNEL_ATTRIBUTE).get();
+
+			if (container != null) {
+				inflight += container.size();
+			}
+
+			if (!channel.isWritable()) {
+				unwritable = true;
+			}
+		}
+
+		long currentTime = SystemClock.fast().mills();
+
+		if (unwritable || inflight >= (long) count * growInflight) {
+			lastActiveTime = currentTime;
+
+			if (++busyTimes >= GROW_SAMPLE_TIMES && count < maxConnectCount) {
+				busyTimes = 0;
+				grow(senders, channels, count);
+			}
+
+			return;
+		}
+
+		busyTimes = 0;
+
+		// 少一个连接也能轻松承担时才算空闲
+		if (count <= minConnectCount || inflight * 2 >= (long) (count - 1) * growInflight) {
+			lastActiveTime = currentTime;
+			return;
+		}
+
+		if (currentTime - lastActiveTime >= idleMillis) {
+			lastActiveTime = currentTime;
+			shrink(senders, channels, count);
+		}
+	}
+
+	private void grow(Sender[] senders, Channel[] channels, int count) {
+		growing = true;
+
+		ChannelFuture channelFuture;
+		try {
+			channelFuture = doConnect();
+		} catch (Throwable t) {
+			growing = false;
+
+			if (logger.isWarnEnabled()) {
+				logger.warn(serverAddress + " grow connect error", t);
+			}
+
+			return;
+		}
+
+		channelFuture.addListener(future -> {
+			try {
+				Channel channel = channelFuture.channel();
+
+				if (!future.isSuccess()) {
+					if (logger.isWarnEnabled()) {
+						logger.warn(serverAddress + " grow connect error", future.cause());
+					}
+
+					return;
+				}
+
+				synchronized (stateLock) {
+					if (senders != this.senders || count != this.connectCount) {
+						// 期间重连或者关闭了
+						channel.close();
+						return;
+					}
+
+					resetChannel(count);
+
+					senders[count] = new BatchSender(channel, eventLoopAffinity);
+					channels[count] = channel;
+					this.connectCount = count + 1;// volatile写，发布新的连接
+				}
+
+				if (logger.isInfoEnabled()) {
+					logger.info(serverAddress + " grow connect to " + (count + 1) + "/" + maxConnectCount);
+				}
+			} finally {
+				growing = false;
+			}
+		});
+	}
+
+	/**
+	 * 需要持有stateLock
+	 */
+	private void shrink(Sender[] senders, Channel[] channels, int count) {
+		final int index = count - 1;
+		final Sender sender = senders[index];
+		final Channel channel = channels[index];
+
+		// 先停止选择该连接，已经选中的请求仍然可以完成
+		this.connectCount = index;
+		resetChannel(index);
+
+		// 已经读取了旧connectCount的调用方可能还没有提交请求，至少等待一个周期再检查
+		channel.eventLoop().schedule(() -> closeWhenDrained(sender, channel), //
+				SCALE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+
+		if (logger.isInfoEnabled()) {
+			logger.info(serverAddress + " shrink connect to " + index + "/" + maxConnectCount);
+		}
+	}
+
+	/**
+	 * 等待发送队列清空、在途请求全部完成(或者超时被清理)后再关闭，不会截断超时时间较长的调用<br>
+	 * 关闭后才提交到该连接的请求由{@link Sender#close()}直接失败，不会一直等待
+	 */
+	private void closeWhenDrained(Sender sender, Channel channel) {
+		FutureContainer container = channel.attr(FutureContainer.CHANNEL_ATTRIBUTE).get();
+
+		if (channel.isActive() //
+				&& (sender.hasPendingRequest() || (container != null && container.size() > 0))) {
+			channel.eventLoop().schedule(() -> closeWhenDrained(sender, channel), //
+					SCALE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+			return;
+		}
+
+		try {
+			sender.close();
+		} catch (Exception e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("关闭出错", e);
+			}
+		}
+	}
+
+	@Override
+	public void setChannelResetListener(IntConsumer listener) {
+		this.channelResetListener = listener;
+	}
+
+	private void resetChannel(int channelIndex) {
+		IntConsumer listener = this.channelResetListener;
+
+		if (listener != null) {
+			listener.accept(channelIndex);
+		}
 	}
 
 	@Override
 	public void close() throws IOException {
+		ScheduledFuture<?> scaleFuture = this.scaleFuture;
+		if (scaleFuture != null) {
+			scaleFuture.cancel(false);
+			this.scaleFuture = null;
+		}
+
+		final Sender[] senders;
+		synchronized (stateLock) {
+			senders = this.senders;
+			this.senders = null;
+		}
+
 		if (senders == null) {
 			return;
 		}
 
-		final Sender[] senders = this.senders;
-		this.senders = null;
-
 		for (int i = 0; i < senders.length; i++) {
+			if (senders[i] == null) {
+				continue;
+			}
+
 			try {
 				senders[i].close();
 			} catch (Exception e) {
@@ -0,0 +1,56 @@
+package rpc.turbo.transport.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一个App下所有服务的平均负载评分，作为各个服务调整权重的基准，线程安全
+ * 
+ * @author zhushimmer
+ *
+ */
+final class ServerLoadReference {
+	/** 指数加权移动平均，新样本占1/16 */
+	private static final double ALPHA = 1D / 16;
+	/** 负载最高时的权重比例 */
+	static final float MIN_LOAD_RATIO = 0.05F;
+
+	/** 多个io线程同时更新，以double的bits保存，CAS保证不丢失样本 */
+	private final AtomicLong averageBits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+	void update(double score) {
+		for (;;) {
+			long bits = averageBits.get();
+			double average = Double.longBitsToDouble(bits);
+			double next = average == 0 ? score : average + (score - average) * ALPHA;
+
+			if (averageBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+				return;
+			}
+		}
+	}
+
+	double averageScore() {
+		return Double.longBitsToDouble(averageBits.get());
+	}
+
+	/**
+	 * 负载高于平均水平时按比例降低权重，低于平均水平时保持原有权重
+	 * 
+	 * @param score
+	 *            服务最近一次的负载评分，0表示未知
+	 * @return
+	 */
+	float loadRatio(double score) {
+		if (score == 0) {
+			return 1F;
+		}
+
+		double average = averageScore();
+
+		if (average >= score) {
+			return 1F;
+		}
+
+		return Math.max(MIN_LOAD_RATIO, (float) (average / score));
+	}
+}
@@ -0,0 +1,306 @@
+package rpc.turbo.transport.client;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import rpc.turbo.config.HostPort;
+import rpc.turbo.protocol.Request;
+import rpc.turbo.protocol.Response;
+import rpc.turbo.serialization.Serializer;
+import rpc.turbo.transport.client.exception.ConnectionException;
+import rpc.turbo.transport.client.exception.ResponseTimeoutException;
+import rpc.turbo.transport.client.future.RequestWithFuture;
+import rpc.turbo.transport.shm.ShmConnectionFile;
+import rpc.turbo.transport.shm.ShmRingBuffer;
+import rpc.turbo.transport.shm.SpinThenParkIdler;
+import rpc.turbo.util.IPUtils;
+import rpc.turbo.util.SystemClock;
+
+/**
+ * 同机服务器开启共享内存时，通过共享内存环形缓冲区通信，不经过tcp协议栈
+ * 
+ * @author zhushimmer
+ *
+ */
+final class ShmClientConnector implements ClientConnector {
+	private static final Log logger = LogFactory.getLog(ShmClientConnector.class);
+
+	private static final AtomicInteger CONNECTION_ID = new AtomicInteger();
+	private static final long EXPIRE_CHECK_INTERVAL_MILLIS = 10;
+
+	private final Serializer serializer;
+	private final HostPort serverAddress;
+	private final HostPort clientAddress;
+	private final int capacity;
+	private final Map<Integer, RequestWithFuture> futureMap = new ConcurrentHashMap<>();
+	/** 串行化请求的写入，以及读线程以外对映射的访问和映射的释放 */
+	private final Object sendLock = new Object();
+
+	private volatile ShmConnectionFile file;
+	private volatile boolean isClosed = false;
+
+	/**
+	 * 
+	 * @param serializer
+	 * @param serverAddress
+	 * @param capacity
+	 *            每个方向缓冲区大小，必须为2的幂
+	 */
+	ShmClientConnector(Serializer serializer, HostPort serverAddress, int capacity) {
+		this.serializer = serializer;
+		this.serverAddress = serverAddress;
+		this.clientAddress = new HostPort(serverAddress.host, 0);
+		this.capacity = capacity;
+	}
+
+	/**
+	 * 同机服务器是否开启了共享内存，并且服务端进程存活、心跳没有超时
+	 * 
+	 * @param serverAddress
+	 * @return
+	 */
+	static boolean isAvailable(HostPort serverAddress) {
+		if (!IPUtils.isLocalAddress(serverAddress.host)) {
+			return false;
+		}
+
+		Path directory = ShmConnectionFile.directory(serverAddress.port);
+		return ShmConnectionFile.isAcceptorAlive(directory);
+	}
+
+	@Override
+	public HostPort serverAddress() {
+		return serverAddress;
+	}
+
+	@Override
+	public HostPort clientAddress() {
+		return clientAddress;
+	}
+
+	@Override
+	public int connectCount() {
+		return 1;
+	}
+
+	@Override
+	public int inflight() {
+		return futureMap.size();
+	}
+
+	@Override
+	public void send(int channelIndex, RequestWithFuture requestWithFuture) {
+		final ShmConnectionFile file = this.file;
+		final Request request = requestWithFuture.getRequest();
+		final Integer requestId = request.getRequestId();
+
+		if (isClosed || file == null) {
+			requestWithFuture.getFuture()
+					.completeExceptionally(new ConnectionException("shared memory is closed: " + serverAddress));
+			return;
+		}
+
+		ByteBuf buffer = ByteBufAllocator.DEFAULT.directBuffer();
+
+		try {
+			serializer.writeRequest(buffer, request);
+
+			if (!request.isOneWay()) {
+				// 单向请求不等待响应，环形缓冲区的帧头无法携带标记，服务端返回的响应在这里会被直接丢弃
+				futureMap.put(requestId, requestWithFuture);
+			}
+
+			ShmRingBuffer requestRing = file.requestRing();
+			SpinThenParkIdler idler = null;
+
+			// 缓冲区满时在锁外等待
+			while (true) {
+				synchronized (sendLock) {
+					if (this.file != file || file.isReleased() || !file.isServerAlive()) {
+						throw new ConnectionException("shared memory is closed: " + serverAddress);
+					}
+
+					if (requestRing.write(buffer)) {
+						break;
+					}
+				}
+
+				if (SystemClock.fast().mills() > requestWithFuture.getExpireTime()) {
+					throw ResponseTimeoutException.NONE_STACK_TRACE;
+				}
+
+				if (idler == null) {
+					idler = new SpinThenParkIdler();
+				}
+
+				idler.idle();
+			}
+
+			requestWithFuture.setRequest(null);// help to gc
+
+			if (request.isOneWay()) {
+				requestWithFuture.getFuture().complete(null);
+			}
+		} catch (Throwable t) {
+			futureMap.remove(requestId);
+			requestWithFuture.getFuture().completeExceptionally(t);
+		} finally {
+			buffer.release();
+		}
+	}
+
+	private void readLoop(ShmConnectionFile file) {
+		try {
+			doReadLoop(file);
+		} finally {
+			// 服务端退出时读线程自己放弃该文件，映射只由读线程释放
+			if (this.file == file) {
+				closeFile();
+			}
+
+			synchronized (sendLock) {
+				file.release();
+			}
+		}
+	}
+
+	private void doReadLoop(ShmConnectionFile file) {
+		final ShmRingBuffer responseRing = file.responseRing();
+		final SpinThenParkIdler idler = new SpinThenParkIdler();
+		long lastExpireCheckTime = SystemClock.fast().mills();
+
+		while (!isClosed && this.file == file) {
+			boolean hasResponse;
+
+			try {
+				hasResponse = responseRing.read(frame -> {
+					Response response = serializer.readResponse(frame);
+					RequestWithFuture requestWithFuture = futureMap.remove(response.getRequestId());
+
+					if (requestWithFuture != null) {
+						requestWithFuture.getFuture().complete(response);
+					}
+				});
+			} catch (Exception e) {
+				if (logger.isErrorEnabled()) {
+					logger.error("读取响应出错: " + file.path, e);
+				}
+
+				continue;
+			}
+
+			long currentTime = SystemClock.fast().mills();
+
+			if (currentTime - lastExpireCheckTime > EXPIRE_CHECK_INTERVAL_MILLIS) {
+				lastExpireCheckTime = currentTime;
+				expire(currentTime);
+
+				// 服务端进程异常退出时不会标记关闭，依靠心跳判断
+				if (!file.isServerAlive()) {
+					failAll(new ConnectionException("shared memory is closed by server: " + serverAddress));
+					break;
+				}
+			}
+
+			if (hasResponse) {
+				idler.reset();
+			} else {
+				idler.idle();
+			}
+		}
+	}
+
+	private void expire(long currentTime) {
+		for (Iterator<RequestWithFuture> iterator = futureMap.values().iterator(); iterator.hasNext();) {
+			RequestWithFuture requestWithFuture = iterator.next();
+
+			if (currentTime > requestWithFuture.getExpireTime()) {
+				iterator.remove();
+				requestWithFuture.getFuture().completeExceptionally(ResponseTimeoutException.NONE_STACK_TRACE);
+			}
+		}
+	}
+
+	private void failAll(Throwable throwable) {
+		for (Iterator<RequestWithFuture> iterator = futureMap.values().iterator(); iterator.hasNext();) {
+			RequestWithFuture requestWithFuture = iterator.next();
+
+			iterator.remove();
+			requestWithFuture.getFuture().completeExceptionally(throwable);
+		}
+	}
+
+	@Override
+	public int channelIndexInEventLoop() {
+		return -1;
+	}
+
+	@Override
+	public void connect() throws InterruptedException {
+		closeFile();
+
+		Path directory = ShmConnectionFile.directory(serverAddress.port);
+		String id = ProcessHandle.current().pid() + "-" + CONNECTION_ID.incrementAndGet();
+
+		ShmConnectionFile file;
+		try {
+			file = ShmConnectionFile.create(directory, id, capacity);
+		} catch (IOException e) {
+			throw new ConnectionException("create shared memory error: " + serverAddress, e);
+		}
+
+		this.isClosed = false;
+		this.file = file;
+
+		Thread thread = new Thread(() -> readLoop(file), "turbo-shm-client-" + id);
+		thread.setDaemon(true);
+		thread.start();
+
+		if (logger.isInfoEnabled()) {
+			logger.info(serverAddress + " connect shared memory: " + file.path);
+		}
+	}
+
+	private void closeFile() {
+		ShmConnectionFile file;
+
+		synchronized (sendLock) {
+			file = this.file;
+			if (file == null) {
+				return;
+			}
+
+			this.file = null;
+
+			if (!file.isReleased()) {
+				file.markClientClosed();
+			}
+		}
+
+		failAll(new ConnectionException("shared memory is closed: " + serverAddress));
+
+		try {
+			file.close();
+		} catch (IOException e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("删除共享内存文件出错: " + file.path, e);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		isClosed = true;
+		closeFile();
+	}
+
+}
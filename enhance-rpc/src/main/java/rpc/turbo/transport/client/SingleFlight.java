@@ -0,0 +1,125 @@
+package rpc.turbo.transport.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import rpc.turbo.param.EmptyMethodParam;
+import rpc.turbo.param.MethodParam;
+
+/**
+ * 单个方法的请求合并，以MethodParam为key，进行中的相同请求共享同一个future
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class SingleFlight {
+	private final String serviceMethodName;
+	private final ConcurrentHashMap<MethodParam, CompletableFuture<Object>> inflightMap = new ConcurrentHashMap<>();
+
+	private final LongAdder requestCount = new LongAdder();
+	private final LongAdder collapsedCount = new LongAdder();
+
+	SingleFlight(String serviceMethodName) {
+		this.serviceMethodName = serviceMethodName;
+	}
+
+	/**
+	 * 有相同的请求进行中时直接返回其future，否则通过executor发起请求
+	 * 
+	 * @param methodParam
+	 * @param executor
+	 *            远程调用
+	 * @return
+	 */
+	CompletableFuture<?> execute(MethodParam methodParam, Function<MethodParam, CompletableFuture<?>> executor) {
+		requestCount.increment();
+
+		// 无参方法每次都会new一个EmptyMethodParam，统一为同一个key
+		final MethodParam key = methodParam == null || methodParam instanceof EmptyMethodParam//
+				? EmptyMethodParam.empty()
+				: methodParam;
+
+		CompletableFuture<Object> inflight = inflightMap.get(key);
+		if (inflight != null) {
+			collapsedCount.increment();
+			return inflight;
+		}
+
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		inflight = inflightMap.putIfAbsent(key, future);
+
+		if (inflight != null) {
+			collapsedCount.increment();
+			return inflight;
+		}
+
+		CompletableFuture<?> remote;
+		try {
+			remote = executor.apply(methodParam);
+		} catch (Throwable t) {
+			remote = CompletableFuture.failedFuture(t);
+		}
+
+		remote.whenComplete((result, throwable) -> {
+			// 先移除再完成，保证完成之后的调用会发起新的请求
+			inflightMap.remove(key, future);
+
+			if (throwable != null) {
+				future.completeExceptionally(throwable);
+			} else {
+				future.complete(result);
+			}
+		});
+
+		return future;
+	}
+
+	public String getServiceMethodName() {
+		return serviceMethodName;
+	}
+
+	/**
+	 * 进行中的不同请求数
+	 * 
+	 * @return
+	 */
+	public int getInflight() {
+		return inflightMap.size();
+	}
+
+	public long getRequestCount() {
+		return requestCount.sum();
+	}
+
+	/**
+	 * 被合并(没有发送)的请求数
+	 * 
+	 * @return
+	 */
+	public long getCollapsedCount() {
+		return collapsedCount.sum();
+	}
+
+	/**
+	 * 合并率，被合并的请求占总请求的比例
+	 * 
+	 * @return
+	 */
+	public double getCollapseRatio() {
+		long requests = requestCount.sum();
+		return requests == 0 ? 0.0 : (double) collapsedCount.sum() / requests;
+	}
+
+	@Override
+	public String toString() {
+		return "SingleFlight{" + //
+				"serviceMethodName='" + serviceMethodName + '\'' + //
+				", inflight=" + getInflight() + //
+				", requestCount=" + getRequestCount() + //
+				", collapsedCount=" + getCollapsedCount() + //
+				", collapseRatio=" + getCollapseRatio() + //
+				'}';
+	}
+}
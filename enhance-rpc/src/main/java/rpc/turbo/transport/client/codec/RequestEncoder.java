@@ -12,6 +12,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
+import rpc.turbo.protocol.BatchFrame;
 import rpc.turbo.serialization.Serializer;
 import rpc.turbo.transport.client.future.FutureContainer;
 import rpc.turbo.transport.client.future.RequestWithFuture;
@@ -29,12 +30,36 @@ public class RequestEncoder extends MessageToByteEncoder<RequestWithFuture> {
 
 	protected void encode(ChannelHandlerContext ctx, RequestWithFuture requestWithFuture, ByteBuf buffer)
 			throws Exception {
+		if (requestWithFuture.getRequest().isOneWay()) {
+			encodeOneWay(buffer, requestWithFuture);
+			return;
+		}
+
 		futureContainer.add(requestWithFuture);
 		serializer.writeRequest(buffer, requestWithFuture.getRequest());
 
 		requestWithFuture.setRequest(null);// help to gc
 	}
 
+	/**
+	 * 单向请求不放入futureContainer，写入后即完成
+	 */
+	private void encodeOneWay(ByteBuf buffer, RequestWithFuture requestWithFuture) throws Exception {
+		int beginWriterIndex = buffer.writerIndex();
+
+		try {
+			serializer.writeRequest(buffer, requestWithFuture.getRequest());
+			BatchFrame.markOneWay(buffer, beginWriterIndex);
+		} catch (Exception e) {
+			requestWithFuture.getFuture().completeExceptionally(e);
+			throw e;
+		} finally {
+			requestWithFuture.setRequest(null);// help to gc
+		}
+
+		requestWithFuture.getFuture().complete(null);
+	}
+
 	@Override
 	public void connect(ChannelHandlerContext ctx, SocketAddress remoteAddress, SocketAddress localAddress,
 			ChannelPromise promise) throws Exception {
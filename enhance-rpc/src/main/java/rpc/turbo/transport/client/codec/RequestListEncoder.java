@@ -15,7 +15,10 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
+import rpc.turbo.protocol.BatchFrame;
+import rpc.turbo.protocol.Request;
 import rpc.turbo.serialization.Serializer;
+import rpc.turbo.trace.Tracer;
 import rpc.turbo.transport.client.future.FutureContainer;
 import rpc.turbo.transport.client.future.RequestWithFuture;
 
@@ -34,22 +37,115 @@ public class RequestListEncoder extends MessageToByteEncoder<List<RequestWithFut
 			throws Exception {
 		if (requestList instanceof RandomAccess) {
 			for (int i = 0; i < requestList.size(); i++) {
-				doEncode(buffer, requestList.get(i));
+				RequestWithFuture request = requestList.get(i);
+
+				if (request.getRequest() == null) {
+					// 已经写入前面的批量帧
+					continue;
+				}
+
+				if (request.getRequest().isBatchFrame()) {
+					encodeBatch(buffer, requestList, i);
+				} else {
+					doEncode(buffer, request, false);
+				}
 			}
 		} else {
 			for (RequestWithFuture request : requestList) {
-				doEncode(buffer, request);
+				doEncode(buffer, request, false);
 			}
 		}
 	}
 
-	private void doEncode(ByteBuf buffer, RequestWithFuture request) throws IOException {
+	/**
+	 * 从from开始，把serviceId和tracer都相同的请求打包为批量帧，写入后请求被置为null
+	 */
+	private void encodeBatch(ByteBuf buffer, List<RequestWithFuture> requestList, int from) throws IOException {
+		final Request first = requestList.get(from).getRequest();
+		final int serviceId = first.getServiceId();
+		final Tracer tracer = first.getTracer();
+
+		if (!hasSameBatch(requestList, from + 1, serviceId, tracer)) {
+			doEncode(buffer, requestList.get(from), false);
+			return;
+		}
+
+		int beginWriterIndex = BatchFrame.begin(buffer, serviceId, tracer);
+
+		for (int i = from; i < requestList.size(); i++) {
+			RequestWithFuture request = requestList.get(i);
+
+			if (!isSameBatch(request.getRequest(), serviceId, tracer)) {
+				continue;
+			}
+
+			if (BatchFrame.isFull(buffer, beginWriterIndex)) {
+				BatchFrame.end(buffer, beginWriterIndex);
+				beginWriterIndex = BatchFrame.begin(buffer, serviceId, tracer);
+			}
+
+			doEncode(buffer, request, true);
+		}
+
+		BatchFrame.end(buffer, beginWriterIndex);
+	}
+
+	private static boolean hasSameBatch(List<RequestWithFuture> requestList, int from, int serviceId, Tracer tracer) {
+		for (int i = from; i < requestList.size(); i++) {
+			if (isSameBatch(requestList.get(i).getRequest(), serviceId, tracer)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean isSameBatch(Request request, int serviceId, Tracer tracer) {
+		return request != null //
+				&& request.isBatchFrame() //
+				&& request.getServiceId() == serviceId //
+				&& request.getTracer() == tracer;
+	}
+
+	private void doEncode(ByteBuf buffer, RequestWithFuture request, boolean inBatch) throws IOException {
+		if (request.getRequest().isOneWay()) {
+			encodeOneWay(buffer, request, inBatch);
+			return;
+		}
+
 		futureContainer.add(request);
-		serializer.writeRequest(buffer, request.getRequest());
+		write(buffer, request.getRequest(), inBatch);
 
 		request.setRequest(null);// help to gc
 	}
 
+	/**
+	 * 单向请求不放入futureContainer，写入后即完成
+	 */
+	private void encodeOneWay(ByteBuf buffer, RequestWithFuture request, boolean inBatch) throws IOException {
+		int beginWriterIndex = buffer.writerIndex();
+
+		try {
+			write(buffer, request.getRequest(), inBatch);
+			BatchFrame.markOneWay(buffer, beginWriterIndex);
+		} catch (IOException | RuntimeException e) {
+			request.getFuture().completeExceptionally(e);
+			throw e;
+		} finally {
+			request.setRequest(null);// help to gc
+		}
+
+		request.getFuture().complete(null);
+	}
+
+	private void write(ByteBuf buffer, Request request, boolean inBatch) throws IOException {
+		if (inBatch) {
+			serializer.writeBatchRequest(buffer, request);
+		} else {
+			serializer.writeRequest(buffer, request);
+		}
+	}
+
 	@Override
 	public void connect(ChannelHandlerContext ctx, SocketAddress remoteAddress, SocketAddress localAddress,
 			ChannelPromise promise) throws Exception {
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
 
+import io.netty.util.AttributeKey;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap.PrimitiveEntry;
 import rpc.turbo.protocol.Response;
@@ -18,6 +19,9 @@ import rpc.turbo.util.SystemClock;
  *
  */
 public final class FutureContainer implements Closeable {
+	/** channel上绑定的FutureContainer，用于统计连接的在途请求数 */
+	public static final AttributeKey<FutureContainer> CHANNEL_ATTRIBUTE = AttributeKey
+			.valueOf("_FUTURE_CONTAINER_");
 
 	private final IntObjectHashMap<RequestWithFuture> futureMap = //
 			new IntObjectHashMap<>();
@@ -66,6 +70,15 @@ public final class FutureContainer implements Closeable {
 		}
 	}
 
+	/**
+	 * 在途请求数，只在所属eventLoop中修改，其他线程读取到的是近似值
+	 * 
+	 * @return
+	 */
+	public int size() {
+		return futureMap.size();
+	}
+
 	/**
 	 * 删除过期任务
 	 * 
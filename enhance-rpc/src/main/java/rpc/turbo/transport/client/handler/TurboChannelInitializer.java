@@ -2,15 +2,15 @@ package rpc.turbo.transport.client.handler;
 
 import static rpc.turbo.config.TurboConstants.MAX_FRAME_LENGTH;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.socket.SocketChannel;
 import rpc.turbo.serialization.Serializer;
 import rpc.turbo.transport.client.codec.RequestEncoder;
 import rpc.turbo.transport.client.codec.RequestListEncoder;
 import rpc.turbo.transport.client.codec.ResponseDecoder;
 import rpc.turbo.transport.client.future.FutureContainer;
 
-public class TurboChannelInitializer extends ChannelInitializer<SocketChannel> {
+public class TurboChannelInitializer extends ChannelInitializer<Channel> {
 
 	private final Serializer serializer;
 
@@ -19,8 +19,9 @@ public class TurboChannelInitializer extends ChannelInitializer<SocketChannel> {
 	}
 
 	@Override
-	public void initChannel(SocketChannel ch) throws Exception {
+	public void initChannel(Channel ch) throws Exception {
 		FutureContainer container = new FutureContainer();
+		ch.attr(FutureContainer.CHANNEL_ATTRIBUTE).set(container);
 
 		RequestEncoder requestEncoder = new RequestEncoder(serializer, container);
 		RequestListEncoder requestListEncoder = new RequestListEncoder(serializer, container);
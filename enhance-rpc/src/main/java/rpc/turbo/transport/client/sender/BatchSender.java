@@ -1,11 +1,13 @@
 package rpc.turbo.transport.client.sender;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
 import io.netty.util.internal.shaded.org.jctools.queues.atomic.MpscAtomicArrayQueue;
+import rpc.turbo.transport.client.exception.ConnectionException;
 import rpc.turbo.transport.client.future.RequestWithFuture;
 import rpc.turbo.util.FastClearableArrayList;
 
@@ -14,9 +16,12 @@ public class BatchSender implements Sender {
 	public static final int MAX_SEND_LOOP_COUNT = 16;
 	public static final int MAX_BATCH_SIZE = 64;
 
+	private static final ConnectionException SENDER_CLOSED = new ConnectionException("sender closed", false);
+
 	private final Channel channel;
 	private final ChannelPromise voidPromise;
 	private final EventLoop eventLoop;
+	private final boolean eventLoopAffinity;
 
 	private final MpscAtomicArrayQueue<RequestWithFuture> sendBuffer //
 			= new MpscAtomicArrayQueue<>(MAX_SEND_BUFFER_SIZE);
@@ -24,15 +29,49 @@ public class BatchSender implements Sender {
 			= new FastClearableArrayList<>();
 
 	private final Runnable batchSendTask = () -> doBatchSend();
+	private final Runnable flushTask = () -> doFlush();
+
+	// 只在eventLoop中访问
+	private boolean flushScheduled = false;
+	private volatile boolean isClosed = false;
 
 	public BatchSender(Channel channel) {
+		this(channel, false);
+	}
+
+	/**
+	 * 
+	 * @param channel
+	 * @param eventLoopAffinity
+	 *            在所属eventLoop中发送时是否直接写出
+	 */
+	public BatchSender(Channel channel, boolean eventLoopAffinity) {
 		this.channel = channel;
 		this.voidPromise = channel.voidPromise();
 		this.eventLoop = channel.eventLoop();
+		this.eventLoopAffinity = eventLoopAffinity;
 	}
 
 	@Override
 	public void send(RequestWithFuture request) {
+		if (isClosed) {
+			request.getFuture().completeExceptionally(SENDER_CLOSED);
+			return;
+		}
+
+		// 队列中还有请求时直接写出会越过它们，只在队列为空时走这条路径
+		if (eventLoopAffinity && sendBuffer.isEmpty() && eventLoop.inEventLoop()) {
+			// 已经在所属eventLoop中，直接写出，省掉一次跨线程的队列交接，同一轮的请求合并flush
+			channel.write(request, voidPromise);
+
+			if (!flushScheduled) {
+				flushScheduled = true;
+				eventLoop.execute(flushTask);
+			}
+
+			return;
+		}
+
 		while (!sendBuffer.offer(request)) {
 			// 已经满了，必须要清理
 			eventLoop.execute(batchSendTask);
@@ -48,6 +87,12 @@ public class BatchSender implements Sender {
 			return;
 		}
 
+		if (isClosed) {
+			// 检查isClosed之后才放入队列的请求，在这里失败
+			failPending();
+			return;
+		}
+
 		for (int r = 0; r < MAX_SEND_LOOP_COUNT; r++) {
 			for (int i = 0; i < MAX_BATCH_SIZE; i++) {
 				RequestWithFuture request = sendBuffer.poll();
@@ -72,9 +117,40 @@ public class BatchSender implements Sender {
 		channel.flush();
 	}
 
+	private void doFlush() {
+		flushScheduled = false;
+		channel.flush();
+	}
+
+	/**
+	 * 只在eventLoop中调用，保证sendBuffer只有一个消费者
+	 */
+	private void failPending() {
+		for (RequestWithFuture request; (request = sendBuffer.poll()) != null;) {
+			request.getFuture().completeExceptionally(SENDER_CLOSED);
+		}
+	}
+
+	@Override
+	public boolean inEventLoop() {
+		return eventLoop.inEventLoop();
+	}
+
+	@Override
+	public boolean hasPendingRequest() {
+		return !sendBuffer.isEmpty();
+	}
+
 	@Override
 	public void close() throws IOException {
+		isClosed = true;
 		channel.close();
+
+		try {
+			eventLoop.execute(batchSendTask);
+		} catch (RejectedExecutionException e) {
+			// eventLoop已经关闭，不会再有写出
+		}
 	}
 
 }
@@ -1,10 +1,31 @@
 package rpc.turbo.transport.client.sender;
 
 import java.io.Closeable;
+import java.io.IOException;
 
 import rpc.turbo.transport.client.future.RequestWithFuture;
 
 public interface Sender extends Closeable {
 
 	public void send(RequestWithFuture request);
+
+	/**
+	 * 当前线程是否为该连接所属的eventLoop
+	 * 
+	 * @return
+	 */
+	public boolean inEventLoop();
+
+	/**
+	 * 是否还有已提交但还未写出的请求
+	 * 
+	 * @return
+	 */
+	public boolean hasPendingRequest();
+
+	/**
+	 * 关闭连接，之后提交的请求以及还未写出的请求直接失败，不会因为写到已关闭的连接上而一直等待
+	 */
+	@Override
+	public void close() throws IOException;
 }
@@ -4,11 +4,15 @@ import java.io.IOException;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelPromise;
+import rpc.turbo.transport.client.exception.ConnectionException;
 import rpc.turbo.transport.client.future.RequestWithFuture;
 
 public class SingleSender implements Sender {
+	private static final ConnectionException SENDER_CLOSED = new ConnectionException("sender closed", false);
+
 	private final Channel channel;
 	private final ChannelPromise voidPromise;
+	private volatile boolean isClosed = false;
 
 	public SingleSender(Channel channel) {
 		this.channel = channel;
@@ -17,11 +21,27 @@ public class SingleSender implements Sender {
 
 	@Override
 	public void send(RequestWithFuture request) {
+		if (isClosed) {
+			request.getFuture().completeExceptionally(SENDER_CLOSED);
+			return;
+		}
+
 		channel.writeAndFlush(request, voidPromise);
 	}
 
+	@Override
+	public boolean inEventLoop() {
+		return channel.eventLoop().inEventLoop();
+	}
+
+	@Override
+	public boolean hasPendingRequest() {
+		return false;
+	}
+
 	@Override
 	public void close() throws IOException {
+		isClosed = true;
 		channel.close();
 	}
 
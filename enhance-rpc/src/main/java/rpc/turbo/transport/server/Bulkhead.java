@@ -0,0 +1,202 @@
+package rpc.turbo.transport.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * 隔离舱，限制单个方法(或单个服务接口)在服务端的并发数，超过后排队，队列满时立即拒绝
+ *
+ * @author zhushimmer
+ *
+ */
+public final class Bulkhead {
+	private static final Log logger = LogFactory.getLog(Bulkhead.class);
+
+	public static final String BULKHEAD_FULL = "bulkhead is full, request rejected";
+
+	// 防止同步完成的任务在release中递归执行队列中的任务
+	private static final ThreadLocal<boolean[]> DRAINING = ThreadLocal.withInitial(() -> new boolean[1]);
+
+	private final String name;
+	private final int maxConcurrency;
+	private final int maxQueue;
+
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+	private final LongAdder acceptedCount = new LongAdder();
+	private final LongAdder rejectedCount = new LongAdder();
+
+	/**
+	 *
+	 * @param name
+	 *            方法名或者接口名
+	 * @param maxConcurrency
+	 *            最大并发数
+	 * @param maxQueue
+	 *            最大排队数，小于1时不排队
+	 */
+	public Bulkhead(String name, int maxConcurrency, int maxQueue) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maxConcurrency: " + maxConcurrency + " (expected: > 0)");
+		}
+
+		this.name = name;
+		this.maxConcurrency = maxConcurrency;
+		this.maxQueue = Math.max(maxQueue, 0);
+	}
+
+	/**
+	 * 有空闲时在当前线程立即执行，否则排队，由先完成的请求所在线程执行，任务完成后必须调用{@link #release()}
+	 *
+	 * @param task
+	 * @return false表示已满，被拒绝
+	 */
+	public boolean tryExecute(Runnable task) {
+		if (tryAcquire()) {
+			acceptedCount.increment();
+			task.run();
+			return true;
+		}
+
+		if (maxQueue == 0 || queued.incrementAndGet() > maxQueue) {
+			if (maxQueue != 0) {
+				queued.decrementAndGet();
+			}
+
+			rejectedCount.increment();
+			return false;
+		}
+
+		acceptedCount.increment();
+		queue.offer(task);
+
+		// 入队前可能已经有请求完成，这里补偿一次
+		drain();
+
+		return true;
+	}
+
+	/**
+	 * 释放一个并发名额，并执行排队中的任务
+	 */
+	public void release() {
+		active.decrementAndGet();
+
+		if (!queue.isEmpty()) {
+			drain();
+		}
+	}
+
+	private boolean tryAcquire() {
+		for (;;) {
+			int current = active.get();
+
+			if (current >= maxConcurrency) {
+				return false;
+			}
+
+			if (active.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private void drain() {
+		boolean[] draining = DRAINING.get();
+		if (draining[0]) {// 外层的循环会继续处理
+			return;
+		}
+
+		draining[0] = true;
+		try {
+			while (!queue.isEmpty() && tryAcquire()) {
+				Runnable task = queue.poll();
+
+				if (task == null) {
+					active.decrementAndGet();
+					continue;
+				}
+
+				queued.decrementAndGet();
+
+				try {
+					task.run();
+				} catch (Throwable t) {
+					if (logger.isWarnEnabled()) {
+						logger.warn(name + " bulkhead task error", t);
+					}
+				}
+			}
+		} finally {
+			draining[0] = false;
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	public int getMaxQueue() {
+		return maxQueue;
+	}
+
+	/**
+	 * 执行中的请求数
+	 *
+	 * @return
+	 */
+	public int getActive() {
+		return active.get();
+	}
+
+	/**
+	 * 排队中的请求数
+	 *
+	 * @return
+	 */
+	public int getQueued() {
+		return queued.get();
+	}
+
+	/**
+	 * 饱和度，0~1，执行中与排队中的请求占总容量的比例
+	 *
+	 * @return
+	 */
+	public double getSaturation() {
+		return Math.min(1.0, (double) (active.get() + queued.get()) / (maxConcurrency + maxQueue));
+	}
+
+	public long getAcceptedCount() {
+		return acceptedCount.sum();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "Bulkhead{" + //
+				"name='" + name + '\'' + //
+				", maxConcurrency=" + maxConcurrency + //
+				", maxQueue=" + maxQueue + //
+				", active=" + getActive() + //
+				", queued=" + getQueued() + //
+				", saturation=" + getSaturation() + //
+				", acceptedCount=" + getAcceptedCount() + //
+				", rejectedCount=" + getRejectedCount() + //
+				'}';
+	}
+}
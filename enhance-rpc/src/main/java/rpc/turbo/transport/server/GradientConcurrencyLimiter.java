@@ -0,0 +1,121 @@
+package rpc.turbo.transport.server;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 梯度自适应并发限制，比较短期与长期的处理耗时：耗时上升说明开始排队，按比例收缩并发上限；耗时平稳时缓慢放大
+ *
+ * <pre>
+ * gradient = clamp(1.5 * longRtt / shortRtt, 0.5, 1)
+ * newLimit = limit * gradient + sqrt(limit)
+ * </pre>
+ *
+ * @author zhushimmer
+ *
+ */
+public final class GradientConcurrencyLimiter {
+	/** 短期耗时的平滑系数 */
+	private static final double SHORT_RTT_ALPHA = 0.1;
+	/** 长期耗时的平滑系数，约600个样本 */
+	private static final double LONG_RTT_ALPHA = 1.0 / 600;
+	/** 允许短期耗时超过长期耗时的倍数，超过后才开始收缩 */
+	private static final double RTT_TOLERANCE = 1.5;
+	/** 单次调整幅度 */
+	private static final double SMOOTHING = 0.2;
+	private static final double MIN_GRADIENT = 0.5;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final ReentrantLock lock = new ReentrantLock();
+
+	// 热路径上只读这个值
+	private volatile int limit;
+
+	// 以下字段仅在持有锁时访问
+	private double estimatedLimit;
+	private double shortRtt = 0;
+	private double longRtt = 0;
+
+	/**
+	 *
+	 * @param initialLimit
+	 *            初始并发上限
+	 * @param minLimit
+	 *            最小并发上限
+	 * @param maxLimit
+	 *            最大并发上限
+	 */
+	public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+		if (minLimit < 1 || maxLimit < minLimit) {
+			throw new IllegalArgumentException("minLimit: " + minLimit + ", maxLimit: " + maxLimit
+					+ " (expected: 0 < minLimit <= maxLimit)");
+		}
+
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.estimatedLimit = Math.min(Math.max(initialLimit, minLimit), maxLimit);
+		this.limit = (int) estimatedLimit;
+	}
+
+	/**
+	 * 当前并发上限
+	 *
+	 * @return
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * 记录一个样本，并发更新时直接丢弃，不阻塞处理线程
+	 *
+	 * @param rttNanos
+	 *            处理耗时
+	 * @param inflight
+	 *            该请求完成前处理中的请求数
+	 */
+	public void onSample(long rttNanos, int inflight) {
+		if (rttNanos <= 0 || !lock.tryLock()) {
+			return;
+		}
+
+		try {
+			if (longRtt == 0) {
+				shortRtt = rttNanos;
+				longRtt = rttNanos;
+				return;
+			}
+
+			shortRtt += (rttNanos - shortRtt) * SHORT_RTT_ALPHA;
+			longRtt += (rttNanos - longRtt) * LONG_RTT_ALPHA;
+
+			// 负载下降后长期耗时远高于短期耗时，加快回落，否则会长时间不收缩
+			if (longRtt / shortRtt > 2) {
+				longRtt *= 0.95;
+			}
+
+			// 流量没有压到上限附近时不调整，防止上限无意义地膨胀
+			if (inflight < estimatedLimit / 2) {
+				return;
+			}
+
+			double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+			double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+			newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+
+			estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+			limit = (int) estimatedLimit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "GradientConcurrencyLimiter{" + //
+				"limit=" + limit + //
+				", minLimit=" + minLimit + //
+				", maxLimit=" + maxLimit + //
+				'}';
+	}
+}
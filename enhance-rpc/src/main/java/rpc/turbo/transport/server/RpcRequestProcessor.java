@@ -0,0 +1,211 @@
+package rpc.turbo.transport.server;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.netty.channel.EventLoop;
+import rpc.turbo.common.RemoteContext;
+import rpc.turbo.config.HostPort;
+import rpc.turbo.filter.RpcServerFilter;
+import rpc.turbo.invoke.InvokeException;
+import rpc.turbo.invoke.Invoker;
+import rpc.turbo.invoke.ServerInvokerFactory;
+import rpc.turbo.protocol.Request;
+import rpc.turbo.protocol.Response;
+import rpc.turbo.protocol.ResponseStatus;
+
+/**
+ * rpc请求的服务端处理流程：请求过滤器、隔离舱、并发限制、调用、响应过滤器，<br>
+ * tcp/unix domain socket、in-jvm以及共享内存传输共用，负载统计在所属服务器的ServerLoadMonitor中，线程安全
+ *
+ * @author zhushimmer
+ *
+ */
+public final class RpcRequestProcessor {
+	private static final Throwable UNKNOWN = new InvokeException("UNKNOWN ERROR", false);
+
+	private final ServerInvokerFactory invokerFactory;
+	private final CopyOnWriteArrayList<RpcServerFilter> filters;
+	private final ServerLoadMonitor loadMonitor;
+
+	public RpcRequestProcessor(ServerInvokerFactory invokerFactory, CopyOnWriteArrayList<RpcServerFilter> filters,
+			ServerLoadMonitor loadMonitor) {
+		this.invokerFactory = invokerFactory;
+		this.filters = filters;
+		this.loadMonitor = loadMonitor;
+	}
+
+	public ServerInvokerFactory getInvokerFactory() {
+		return invokerFactory;
+	}
+
+	/**
+	 * 处理请求，完成后(包括被拒绝)通过writer返回响应，writer可能在业务线程中被调用
+	 *
+	 * @param request
+	 * @param response
+	 *            由调用方创建，状态、结果等由这里设置
+	 * @param invoker
+	 * @param bulkhead
+	 *            可空
+	 * @param eventLoop
+	 *            接收请求的io线程，用于统计排队任务数，可空
+	 * @param serverAddress
+	 * @param clientAddress
+	 * @param writer
+	 */
+	public void process(Request request, Response response, Invoker<CompletableFuture<?>> invoker,
+			Bulkhead bulkhead, EventLoop eventLoop, HostPort serverAddress, HostPort clientAddress,
+			ResponseWriter writer) {
+		final int requestId = request.getRequestId();
+
+		boolean allowHandle = doRequestFilter(request, invoker, serverAddress, clientAddress);
+
+		if (!allowHandle) {
+			response.setRequestId(requestId);
+			response.setStatusCode(ResponseStatus.SERVER_FILTER_DENY);
+			response.setTracer(null);
+			response.setResult(RpcServerFilter.SERVER_FILTER_DENY);
+
+			doResponseFilter(request, response, invoker, serverAddress, clientAddress, null);
+
+			writer.write(request, response);
+
+			return;
+		}
+
+		if (bulkhead == null) {
+			doInvoke(request, response, invoker, null, eventLoop, serverAddress, clientAddress, writer);
+		} else if (!bulkhead.tryExecute(() -> doInvoke(request, response, invoker, bulkhead, eventLoop,
+				serverAddress, clientAddress, writer))) {
+			// 隔离舱已满，只影响该方法，不占用其他方法的处理能力
+			response.setRequestId(requestId);
+			response.setStatusCode(ResponseStatus.SERVER_BULKHEAD_FULL);
+			response.setTracer(null);
+			response.setResult(Bulkhead.BULKHEAD_FULL);
+
+			doResponseFilter(request, response, invoker, serverAddress, clientAddress, null);
+
+			writer.write(request, response);
+		}
+	}
+
+	private void doInvoke(Request request, Response response, Invoker<CompletableFuture<?>> invoker,
+			Bulkhead bulkhead, EventLoop eventLoop, HostPort serverAddress, HostPort clientAddress,
+			ResponseWriter writer) {
+		final int requestId = request.getRequestId();
+		final long startNanos = loadMonitor.tryBegin(request.getServiceId());
+
+		if (startNanos == ServerLoadMonitor.REJECTED) {
+			if (bulkhead != null) {
+				bulkhead.release();
+			}
+
+			// 立即拒绝，客户端可以马上换一台服务器重试，而不是等到超时
+			response.setRequestId(requestId);
+			response.setStatusCode(ResponseStatus.SERVER_OVERLOAD);
+			response.setTracer(null);
+			response.setResult(ServerLoadMonitor.SERVER_OVERLOAD);
+			response.setServerLoad(loadMonitor.current(ServerLoadMonitor.pendingTasks(eventLoop)));
+
+			doResponseFilter(request, response, invoker, serverAddress, clientAddress, null);
+
+			writer.write(request, response);
+
+			return;
+		}
+
+		CompletableFuture<?> future;
+		try {
+			future = invoker.invoke(request.getMethodParam());
+		} catch (Throwable t) {
+			// 同步抛出的异常同样返回SERVER_ERROR，否则客户端只能等到超时
+			future = CompletableFuture.failedFuture(t);
+		}
+
+		future.whenComplete((result, throwable) -> {
+			response.setRequestId(requestId);
+			response.setTracer(null);
+			response.setServerLoad(loadMonitor.end(startNanos, ServerLoadMonitor.pendingTasks(eventLoop)));
+
+			if (bulkhead != null) {
+				bulkhead.release();
+			}
+
+			if (result != null || (throwable == null && request.isOneWay())) {
+				response.setStatusCode(ResponseStatus.OK);
+				response.setResult(result);
+
+				doResponseFilter(request, response, invoker, serverAddress, clientAddress, null);
+			} else if (throwable != null) {
+				response.setStatusCode(ResponseStatus.SERVER_ERROR);
+				response.setResult(Arrays.toString(throwable.getStackTrace()));
+
+				doResponseFilter(request, response, invoker, serverAddress, clientAddress, throwable);
+			} else {
+				response.setStatusCode(ResponseStatus.SERVER_ERROR);
+				response.setResult(UNKNOWN);
+
+				doResponseFilter(request, response, invoker, serverAddress, clientAddress, UNKNOWN);
+			}
+
+			writer.write(request, response);
+		});
+	}
+
+	private boolean doRequestFilter(Request request, Invoker<CompletableFuture<?>> invoker, HostPort serverAddress,
+			HostPort clientAddress) {
+		final int filterLength = filters.size();
+		if (filterLength == 0) {
+			return true;
+		}
+
+		RemoteContext.setServerAddress(serverAddress);
+		RemoteContext.setClientAddress(clientAddress);
+		RemoteContext.setRemoteMethod(invoker.getMethod());
+		RemoteContext.setServiceMethodName(invokerFactory.getServiceMethodName(invoker.getServiceId()));
+
+		for (int i = 0; i < filterLength; i++) {
+			RpcServerFilter filter = filters.get(i);
+			if (!filter.onRecive(request)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void doResponseFilter(Request request, Response response, Invoker<CompletableFuture<?>> invoker,
+			HostPort serverAddress, HostPort clientAddress, Throwable throwable) {
+		final int filterLength = filters.size();
+		if (filterLength == 0) {
+			return;
+		}
+
+		RemoteContext.setServerAddress(serverAddress);
+		RemoteContext.setClientAddress(clientAddress);
+		RemoteContext.setRemoteMethod(invoker.getMethod());
+		RemoteContext.setServiceMethodName(invokerFactory.getServiceMethodName(invoker.getServiceId()));
+
+		if (response.getStatusCode() == ResponseStatus.OK) {
+			for (int i = 0; i < filterLength; i++) {
+				RpcServerFilter filter = filters.get(i);
+				filter.onSend(request, response);
+			}
+		} else {
+			for (int i = 0; i < filterLength; i++) {
+				RpcServerFilter filter = filters.get(i);
+				filter.onError(request, response, throwable);
+			}
+		}
+	}
+
+	/**
+	 * 返回响应，单向请求也会回调，由实现决定是否丢弃
+	 */
+	@FunctionalInterface
+	public static interface ResponseWriter {
+		void write(Request request, Response response);
+	}
+}
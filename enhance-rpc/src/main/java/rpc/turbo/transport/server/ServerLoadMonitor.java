@@ -0,0 +1,145 @@
+package rpc.turbo.transport.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import rpc.turbo.common.TurboConnectService;
+import rpc.turbo.protocol.ServerLoad;
+
+/**
+ * 服务端负载统计，随响应返回给客户端，客户端据此动态调整权重，不需要写注册中心<br>
+ * 每个TurboServer一个实例，同一个TurboServer下的tcp、共享内存、in-jvm、rest服务器共用，线程安全
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class ServerLoadMonitor {
+	/** {@link #tryBegin(int)}被拒绝时的返回值 */
+	public static final long REJECTED = Long.MIN_VALUE;
+	public static final String SERVER_OVERLOAD = "server overload, request rejected";
+
+	/** 指数加权移动平均的衰减，新样本占1/8 */
+	private static final int EWMA_SHIFT = 3;
+
+	private final AtomicInteger inflight = new AtomicInteger();
+	/** 多个线程同时完成请求，CAS更新不丢失样本 */
+	private final AtomicLong ewmaLatencyNanos = new AtomicLong();
+	private final LongAdder rejectedCount = new LongAdder();
+	/** 为null时不限制并发 */
+	private final GradientConcurrencyLimiter limiter;
+
+	/**
+	 * 只统计负载，不限制并发
+	 */
+	public ServerLoadMonitor() {
+		this(null);
+	}
+
+	/**
+	 * 
+	 * @param limiter
+	 *            为null时不限制并发
+	 */
+	public ServerLoadMonitor(GradientConcurrencyLimiter limiter) {
+		this.limiter = limiter;
+	}
+
+	/**
+	 * 开始处理一个请求
+	 * 
+	 * @return 开始时间
+	 */
+	public long begin() {
+		inflight.incrementAndGet();
+		return System.nanoTime();
+	}
+
+	/**
+	 * 开始处理一个请求，超过并发上限时拒绝，内部服务(心跳、注册信息)不受限制
+	 * 
+	 * @param serviceId
+	 * @return 开始时间，被拒绝时为{@link #REJECTED}
+	 */
+	public long tryBegin(int serviceId) {
+		int current = inflight.incrementAndGet();
+
+		if (limiter != null //
+				&& current > limiter.getLimit() //
+				&& serviceId > TurboConnectService.SERVICE_CLASS_ID_REGISTER) {
+			inflight.decrementAndGet();
+			rejectedCount.increment();
+			return REJECTED;
+		}
+
+		return System.nanoTime();
+	}
+
+	/**
+	 * 完成一个请求
+	 * 
+	 * @param startNanos
+	 *            {@link #begin()}的返回值
+	 * @param pendingTasks
+	 *            当前线程排队的任务数
+	 * @return 当前负载，{@link ServerLoad}
+	 */
+	public long end(long startNanos, int pendingTasks) {
+		int current = inflight.decrementAndGet();
+
+		long latency = System.nanoTime() - startNanos;
+		long ewma = ewmaLatencyNanos.accumulateAndGet(latency,
+				(average, sample) -> average == 0 ? sample : average + ((sample - average) >> EWMA_SHIFT));
+
+		if (limiter != null) {
+			limiter.onSample(latency, current + 1);
+		}
+
+		return ServerLoad.pack(current, pendingTasks, TimeUnit.NANOSECONDS.toMicros(ewma));
+	}
+
+	/**
+	 * 当前负载，用于拒绝请求时返回给客户端
+	 * 
+	 * @param pendingTasks
+	 *            当前线程排队的任务数
+	 * @return {@link ServerLoad}
+	 */
+	public long current(int pendingTasks) {
+		return ServerLoad.pack(inflight.get(), pendingTasks, TimeUnit.NANOSECONDS.toMicros(ewmaLatencyNanos.get()));
+	}
+
+	/**
+	 * 因超过并发上限被拒绝的请求总数
+	 * 
+	 * @return
+	 */
+	public long rejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	/**
+	 * 
+	 * @return 为null时不限制并发
+	 */
+	public GradientConcurrencyLimiter getLimiter() {
+		return limiter;
+	}
+
+	/**
+	 * io线程排队的任务数
+	 * 
+	 * @param eventLoop
+	 * @return
+	 */
+	public static int pendingTasks(EventLoop eventLoop) {
+		if (eventLoop instanceof SingleThreadEventExecutor) {
+			return ((SingleThreadEventExecutor) eventLoop).pendingTasks();
+		}
+
+		return 0;
+	}
+}
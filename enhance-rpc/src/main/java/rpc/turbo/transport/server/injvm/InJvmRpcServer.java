@@ -0,0 +1,69 @@
+package rpc.turbo.transport.server.injvm;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import rpc.turbo.config.HostPort;
+import rpc.turbo.invoke.Invoker;
+import rpc.turbo.invoke.ServerInvokerFactory;
+import rpc.turbo.protocol.Request;
+import rpc.turbo.protocol.Response;
+import rpc.turbo.serialization.Serializer;
+import rpc.turbo.transport.server.RpcRequestProcessor;
+
+/**
+ * 同一jvm内的rpc服务器，直接调用invoker，不经过序列化和网络，服务端过滤器照常执行
+ * 
+ * @author zhushimmer
+ *
+ */
+public class InJvmRpcServer {
+
+	private final RpcRequestProcessor processor;
+	private final ServerInvokerFactory invokerFactory;
+	private final Serializer serializer;
+	private final HostPort serverAddress;
+
+	public InJvmRpcServer(RpcRequestProcessor processor, Serializer serializer, HostPort serverAddress) {
+		this.processor = processor;
+		this.invokerFactory = processor.getInvokerFactory();
+		this.serializer = serializer;
+		this.serverAddress = serverAddress;
+	}
+
+	public HostPort getServerAddress() {
+		return serverAddress;
+	}
+
+	/**
+	 * 服务端的序列化器，copy-on-call时用于读取请求和写出响应
+	 * 
+	 * @return
+	 */
+	public Serializer getSerializer() {
+		return serializer;
+	}
+
+	/**
+	 * 处理请求，与NettyRpcServerHandler共用同一个处理流程
+	 * 
+	 * @param request
+	 * @param clientAddress
+	 * @return
+	 */
+	public CompletableFuture<Response> handle(final Request request, final HostPort clientAddress) {
+		final Invoker<CompletableFuture<?>> invoker = invokerFactory.get(request.getServiceId());
+
+		if (invoker == null) {
+			return CompletableFuture
+					.failedFuture(new IOException("not support this serviceId: " + request.getServiceId()));
+		}
+
+		final CompletableFuture<Response> future = new CompletableFuture<>();
+
+		processor.process(request, new Response(), invoker, invokerFactory.getBulkhead(request.getServiceId()),
+				null, serverAddress, clientAddress, (req, response) -> future.complete(response));
+
+		return future;
+	}
+}
@@ -0,0 +1,77 @@
+package rpc.turbo.transport.server.injvm;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import rpc.turbo.config.HostPort;
+import rpc.turbo.util.IPUtils;
+
+/**
+ * 当前jvm中已启动的rpc服务器
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class InJvmServerRegistry {
+	private static final Log logger = LogFactory.getLog(InJvmServerRegistry.class);
+
+	private static final ConcurrentHashMap<HostPort, InJvmRpcServer> serverMap = new ConcurrentHashMap<>();
+
+	private InJvmServerRegistry() {
+	}
+
+	public static void register(InJvmRpcServer server) {
+		serverMap.put(server.getServerAddress(), server);
+
+		if (logger.isInfoEnabled()) {
+			logger.info("register in-jvm server: " + server.getServerAddress());
+		}
+	}
+
+	public static void unregister(InJvmRpcServer server) {
+		serverMap.remove(server.getServerAddress(), server);
+	}
+
+	/**
+	 * 查找当前jvm中的rpc服务器，host不同但都是本机地址时按端口匹配
+	 * 
+	 * @param serverAddress
+	 * @return 找不到返回null
+	 */
+	public static InJvmRpcServer find(HostPort serverAddress) {
+		if (serverMap.isEmpty()) {
+			return null;
+		}
+
+		InJvmRpcServer server = serverMap.get(serverAddress);
+		if (server != null) {
+			return server;
+		}
+
+		if (!IPUtils.isLocalAddress(serverAddress.host)) {
+			return null;
+		}
+
+		for (InJvmRpcServer candidate : serverMap.values()) {
+			HostPort address = candidate.getServerAddress();
+
+			if (address.port == serverAddress.port && IPUtils.isLocalAddress(address.host)) {
+				return candidate;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * 
+	 * @param server
+	 * @return 是否仍在运行
+	 */
+	public static boolean isAlive(InJvmRpcServer server) {
+		return serverMap.get(server.getServerAddress()) == server;
+	}
+
+}
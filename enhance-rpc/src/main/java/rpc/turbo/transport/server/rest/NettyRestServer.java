@@ -3,6 +3,8 @@ package rpc.turbo.transport.server.rest;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import io.netty.bootstrap.ServerBootstrap;
@@ -15,10 +17,12 @@ import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import rpc.turbo.common.EventLoopGroupHolder;
 import rpc.turbo.config.HostPort;
 import rpc.turbo.filter.RestServerFilter;
 import rpc.turbo.invoke.ServerInvokerFactory;
 import rpc.turbo.serialization.JsonMapper;
+import rpc.turbo.transport.server.ServerLoadMonitor;
 import rpc.turbo.transport.server.rest.handler.NettyRestChannelInitializer;
 
 public class NettyRestServer implements Closeable {
@@ -26,17 +30,40 @@ public class NettyRestServer implements Closeable {
 	private final HostPort hostPort;
 	private final EventLoopGroup eventLoopGroup;
 	private final ServerInvokerFactory invokerFactory;
-	private volatile Channel channel;
 	private final JsonMapper jsonMapper;
 	private final CopyOnWriteArrayList<RestServerFilter> filters;
+	private final int acceptorCount;
+	private final ServerLoadMonitor loadMonitor;
+
+	private volatile List<Channel> channels;
 
 	public NettyRestServer(EventLoopGroup eventLoopGroup, ServerInvokerFactory invokerFactory, JsonMapper jsonMapper,
 			CopyOnWriteArrayList<RestServerFilter> filters, HostPort hostPort) {
+		this(eventLoopGroup, invokerFactory, jsonMapper, filters, hostPort, 1, new ServerLoadMonitor());
+	}
+
+	/**
+	 * 
+	 * @param eventLoopGroup
+	 * @param invokerFactory
+	 * @param jsonMapper
+	 * @param filters
+	 * @param hostPort
+	 * @param acceptorCount
+	 *            监听同一端口的acceptor数量，仅epoll下生效，小于1时为eventLoop的数量
+	 * @param loadMonitor
+	 *            所属服务器的负载统计
+	 */
+	public NettyRestServer(EventLoopGroup eventLoopGroup, ServerInvokerFactory invokerFactory, JsonMapper jsonMapper,
+			CopyOnWriteArrayList<RestServerFilter> filters, HostPort hostPort, int acceptorCount,
+			ServerLoadMonitor loadMonitor) {
 		this.eventLoopGroup = eventLoopGroup;
+		this.acceptorCount = acceptorCount;
 		this.invokerFactory = invokerFactory;
 		this.hostPort = hostPort;
 		this.jsonMapper = jsonMapper;
 		this.filters = filters;
+		this.loadMonitor = loadMonitor;
 	}
 
 	public void start() throws InterruptedException {
@@ -49,14 +76,17 @@ public class NettyRestServer implements Closeable {
 		bootstrap.option(ChannelOption.SO_REUSEADDR, true);
 		bootstrap.option(ChannelOption.SO_RCVBUF, 256 * 1024);
 
+		int bindCount = 1;
+
 		if (eventLoopGroup instanceof EpollEventLoopGroup) {
+			bindCount = acceptorCount > 0 ? acceptorCount : EventLoopGroupHolder.eventLoopCount(eventLoopGroup);
 			bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
 			bootstrap.channel(EpollServerSocketChannel.class);
 		} else if (eventLoopGroup instanceof NioEventLoopGroup) {
 			bootstrap.channel(NioServerSocketChannel.class);
 		}
 
-		bootstrap.childHandler(new NettyRestChannelInitializer(invokerFactory, jsonMapper, filters));
+		bootstrap.childHandler(new NettyRestChannelInitializer(invokerFactory, jsonMapper, filters, loadMonitor));
 
 		bootstrap.childOption(ChannelOption.SO_REUSEADDR, true);
 		bootstrap.childOption(ChannelOption.SO_RCVBUF, 256 * 1024);
@@ -64,15 +94,23 @@ public class NettyRestServer implements Closeable {
 		bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, //
 				new WriteBufferWaterMark(1024 * 1024, 2048 * 1024));
 
-		channel = bootstrap.bind(inet).sync().channel();
+		// SO_REUSEPORT下每次bind都会得到一个独立的监听socket，ServerBootstrap会依次分配到不同的eventLoop上，由内核负责在它们之间分发新连接
+		List<Channel> boundChannels = new ArrayList<>(bindCount);
+		for (int i = 0; i < bindCount; i++) {
+			boundChannels.add(bootstrap.bind(inet).sync().channel());
+		}
+
+		channels = boundChannels;
 
-		System.out.println("NettyRestServer started. Listening on: " + hostPort);
+		System.out.println("NettyRestServer started. Listening on: " + hostPort + ", acceptors: " + bindCount);
 	}
 
 	@Override
 	public void close() throws IOException {
 		try {
-			channel.closeFuture().sync();
+			for (Channel channel : channels) {
+				channel.closeFuture().sync();
+			}
 		} catch (InterruptedException e) {
 			throw new IOException(e);
 		}
@@ -10,6 +10,7 @@ import rpc.turbo.config.TurboConstants;
 import rpc.turbo.filter.RestServerFilter;
 import rpc.turbo.invoke.ServerInvokerFactory;
 import rpc.turbo.serialization.JsonMapper;
+import rpc.turbo.transport.server.ServerLoadMonitor;
 import rpc.turbo.transport.server.rest.codec.RestHttResponseEncoder;
 
 public class NettyRestChannelInitializer extends ChannelInitializer<SocketChannel> {
@@ -17,12 +18,14 @@ public class NettyRestChannelInitializer extends ChannelInitializer<SocketChanne
 	private final ServerInvokerFactory invokerFactory;
 	private final JsonMapper jsonMapper;
 	private final CopyOnWriteArrayList<RestServerFilter> filters;
+	private final ServerLoadMonitor loadMonitor;
 
 	public NettyRestChannelInitializer(ServerInvokerFactory invokerFactory, JsonMapper jsonMapper,
-			CopyOnWriteArrayList<RestServerFilter> filters) {
+			CopyOnWriteArrayList<RestServerFilter> filters, ServerLoadMonitor loadMonitor) {
 		this.invokerFactory = invokerFactory;
 		this.jsonMapper = jsonMapper;
 		this.filters = filters;
+		this.loadMonitor = loadMonitor;
 	}
 
 	@Override
@@ -31,6 +34,6 @@ public class NettyRestChannelInitializer extends ChannelInitializer<SocketChanne
 				.addLast(new HttpServerCodec(1024 * 4, 1024 * 8, 1024 * 16, false))// HTTP 服务的解码器
 				.addLast(new HttpObjectAggregator(TurboConstants.MAX_FRAME_LENGTH))// HTTP 消息的合并处理
 				.addLast(new RestHttResponseEncoder(invokerFactory, jsonMapper, filters))// 自定义编码器
-				.addLast(new NettyRestHandler(invokerFactory, jsonMapper, filters)); // 逻辑处理
+				.addLast(new NettyRestHandler(invokerFactory, jsonMapper, filters, loadMonitor)); // 逻辑处理
 	}
 }
@@ -4,6 +4,7 @@ import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERR
 import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
 import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
+import static io.netty.handler.codec.http.HttpResponseStatus.TOO_MANY_REQUESTS;
 
 import java.net.InetSocketAddress;
 import java.util.concurrent.CompletableFuture;
@@ -26,6 +27,8 @@ import rpc.turbo.invoke.ServerInvokerFactory;
 import rpc.turbo.param.HttpParamExtractor;
 import rpc.turbo.param.MethodParam;
 import rpc.turbo.serialization.JsonMapper;
+import rpc.turbo.transport.server.Bulkhead;
+import rpc.turbo.transport.server.ServerLoadMonitor;
 import rpc.turbo.transport.server.rest.protocol.RestHttpResponse;
 
 public class NettyRestHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
@@ -38,14 +41,16 @@ public class NettyRestHandler extends SimpleChannelInboundHandler<FullHttpReques
 	private final ServerInvokerFactory invokerFactory;
 	private final JsonMapper jsonMapper;
 	private final CopyOnWriteArrayList<RestServerFilter> filters;
+	private final ServerLoadMonitor loadMonitor;
 	private HostPort clientAddress;
 	private HostPort serverAddress;
 
 	public NettyRestHandler(ServerInvokerFactory invokerFactory, JsonMapper jsonMapper,
-			CopyOnWriteArrayList<RestServerFilter> filters) {
+			CopyOnWriteArrayList<RestServerFilter> filters, ServerLoadMonitor loadMonitor) {
 		this.invokerFactory = invokerFactory;
 		this.jsonMapper = jsonMapper;
 		this.filters = filters;
+		this.loadMonitor = loadMonitor;
 	}
 
 	@Override
@@ -104,7 +109,7 @@ public class NettyRestHandler extends SimpleChannelInboundHandler<FullHttpReques
 
 		String restPath = uri.substring(invokerFactory.restPrefix.length(), index);
 		final Invoker<CompletableFuture<?>> invoker = invokerFactory.get(restPath);
-		CompletableFuture<?> future = null;
+		Object params = null;
 
 		try {
 			if (invoker == null) {
@@ -128,7 +133,6 @@ public class NettyRestHandler extends SimpleChannelInboundHandler<FullHttpReques
 				return;
 			}
 
-			Object params = null;
 			if (httpMethod == HttpMethod.GET) {
 				params = HttpParamExtractor.extractFromQueryPath(invoker, uri, index);
 			} else if (httpMethod == HttpMethod.POST) {
@@ -142,7 +146,46 @@ public class NettyRestHandler extends SimpleChannelInboundHandler<FullHttpReques
 						keepAlive), ctx.voidPromise());
 				return;
 			}
+		} catch (Throwable e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn(uri + " error ", e);
+			}
+
+			ctx.write(new RestHttpResponse(invoker, httpRequest, INTERNAL_SERVER_ERROR, e, keepAlive),
+					ctx.voidPromise());
+			return;
+		}
+
+		final Bulkhead bulkhead = invokerFactory.getBulkhead(invoker.getServiceId());
+		final Object methodParams = params;
+
+		if (bulkhead == null) {
+			doInvoke(ctx, httpRequest, invoker, methodParams, keepAlive, null);
+		} else if (!bulkhead.tryExecute(
+				() -> doInvoke(ctx, httpRequest, invoker, methodParams, keepAlive, bulkhead))) {
+			ctx.write(new RestHttpResponse(invoker, httpRequest, SERVICE_UNAVAILABLE, Bulkhead.BULKHEAD_FULL,
+					keepAlive), ctx.voidPromise());
+		}
+	}
+
+	private void doInvoke(ChannelHandlerContext ctx, FullHttpRequest httpRequest,
+			Invoker<CompletableFuture<?>> invoker, Object params, boolean keepAlive, Bulkhead bulkhead) {
+		final long startNanos = loadMonitor.tryBegin(invoker.getServiceId());
+
+		if (startNanos == ServerLoadMonitor.REJECTED) {
+			if (bulkhead != null) {
+				bulkhead.release();
+			}
 
+			ctx.write(new RestHttpResponse(invoker, httpRequest, TOO_MANY_REQUESTS, ServerLoadMonitor.SERVER_OVERLOAD,
+					keepAlive), ctx.voidPromise());
+
+			return;
+		}
+
+		CompletableFuture<?> future = null;
+
+		try {
 			if (params == null) {
 				future = invoker.invoke();
 			} else if (params instanceof MethodParam) {
@@ -154,7 +197,13 @@ public class NettyRestHandler extends SimpleChannelInboundHandler<FullHttpReques
 			}
 		} catch (Throwable e) {
 			if (logger.isWarnEnabled()) {
-				logger.warn(uri + " error ", e);
+				logger.warn(httpRequest.uri() + " error ", e);
+			}
+
+			loadMonitor.end(startNanos, 0);
+
+			if (bulkhead != null) {
+				bulkhead.release();
 			}
 
 			ctx.write(new RestHttpResponse(invoker, httpRequest, INTERNAL_SERVER_ERROR, e, keepAlive),
@@ -167,12 +216,24 @@ public class NettyRestHandler extends SimpleChannelInboundHandler<FullHttpReques
 				logger.warn("unknown error " + toString(httpRequest));
 			}
 
+			loadMonitor.end(startNanos, 0);
+
+			if (bulkhead != null) {
+				bulkhead.release();
+			}
+
 			ctx.write(new RestHttpResponse(invoker, httpRequest, INTERNAL_SERVER_ERROR, UNKNOWN, keepAlive),
 					ctx.voidPromise());
 			return;
 		}
 
 		future.whenComplete((result, throwable) -> {
+			loadMonitor.end(startNanos, 0);
+
+			if (bulkhead != null) {
+				bulkhead.release();
+			}
+
 			if (result != null) {
 				ctx.write(new RestHttpResponse(invoker, httpRequest, OK, result, keepAlive), ctx.voidPromise());
 			} else if (throwable != null) {
@@ -1,10 +1,16 @@
 package rpc.turbo.transport.server.rpc;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
@@ -12,32 +18,60 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import rpc.turbo.common.EventLoopGroupHolder;
 import rpc.turbo.config.HostPort;
 import rpc.turbo.filter.RpcServerFilter;
 import rpc.turbo.invoke.ServerInvokerFactory;
 import rpc.turbo.serialization.Serializer;
+import rpc.turbo.transport.server.RpcRequestProcessor;
+import rpc.turbo.transport.server.ServerLoadMonitor;
+import rpc.turbo.transport.server.injvm.InJvmRpcServer;
+import rpc.turbo.transport.server.injvm.InJvmServerRegistry;
 import rpc.turbo.transport.server.rpc.handler.NettyRpcChannelInitializer;
 
 public class NettyRpcServer implements Closeable {
+	private static final Log logger = LogFactory.getLog(NettyRpcServer.class);
 
 	private final HostPort hostPort;
 	private final EventLoopGroup eventLoopGroup;
-	private final ServerInvokerFactory invokerFactory;
+	private final RpcRequestProcessor processor;
 	private final Serializer serializer;
-	private final CopyOnWriteArrayList<RpcServerFilter> filters;
 
-	private volatile Channel channel;
+	private final int acceptorCount;
+
+	private volatile List<Channel> channels;
+	private volatile InJvmRpcServer inJvmServer;
 
 	public NettyRpcServer(EventLoopGroup eventLoopGroup, ServerInvokerFactory invokerFactory, Serializer serializer,
 			CopyOnWriteArrayList<RpcServerFilter> filters, HostPort hostPort) {
+		this(eventLoopGroup, invokerFactory, serializer, filters, hostPort, 1, new ServerLoadMonitor());
+	}
+
+	/**
+	 * 
+	 * @param eventLoopGroup
+	 * @param invokerFactory
+	 * @param serializer
+	 * @param filters
+	 * @param hostPort
+	 * @param acceptorCount
+	 *            监听同一端口的acceptor数量，仅epoll下生效，小于1时为eventLoop的数量
+	 * @param loadMonitor
+	 *            所属服务器的负载统计
+	 */
+	public NettyRpcServer(EventLoopGroup eventLoopGroup, ServerInvokerFactory invokerFactory, Serializer serializer,
+			CopyOnWriteArrayList<RpcServerFilter> filters, HostPort hostPort, int acceptorCount,
+			ServerLoadMonitor loadMonitor) {
 		this.eventLoopGroup = eventLoopGroup;
-		this.invokerFactory = invokerFactory;
+		this.acceptorCount = acceptorCount;
+		this.processor = new RpcRequestProcessor(invokerFactory, filters, loadMonitor);
 		this.hostPort = hostPort;
 		this.serializer = serializer;
-		this.filters = filters;
 	}
 
 	public void start() throws InterruptedException {
@@ -50,14 +84,17 @@ public class NettyRpcServer implements Closeable {
 		bootstrap.option(ChannelOption.SO_REUSEADDR, true);
 		bootstrap.option(ChannelOption.SO_RCVBUF, 256 * 1024);
 
+		int bindCount = 1;
+
 		if (eventLoopGroup instanceof EpollEventLoopGroup) {
+			bindCount = acceptorCount > 0 ? acceptorCount : EventLoopGroupHolder.eventLoopCount(eventLoopGroup);
 			bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
 			bootstrap.channel(EpollServerSocketChannel.class);
 		} else if (eventLoopGroup instanceof NioEventLoopGroup) {
 			bootstrap.channel(NioServerSocketChannel.class);
 		}
 
-		bootstrap.childHandler(new NettyRpcChannelInitializer(invokerFactory, serializer, filters));
+		bootstrap.childHandler(new NettyRpcChannelInitializer(processor, serializer));
 
 		bootstrap.childOption(ChannelOption.SO_REUSEADDR, true);
 		bootstrap.childOption(ChannelOption.SO_RCVBUF, 256 * 1024);
@@ -65,15 +102,72 @@ public class NettyRpcServer implements Closeable {
 		bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, //
 				new WriteBufferWaterMark(1024 * 1024, 2048 * 1024));
 
-		channel = bootstrap.bind(inet).sync().channel();
+		// SO_REUSEPORT下每次bind都会得到一个独立的监听socket，ServerBootstrap会依次分配到不同的eventLoop上，由内核负责在它们之间分发新连接
+		List<Channel> boundChannels = new ArrayList<>(bindCount);
+		for (int i = 0; i < bindCount; i++) {
+			boundChannels.add(bootstrap.bind(inet).sync().channel());
+		}
+
+		if (hostPort.domainSocket != null) {
+			if (eventLoopGroup instanceof EpollEventLoopGroup) {
+				boundChannels.add(bindDomainSocket());
+			} else if (logger.isWarnEnabled()) {
+				logger.warn("unix domain socket 仅支持epoll, 忽略: " + hostPort.domainSocket);
+			}
+		}
+
+		channels = boundChannels;
+
+		// 同一jvm中的客户端可以直接调用
+		inJvmServer = new InJvmRpcServer(processor, serializer, hostPort);
+		InJvmServerRegistry.register(inJvmServer);
+
+		System.out.println("TurboRpcServer started. Listening on: " + hostPort.toFullString() + ", acceptors: "
+				+ bindCount);
+	}
+
+	/**
+	 * 同机部署时供客户端使用的unix domain socket，与tcp共享同一个eventLoopGroup和处理逻辑
+	 * 
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private Channel bindDomainSocket() throws InterruptedException {
+		File socketFile = new File(hostPort.domainSocket);
+
+		// 上次进程异常退出时遗留的socket文件会导致bind失败
+		if (socketFile.exists() && !socketFile.delete()) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("无法删除已存在的socket文件: " + socketFile);
+			}
+		}
+
+		ServerBootstrap bootstrap = new ServerBootstrap();
+		bootstrap.group(eventLoopGroup);
+		bootstrap.channel(EpollServerDomainSocketChannel.class);
+		bootstrap.option(ChannelOption.SO_BACKLOG, 1024);
+
+		bootstrap.childHandler(new NettyRpcChannelInitializer(processor, serializer, hostPort));
+
+		bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, //
+				new WriteBufferWaterMark(1024 * 1024, 2048 * 1024));
+
+		Channel channel = bootstrap.bind(new DomainSocketAddress(socketFile)).sync().channel();
+		channel.closeFuture().addListener(future -> socketFile.delete());
 
-		System.out.println("TurboRpcServer started. Listening on: " + hostPort);
+		return channel;
 	}
 
 	@Override
 	public void close() throws IOException {
+		if (inJvmServer != null) {
+			InJvmServerRegistry.unregister(inJvmServer);
+		}
+
 		try {
-			channel.closeFuture().sync();
+			for (Channel channel : channels) {
+				channel.closeFuture().sync();
+			}
 		} catch (InterruptedException e) {
 			throw new IOException(e);
 		}
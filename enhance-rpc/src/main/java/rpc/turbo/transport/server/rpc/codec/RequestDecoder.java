@@ -1,5 +1,8 @@
 package rpc.turbo.transport.server.rpc.codec;
 
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -7,7 +10,11 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import rpc.turbo.config.TurboConstants;
+import rpc.turbo.protocol.BatchFrame;
+import rpc.turbo.protocol.BatchRequest;
+import rpc.turbo.protocol.Request;
 import rpc.turbo.serialization.Serializer;
+import rpc.turbo.trace.Tracer;
 
 public class RequestDecoder extends LengthFieldBasedFrameDecoder {
 	private static final Log logger = LogFactory.getLog(RequestDecoder.class);
@@ -15,17 +22,27 @@ public class RequestDecoder extends LengthFieldBasedFrameDecoder {
 	private final Serializer serializer;
 
 	public RequestDecoder(int maxFrameLength, Serializer serializer) {
-		super(maxFrameLength, 0, TurboConstants.HEADER_FIELD_LENGTH, 0, TurboConstants.HEADER_FIELD_LENGTH);
+		super(BatchFrame.maxFrameLength(maxFrameLength), 0, TurboConstants.HEADER_FIELD_LENGTH, 0,
+				TurboConstants.HEADER_FIELD_LENGTH);
 		this.serializer = serializer;
 	}
 
 	@Override
 	protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+		final boolean isBatch = BatchFrame.isBatch(in);
+		final boolean isOneWay = BatchFrame.isOneWay(in);
 		ByteBuf buffer = (ByteBuf) super.decode(ctx, in);
 
 		if (buffer != null) {
 			try {
-				return serializer.readRequest(buffer);
+				if (isBatch) {
+					return readBatchRequest(buffer);
+				}
+
+				Request request = serializer.readRequest(buffer);
+				request.setOneWay(isOneWay);
+
+				return request;
 			} finally {
 				buffer.release();
 			}
@@ -33,7 +50,28 @@ public class RequestDecoder extends LengthFieldBasedFrameDecoder {
 
 		return null;
 	}
-	
+
+	private BatchRequest readBatchRequest(ByteBuf buffer) throws Exception {
+		final int serviceId = BatchFrame.readServiceId(buffer);
+		final Tracer tracer = BatchFrame.readTracer(buffer);
+		ArrayList<Request> requestList = new ArrayList<>();
+
+		while (buffer.isReadable()) {
+			boolean isOneWay = BatchFrame.isOneWay(buffer);
+			Request request = serializer.readBatchRequest(BatchFrame.nextFrame(buffer), serviceId, tracer);
+			request.setOneWay(isOneWay);
+
+			requestList.add(request);
+		}
+
+		return new BatchRequest(serviceId, requestList.toArray(new Request[requestList.size()]));
+	}
+
+	@Override
+	protected long getUnadjustedFrameLength(ByteBuf buf, int offset, int length, ByteOrder order) {
+		return BatchFrame.frameLength(super.getUnadjustedFrameLength(buf, offset, length, order));
+	}
+
 	@Override
 	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
 
@@ -1,35 +1,43 @@
 package rpc.turbo.transport.server.rpc.handler;
 
-import java.util.concurrent.CopyOnWriteArrayList;
-
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.socket.SocketChannel;
+import rpc.turbo.config.HostPort;
 import rpc.turbo.config.TurboConstants;
-import rpc.turbo.filter.RpcServerFilter;
-import rpc.turbo.invoke.ServerInvokerFactory;
 import rpc.turbo.serialization.Serializer;
+import rpc.turbo.transport.server.RpcRequestProcessor;
 import rpc.turbo.transport.server.rpc.codec.RequestDecoder;
 import rpc.turbo.transport.server.rpc.codec.ResponseEncoder;
 
-public class NettyRpcChannelInitializer extends ChannelInitializer<SocketChannel> {
+public class NettyRpcChannelInitializer extends ChannelInitializer<Channel> {
 
-	private final ServerInvokerFactory invokerFactory;
+	private final RpcRequestProcessor processor;
 	private final Serializer serializer;
-	private final CopyOnWriteArrayList<RpcServerFilter> filters;
+	private final HostPort serverAddress;
 
-	public NettyRpcChannelInitializer(ServerInvokerFactory invokerFactory, Serializer serializer,
-			CopyOnWriteArrayList<RpcServerFilter> filters) {
-		this.invokerFactory = invokerFactory;
-		this.serializer = serializer;
-		this.filters = filters;
+	public NettyRpcChannelInitializer(RpcRequestProcessor processor, Serializer serializer) {
+		this(processor, serializer, null);
+	}
 
+	/**
+	 * 
+	 * @param processor
+	 * @param serializer
+	 * @param serverAddress
+	 *            非tcp连接(unix domain socket)时使用的服务器地址，可空
+	 */
+	public NettyRpcChannelInitializer(RpcRequestProcessor processor, Serializer serializer,
+			HostPort serverAddress) {
+		this.processor = processor;
+		this.serializer = serializer;
+		this.serverAddress = serverAddress;
 	}
 
 	@Override
-	public void initChannel(SocketChannel ch) throws Exception {
+	public void initChannel(Channel ch) throws Exception {
 		ch.pipeline()//
 				.addLast("encoder", new ResponseEncoder(serializer))//
 				.addLast("decoder", new RequestDecoder(TurboConstants.MAX_FRAME_LENGTH, serializer))//
-				.addLast("handler", new NettyRpcServerHandler(invokerFactory, filters));
+				.addLast("handler", new NettyRpcServerHandler(processor, serverAddress));
 	}
 }
@@ -1,38 +1,56 @@
 package rpc.turbo.transport.server.rpc.handler;
 
 import java.net.InetSocketAddress;
-import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import rpc.turbo.common.RemoteContext;
 import rpc.turbo.config.HostPort;
-import rpc.turbo.filter.RpcServerFilter;
-import rpc.turbo.invoke.InvokeException;
 import rpc.turbo.invoke.Invoker;
 import rpc.turbo.invoke.ServerInvokerFactory;
+import rpc.turbo.protocol.BatchRequest;
 import rpc.turbo.protocol.Request;
 import rpc.turbo.protocol.Response;
-import rpc.turbo.protocol.ResponseStatus;
 import rpc.turbo.protocol.recycle.RecycleResponse;
+import rpc.turbo.recycle.RecycleUtils;
+import rpc.turbo.transport.server.Bulkhead;
+import rpc.turbo.transport.server.RpcRequestProcessor;
+import rpc.turbo.transport.server.RpcRequestProcessor.ResponseWriter;
 
 public class NettyRpcServerHandler extends SimpleChannelInboundHandler<Request> {
 	private static final Log logger = LogFactory.getLog(NettyRpcServerHandler.class);
-	private static final Throwable UNKNOWN = new InvokeException("UNKNOWN ERROR", false);
 
+	private final RpcRequestProcessor processor;
 	private final ServerInvokerFactory invokerFactory;
-	private final CopyOnWriteArrayList<RpcServerFilter> filters;
 	private HostPort clientAddress;
 	private HostPort serverAddress;
+	private ResponseWriter responseWriter;
+	/** 正在分发批量请求，只在io线程访问 */
+	private boolean inBatch;
 
-	public NettyRpcServerHandler(ServerInvokerFactory invokerFactory, CopyOnWriteArrayList<RpcServerFilter> filters) {
-		this.invokerFactory = invokerFactory;
-		this.filters = filters;
+	public NettyRpcServerHandler(RpcRequestProcessor processor) {
+		this(processor, null);
+	}
+
+	/**
+	 * 
+	 * @param processor
+	 * @param serverAddress
+	 *            非tcp连接(unix domain socket)时使用的服务器地址，可空
+	 */
+	public NettyRpcServerHandler(RpcRequestProcessor processor, HostPort serverAddress) {
+		this.processor = processor;
+		this.invokerFactory = processor.getInvokerFactory();
+		this.serverAddress = serverAddress;
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+		super.handlerAdded(ctx);
+		responseWriter = (request, response) -> write(ctx, request, response);
 	}
 
 	@Override
@@ -43,6 +61,12 @@ public class NettyRpcServerHandler extends SimpleChannelInboundHandler<Request>
 			logger.info("channelActive: " + ctx.channel());
 		}
 
+		if (!(ctx.channel().localAddress() instanceof InetSocketAddress)) {
+			// unix domain socket，客户端与服务器必然同机
+			clientAddress = new HostPort(serverAddress != null ? serverAddress.host : "127.0.0.1", 0);
+			return;
+		}
+
 		InetSocketAddress insocket = (InetSocketAddress) ctx.channel().remoteAddress();
 		clientAddress = new HostPort(insocket.getAddress().getHostAddress(), 0);
 
@@ -50,108 +74,77 @@ public class NettyRpcServerHandler extends SimpleChannelInboundHandler<Request>
 		serverAddress = new HostPort(insocket.getAddress().getHostAddress(), insocket.getPort());
 	}
 
-	protected void channelRead0(ChannelHandlerContext ctx, final Request request) throws Exception {
-		final int requestId = request.getRequestId();
-		final Invoker<CompletableFuture<?>> invoker = invokerFactory.get(request.getServiceId());
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		if (msg instanceof BatchRequest) {
+			// 子请求共享serviceId，只查找一次invoker，各自完成后立即返回响应
+			BatchRequest batchRequest = (BatchRequest) msg;
+			Invoker<CompletableFuture<?>> invoker = getInvoker(ctx, batchRequest.getServiceId());
+
+			if (invoker == null) {
+				return;
+			}
 
-		if (invoker == null) {
-			if (logger.isErrorEnabled()) {
-				logger.error("not support this serviceId: " + request.getServiceId());
+			Bulkhead bulkhead = invokerFactory.getBulkhead(batchRequest.getServiceId());
+
+			inBatch = true;
+			try {
+				for (int i = 0; i < batchRequest.size(); i++) {
+					handle(ctx, batchRequest.get(i), invoker, bulkhead);
+				}
+			} finally {
+				inBatch = false;
+				ctx.flush();
 			}
 
-			ctx.channel().close();
 			return;
 		}
 
-		boolean allowHandle = doRequestFilter(request, invoker);
-
-		final RecycleResponse response = RecycleResponse.newInstance(request);
-
-		if (!allowHandle) {
-			response.setRequestId(requestId);
-			response.setStatusCode(ResponseStatus.SERVER_FILTER_DENY);
-			response.setTracer(null);
-			response.setResult(RpcServerFilter.SERVER_FILTER_DENY);
-
-			doResponseFilter(request, response, invoker, null);
+		super.channelRead(ctx, msg);
+	}
 
-			ctx.writeAndFlush(response, ctx.voidPromise());
+	protected void channelRead0(ChannelHandlerContext ctx, final Request request) throws Exception {
+		Invoker<CompletableFuture<?>> invoker = getInvoker(ctx, request.getServiceId());
 
+		if (invoker == null) {
 			return;
 		}
 
-		CompletableFuture<?> future = invoker.invoke(request.getMethodParam());
-
-		future.whenComplete((result, throwable) -> {
-			response.setRequestId(requestId);
-			response.setTracer(null);
-
-			if (result != null) {
-				response.setStatusCode(ResponseStatus.OK);
-				response.setResult(result);
-
-				doResponseFilter(request, response, invoker, null);
-			} else if (throwable != null) {
-				response.setStatusCode(ResponseStatus.SERVER_ERROR);
-				response.setResult(Arrays.toString(throwable.getStackTrace()));
-
-				doResponseFilter(request, response, invoker, throwable);
-			} else {
-				response.setStatusCode(ResponseStatus.SERVER_ERROR);
-				response.setResult(UNKNOWN);
-
-				doResponseFilter(request, response, invoker, UNKNOWN);
-			}
-
-			ctx.writeAndFlush(response, ctx.voidPromise());
-		});
+		handle(ctx, request, invoker, invokerFactory.getBulkhead(request.getServiceId()));
 	}
 
-	private boolean doRequestFilter(Request request, Invoker<CompletableFuture<?>> invoker) {
-		final int filterLength = filters.size();
-		if (filterLength == 0) {
-			return true;
-		}
+	private Invoker<CompletableFuture<?>> getInvoker(ChannelHandlerContext ctx, int serviceId) {
+		final Invoker<CompletableFuture<?>> invoker = invokerFactory.get(serviceId);
 
-		RemoteContext.setServerAddress(serverAddress);
-		RemoteContext.setClientAddress(clientAddress);
-		RemoteContext.setRemoteMethod(invoker.getMethod());
-		RemoteContext.setServiceMethodName(invokerFactory.getServiceMethodName(invoker.getServiceId()));
-
-		for (int i = 0; i < filterLength; i++) {
-			RpcServerFilter filter = filters.get(i);
-			if (!filter.onRecive(request)) {
-				return false;
+		if (invoker == null) {
+			if (logger.isErrorEnabled()) {
+				logger.error("not support this serviceId: " + serviceId);
 			}
+
+			ctx.channel().close();
 		}
 
-		return true;
+		return invoker;
 	}
 
-	private void doResponseFilter(Request request, Response response, Invoker<CompletableFuture<?>> invoker,
-			Throwable throwable) {
-		final int filterLength = filters.size();
-		if (filterLength == 0) {
-			return;
-		}
+	private void handle(ChannelHandlerContext ctx, final Request request, Invoker<CompletableFuture<?>> invoker,
+			Bulkhead bulkhead) {
+		final RecycleResponse response = RecycleResponse.newInstance(request);
 
-		RemoteContext.setServerAddress(serverAddress);
-		RemoteContext.setClientAddress(clientAddress);
-		RemoteContext.setRemoteMethod(invoker.getMethod());
-		RemoteContext.setServiceMethodName(invokerFactory.getServiceMethodName(invoker.getServiceId()));
+		processor.process(request, response, invoker, bulkhead, ctx.channel().eventLoop(), serverAddress,
+				clientAddress, responseWriter);
+	}
 
-		if (response.getStatusCode() == ResponseStatus.OK) {
-			for (int i = 0; i < filterLength; i++) {
-				RpcServerFilter filter = filters.get(i);
-				filter.onSend(request, response);
-			}
+	private void write(ChannelHandlerContext ctx, Request request, Response response) {
+		if (request.isOneWay()) {
+			// 单向请求不返回响应
+			RecycleUtils.release(response);
+		} else if (ctx.executor().inEventLoop() && inBatch) {
+			// 分发批量请求时同步完成的响应，分发结束后统一flush
+			ctx.write(response, ctx.voidPromise());
 		} else {
-			for (int i = 0; i < filterLength; i++) {
-				RpcServerFilter filter = filters.get(i);
-				filter.onError(request, response, throwable);
-			}
+			ctx.writeAndFlush(response, ctx.voidPromise());
 		}
-
 	}
 
 	@Override
@@ -0,0 +1,168 @@
+package rpc.turbo.transport.server.shm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import rpc.turbo.config.HostPort;
+import rpc.turbo.filter.RpcServerFilter;
+import rpc.turbo.invoke.ServerInvokerFactory;
+import rpc.turbo.serialization.Serializer;
+import rpc.turbo.transport.server.RpcRequestProcessor;
+import rpc.turbo.transport.server.ServerLoadMonitor;
+import rpc.turbo.transport.server.injvm.InJvmRpcServer;
+import rpc.turbo.transport.shm.ShmConnectionFile;
+
+/**
+ * 同机共享内存rpc服务器，与tcp服务器监听同一个端口号约定的目录
+ * 
+ * <pre>
+ * 客户端在目录中创建连接文件，服务器扫描目录发现新连接，每个连接一个读线程
+ * 请求的处理与NettyRpcServerHandler共用RpcRequestProcessor，服务端过滤器照常执行
+ * </pre>
+ * 
+ * @author zhushimmer
+ *
+ */
+public class ShmRpcServer implements Closeable {
+	private static final Log logger = LogFactory.getLog(ShmRpcServer.class);
+
+	private static final long SCAN_INTERVAL_MILLIS = 100;
+
+	private final InJvmRpcServer handler;
+	private final Serializer serializer;
+	private final HostPort hostPort;
+	private final Path directory;
+	private final Map<Path, ShmServerConnection> connections = new ConcurrentHashMap<>();
+
+	private volatile boolean isClosed = false;
+	private Thread acceptorThread;
+
+	public ShmRpcServer(ServerInvokerFactory invokerFactory, Serializer serializer,
+			CopyOnWriteArrayList<RpcServerFilter> filters, HostPort hostPort, ServerLoadMonitor loadMonitor) {
+		this.handler = new InJvmRpcServer(new RpcRequestProcessor(invokerFactory, filters, loadMonitor), serializer,
+				hostPort);
+		this.serializer = serializer;
+		this.hostPort = hostPort;
+		this.directory = ShmConnectionFile.directory(hostPort.port);
+	}
+
+	public void start() throws IOException {
+		Files.createDirectories(directory);
+
+		// 上次异常退出的客户端遗留的连接文件
+		int stale = ShmConnectionFile.deleteStale(directory);
+		if (stale > 0 && logger.isInfoEnabled()) {
+			logger.info("删除遗留的共享内存文件: " + stale + ", " + directory);
+		}
+
+		ShmConnectionFile.writeAcceptor(directory);
+
+		acceptorThread = new Thread(this::acceptLoop, "turbo-shm-acceptor-" + hostPort.port);
+		acceptorThread.setDaemon(true);
+		acceptorThread.start();
+
+		System.out.println("TurboShmRpcServer started. Listening on: " + directory);
+	}
+
+	private void acceptLoop() {
+		long lastHeartbeatTime = 0;
+
+		while (!isClosed) {
+			long currentTime = System.currentTimeMillis();
+
+			if (currentTime - lastHeartbeatTime >= ShmConnectionFile.HEARTBEAT_INTERVAL_MILLIS) {
+				lastHeartbeatTime = currentTime;
+				heartbeat();
+			}
+
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ShmConnectionFile.SUFFIX)) {
+				for (Path path : stream) {
+					if (!connections.containsKey(path)) {
+						accept(path);
+					}
+				}
+			} catch (Exception e) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("扫描共享内存目录出错: " + directory, e);
+				}
+			}
+
+			connections.values().removeIf(ShmServerConnection::isFinished);
+
+			try {
+				TimeUnit.MILLISECONDS.sleep(SCAN_INTERVAL_MILLIS);
+			} catch (InterruptedException e) {
+				break;
+			}
+		}
+	}
+
+	private void heartbeat() {
+		try {
+			ShmConnectionFile.touchAcceptor(directory);
+			ShmConnectionFile.deleteStale(directory);
+		} catch (Exception e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("共享内存心跳出错: " + directory, e);
+			}
+		}
+	}
+
+	private void accept(Path path) {
+		if (!ShmConnectionFile.isOwnerAlive(path)) {
+			return;
+		}
+
+		ShmConnectionFile file;
+		try {
+			file = ShmConnectionFile.open(path);
+		} catch (Exception e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("打开共享内存连接出错: " + path, e);
+			}
+
+			return;
+		}
+
+		if (file.isClientClosed()) {
+			file.release();
+			return;
+		}
+
+		ShmServerConnection connection = new ShmServerConnection(file, handler, serializer, hostPort);
+		connections.put(path, connection);
+		connection.start();
+
+		if (logger.isInfoEnabled()) {
+			logger.info("accept shared memory connection: " + path);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (isClosed) {
+			return;
+		}
+
+		isClosed = true;
+
+		if (acceptorThread != null) {
+			acceptorThread.interrupt();
+		}
+
+		Files.deleteIfExists(directory.resolve(ShmConnectionFile.ACCEPTOR_FILE));
+
+		connections.values().forEach(ShmServerConnection::close);
+		connections.clear();
+	}
+}
@@ -0,0 +1,207 @@
+package rpc.turbo.transport.server.shm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import rpc.turbo.config.HostPort;
+import rpc.turbo.protocol.Request;
+import rpc.turbo.protocol.Response;
+import rpc.turbo.protocol.ResponseStatus;
+import rpc.turbo.serialization.Serializer;
+import rpc.turbo.transport.server.injvm.InJvmRpcServer;
+import rpc.turbo.transport.shm.ShmConnectionFile;
+import rpc.turbo.transport.shm.ShmRingBuffer;
+import rpc.turbo.transport.shm.SpinThenParkIdler;
+
+/**
+ * 一个共享内存连接，读线程负责读取请求，响应由完成调用的线程写回
+ * 
+ * @author zhushimmer
+ *
+ */
+final class ShmServerConnection implements Runnable {
+	private static final Log logger = LogFactory.getLog(ShmServerConnection.class);
+
+	/** 检查客户端是否存活以及更新心跳的间隔 */
+	private static final long CHECK_ALIVE_INTERVAL_NANOS = ShmConnectionFile.HEARTBEAT_INTERVAL_MILLIS * 1000L
+			* 1000L;
+
+	private final ShmConnectionFile file;
+	private final ShmRingBuffer requestRing;
+	private final ShmRingBuffer responseRing;
+	private final InJvmRpcServer handler;
+	private final Serializer serializer;
+	private final HostPort clientAddress;
+	/** 串行化响应的写入以及映射的释放 */
+	private final Object writeLock = new Object();
+
+	private volatile boolean isClosed = false;
+	private volatile boolean isFinished = false;
+
+	// 仅读线程访问
+	private Request request;
+
+	ShmServerConnection(ShmConnectionFile file, InJvmRpcServer handler, Serializer serializer, HostPort serverAddress) {
+		this.file = file;
+		this.requestRing = file.requestRing();
+		this.responseRing = file.responseRing();
+		this.handler = handler;
+		this.serializer = serializer;
+		this.clientAddress = new HostPort(serverAddress.host, 0);
+	}
+
+	void start() {
+		Thread thread = new Thread(this, "turbo-shm-server-" + file.path.getFileName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	boolean isFinished() {
+		return isFinished;
+	}
+
+	@Override
+	public void run() {
+		SpinThenParkIdler idler = new SpinThenParkIdler();
+		long lastCheckTime = System.nanoTime();
+
+		file.updateServerHeartbeat();
+
+		try {
+			while (!isClosed && !file.isClientClosed()) {
+				long currentTime = System.nanoTime();
+
+				if (currentTime - lastCheckTime > CHECK_ALIVE_INTERVAL_NANOS) {
+					lastCheckTime = currentTime;
+					file.updateServerHeartbeat();
+
+					// 客户端进程异常退出时不会标记关闭
+					if (!Files.exists(file.path) || !ShmConnectionFile.isOwnerAlive(file.path)) {
+						break;
+					}
+				}
+
+				boolean hasRequest;
+
+				try {
+					hasRequest = requestRing.read(frame -> request = serializer.readRequest(frame));
+				} catch (Exception e) {
+					if (logger.isErrorEnabled()) {
+						logger.error("读取请求出错: " + file.path, e);
+					}
+
+					continue;
+				}
+
+				if (hasRequest) {
+					idler.reset();
+
+					Request request = this.request;
+					this.request = null;
+
+					handle(request);
+					continue;
+				}
+
+				idler.idle();
+			}
+		} finally {
+			finish();
+		}
+	}
+
+	/**
+	 * 读线程退出时释放映射，客户端进程已经退出时删除连接文件
+	 */
+	private void finish() {
+		synchronized (writeLock) {
+			file.release();
+		}
+
+		if (!ShmConnectionFile.isOwnerAlive(file.path)) {
+			try {
+				file.close();
+			} catch (IOException e) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("删除共享内存文件出错: " + file.path, e);
+				}
+			}
+		}
+
+		isFinished = true;
+	}
+
+	private void handle(Request request) {
+		final int requestId = request.getRequestId();
+
+		try {
+			handler.handle(request, clientAddress).whenComplete((response, throwable) -> {
+				if (throwable != null) {
+					response = new Response();
+					response.setRequestId(requestId);
+					response.setStatusCode(ResponseStatus.SERVER_ERROR);
+					response.setResult(throwable.getMessage());
+				}
+
+				writeResponse(response);
+			});
+		} catch (Throwable t) {
+			Response response = new Response();
+			response.setRequestId(requestId);
+			response.setStatusCode(ResponseStatus.SERVER_ERROR);
+			response.setResult(t.getMessage());
+
+			writeResponse(response);
+		}
+	}
+
+	private void writeResponse(Response response) {
+		ByteBuf buffer = ByteBufAllocator.DEFAULT.directBuffer();
+
+		try {
+			serializer.writeResponse(buffer, response);
+
+			SpinThenParkIdler idler = null;
+
+			// 响应由多个线程写回，串行化写入，缓冲区满时在锁外等待
+			while (true) {
+				synchronized (writeLock) {
+					if (isClosed || file.isReleased() || file.isClientClosed()) {
+						return;
+					}
+
+					if (responseRing.write(buffer)) {
+						return;
+					}
+				}
+
+				if (idler == null) {
+					idler = new SpinThenParkIdler();
+				}
+
+				idler.idle();
+			}
+		} catch (IOException e) {
+			if (logger.isErrorEnabled()) {
+				logger.error("写出响应出错: " + file.path, e);
+			}
+		} finally {
+			buffer.release();
+		}
+	}
+
+	void close() {
+		isClosed = true;
+
+		synchronized (writeLock) {
+			if (!file.isReleased()) {
+				file.markServerClosed();
+			}
+		}
+	}
+}
@@ -0,0 +1,334 @@
+package rpc.turbo.transport.shm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * 一个共享内存连接对应的文件，包含客户端到服务端、服务端到客户端两个环形缓冲区
+ * 
+ * <pre>
+ * 0    : magic
+ * 4    : capacity
+ * 8    : 客户端已关闭
+ * 12   : 服务端已关闭
+ * 16   : 服务端心跳时间
+ * 64   : 请求 生产者位置
+ * 128  : 请求 消费者位置
+ * 192  : 响应 生产者位置
+ * 256  : 响应 消费者位置
+ * 4096 : 请求数据区
+ * 4096 + capacity : 响应数据区
+ * </pre>
+ * 
+ * 文件名以创建者的pid开头，进程退出后遗留的文件可以据此清理
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class ShmConnectionFile implements Closeable {
+
+	/** 连接文件后缀 */
+	public static final String SUFFIX = ".shm";
+	/** 服务端存活标记文件 */
+	public static final String ACCEPTOR_FILE = "acceptor";
+	/** 默认每个方向8M */
+	public static final int DEFAULT_CAPACITY = 8 * 1024 * 1024;
+	/** 服务端心跳间隔，包括acceptor文件的修改时间和连接文件中的心跳时间 */
+	public static final long HEARTBEAT_INTERVAL_MILLIS = 1000;
+	/** 超过该时间没有心跳认为服务端已经退出 */
+	public static final long HEARTBEAT_TIMEOUT_MILLIS = 5000;
+
+	private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class,
+			ByteOrder.nativeOrder());
+	private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.nativeOrder());
+
+	private static final int MAGIC = 0x54524230;// TRB0
+	private static final int MAGIC_INDEX = 0;
+	private static final int CAPACITY_INDEX = 4;
+	private static final int CLIENT_CLOSED_INDEX = 8;
+	private static final int SERVER_CLOSED_INDEX = 12;
+	private static final int SERVER_HEARTBEAT_INDEX = 16;
+	private static final int REQUEST_PRODUCER_INDEX = 64;
+	private static final int REQUEST_CONSUMER_INDEX = 128;
+	private static final int RESPONSE_PRODUCER_INDEX = 192;
+	private static final int RESPONSE_CONSUMER_INDEX = 256;
+	private static final int HEADER_SIZE = 4096;
+
+	public final Path path;
+
+	private final MappedByteBuffer mapped;
+	private final ShmRingBuffer requestRing;
+	private final ShmRingBuffer responseRing;
+	private final long createTime = System.currentTimeMillis();
+
+	private volatile boolean released = false;
+
+	private ShmConnectionFile(Path path, MappedByteBuffer mapped, int capacity) {
+		this.path = path;
+		this.mapped = mapped;
+
+		this.requestRing = new ShmRingBuffer(mapped, REQUEST_PRODUCER_INDEX, REQUEST_CONSUMER_INDEX, HEADER_SIZE,
+				capacity);
+		this.responseRing = new ShmRingBuffer(mapped, RESPONSE_PRODUCER_INDEX, RESPONSE_CONSUMER_INDEX,
+				HEADER_SIZE + capacity, capacity);
+	}
+
+	/**
+	 * 共享内存目录，同机的客户端和服务端根据端口约定同一个目录
+	 * 
+	 * @param port
+	 * @return
+	 */
+	public static Path directory(int port) {
+		String base = System.getProperty("turbo.shm.dir");
+
+		if (base == null) {
+			base = Files.isDirectory(Paths.get("/dev/shm")) ? "/dev/shm" : System.getProperty("java.io.tmpdir");
+		}
+
+		return Paths.get(base, "turbo-" + port);
+	}
+
+	/**
+	 * 服务端启动时写入acceptor文件，内容为pid
+	 * 
+	 * @param directory
+	 * @throws IOException
+	 */
+	public static void writeAcceptor(Path directory) throws IOException {
+		String pid = String.valueOf(ProcessHandle.current().pid());
+		Files.write(directory.resolve(ACCEPTOR_FILE), pid.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 服务端定期更新acceptor文件的修改时间作为心跳
+	 * 
+	 * @param directory
+	 * @throws IOException
+	 */
+	public static void touchAcceptor(Path directory) throws IOException {
+		Files.setLastModifiedTime(directory.resolve(ACCEPTOR_FILE), FileTime.fromMillis(System.currentTimeMillis()));
+	}
+
+	/**
+	 * acceptor文件存在、写入的进程存活并且心跳没有超时
+	 * 
+	 * @param directory
+	 * @return
+	 */
+	public static boolean isAcceptorAlive(Path directory) {
+		Path acceptor = directory.resolve(ACCEPTOR_FILE);
+
+		try {
+			String pid = new String(Files.readAllBytes(acceptor), StandardCharsets.UTF_8).trim();
+
+			if (!isProcessAlive(Long.parseLong(pid))) {
+				return false;
+			}
+
+			long lastModified = Files.getLastModifiedTime(acceptor).toMillis();
+			return System.currentTimeMillis() - lastModified < HEARTBEAT_TIMEOUT_MILLIS;
+		} catch (IOException | NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * 删除创建者进程已经退出的连接文件
+	 * 
+	 * @param directory
+	 * @return 删除的文件数量
+	 * @throws IOException
+	 */
+	public static int deleteStale(Path directory) throws IOException {
+		int count = 0;
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX + "*")) {
+			for (Path path : stream) {
+				if (!isOwnerAlive(path) && Files.deleteIfExists(path)) {
+					count++;
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * 创建连接文件的进程是否存活
+	 * 
+	 * @param path
+	 * @return
+	 */
+	public static boolean isOwnerAlive(Path path) {
+		String name = path.getFileName().toString();
+		int index = name.indexOf('-');
+
+		if (index <= 0) {
+			return false;
+		}
+
+		try {
+			return isProcessAlive(Long.parseLong(name.substring(0, index)));
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static boolean isProcessAlive(long pid) {
+		return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+	}
+
+	/**
+	 * 客户端创建连接文件，初始化完成后才原子的重命名为正式文件，服务端不会看到未初始化的文件
+	 * 
+	 * @param directory
+	 * @param id
+	 * @param capacity
+	 *            每个方向的大小，必须为2的幂
+	 * @return
+	 * @throws IOException
+	 */
+	public static ShmConnectionFile create(Path directory, String id, int capacity) throws IOException {
+		Path tmp = directory.resolve(id + SUFFIX + ".tmp");
+		Path path = directory.resolve(id + SUFFIX);
+
+		MappedByteBuffer mapped = map(tmp, HEADER_SIZE + 2L * capacity, true);
+
+		INT_VIEW.setRelease(mapped, CAPACITY_INDEX, capacity);
+		INT_VIEW.setRelease(mapped, MAGIC_INDEX, MAGIC);
+
+		Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+
+		return new ShmConnectionFile(path, mapped, capacity);
+	}
+
+	/**
+	 * 服务端打开客户端创建的连接文件
+	 * 
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static ShmConnectionFile open(Path path) throws IOException {
+		MappedByteBuffer mapped = map(path, Files.size(path), false);
+
+		if ((int) INT_VIEW.getAcquire(mapped, MAGIC_INDEX) != MAGIC) {
+			throw new IOException("not a turbo shared memory file: " + path);
+		}
+
+		int capacity = (int) INT_VIEW.getAcquire(mapped, CAPACITY_INDEX);
+
+		return new ShmConnectionFile(path, mapped, capacity);
+	}
+
+	private static MappedByteBuffer map(Path path, long size, boolean create) throws IOException {
+		StandardOpenOption[] options = create//
+				? new StandardOpenOption[] { StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+						StandardOpenOption.WRITE }//
+				: new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE };
+
+		try (FileChannel channel = FileChannel.open(path, options)) {
+			// 映射在channel关闭后依然有效
+			return channel.map(MapMode.READ_WRITE, 0, size);
+		}
+	}
+
+	/**
+	 * 客户端写，服务端读
+	 * 
+	 * @return
+	 */
+	public ShmRingBuffer requestRing() {
+		return requestRing;
+	}
+
+	/**
+	 * 服务端写，客户端读
+	 * 
+	 * @return
+	 */
+	public ShmRingBuffer responseRing() {
+		return responseRing;
+	}
+
+	public boolean isClientClosed() {
+		return (int) INT_VIEW.getAcquire(mapped, CLIENT_CLOSED_INDEX) != 0;
+	}
+
+	public boolean isServerClosed() {
+		return (int) INT_VIEW.getAcquire(mapped, SERVER_CLOSED_INDEX) != 0;
+	}
+
+	public void markClientClosed() {
+		INT_VIEW.setRelease(mapped, CLIENT_CLOSED_INDEX, 1);
+	}
+
+	public void markServerClosed() {
+		INT_VIEW.setRelease(mapped, SERVER_CLOSED_INDEX, 1);
+	}
+
+	/**
+	 * 服务端读线程定期调用
+	 */
+	public void updateServerHeartbeat() {
+		LONG_VIEW.setRelease(mapped, SERVER_HEARTBEAT_INDEX, System.currentTimeMillis());
+	}
+
+	/**
+	 * 服务端没有关闭并且心跳没有超时，服务端还没有开始心跳时从文件创建时开始计算
+	 * 
+	 * @return
+	 */
+	public boolean isServerAlive() {
+		if (isServerClosed()) {
+			return false;
+		}
+
+		long heartbeat = (long) LONG_VIEW.getAcquire(mapped, SERVER_HEARTBEAT_INDEX);
+		long last = Math.max(heartbeat, createTime);
+
+		return System.currentTimeMillis() - last < HEARTBEAT_TIMEOUT_MILLIS;
+	}
+
+	/**
+	 * 解除内存映射，之后不能再访问该文件的任何方法，由调用方保证没有其他线程正在访问
+	 */
+	public synchronized void release() {
+		if (released) {
+			return;
+		}
+
+		released = true;
+		PlatformDependent.freeDirectBuffer(mapped);
+	}
+
+	public boolean isReleased() {
+		return released;
+	}
+
+	/**
+	 * 删除文件，不解除映射
+	 */
+	@Override
+	public void close() throws IOException {
+		Files.deleteIfExists(path);
+	}
+}
@@ -0,0 +1,187 @@
+package rpc.turbo.transport.shm;
+
+import static rpc.turbo.config.TurboConstants.HEADER_FIELD_LENGTH;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * 基于共享内存的单生产者单消费者环形缓冲区，帧格式与网络传输一致：4字节长度 + 内容，每帧按8字节对齐
+ * 
+ * <pre>
+ * 生产者和消费者的位置为单调递增的long，分别只由一方写入，另一方通过acquire/release语义读取
+ * 尾部剩余空间不足时写入WRAP_MARKER，消费者遇到后跳到缓冲区开头
+ * </pre>
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class ShmRingBuffer {
+
+	private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.nativeOrder());
+
+	private static final int WRAP_MARKER = -1;
+	private static final int ALIGNMENT = 8;
+
+	private final ByteBuffer mapped;
+	private final int producerIndex;
+	private final int consumerIndex;
+
+	private final ByteBuf data;
+	private final int capacity;
+	private final int mask;
+
+	// 仅生产者线程访问
+	private long producerPosition;
+	// 仅消费者线程访问
+	private long consumerPosition;
+
+	/**
+	 * 
+	 * @param mapped
+	 *            映射的内存
+	 * @param producerIndex
+	 *            生产者位置在mapped中的偏移，需要8字节对齐
+	 * @param consumerIndex
+	 *            消费者位置在mapped中的偏移，需要8字节对齐
+	 * @param dataIndex
+	 *            数据区在mapped中的偏移
+	 * @param capacity
+	 *            数据区大小，必须为2的幂
+	 */
+	ShmRingBuffer(ByteBuffer mapped, int producerIndex, int consumerIndex, int dataIndex, int capacity) {
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("capacity must be power of 2: " + capacity);
+		}
+
+		this.mapped = mapped;
+		this.producerIndex = producerIndex;
+		this.consumerIndex = consumerIndex;
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+
+		ByteBuffer dataBuffer = mapped.duplicate();
+		dataBuffer.position(dataIndex).limit(dataIndex + capacity);
+		this.data = Unpooled.wrappedBuffer(dataBuffer.slice());
+
+		this.producerPosition = (long) LONG_VIEW.getAcquire(mapped, producerIndex);
+		this.consumerPosition = (long) LONG_VIEW.getAcquire(mapped, consumerIndex);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * 写入一帧，多个生产者线程时由调用方保证互斥
+	 * 
+	 * @param frame
+	 *            完整的帧，包含4字节长度
+	 * @return 剩余空间不足时返回false
+	 * @throws IOException
+	 *             帧大于缓冲区容量
+	 */
+	public boolean write(ByteBuf frame) throws IOException {
+		final int length = frame.readableBytes();
+		final int need = align(length);
+
+		if (need > capacity) {
+			throw new IOException("frame too large: " + length + ", capacity: " + capacity);
+		}
+
+		long consumer = (long) LONG_VIEW.getAcquire(mapped, consumerIndex);
+		long free = capacity - (producerPosition - consumer);
+		int offset = (int) (producerPosition & mask);
+		int tail = capacity - offset;
+
+		if (tail < need) {// 尾部连续空间不足，从头开始写
+			if (free < tail + need) {
+				return false;
+			}
+
+			data.setInt(offset, WRAP_MARKER);
+			publishProducer(producerPosition + tail);
+
+			offset = 0;
+			free -= tail;
+		}
+
+		if (free < need) {
+			return false;
+		}
+
+		data.setBytes(offset, frame, frame.readerIndex(), length);
+		publishProducer(producerPosition + need);
+
+		return true;
+	}
+
+	/**
+	 * 读取一帧，读取完成后立即释放空间，reader中不能保留frame的引用
+	 * 
+	 * @param reader
+	 * @return 是否读到了数据
+	 * @throws IOException
+	 */
+	public boolean read(FrameReader reader) throws IOException {
+		long producer = (long) LONG_VIEW.getAcquire(mapped, producerIndex);
+
+		if (producer == consumerPosition) {
+			return false;
+		}
+
+		int offset = (int) (consumerPosition & mask);
+		int length = data.getInt(offset);
+
+		if (length == WRAP_MARKER) {
+			publishConsumer(consumerPosition + capacity - offset);
+
+			if (producer == consumerPosition) {
+				return false;
+			}
+
+			offset = 0;
+			length = data.getInt(offset);
+		}
+
+		try {
+			reader.read(data.slice(offset + HEADER_FIELD_LENGTH, length));
+		} finally {
+			publishConsumer(consumerPosition + align(HEADER_FIELD_LENGTH + length));
+		}
+
+		return true;
+	}
+
+	private void publishProducer(long position) {
+		producerPosition = position;
+		LONG_VIEW.setRelease(mapped, producerIndex, position);
+	}
+
+	private void publishConsumer(long position) {
+		consumerPosition = position;
+		LONG_VIEW.setRelease(mapped, consumerIndex, position);
+	}
+
+	private static int align(int length) {
+		return (length + ALIGNMENT - 1) & -ALIGNMENT;
+	}
+
+	@FunctionalInterface
+	public static interface FrameReader {
+		/**
+		 * 
+		 * @param frame
+		 *            不含长度的帧内容
+		 * @throws IOException
+		 */
+		void read(ByteBuf frame) throws IOException;
+	}
+}
@@ -0,0 +1,43 @@
+package rpc.turbo.transport.shm;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 跨进程无法唤醒，不依赖futex：先自旋，再让出cpu，最后逐步加长park时间
+ * 
+ * @author zhushimmer
+ *
+ */
+public final class SpinThenParkIdler {
+	private static final int MAX_SPINS = 1000;
+	private static final int MAX_YIELDS = MAX_SPINS + 100;
+	private static final long MIN_PARK_NANOS = 1000L;
+	private static final long MAX_PARK_NANOS = 1000L * 1000L;
+
+	private int idleCount = 0;
+	private long parkNanos = MIN_PARK_NANOS;
+
+	/**
+	 * 没有数据时调用
+	 */
+	public void idle() {
+		if (idleCount < MAX_SPINS) {
+			idleCount++;
+			Thread.onSpinWait();
+		} else if (idleCount < MAX_YIELDS) {
+			idleCount++;
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(parkNanos);
+			parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+		}
+	}
+
+	/**
+	 * 有数据时调用
+	 */
+	public void reset() {
+		idleCount = 0;
+		parkNanos = MIN_PARK_NANOS;
+	}
+}
@@ -0,0 +1,166 @@
+package rpc.turbo.invoke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import rpc.turbo.annotation.TurboBatched;
+import rpc.turbo.param.MethodParam;
+
+public class BatchGathererTest {
+
+	public static interface UserService {
+		@TurboBatched(method = "getUsers", windowMicros = 50_000, maxBatch = 1000)
+		CompletableFuture<String> getUser(long id);
+
+		@TurboBatched(method = "getUsers", windowMicros = 60_000_000, maxBatch = 4)
+		CompletableFuture<String> getUserFull(long id);
+
+		@TurboBatched(method = "getNames", windowMicros = 10_000)
+		CompletableFuture<String> getName(long id);
+
+		@TurboBatched(method = "getFailed", windowMicros = 10_000)
+		CompletableFuture<String> getFailed(long id);
+
+		@TurboBatched(method = "getNotExists")
+		CompletableFuture<String> getNotExists(long id);
+	}
+
+	public static class UserServiceImpl {
+		final List<long[]> batches = new CopyOnWriteArrayList<>();
+		final List<String> threads = new CopyOnWriteArrayList<>();
+
+		public CompletableFuture<Map<Long, String>> getUsers(long[] ids) {
+			batches.add(ids);
+			threads.add(Thread.currentThread().getName());
+
+			Map<Long, String> users = new HashMap<>();
+			for (long id : ids) {
+				users.put(id, "user" + id);
+			}
+
+			return CompletableFuture.completedFuture(users);
+		}
+
+		public CompletableFuture<List<String>> getNames(List<Long> ids) {
+			List<String> names = new ArrayList<>();
+			for (Long id : ids) {
+				names.add("name" + id);
+			}
+
+			return CompletableFuture.completedFuture(names);
+		}
+
+		public CompletableFuture<List<String>> getFailed(long[] ids) {
+			return CompletableFuture.failedFuture(new IllegalStateException("batch error"));
+		}
+	}
+
+	public static class IdMethodParam implements MethodParam {
+		private final long id;
+
+		public IdMethodParam(long id) {
+			this.id = id;
+		}
+
+		public long $param0() {
+			return id;
+		}
+	}
+
+	private static BatchGatherer gatherer(UserServiceImpl service, String methodName) throws Exception {
+		Method method = UserService.class.getMethod(methodName, long.class);
+		TurboBatched config = method.getAnnotation(TurboBatched.class);
+
+		return new BatchGatherer(methodName, service, method, IdMethodParam.class, config);
+	}
+
+	@Test
+	public void gatherInWindow() throws Exception {
+		UserServiceImpl service = new UserServiceImpl();
+		BatchGatherer gatherer = gatherer(service, "getUser");
+
+		List<CompletableFuture<?>> futures = new ArrayList<>();
+		for (long id = 0; id < 10; id++) {
+			futures.add(gatherer.submit(new IdMethodParam(id)));
+		}
+
+		for (int i = 0; i < futures.size(); i++) {
+			assertEquals("user" + i, futures.get(i).get(5, TimeUnit.SECONDS));
+		}
+
+		assertEquals(1, service.batches.size());
+		assertEquals(10, service.batches.get(0).length);
+		assertEquals(1, gatherer.getBatchCount());
+		assertEquals(10, gatherer.getRequestCount());
+	}
+
+	@Test
+	public void flushWhenFull() throws Exception {
+		UserServiceImpl service = new UserServiceImpl();
+		BatchGatherer gatherer = gatherer(service, "getUserFull");
+
+		List<CompletableFuture<?>> futures = new ArrayList<>();
+		for (long id = 0; id < 9; id++) {
+			futures.add(gatherer.submit(id));
+		}
+
+		// 满了之后在提交的线程中立即调用，不等待时间窗口
+		for (int i = 0; i < 8; i++) {
+			assertTrue(futures.get(i).isDone());
+			assertEquals("user" + i, futures.get(i).join());
+		}
+
+		assertEquals(false, futures.get(8).isDone());
+		assertEquals(2, service.batches.size());
+		assertTrue(Arrays.equals(new long[] { 4, 5, 6, 7 }, service.batches.get(1)));
+		assertEquals(Thread.currentThread().getName(), service.threads.get(0));
+	}
+
+	@Test
+	public void scatterByPosition() throws Exception {
+		BatchGatherer gatherer = gatherer(new UserServiceImpl(), "getName");
+
+		List<CompletableFuture<?>> futures = new ArrayList<>();
+		for (long id = 0; id < 5; id++) {
+			futures.add(gatherer.submit(new IdMethodParam(id)));
+		}
+
+		for (int i = 0; i < futures.size(); i++) {
+			assertEquals("name" + i, futures.get(i).get(5, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void failAll() throws Exception {
+		BatchGatherer gatherer = gatherer(new UserServiceImpl(), "getFailed");
+
+		CompletableFuture<?> first = gatherer.submit(new IdMethodParam(1));
+		CompletableFuture<?> second = gatherer.submit(new IdMethodParam(2));
+
+		CompletionException e0 = assertThrows(CompletionException.class, first::join);
+		CompletionException e1 = assertThrows(CompletionException.class, second::join);
+
+		assertTrue(e0.getCause() instanceof IllegalStateException);
+		assertTrue(e1.getCause() instanceof IllegalStateException);
+	}
+
+	@Test
+	public void batchMethodNotFound() {
+		assertThrows(InvokeException.class, () -> gatherer(new UserServiceImpl(), "getNotExists"));
+	}
+
+}
@@ -0,0 +1,128 @@
+package rpc.turbo.invoke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import rpc.turbo.param.KeyMethodParam;
+
+public class ResultCacheTest {
+
+	@Test
+	public void concurrentLoadOnce() throws Exception {
+		ResultCache cache = new ResultCache("test", 60_000, 100);
+		AtomicInteger loadCount = new AtomicInteger();
+		CompletableFuture<String> remote = new CompletableFuture<>();
+
+		int threads = 16;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+			List<Future<CompletableFuture<String>>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return cache.<CompletableFuture<String>>get(new KeyMethodParam("a"), param -> {
+						loadCount.incrementAndGet();
+						return remote;
+					});
+				}));
+			}
+
+			start.countDown();
+
+			for (Future<CompletableFuture<String>> result : results) {
+				assertSame(remote, result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, loadCount.get());
+
+		remote.complete("value");
+
+		CompletableFuture<String> cached = cache.get(new KeyMethodParam("a"), param -> {
+			throw new AssertionError("should hit cache");
+		});
+
+		assertEquals("value", cached.join());
+		assertEquals(1, cache.getSize());
+		assertEquals(1, cache.getStats().loadCount());
+	}
+
+	@Test
+	public void failureNotCached() {
+		ResultCache cache = new ResultCache("test", 60_000, 100);
+		AtomicInteger loadCount = new AtomicInteger();
+
+		CompletableFuture<String> failed = cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			return CompletableFuture.failedFuture(new IllegalStateException());
+		});
+
+		assertTrue(failed.isCompletedExceptionally());
+
+		CompletableFuture<String> nullResult = cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			return CompletableFuture.completedFuture(null);
+		});
+
+		assertEquals(null, nullResult.join());
+
+		CompletableFuture<String> value = cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			return CompletableFuture.completedFuture("value");
+		});
+
+		assertEquals("value", value.join());
+		assertEquals(3, loadCount.get());
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void loaderException() {
+		ResultCache cache = new ResultCache("test", 60_000, 100);
+
+		assertThrows(IllegalStateException.class, () -> cache.get(new KeyMethodParam("a"), param -> {
+			throw new IllegalStateException();
+		}));
+
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void estimatedBytes() {
+		ResultCache cache = new ResultCache("test", 60_000, 100);
+		cache.setWeigher(value -> ((String) value).length());
+
+		cache.get(new KeyMethodParam("a"), param -> CompletableFuture.completedFuture("12345"));
+		cache.get(new KeyMethodParam("b"), param -> CompletableFuture.completedFuture("123"));
+
+		assertEquals(8, cache.getEstimatedBytes());
+
+		cache.invalidateAll();
+
+		assertEquals(0, cache.getEstimatedBytes());
+	}
+
+	@Test
+	public void illegalArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new ResultCache("test", 0, 100));
+		assertThrows(IllegalArgumentException.class, () -> new ResultCache("test", 100, 0));
+	}
+
+}
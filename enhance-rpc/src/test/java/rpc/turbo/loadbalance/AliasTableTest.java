@@ -0,0 +1,60 @@
+package rpc.turbo.loadbalance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class AliasTableTest {
+
+	@Test
+	public void selectByWeight() {
+		List<WeightBean> beans = List.of(new WeightBean("a", 1), new WeightBean("b", 2), new WeightBean("c", 3),
+				new WeightBean("d", 4));
+		AliasTable<WeightBean> table = new WeightableGroup<>(beans).aliasTable();
+
+		int times = 200_000;
+		Map<WeightBean, Integer> counts = new HashMap<>();
+		for (int i = 0; i < times; i++) {
+			counts.merge(table.select(), 1, Integer::sum);
+		}
+
+		for (WeightBean bean : beans) {
+			double expected = bean.weight() / 10.0;
+			double actual = counts.getOrDefault(bean, 0) / (double) times;
+
+			assertEquals(expected, actual, 0.01, bean.toString());
+		}
+	}
+
+	@Test
+	public void gcdWeights() {
+		// 约分后为1:1，两个元素各占一半
+		List<WeightBean> beans = List.of(new WeightBean("a", 100), new WeightBean("b", 100));
+		AliasTable<WeightBean> table = new WeightableGroup<>(beans).aliasTable();
+
+		int times = 100_000;
+		int countA = 0;
+		for (int i = 0; i < times; i++) {
+			if (table.select() == beans.get(0)) {
+				countA++;
+			}
+		}
+
+		assertEquals(0.5, countA / (double) times, 0.01);
+	}
+
+	@Test
+	public void singleAndEmpty() {
+		WeightBean bean = new WeightBean("a", 7);
+
+		assertSame(bean, new WeightableGroup<>(List.of(bean)).aliasTable().select());
+		assertNull(new WeightableGroup<WeightBean>(List.of()).aliasTable().select());
+	}
+
+}
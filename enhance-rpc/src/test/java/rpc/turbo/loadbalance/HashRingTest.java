@@ -0,0 +1,139 @@
+package rpc.turbo.loadbalance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class HashRingTest {
+
+	private static final int KEYS = 100_000;
+
+	private static List<WeightBean> beans(int count) {
+		List<WeightBean> beans = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			beans.add(new WeightBean("127.0.0.1:" + (8000 + i), 100));
+		}
+
+		return beans;
+	}
+
+	@Test
+	public void balance() {
+		List<WeightBean> beans = beans(8);
+		HashRing<WeightBean> ring = HashRing.build(beans, null);
+
+		Map<WeightBean, Integer> counts = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			counts.merge(ring.get("key-" + i), 1, Integer::sum);
+		}
+
+		assertEquals(8, ring.size());
+		assertEquals(8, counts.size());
+
+		// 160个虚拟节点，每个元素的偏差在平均值的30%以内
+		double average = KEYS / 8.0;
+		for (WeightBean bean : beans) {
+			assertEquals(average, counts.get(bean), average * 0.3, bean.toString());
+		}
+	}
+
+	@Test
+	public void weighted() {
+		WeightBean light = new WeightBean("light", 100);
+		WeightBean heavy = new WeightBean("heavy", 300);
+		HashRing<WeightBean> ring = HashRing.build(List.of(light, heavy), null);
+
+		int countHeavy = 0;
+		for (int i = 0; i < KEYS; i++) {
+			if (ring.get(i) == heavy) {
+				countHeavy++;
+			}
+		}
+
+		assertEquals(0.75, countHeavy / (double) KEYS, 0.05);
+	}
+
+	@Test
+	public void minimalRemap() {
+		List<WeightBean> beans = beans(10);
+		HashRing<WeightBean> ring = HashRing.build(beans, null);
+
+		// 增加一个元素，只有落到新元素上的key发生迁移
+		List<WeightBean> grown = new ArrayList<>(beans);
+		WeightBean added = new WeightBean("127.0.0.1:9000", 100);
+		grown.add(added);
+		HashRing<WeightBean> grownRing = HashRing.build(grown, ring);
+
+		int moved = 0;
+		for (int i = 0; i < KEYS; i++) {
+			WeightBean before = ring.get(i);
+			WeightBean after = grownRing.get(i);
+
+			if (before != after) {
+				assertSame(added, after);
+				moved++;
+			}
+		}
+
+		assertEquals(KEYS / 11.0, moved, KEYS / 11.0 * 0.3);
+
+		// 移除一个元素，只有原来落在该元素上的key发生迁移
+		List<WeightBean> shrunk = new ArrayList<>(beans);
+		WeightBean removed = shrunk.remove(3);
+		HashRing<WeightBean> shrunkRing = HashRing.build(shrunk, ring);
+
+		for (int i = 0; i < KEYS; i++) {
+			WeightBean before = ring.get(i);
+
+			if (before != removed) {
+				assertSame(before, shrunkRing.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void incrementalSameAsFresh() {
+		List<WeightBean> beans = beans(6);
+		HashRing<WeightBean> ring = HashRing.build(beans, null);
+
+		// 新增、删除、修改权重同时发生
+		List<WeightBean> changed = new ArrayList<>(beans);
+		changed.remove(0);
+		changed.set(2, new WeightBean(changed.get(2).identity(), 200));
+		changed.add(new WeightBean("127.0.0.1:9000", 50));
+
+		HashRing<WeightBean> incremental = HashRing.build(changed, ring);
+		HashRing<WeightBean> fresh = HashRing.build(changed, null);
+
+		assertEquals(fresh.size(), incremental.size());
+		for (int i = 0; i < KEYS; i++) {
+			assertSame(fresh.get(i), incremental.get(i));
+		}
+	}
+
+	@Test
+	public void empty() {
+		HashRing<WeightBean> ring = HashRing.build(List.of(), null);
+
+		assertEquals(0, ring.size());
+		assertNull(ring.get("key"));
+	}
+
+	@Test
+	public void nullKey() {
+		HashRing<WeightBean> ring = HashRing.build(beans(3), null);
+
+		assertTrue(ring.get(null) != null);
+		assertSame(ring.get(null), ring.get(null));
+	}
+
+}
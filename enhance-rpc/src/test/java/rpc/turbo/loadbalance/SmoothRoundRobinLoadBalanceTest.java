@@ -0,0 +1,86 @@
+package rpc.turbo.loadbalance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class SmoothRoundRobinLoadBalanceTest {
+
+	@Test
+	public void sameAsNginx() {
+		WeightBean a = new WeightBean("a", 5);
+		WeightBean b = new WeightBean("b", 1);
+		WeightBean c = new WeightBean("c", 1);
+
+		WeightableGroup<WeightBean> group = new WeightableGroup<>(List.of(a, b, c));
+
+		// nginx smooth weighted round-robin: { a, a, b, a, c, a, a }
+		List<WeightBean> expected = List.of(a, a, b, a, c, a, a);
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i), group.smoothSelect(round * expected.size() + i));
+			}
+		}
+	}
+
+	@Test
+	public void exactCountsPerCycle() {
+		List<WeightBean> beans = List.of(new WeightBean("a", 10), new WeightBean("b", 20), new WeightBean("c", 30),
+				new WeightBean("d", 40));
+
+		SmoothRoundRobinLoadBalance<WeightBean> loadBalance = new SmoothRoundRobinLoadBalance<>();
+		loadBalance.setWeightables(beans);
+
+		// 约分后一个周期长度为10
+		Map<WeightBean, Integer> counts = new HashMap<>();
+		for (int i = 0; i < 10 * 100; i++) {
+			counts.merge(loadBalance.select(), 1, Integer::sum);
+		}
+
+		for (WeightBean bean : beans) {
+			assertEquals(bean.weight() * 10, counts.get(bean).intValue(), bean.toString());
+		}
+	}
+
+	@Test
+	public void spreadHighWeight() {
+		WeightBean heavy = new WeightBean("heavy", 3);
+		WeightBean light = new WeightBean("light", 1);
+		WeightableGroup<WeightBean> group = new WeightableGroup<>(List.of(heavy, light));
+
+		// 平滑后为 heavy heavy light heavy，light前面总是heavy
+		WeightBean previous = null;
+		for (int i = 0; i < 400; i++) {
+			WeightBean current = group.smoothSelect(i);
+
+			if (current == light) {
+				assertEquals(heavy, previous, "index: " + i);
+			}
+
+			previous = current;
+		}
+	}
+
+	@Test
+	public void longCycleIsScaled() {
+		// 权重之和超过一个周期的最大长度时按比例缩小
+		WeightBean a = new WeightBean("a", 30_001);
+		WeightBean b = new WeightBean("b", 10_000);
+		WeightableGroup<WeightBean> group = new WeightableGroup<>(List.of(a, b));
+
+		int times = 1 << 16;
+		int countA = 0;
+		for (int i = 0; i < times; i++) {
+			if (group.smoothSelect(i) == a) {
+				countA++;
+			}
+		}
+
+		assertEquals(0.75, countA / (double) times, 0.01);
+	}
+
+}
@@ -0,0 +1,57 @@
+package rpc.turbo.loadbalance;
+
+public class WeightBean implements Weightable {
+	private final String name;
+	private final int weight;
+	private final String zone;
+	private volatile float weightRatio = 1F;
+	private volatile int inflight;
+
+	public WeightBean(String name, int weight) {
+		this(name, weight, null);
+	}
+
+	public WeightBean(String name, int weight, String zone) {
+		this.name = name;
+		this.weight = weight;
+		this.zone = zone;
+	}
+
+	@Override
+	public int weight() {
+		return weight;
+	}
+
+	@Override
+	public float weightRatio() {
+		return weightRatio;
+	}
+
+	public void setWeightRatio(float weightRatio) {
+		this.weightRatio = weightRatio;
+	}
+
+	@Override
+	public String identity() {
+		return name;
+	}
+
+	@Override
+	public String zone() {
+		return zone;
+	}
+
+	@Override
+	public int inflight() {
+		return inflight;
+	}
+
+	public void setInflight(int inflight) {
+		this.inflight = inflight;
+	}
+
+	@Override
+	public String toString() {
+		return name + ":" + weight;
+	}
+}
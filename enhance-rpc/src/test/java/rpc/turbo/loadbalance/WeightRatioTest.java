@@ -0,0 +1,83 @@
+package rpc.turbo.loadbalance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 验证{@link WeightableGroup#MAX_SELECT_TIMES}截断后按weightRatio分配的流量
+ */
+public class WeightRatioTest {
+
+	private static final int TIMES = 200_000;
+
+	@Test
+	public void twoEqualMembers() {
+		// 约分后weightSum为1，同样需要均匀分配
+		List<WeightBean> beans = List.of(new WeightBean("a", 100), new WeightBean("b", 100));
+
+		assertEquals(0.5, share(new RandomLoadBalance<>(), beans, beans.get(1)), 0.01);
+		assertEquals(0.5, share(new RoundRobinLoadBalance<>(), beans, beans.get(1)), 0.01);
+		assertEquals(0.5, share(new AliasRandomLoadBalance<>(), beans, beans.get(1)), 0.01);
+	}
+
+	@Test
+	public void oneRamping() {
+		WeightBean a = new WeightBean("a", 100);
+		WeightBean b = new WeightBean("b", 100);
+		b.setWeightRatio(0.25F);
+		List<WeightBean> beans = List.of(a, b);
+
+		// 理想占比 0.25 / 1.25 = 20%，截断后约21.6%
+		assertEquals(0.216, share(new RandomLoadBalance<>(), beans, b), 0.01);
+		assertEquals(0.216, share(new AliasRandomLoadBalance<>(), beans, b), 0.01);
+	}
+
+	@Test
+	public void mostRamping() {
+		WeightBean a = new WeightBean("a", 100);
+		List<WeightBean> ramping = new ArrayList<>();
+		for (int i = 0; i < 9; i++) {
+			WeightBean bean = new WeightBean("r" + i, 100);
+			bean.setWeightRatio(0.1F);
+			ramping.add(bean);
+		}
+
+		List<WeightBean> beans = new ArrayList<>(ramping);
+		beans.add(a);
+
+		// 理想占比 0.9 / 1.9 = 47.4%，截断后约70%
+		assertEquals(0.30, share(new RandomLoadBalance<>(), beans, a), 0.01);
+		assertEquals(0.30, share(new AliasRandomLoadBalance<>(), beans, a), 0.01);
+	}
+
+	@Test
+	public void sameRatio() {
+		// 比例都相同时退化为按weight分配
+		WeightBean a = new WeightBean("a", 1);
+		WeightBean b = new WeightBean("b", 3);
+		a.setWeightRatio(0.5F);
+		b.setWeightRatio(0.5F);
+		List<WeightBean> beans = List.of(a, b);
+
+		assertEquals(0.25, share(new RandomLoadBalance<>(), beans, a), 0.01);
+		assertEquals(0.25, share(new AliasRandomLoadBalance<>(), beans, a), 0.01);
+	}
+
+	private static double share(LoadBalance<WeightBean> loadBalance, List<WeightBean> beans, WeightBean target) {
+		loadBalance.setWeightables(beans);
+
+		int count = 0;
+		for (int i = 0; i < TIMES; i++) {
+			if (loadBalance.select() == target) {
+				count++;
+			}
+		}
+
+		return count / (double) TIMES;
+	}
+
+}
@@ -0,0 +1,123 @@
+package rpc.turbo.loadbalance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class ZoneAwareLoadBalanceTest {
+
+	private static final int TIMES = 100_000;
+
+	private final WeightBean local1 = new WeightBean("local1", 100, "a");
+	private final WeightBean local2 = new WeightBean("local2", 100, "a");
+	private final WeightBean remote1 = new WeightBean("remote1", 100, "b");
+	private final WeightBean remote2 = new WeightBean("remote2", 100, null);
+
+	private final List<WeightBean> beans = List.of(local1, remote1, local2, remote2);
+
+	@Test
+	public void preferLocalZone() {
+		ZoneAwareLoadBalance<WeightBean> loadBalance = create("a");
+		loadBalance.setWeightables(beans);
+
+		assertEquals(0F, loadBalance.spillRatio());
+		assertEquals(0, remoteShare(loadBalance), 0);
+	}
+
+	@Test
+	public void noLocalZone() {
+		ZoneAwareLoadBalance<WeightBean> loadBalance = create("c");
+		loadBalance.setWeightables(beans);
+
+		// 其他区域的所有元素按权重分配
+		Map<WeightBean, Integer> counts = new HashMap<>();
+		for (int i = 0; i < TIMES; i++) {
+			counts.merge(loadBalance.select(), 1, Integer::sum);
+		}
+
+		for (WeightBean bean : beans) {
+			assertEquals(0.25, counts.getOrDefault(bean, 0) / (double) TIMES, 0.01, bean.toString());
+		}
+	}
+
+	@Test
+	public void spillWhenLocalIsUnhealthy() {
+		local1.setWeightRatio(0.4F);
+		local2.setWeightRatio(0.4F);
+
+		ZoneAwareLoadBalance<WeightBean> loadBalance = create("a");
+		loadBalance.setWeightables(beans);
+
+		// 1 - 0.4 / HEALTHY_RATIO
+		assertEquals(0.5F, loadBalance.spillRatio(), 1e-6F);
+		assertEquals(0.5, remoteShare(loadBalance), 0.01);
+	}
+
+	@Test
+	public void spillWhenLocalIsOverloaded() {
+		local1.setInflight(30);
+		local2.setInflight(30);
+		remote1.setInflight(2);
+		remote2.setInflight(2);
+
+		ZoneAwareLoadBalance<WeightBean> loadBalance = create("a");
+		loadBalance.setWeightables(beans);
+
+		// 单位权重的在途请求数是其他区域的15倍，溢出比例受MAX_LOAD_SPILL_RATIO限制
+		assertEquals(ZoneAwareLoadBalance.MAX_LOAD_SPILL_RATIO, loadBalance.spillRatio());
+		assertEquals(ZoneAwareLoadBalance.MAX_LOAD_SPILL_RATIO, remoteShare(loadBalance), 0.01);
+
+		// 超出不多时只溢出超出的部分: 1 - 1.5 * 0.02 / 0.04
+		local1.setInflight(4);
+		local2.setInflight(4);
+		loadBalance.setWeightables(beans);
+
+		assertEquals(0.25F, loadBalance.spillRatio(), 1e-6F);
+	}
+
+	@Test
+	public void notSpillWhenLightlyLoaded() {
+		// 同区域平均在途请求数很少，跨区域的额外延迟不值得
+		local1.setInflight(1);
+		local2.setInflight(1);
+
+		ZoneAwareLoadBalance<WeightBean> loadBalance = create("a");
+		loadBalance.setWeightables(beans);
+
+		assertEquals(0F, loadBalance.spillRatio());
+	}
+
+	@Test
+	public void sharedPartition() {
+		WeightableGroup<WeightBean> group = new WeightableGroup<>(beans);
+		WeightableGroup.ZonePartition<WeightBean> partition = group.zonePartition("a");
+
+		assertSame(partition, group.zonePartition("a"));
+		assertEquals(List.of(local1, local2), partition.local.weightables());
+		// 未设置区域的元素属于其他区域
+		assertEquals(List.of(remote1, remote2), partition.remote.weightables());
+	}
+
+	private static ZoneAwareLoadBalance<WeightBean> create(String zone) {
+		return new ZoneAwareLoadBalance<>(zone, new RandomLoadBalance<>(), new RandomLoadBalance<>());
+	}
+
+	private double remoteShare(LoadBalance<WeightBean> loadBalance) {
+		int count = 0;
+		for (int i = 0; i < TIMES; i++) {
+			WeightBean selected = loadBalance.select();
+
+			if (selected == remote1 || selected == remote2) {
+				count++;
+			}
+		}
+
+		return count / (double) TIMES;
+	}
+
+}
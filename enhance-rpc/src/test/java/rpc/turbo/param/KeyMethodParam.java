@@ -0,0 +1,38 @@
+package rpc.turbo.param;
+
+import java.util.Objects;
+
+public class KeyMethodParam implements MethodParam {
+	private final Object key;
+
+	public KeyMethodParam(Object key) {
+		this.key = key;
+	}
+
+	public Object $param0() {
+		return key;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(key);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof KeyMethodParam)) {
+			return false;
+		}
+
+		return Objects.equals(key, ((KeyMethodParam) obj).key);
+	}
+
+	@Override
+	public String toString() {
+		return "KeyMethodParam{key=" + key + "}";
+	}
+}
@@ -0,0 +1,159 @@
+package rpc.turbo.remote;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import rpc.turbo.param.KeyMethodParam;
+
+public class RemoteResultCacheTest {
+
+	@Test
+	public void concurrentMissLoadOnce() {
+		RemoteResultCache cache = new RemoteResultCache("test", 60_000, 100, 0, 0);
+		AtomicInteger loadCount = new AtomicInteger();
+		CompletableFuture<Object> remote = new CompletableFuture<>();
+
+		CompletableFuture<?> first = cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			return remote;
+		});
+
+		CompletableFuture<?> second = cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			return remote;
+		});
+
+		assertSame(first, second);
+		assertEquals(1, loadCount.get());
+
+		remote.complete("value");
+
+		assertEquals("value", first.join());
+		assertEquals("value", cache.get(new KeyMethodParam("a"), param -> {
+			throw new AssertionError("should hit cache");
+		}).join());
+
+		assertEquals(1, cache.getLoadCount());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void failureNotCached() {
+		RemoteResultCache cache = new RemoteResultCache("test", 60_000, 100, 0, 0);
+		AtomicInteger loadCount = new AtomicInteger();
+
+		CompletableFuture<?> failed = cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			return CompletableFuture.failedFuture(new IllegalStateException());
+		});
+
+		assertThrows(CompletionException.class, failed::join);
+		assertEquals(0, cache.getSize());
+
+		CompletableFuture<?> thrown = cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			throw new IllegalStateException();
+		});
+
+		assertThrows(CompletionException.class, thrown::join);
+		assertEquals(0, cache.getSize());
+
+		CompletableFuture<?> value = cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			return CompletableFuture.completedFuture("value");
+		});
+
+		assertEquals("value", value.join());
+		assertEquals(3, loadCount.get());
+		assertEquals(2, cache.getLoadFailureCount());
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void staleWhileRevalidate() throws Exception {
+		RemoteResultCache cache = new RemoteResultCache("test", 100, 100, 0, 60_000);
+		AtomicInteger version = new AtomicInteger();
+		CompletableFuture<Object> refresh = new CompletableFuture<>();
+
+		cache.get(new KeyMethodParam("a"), param -> CompletableFuture.completedFuture("v" + version.get())).join();
+
+		Thread.sleep(300);
+
+		// 过期后返回旧值，同时只发起一次刷新
+		AtomicInteger loadCount = new AtomicInteger();
+		for (int i = 0; i < 10; i++) {
+			CompletableFuture<?> stale = cache.get(new KeyMethodParam("a"), param -> {
+				loadCount.incrementAndGet();
+				return refresh;
+			});
+
+			assertEquals("v0", stale.join());
+		}
+
+		assertEquals(1, loadCount.get());
+		assertEquals(10, cache.getStaleHitCount());
+
+		refresh.complete("v1");
+
+		assertEquals("v1", cache.get(new KeyMethodParam("a"), param -> {
+			throw new AssertionError("should hit cache");
+		}).join());
+	}
+
+	@Test
+	public void refreshFailureKeepsStaleValue() throws Exception {
+		RemoteResultCache cache = new RemoteResultCache("test", 100, 100, 0, 60_000);
+
+		cache.get(new KeyMethodParam("a"), param -> CompletableFuture.completedFuture("v0")).join();
+
+		Thread.sleep(300);
+
+		CompletableFuture<?> stale = cache.get(new KeyMethodParam("a"),
+				param -> CompletableFuture.failedFuture(new IllegalStateException()));
+
+		assertEquals("v0", stale.join());
+		assertEquals(1, cache.getLoadFailureCount());
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void refreshAhead() throws Exception {
+		RemoteResultCache cache = new RemoteResultCache("test", 60_000, 100, 100, 0);
+		AtomicInteger loadCount = new AtomicInteger();
+
+		cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			return CompletableFuture.completedFuture("v0");
+		}).join();
+
+		Thread.sleep(300);
+
+		// 仍然有效，命中的同时异步刷新
+		CompletableFuture<?> hit = cache.get(new KeyMethodParam("a"), param -> {
+			loadCount.incrementAndGet();
+			return CompletableFuture.completedFuture("v1");
+		});
+
+		assertEquals("v0", hit.join());
+		assertEquals(2, loadCount.get());
+		assertEquals("v1", cache.get(new KeyMethodParam("a"), param -> {
+			throw new AssertionError("should hit cache");
+		}).join());
+		assertTrue(cache.getHitCount() >= 2);
+	}
+
+	@Test
+	public void illegalArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new RemoteResultCache("test", 0, 100, 0, 0));
+		assertThrows(IllegalArgumentException.class, () -> new RemoteResultCache("test", 100, 0, 0, 0));
+	}
+
+}
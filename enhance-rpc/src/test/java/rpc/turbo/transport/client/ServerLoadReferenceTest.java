@@ -0,0 +1,125 @@
+package rpc.turbo.transport.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import rpc.turbo.loadbalance.AliasRandomLoadBalance;
+import rpc.turbo.loadbalance.LoadBalance;
+import rpc.turbo.loadbalance.Weightable;
+import rpc.turbo.protocol.ServerLoad;
+
+public class ServerLoadReferenceTest {
+
+	@Test
+	public void concurrentUpdateKeepsEverySample() throws Exception {
+		// 相同样本更新n次的结果只与n有关，步数较少时还未收敛，丢失任何一次更新都会使结果不同
+		int threads = 4;
+		int times = 100;
+
+		ServerLoadReference serial = new ServerLoadReference();
+		serial.update(1);
+		for (int i = 0; i < threads * times; i++) {
+			serial.update(2);
+		}
+
+		ServerLoadReference concurrent = new ServerLoadReference();
+		concurrent.update(1);
+
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		for (int i = 0; i < threads; i++) {
+			new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+
+				for (int j = 0; j < times; j++) {
+					concurrent.update(2);
+				}
+
+				done.countDown();
+			}).start();
+		}
+
+		start.countDown();
+		done.await();
+
+		assertTrue(serial.averageScore() < 2);
+		assertEquals(serial.averageScore(), concurrent.averageScore(), 0);
+	}
+
+	@Test
+	public void loadRatio() {
+		ServerLoadReference reference = new ServerLoadReference();
+		reference.update(100);
+
+		assertEquals(1F, reference.loadRatio(0));// 未知
+		assertEquals(1F, reference.loadRatio(50));// 低于平均
+		assertEquals(1F, reference.loadRatio(100));
+		assertEquals(0.5F, reference.loadRatio(200));
+		assertEquals(ServerLoadReference.MIN_LOAD_RATIO, reference.loadRatio(100_000));
+	}
+
+	@Test
+	public void loadedServerGetsLessTraffic() {
+		// 两台服务器耗时相同，loaded处理中的请求多3倍
+		long idleLoad = ServerLoad.pack(0, 0, 1000);
+		long busyLoad = ServerLoad.pack(3, 0, 1000);
+
+		ServerLoadReference reference = new ServerLoadReference();
+		for (int i = 0; i < 1000; i++) {
+			reference.update(ServerLoad.score(idleLoad));
+			reference.update(ServerLoad.score(busyLoad));
+		}
+
+		// 平均评分约为2500(交替更新略偏向最后的样本)，busy为4000
+		Server idle = new Server(reference.loadRatio(ServerLoad.score(idleLoad)));
+		Server busy = new Server(reference.loadRatio(ServerLoad.score(busyLoad)));
+
+		assertEquals(1F, idle.weightRatio());
+		assertEquals(reference.averageScore() / 4000, busy.weightRatio(), 1e-6);
+		assertTrue(busy.weightRatio() < 0.65F);
+
+		LoadBalance<Server> loadBalance = new AliasRandomLoadBalance<>();
+		loadBalance.setWeightables(List.of(idle, busy));
+
+		int times = 200_000;
+		int busyCount = 0;
+		for (int i = 0; i < times; i++) {
+			if (loadBalance.select() == busy) {
+				busyCount++;
+			}
+		}
+
+		// 理想占比约 0.64 / 1.64 ≈ 39%
+		double share = busyCount / (double) times;
+		assertTrue(share < 0.42, "busy share: " + share);
+		assertTrue(share > 0.36, "busy share: " + share);
+	}
+
+	private static class Server implements Weightable {
+		private final float weightRatio;
+
+		Server(float weightRatio) {
+			this.weightRatio = weightRatio;
+		}
+
+		@Override
+		public int weight() {
+			return 100;
+		}
+
+		@Override
+		public float weightRatio() {
+			return weightRatio;
+		}
+	}
+
+}
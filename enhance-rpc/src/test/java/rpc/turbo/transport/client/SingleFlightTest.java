@@ -0,0 +1,137 @@
+package rpc.turbo.transport.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import rpc.turbo.param.EmptyMethodParam;
+import rpc.turbo.param.KeyMethodParam;
+
+public class SingleFlightTest {
+
+	@Test
+	public void collapseConcurrentRequests() throws Exception {
+		SingleFlight singleFlight = new SingleFlight("test");
+		AtomicInteger remoteCount = new AtomicInteger();
+		CompletableFuture<Object> remote = new CompletableFuture<>();
+
+		int threads = 16;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		List<Future<CompletableFuture<?>>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return singleFlight.execute(new KeyMethodParam("a"), param -> {
+						remoteCount.incrementAndGet();
+						return remote;
+					});
+				}));
+			}
+
+			start.countDown();
+
+			CompletableFuture<?> first = results.get(0).get();
+			for (Future<CompletableFuture<?>> result : results) {
+				assertSame(first, result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, remoteCount.get());
+		assertEquals(1, singleFlight.getInflight());
+		assertEquals(threads, singleFlight.getRequestCount());
+		assertEquals(threads - 1, singleFlight.getCollapsedCount());
+
+		remote.complete("value");
+
+		for (Future<CompletableFuture<?>> result : results) {
+			assertEquals("value", result.get().join());
+		}
+
+		assertEquals(0, singleFlight.getInflight());
+	}
+
+	@Test
+	public void reissueAfterComplete() {
+		SingleFlight singleFlight = new SingleFlight("test");
+		AtomicInteger remoteCount = new AtomicInteger();
+
+		CompletableFuture<?> first = singleFlight.execute(new KeyMethodParam("a"), param -> {
+			remoteCount.incrementAndGet();
+			return CompletableFuture.completedFuture("v" + remoteCount.get());
+		});
+
+		CompletableFuture<?> second = singleFlight.execute(new KeyMethodParam("a"), param -> {
+			remoteCount.incrementAndGet();
+			return CompletableFuture.completedFuture("v" + remoteCount.get());
+		});
+
+		assertNotSame(first, second);
+		assertEquals("v1", first.join());
+		assertEquals("v2", second.join());
+		assertEquals(0, singleFlight.getCollapsedCount());
+	}
+
+	@Test
+	public void differentKeysNotCollapsed() {
+		SingleFlight singleFlight = new SingleFlight("test");
+		CompletableFuture<Object> remote = new CompletableFuture<>();
+
+		CompletableFuture<?> a = singleFlight.execute(new KeyMethodParam("a"), param -> remote);
+		CompletableFuture<?> b = singleFlight.execute(new KeyMethodParam("b"), param -> remote);
+
+		assertNotSame(a, b);
+		assertEquals(2, singleFlight.getInflight());
+
+		// 无参方法共享同一个key
+		CompletableFuture<?> empty0 = singleFlight.execute(new EmptyMethodParam(), param -> remote);
+		CompletableFuture<?> empty1 = singleFlight.execute(null, param -> remote);
+
+		assertSame(empty0, empty1);
+		assertEquals(3, singleFlight.getInflight());
+	}
+
+	@Test
+	public void shareException() {
+		SingleFlight singleFlight = new SingleFlight("test");
+		CompletableFuture<Object> remote = new CompletableFuture<>();
+
+		CompletableFuture<?> first = singleFlight.execute(new KeyMethodParam("a"), param -> remote);
+		CompletableFuture<?> second = singleFlight.execute(new KeyMethodParam("a"), param -> remote);
+
+		remote.completeExceptionally(new IllegalStateException("error"));
+
+		CompletionException e0 = assertThrows(CompletionException.class, first::join);
+		CompletionException e1 = assertThrows(CompletionException.class, second::join);
+
+		assertTrue(e0.getCause() instanceof IllegalStateException);
+		assertSame(e0.getCause(), e1.getCause());
+		assertEquals(0, singleFlight.getInflight());
+
+		CompletableFuture<?> thrown = singleFlight.execute(new KeyMethodParam("a"), param -> {
+			throw new IllegalStateException();
+		});
+
+		assertTrue(thrown.isCompletedExceptionally());
+		assertEquals(0, singleFlight.getInflight());
+	}
+
+}
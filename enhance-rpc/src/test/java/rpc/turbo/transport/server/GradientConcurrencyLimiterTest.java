@@ -0,0 +1,91 @@
+package rpc.turbo.transport.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class GradientConcurrencyLimiterTest {
+
+	private static final long RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void growToMaxWhenRttIsSteady() {
+		GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 5, 200);
+
+		int previous = limiter.getLimit();
+		for (int i = 0; i < 10_000; i++) {
+			limiter.onSample(RTT, limiter.getLimit());
+
+			int limit = limiter.getLimit();
+			assertTrue(limit >= previous, "limit should not shrink when rtt is steady");
+			previous = limit;
+		}
+
+		assertEquals(200, limiter.getLimit());
+	}
+
+	@Test
+	public void shrinkWhenRttRises() {
+		GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(200, 5, 200);
+
+		for (int i = 0; i < 1000; i++) {
+			limiter.onSample(RTT, limiter.getLimit());
+		}
+
+		assertEquals(200, limiter.getLimit());
+
+		// 开始排队，耗时上升到10倍，很快收缩到下限
+		for (int i = 0; i < 50; i++) {
+			limiter.onSample(RTT * 10, limiter.getLimit());
+		}
+
+		assertTrue(limiter.getLimit() < 50, "limit: " + limiter.getLimit());
+
+		for (int i = 0; i < 100; i++) {
+			limiter.onSample(RTT * 10, limiter.getLimit());
+		}
+
+		assertEquals(5, limiter.getLimit());
+
+		// 长期耗时追上之后视为新的基线，重新放大
+		for (int i = 0; i < 10_000; i++) {
+			limiter.onSample(RTT * 10, limiter.getLimit());
+		}
+
+		assertEquals(200, limiter.getLimit());
+	}
+
+	@Test
+	public void notAdjustWhenInflightIsLow() {
+		GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(100, 5, 200);
+
+		for (int i = 0; i < 1000; i++) {
+			limiter.onSample(RTT, 10);
+		}
+
+		assertEquals(100, limiter.getLimit());
+
+		for (int i = 0; i < 1000; i++) {
+			limiter.onSample(RTT * 10, 10);
+		}
+
+		assertEquals(100, limiter.getLimit());
+	}
+
+	@Test
+	public void initialLimitIsClamped() {
+		assertEquals(5, new GradientConcurrencyLimiter(1, 5, 200).getLimit());
+		assertEquals(200, new GradientConcurrencyLimiter(1000, 5, 200).getLimit());
+	}
+
+	@Test
+	public void illegalArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimiter(10, 0, 100));
+		assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimiter(10, 20, 10));
+	}
+
+}
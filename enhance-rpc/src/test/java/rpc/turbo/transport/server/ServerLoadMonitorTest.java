@@ -0,0 +1,68 @@
+package rpc.turbo.transport.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+import rpc.turbo.common.TurboConnectService;
+import rpc.turbo.protocol.ServerLoad;
+
+public class ServerLoadMonitorTest {
+
+	private static final int SERVICE_ID = TurboConnectService.SERVICE_CLASS_ID_REGISTER + 1;
+
+	@Test
+	public void rejectOverLimit() {
+		ServerLoadMonitor monitor = new ServerLoadMonitor(new GradientConcurrencyLimiter(5, 5, 10));
+
+		long[] starts = new long[5];
+		for (int i = 0; i < starts.length; i++) {
+			starts[i] = monitor.tryBegin(SERVICE_ID);
+			assertNotEquals(ServerLoadMonitor.REJECTED, starts[i]);
+		}
+
+		assertEquals(ServerLoadMonitor.REJECTED, monitor.tryBegin(SERVICE_ID));
+		assertEquals(1, monitor.rejectedCount());
+		assertEquals(5, ServerLoad.inflight(monitor.current(0)));
+
+		// 心跳、注册信息等内部服务不受限制
+		long internal = monitor.tryBegin(TurboConnectService.SERVICE_CLASS_ID_REGISTER);
+		assertNotEquals(ServerLoadMonitor.REJECTED, internal);
+		monitor.end(internal, 0);
+
+		monitor.end(starts[0], 0);
+		assertNotEquals(ServerLoadMonitor.REJECTED, monitor.tryBegin(SERVICE_ID));
+	}
+
+	@Test
+	public void serversAreIsolated() {
+		// 同一进程中的两个服务器，一个满载不影响另一个
+		ServerLoadMonitor busy = new ServerLoadMonitor(new GradientConcurrencyLimiter(5, 5, 10));
+		ServerLoadMonitor idle = new ServerLoadMonitor(new GradientConcurrencyLimiter(5, 5, 10));
+
+		for (int i = 0; i < 5; i++) {
+			busy.tryBegin(SERVICE_ID);
+		}
+
+		assertEquals(ServerLoadMonitor.REJECTED, busy.tryBegin(SERVICE_ID));
+		assertNotEquals(ServerLoadMonitor.REJECTED, idle.tryBegin(SERVICE_ID));
+
+		assertEquals(1, busy.rejectedCount());
+		assertEquals(0, idle.rejectedCount());
+		assertEquals(5, ServerLoad.inflight(busy.current(0)));
+		assertEquals(1, ServerLoad.inflight(idle.current(0)));
+	}
+
+	@Test
+	public void unlimited() {
+		ServerLoadMonitor monitor = new ServerLoadMonitor();
+
+		for (int i = 0; i < 10_000; i++) {
+			assertNotEquals(ServerLoadMonitor.REJECTED, monitor.tryBegin(SERVICE_ID));
+		}
+
+		assertEquals(0, monitor.rejectedCount());
+	}
+
+}
@@ -0,0 +1,169 @@
+package rpc.turbo.transport.shm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class ShmRingBufferTest {
+
+	private static final int CAPACITY = 256;
+
+	private static ShmRingBuffer newRing() {
+		ByteBuffer mapped = ByteBuffer.allocateDirect(16 + CAPACITY);
+		return new ShmRingBuffer(mapped, 0, 8, 16, CAPACITY);
+	}
+
+	private static ByteBuf frame(String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+		ByteBuf frame = Unpooled.buffer(4 + bytes.length);
+		frame.writeInt(bytes.length);
+		frame.writeBytes(bytes);
+
+		return frame;
+	}
+
+	private static String readOne(ShmRingBuffer ring) throws IOException {
+		List<String> frames = new ArrayList<>(1);
+
+		boolean hasFrame = ring.read(frame -> frames.add(frame.toString(StandardCharsets.UTF_8)));
+
+		return hasFrame ? frames.get(0) : null;
+	}
+
+	private static String content(int i) {
+		// 长度在1到60之间变化，保证帧在缓冲区尾部的各个位置发生回绕
+		StringBuilder builder = new StringBuilder();
+		builder.append(i).append(':');
+
+		for (int j = 0; j < i % 53; j++) {
+			builder.append((char) ('a' + j % 26));
+		}
+
+		return builder.toString();
+	}
+
+	@Test
+	public void wrapAround() throws IOException {
+		ShmRingBuffer ring = newRing();
+
+		for (int i = 0; i < 10_000; i++) {
+			String content = content(i);
+
+			assertTrue(ring.write(frame(content)));
+			assertEquals(content, readOne(ring));
+		}
+
+		assertEquals(null, readOne(ring));
+	}
+
+	@Test
+	public void wrapAroundWithBacklog() throws IOException {
+		ShmRingBuffer ring = newRing();
+
+		int written = 0;
+		int read = 0;
+
+		while (read < 10_000) {
+			// 写满为止，再读出一部分，让读写位置在缓冲区中错开
+			while (ring.write(frame(content(written)))) {
+				written++;
+			}
+
+			for (int i = 0; i < 3 && read < written; i++) {
+				assertEquals(content(read), readOne(ring));
+				read++;
+			}
+		}
+
+		while (read < written) {
+			assertEquals(content(read), readOne(ring));
+			read++;
+		}
+
+		assertEquals(null, readOne(ring));
+	}
+
+	@Test
+	public void fullReturnFalse() throws IOException {
+		ShmRingBuffer ring = newRing();
+
+		// 每帧4 + 28 = 32字节，正好8帧写满
+		String content = "0123456789012345678901234567";
+
+		for (int i = 0; i < CAPACITY / 32; i++) {
+			assertTrue(ring.write(frame(content)));
+		}
+
+		assertFalse(ring.write(frame("x")));
+
+		assertEquals(content, readOne(ring));
+		assertTrue(ring.write(frame(content)));
+		assertFalse(ring.write(frame("x")));
+	}
+
+	@Test
+	public void tooLargeFrame() {
+		ShmRingBuffer ring = newRing();
+
+		assertThrows(IOException.class, () -> ring.write(frame(new String(new char[CAPACITY]))));
+	}
+
+	@Test
+	public void concurrentProducerConsumer() throws Exception {
+		ShmRingBuffer ring = newRing();
+		int count = 20_000;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+
+		// 空闲时让出cpu，单核机器上忙等的两个线程会互相饿死
+		Thread producer = new Thread(() -> {
+			try {
+				for (int i = 0; i < count && System.nanoTime() < deadline; i++) {
+					ByteBuf frame = frame(content(i));
+
+					while (!ring.write(frame) && System.nanoTime() < deadline) {
+						Thread.yield();
+					}
+				}
+			} catch (Throwable t) {
+				error.set(t);
+			}
+		});
+
+		producer.start();
+
+		int[] read = { 0 };
+
+		while (read[0] < count && error.get() == null && System.nanoTime() < deadline) {
+			boolean hasFrame = ring.read(frame -> {
+				assertEquals(content(read[0]), frame.toString(StandardCharsets.UTF_8));
+				read[0]++;
+			});
+
+			if (!hasFrame) {
+				Thread.yield();
+			}
+		}
+
+		producer.join();
+
+		assertEquals(null, error.get());
+		assertEquals(count, read[0]);
+	}
+
+}
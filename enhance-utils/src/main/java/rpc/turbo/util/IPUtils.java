@@ -1,7 +1,18 @@
 package rpc.turbo.util;
 
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class IPUtils {
 
+	/** host -> 是否为本机地址，只缓存解析成功的结果 */
+	private static final ConcurrentHashMap<String, Boolean> localHostCache = new ConcurrentHashMap<>();
+
 	/**
 	 * 
 	 * @param ip
@@ -75,4 +86,65 @@ public class IPUtils {
 		}
 	}
 
+	/**
+	 * 是否为本机地址，包括loopback、0.0.0.0以及本机网卡上的地址，本机网卡地址只在第一次调用时获取，每个host只解析一次
+	 * 
+	 * @param host
+	 *            ip或者域名
+	 * @return 无法解析时返回false
+	 */
+	public static final boolean isLocalAddress(final String host) {
+		if (host == null || host.isEmpty()) {
+			return false;
+		}
+
+		Boolean local = localHostCache.get(host);
+		if (local != null) {
+			return local;
+		}
+
+		if ("localhost".equalsIgnoreCase(host)) {
+			local = true;
+		} else {
+			InetAddress address;
+			try {
+				address = InetAddress.getByName(host);
+			} catch (Exception e) {
+				return false;// 解析失败可能是临时的，不缓存
+			}
+
+			local = address.isLoopbackAddress() //
+					|| address.isAnyLocalAddress() //
+					|| LocalAddressHolder.addresses.contains(address);
+		}
+
+		localHostCache.put(host, local);
+
+		return local;
+	}
+
+	private static final class LocalAddressHolder {
+		private static final Set<InetAddress> addresses = loadLocalAddresses();
+
+		private static Set<InetAddress> loadLocalAddresses() {
+			Set<InetAddress> addresses = new HashSet<>();
+
+			try {
+				Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+
+				while (interfaces != null && interfaces.hasMoreElements()) {
+					Enumeration<InetAddress> inetAddresses = interfaces.nextElement().getInetAddresses();
+
+					while (inetAddresses.hasMoreElements()) {
+						addresses.add(inetAddresses.nextElement());
+					}
+				}
+			} catch (Exception e) {
+				// 获取不到网卡信息时只识别loopback和0.0.0.0
+			}
+
+			return Collections.unmodifiableSet(addresses);
+		}
+	}
+
 }